@@ -11,6 +11,7 @@ import com.hanyans.gachacounter.core.Version;
 import com.hanyans.gachacounter.core.util.FileUtil;
 import com.hanyans.gachacounter.gui.CounterPanel;
 import com.hanyans.gachacounter.logic.LogicManager;
+import com.hanyans.gachacounter.mhy.pacer.PacerRegistry;
 import com.hanyans.gachacounter.model.preference.UserPreference;
 import com.hanyans.gachacounter.storage.LoadReport;
 import com.hanyans.gachacounter.storage.StorageManager;
@@ -45,7 +46,9 @@ public class MainApp extends Application {
 
         setLogLevel(preference.getLogLevel());
 
-        logic = new LogicManager(VERSION, storage, preference);
+        LoadReport<PacerRegistry> pacerLoadReport = storage.loadPacerRegistry();
+
+        logic = new LogicManager(VERSION, storage, preference, pacerLoadReport.data);
 
         CounterPanel panel = new CounterPanel(logic, mainStage);
         mainStage.setScene(new Scene(panel.getRoot()));
@@ -58,6 +61,7 @@ public class MainApp extends Application {
             logic.checkForAppUpdates(false);
         }
         logic.handleIoError(prefLoadReport.exList, "Error while loading preference");
+        logic.handleIoError(pacerLoadReport.exList, "Error while loading request pacing");
     }
 
 
@@ -1,5 +1,6 @@
 package com.hanyans.gachacounter.core;
 
+import java.util.Objects;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
@@ -51,6 +52,27 @@ public class LockedValue<T> {
     }
 
 
+    /**
+     * Sets the value as specified if it is not equal to the current value.
+     *
+     * @param value - value to set to.
+     * @return {@code true} if the value is changed and {@code false}
+     *      otherwise.
+     */
+    public boolean update(T value) {
+        try {
+            lock.writeLock().lock();
+            if (Objects.equals(this.value, value)) {
+                return false;
+            }
+            this.value = value;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
     /**
      * Returns the current value.
      */
@@ -0,0 +1,177 @@
+package com.hanyans.gachacounter.core;
+
+import java.util.Objects;
+import java.util.function.LongFunction;
+
+
+/**
+ * A map of primitive {@code long} keys, such as UIDs, to non-null values.
+ *
+ * <p>Keys are kept in an open addressing table with linear probing, so
+ * looking up and putting mappings of existing keys neither boxes the key nor
+ * allocates. The table is never more than half full and doubles in size when
+ * it would be. Mappings cannot be removed.
+ *
+ * @param <V> the type of the mapped values.
+ */
+public class LongObjectMap<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int size = 0;
+
+
+    /**
+     * Constructs an empty {@code LongObjectMap}.
+     */
+    public LongObjectMap() {
+        keys = new long[DEFAULT_CAPACITY];
+        values = new Object[DEFAULT_CAPACITY];
+    }
+
+
+    /**
+     * Returns the value mapped to the given key, {@code null} if the key is
+     * not mapped.
+     *
+     * @param key - the key whose value to return.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        return (V) values[indexOf(key)];
+    }
+
+
+    /**
+     * Returns the value mapped to the given key, the default value if the key
+     * is not mapped.
+     *
+     * @param key - the key whose value to return.
+     * @param defaultValue - the value to return if the key is not mapped.
+     */
+    public V getOrDefault(long key, V defaultValue) {
+        V value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+
+    /**
+     * Returns {@code true} if the given key is mapped and {@code false}
+     * otherwise.
+     *
+     * @param key - the key to check.
+     */
+    public boolean containsKey(long key) {
+        return values[indexOf(key)] != null;
+    }
+
+
+    /**
+     * Maps the given key to the given value.
+     *
+     * @param key - the key to map.
+     * @param value - the value to map the key to.
+     * @return the value previously mapped to the key, {@code null} if there
+     *      was none.
+     * @throws NullPointerException if {@code value} is {@code null}.
+     */
+    public V put(long key, V value) {
+        Objects.requireNonNull(value);
+        int index = indexOf(key);
+        @SuppressWarnings("unchecked")
+        V previous = (V) values[index];
+        if (previous == null) {
+            index = insertAt(index, key);
+        }
+        values[index] = value;
+        return previous;
+    }
+
+
+    /**
+     * Returns the value mapped to the given key, mapping the key to the value
+     * computed by the given function first if the key is not mapped.
+     *
+     * @param key - the key whose value to return.
+     * @param mappingFunction - the function computing the value of an
+     *      unmapped key.
+     * @throws NullPointerException if the function computes {@code null}.
+     */
+    public V computeIfAbsent(long key, LongFunction<? extends V> mappingFunction) {
+        int index = indexOf(key);
+        @SuppressWarnings("unchecked")
+        V value = (V) values[index];
+        if (value == null) {
+            value = Objects.requireNonNull(mappingFunction.apply(key));
+            values[insertAt(index, key)] = value;
+        }
+        return value;
+    }
+
+
+    /**
+     * Returns the number of mapped keys.
+     */
+    public int size() {
+        return size;
+    }
+
+
+    /**
+     * Returns {@code true} if no key is mapped and {@code false} otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+
+    /**
+     * Returns the index of the given key in the table, or of the free slot
+     * where it would be inserted if it is not mapped.
+     */
+    private int indexOf(long key) {
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (values[index] != null && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+
+    /**
+     * Claims the free slot of the given index for the given key, growing the
+     * table if needed, and returns the index of the key.
+     */
+    private int insertAt(int index, long key) {
+        if (++size * 2 > keys.length) {
+            grow();
+            index = indexOf(key);
+        }
+        keys[index] = key;
+        return index;
+    }
+
+
+    private void grow() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int index = indexOf(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+
+    private static int hash(long key) {
+        // spread the bits as UIDs tend to differ in their low digits only
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -0,0 +1,201 @@
+package com.hanyans.gachacounter.core;
+
+import java.util.Arrays;
+
+
+/**
+ * A histogram of pity counts, keeping track of how often each pity count
+ * occurred.
+ *
+ * <p>Pity counts are small non-negative numbers bounded by the maximum pity
+ * of a banner, so the frequencies are kept in an {@code int} array indexed by
+ * the pity count instead of a map. The array grows when a pity count beyond
+ * it is added, thus adding, merging and condensing does not box any value and
+ * only allocates when the array grows or a new histogram is returned.
+ */
+public class PityHistogram {
+    private static final int DEFAULT_CAPACITY = Constants.MAX_PITY_5_NORM + 1;
+
+    private int[] freqs;
+
+
+    /**
+     * Constructs an empty {@code PityHistogram}.
+     */
+    public PityHistogram() {
+        this(DEFAULT_CAPACITY - 1);
+    }
+
+
+    /**
+     * Constructs an empty {@code PityHistogram} with room for pity counts up
+     * to the given maximum pity without growing.
+     *
+     * @param maxPity - the largest pity count expected.
+     * @throws IllegalArgumentException if {@code maxPity} is negative.
+     */
+    public PityHistogram(int maxPity) {
+        if (maxPity < 0) {
+            throw new IllegalArgumentException(String.format("Negative max pity %d", maxPity));
+        }
+        freqs = new int[maxPity + 1];
+    }
+
+
+    /**
+     * Constructs a {@code PityHistogram} with the same frequencies as the
+     * given histogram.
+     *
+     * @param histogram - the histogram to copy.
+     */
+    public PityHistogram(PityHistogram histogram) {
+        freqs = histogram.freqs.clone();
+    }
+
+
+    /**
+     * Increments the frequency of the specified pity count by 1.
+     *
+     * @param pity - the pity count whose frequency to increment.
+     * @return the new frequency of the pity count.
+     * @throws IllegalArgumentException if {@code pity} is negative.
+     */
+    public int add(int pity) {
+        return add(pity, 1);
+    }
+
+
+    /**
+     * Increments the frequency of the specified pity count by the specified
+     * value. Negative values reduce the frequency instead.
+     *
+     * @param pity - the pity count whose frequency to increment.
+     * @param value - the value to increment by.
+     * @return the new frequency of the pity count.
+     * @throws IllegalArgumentException if {@code pity} is negative.
+     */
+    public int add(int pity, int value) {
+        if (pity < 0) {
+            throw new IllegalArgumentException(String.format("Negative pity %d", pity));
+        }
+        ensureCapacity(pity);
+        return freqs[pity] += value;
+    }
+
+
+    /**
+     * Adds the frequencies of the given histogram to this. The state of this
+     * histogram is changed in the process. Use {@link #merge(PityHistogram)}
+     * if a state change is not desired.
+     *
+     * @param histogram - the histogram whose frequencies to add to this.
+     */
+    public void addAll(PityHistogram histogram) {
+        int[] other = histogram.freqs;
+        ensureCapacity(other.length - 1);
+        for (int pity = 0; pity < other.length; pity++) {
+            freqs[pity] += other[pity];
+        }
+    }
+
+
+    /**
+     * Adds the frequencies of the given histogram to this, condensed by the
+     * given factor. Each pity count is counted towards the nearest multiple of
+     * the factor that is not smaller than it, with pity counts below the
+     * factor counted towards the factor itself.
+     *
+     * @param histogram - the histogram whose frequencies to add to this.
+     * @param factor - the factor to condense by.
+     * @throws IllegalArgumentException if {@code factor} is not positive.
+     */
+    public void addAllCondensed(PityHistogram histogram, int factor) {
+        if (factor < 1) {
+            throw new IllegalArgumentException(String.format("Non-positive factor %d", factor));
+        }
+        int[] other = histogram.freqs;
+        ensureCapacity(condense(other.length - 1, factor));
+        for (int pity = 0; pity < other.length; pity++) {
+            freqs[condense(pity, factor)] += other[pity];
+        }
+    }
+
+
+    /**
+     * Returns the frequency of the specified pity count, 0 if the pity count
+     * has not been added.
+     *
+     * @param pity - the pity count whose frequency to return.
+     */
+    public int get(int pity) {
+        return pity >= 0 && pity < freqs.length ? freqs[pity] : 0;
+    }
+
+
+    /**
+     * Returns the sum of all frequencies.
+     */
+    public int totalFreq() {
+        int sum = 0;
+        for (int freq : freqs) {
+            sum += freq;
+        }
+        return sum;
+    }
+
+
+    /**
+     * Returns the largest frequency, 0 if the histogram is empty.
+     */
+    public int largestFreq() {
+        int max = 0;
+        for (int freq : freqs) {
+            max = Math.max(freq, max);
+        }
+        return max;
+    }
+
+
+    /**
+     * Adds the frequencies of the given histogram to this. Unlike
+     * {@link #addAll(PityHistogram)}, the state of this histogram is not
+     * changed. Instead, a new histogram representing the result is returned.
+     *
+     * @param histogram - the histogram whose frequencies to add to this.
+     */
+    public PityHistogram merge(PityHistogram histogram) {
+        PityHistogram result = new PityHistogram(this);
+        result.addAll(histogram);
+        return result;
+    }
+
+
+    /**
+     * Returns a new histogram of the frequencies of this histogram condensed
+     * by the given factor. See {@link #addAllCondensed(PityHistogram, int)}.
+     *
+     * @param factor - the factor to condense by.
+     * @throws IllegalArgumentException if {@code factor} is not positive.
+     */
+    public PityHistogram condense(int factor) {
+        PityHistogram result = new PityHistogram(0);
+        result.addAllCondensed(this, factor);
+        return result;
+    }
+
+
+    private void ensureCapacity(int pity) {
+        if (pity >= freqs.length) {
+            freqs = Arrays.copyOf(freqs, Math.max(pity + 1, freqs.length * 2));
+        }
+    }
+
+
+    private static int condense(int pity, int factor) {
+        int value = pity / factor;
+        if (pity % factor != 0 || value < 1) {
+            value++;
+        }
+        return value * factor;
+    }
+}
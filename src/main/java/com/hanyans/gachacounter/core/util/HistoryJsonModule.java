@@ -0,0 +1,392 @@
+package com.hanyans.gachacounter.core.util;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.hanyans.gachacounter.mhy.GachaType;
+import com.hanyans.gachacounter.mhy.ItemType;
+import com.hanyans.gachacounter.model.BannerHistory;
+import com.hanyans.gachacounter.model.GachaEntry;
+
+
+/**
+ * Jackson module of hand-written streaming serializers and deserializers of
+ * {@link BannerHistory} and {@link GachaEntry}.
+ *
+ * <p>They read and write the same JSON as the reflective serialization of the
+ * classes, but skip the reflective access and the general purpose date time
+ * handling of every entry. Times in the usual
+ * {@code yyyy-MM-ddTHH:mm:ss[.fraction]} form are parsed by position, anything
+ * else is handed to the deserializer of {@code LocalDateTime} as before.
+ */
+class HistoryJsonModule extends SimpleModule {
+    private static final String GACHA_TYPE_FIELD = "gachaType";
+    private static final String ENTRY_SET_FIELD = "entrySet";
+
+    private static final HashMap<String, GachaType> GACHA_TYPES = new HashMap<>();
+    private static final HashMap<String, ItemType> ITEM_TYPES = new HashMap<>();
+
+    static {
+        for (GachaType gachaType : GachaType.values()) {
+            GACHA_TYPES.put(gachaType.name(), gachaType);
+        }
+        for (ItemType itemType : ItemType.values()) {
+            ITEM_TYPES.put(itemType.name(), itemType);
+        }
+    }
+
+
+    HistoryJsonModule() {
+        super("History Module");
+        GachaEntryDeserializer entryDeserializer = new GachaEntryDeserializer();
+        addSerializer(BannerHistory.class, new BannerHistorySerializer());
+        addDeserializer(BannerHistory.class, new BannerHistoryDeserializer(entryDeserializer));
+        addSerializer(GachaEntry.class, new GachaEntrySerializer());
+        addDeserializer(GachaEntry.class, entryDeserializer);
+    }
+
+
+    /**
+     * Formats the given time as {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME}
+     * does.
+     */
+    static String formatTime(LocalDateTime time) {
+        int year = time.getYear();
+        if (year < 0 || year > 9999) {
+            return DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(time);
+        }
+        StringBuilder builder = new StringBuilder(29);
+        appendDigits(builder, year, 4);
+        builder.append('-');
+        appendDigits(builder, time.getMonthValue(), 2);
+        builder.append('-');
+        appendDigits(builder, time.getDayOfMonth(), 2);
+        builder.append('T');
+        appendDigits(builder, time.getHour(), 2);
+        builder.append(':');
+        appendDigits(builder, time.getMinute(), 2);
+        builder.append(':');
+        appendDigits(builder, time.getSecond(), 2);
+        int nano = time.getNano();
+        if (nano != 0) {
+            int numDigits = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                numDigits--;
+            }
+            builder.append('.');
+            appendDigits(builder, nano, numDigits);
+        }
+        return builder.toString();
+    }
+
+
+    /**
+     * Parses the given time of the {@code yyyy-MM-ddTHH:mm:ss[.fraction]}
+     * form. Returns {@code null} if the time is not of the form or is not a
+     * valid time.
+     */
+    static LocalDateTime parseTime(String text) {
+        int length = text.length();
+        if (length < 19 || length == 20 || length > 29
+                || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T'
+                || text.charAt(13) != ':' || text.charAt(16) != ':'
+                || (length > 19 && text.charAt(19) != '.')) {
+            return null;
+        }
+        int year = parseDigits(text, 0, 4);
+        int month = parseDigits(text, 5, 7);
+        int day = parseDigits(text, 8, 10);
+        int hour = parseDigits(text, 11, 13);
+        int minute = parseDigits(text, 14, 16);
+        int second = parseDigits(text, 17, 19);
+        int nano = 0;
+        if (length > 19) {
+            nano = parseDigits(text, 20, length);
+            for (int i = length; i < 29; i++) {
+                nano *= 10;
+            }
+        }
+        if ((year | month | day | hour | minute | second | nano) < 0) {
+            return null;
+        }
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+        } catch (DateTimeException dtEx) {
+            return null;
+        }
+    }
+
+
+    /**
+     * Moves the parser past the start of the object it is at and returns the
+     * token of its first field.
+     */
+    private static JsonToken startObject(JsonParser p, DeserializationContext ctxt, StdDeserializer<?> deserializer)
+                throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            return p.nextToken();
+        }
+        if (token == JsonToken.FIELD_NAME || token == JsonToken.END_OBJECT) {
+            return token;
+        }
+        ctxt.handleUnexpectedToken(deserializer.handledType(), p);
+        return token;
+    }
+
+
+    private static <E extends Enum<E>> E readEnum(JsonParser p, DeserializationContext ctxt, Class<E> enumType,
+                HashMap<String, E> constants) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (p.currentToken() == JsonToken.VALUE_STRING) {
+            E constant = constants.get(p.getText());
+            if (constant != null) {
+                return constant;
+            }
+        }
+        return ctxt.readValue(p, enumType);
+    }
+
+
+    private static void appendDigits(StringBuilder builder, int value, int numDigits) {
+        for (int divisor = pow10(numDigits - 1); divisor > 0; divisor /= 10) {
+            builder.append((char) ('0' + value / divisor % 10));
+        }
+    }
+
+
+    private static int pow10(int exponent) {
+        int value = 1;
+        for (int i = 0; i < exponent; i++) {
+            value *= 10;
+        }
+        return value;
+    }
+
+
+    /**
+     * Returns the value of the decimal digits in the given range of the text
+     * or {@code -1} if any character in the range is not a digit.
+     */
+    private static int parseDigits(String text, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char ch = text.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return -1;
+            }
+            value = value * 10 + (ch - '0');
+        }
+        return value;
+    }
+
+
+
+
+
+    private static class BannerHistorySerializer extends StdSerializer<BannerHistory> {
+        private final GachaEntrySerializer entrySerializer = new GachaEntrySerializer();
+
+
+        private BannerHistorySerializer() {
+            super(BannerHistory.class);
+        }
+
+
+        @Override
+        public void serialize(BannerHistory history, JsonGenerator gen, SerializerProvider provider)
+                    throws IOException {
+            gen.writeStartObject();
+            GachaType gachaType = history.getGachaType();
+            gen.writeStringField(GACHA_TYPE_FIELD, gachaType == null ? null : gachaType.name());
+            gen.writeArrayFieldStart(ENTRY_SET_FIELD);
+            for (GachaEntry entry : history.getEntrySet()) {
+                entrySerializer.serialize(entry, gen, provider);
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+
+
+
+
+
+    private static class BannerHistoryDeserializer extends StdDeserializer<BannerHistory> {
+        private final GachaEntryDeserializer entryDeserializer;
+
+
+        private BannerHistoryDeserializer(GachaEntryDeserializer entryDeserializer) {
+            super(BannerHistory.class);
+            this.entryDeserializer = entryDeserializer;
+        }
+
+
+        @Override
+        public BannerHistory deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            GachaType gachaType = null;
+            ArrayList<GachaEntry> entries = new ArrayList<>();
+            for (JsonToken token = startObject(p, ctxt, this); token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+                String field = p.currentName();
+                JsonToken valueToken = p.nextToken();
+                switch (field) {
+                    case GACHA_TYPE_FIELD:
+                        gachaType = readEnum(p, ctxt, GachaType.class, GACHA_TYPES);
+                        break;
+                    case ENTRY_SET_FIELD:
+                        if (valueToken == JsonToken.VALUE_NULL) {
+                            break;
+                        }
+                        if (valueToken != JsonToken.START_ARRAY) {
+                            return (BannerHistory) ctxt.handleUnexpectedToken(BannerHistory.class, p);
+                        }
+                        while (p.nextToken() != JsonToken.END_ARRAY) {
+                            entries.add(entryDeserializer.deserialize(p, ctxt));
+                        }
+                        break;
+                    default:
+                        p.skipChildren();
+                }
+            }
+            return new BannerHistory(gachaType, entries);
+        }
+    }
+
+
+
+
+
+    private static class GachaEntrySerializer extends StdSerializer<GachaEntry> {
+        private GachaEntrySerializer() {
+            super(GachaEntry.class);
+        }
+
+
+        @Override
+        public void serialize(GachaEntry entry, JsonGenerator gen, SerializerProvider provider)
+                    throws IOException {
+            gen.writeStartObject();
+            gen.writeNumberField("uid", entry.uid);
+            gen.writeNumberField("gachaId", entry.gachaId);
+            gen.writeStringField("gachaType", entry.gachaType.name());
+            gen.writeNumberField("itemId", entry.itemId);
+            gen.writeNumberField("count", entry.count);
+            gen.writeStringField("time", formatTime(entry.time));
+            gen.writeStringField("name", entry.name);
+            gen.writeStringField("itemType", entry.itemType.name());
+            gen.writeNumberField("rank", entry.rank);
+            gen.writeNumberField("id", entry.id);
+            gen.writeEndObject();
+        }
+    }
+
+
+
+
+
+    private static class GachaEntryDeserializer extends StdDeserializer<GachaEntry> {
+        private GachaEntryDeserializer() {
+            super(GachaEntry.class);
+        }
+
+
+        @Override
+        public GachaEntry deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            long uid = 0;
+            int gachaId = 0;
+            GachaType gachaType = null;
+            int itemId = 0;
+            int count = 0;
+            LocalDateTime time = null;
+            String name = null;
+            ItemType itemType = null;
+            int rank = 0;
+            long id = 0;
+
+            for (JsonToken token = startObject(p, ctxt, this); token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+                String field = p.currentName();
+                p.nextToken();
+                switch (field) {
+                    case "uid":
+                        uid = _parseLongPrimitive(p, ctxt);
+                        break;
+                    case "gachaId":
+                        gachaId = _parseIntPrimitive(p, ctxt);
+                        break;
+                    case "gachaType":
+                        gachaType = readEnum(p, ctxt, GachaType.class, GACHA_TYPES);
+                        break;
+                    case "itemId":
+                        itemId = _parseIntPrimitive(p, ctxt);
+                        break;
+                    case "count":
+                        count = _parseIntPrimitive(p, ctxt);
+                        break;
+                    case "time":
+                        time = readTime(p, ctxt);
+                        break;
+                    case "name":
+                        name = readName(p, ctxt);
+                        break;
+                    case "itemType":
+                        itemType = readEnum(p, ctxt, ItemType.class, ITEM_TYPES);
+                        break;
+                    case "rank":
+                        rank = _parseIntPrimitive(p, ctxt);
+                        break;
+                    case "id":
+                        id = _parseLongPrimitive(p, ctxt);
+                        break;
+                    default:
+                        p.skipChildren();
+                }
+            }
+
+            if (gachaType == null || time == null || name == null || itemType == null) {
+                return (GachaEntry) ctxt.reportInputMismatch(this,
+                        "Gacha entry <%d> is missing its gacha type, time, name or item type", id);
+            }
+            return new GachaEntry(uid, gachaId, gachaType, itemId, count, time, name, itemType, rank, id);
+        }
+
+
+        private LocalDateTime readTime(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() == JsonToken.VALUE_NULL) {
+                return null;
+            }
+            if (p.currentToken() == JsonToken.VALUE_STRING) {
+                LocalDateTime time = parseTime(p.getText());
+                if (time != null) {
+                    return time;
+                }
+            }
+            return ctxt.readValue(p, LocalDateTime.class);
+        }
+
+
+        private String readName(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() == JsonToken.VALUE_NULL) {
+                return null;
+            }
+            if (p.currentToken() != JsonToken.VALUE_STRING) {
+                return ctxt.readValue(p, String.class);
+            }
+            return p.getText();
+        }
+    }
+}
@@ -31,6 +31,9 @@ import com.fasterxml.jackson.databind.module.SimpleModule;
 
 /**
  * Utility class for serializing and deserializing JSON contents.
+ *
+ * <p>Banner histories and gacha entries are (de)serialized by the streaming
+ * codecs of {@link HistoryJsonModule} rather than reflectively.
  */
 public class JsonUtil {
     private static final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
@@ -40,7 +43,8 @@ public class JsonUtil {
             .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
             .registerModule(new SimpleModule("Log Level Module")
                     .addSerializer(Level.class, new LogLevelSerializer())
-                    .addDeserializer(Level.class, new LogLevelDeserializer()));
+                    .addDeserializer(Level.class, new LogLevelDeserializer()))
+            .registerModule(new HistoryJsonModule());
 
 
     /**
@@ -108,6 +112,37 @@ public class JsonUtil {
     }
 
 
+    /**
+     * Deserializes the given UTF-8 encoded bytes of contents to an object
+     * instance of the specified class.
+     *
+     * @param <T> the type of the object instance to deserialize to.
+     * @param content - the content to deserialize.
+     * @param valueType - the class of the object instance to deserialize to.
+     * @return the object instance of the deserialized contents.
+     * @throws DatabindException if the structure of the JSON content does not
+     *      match the expected.
+     * @throws IOException if any other I/O errors occurs.
+     */
+    public static <T> T deserialize(byte[] content, Class<T> valueType)
+                throws DatabindException, IOException {
+        Objects.requireNonNull(content);
+        return objectMapper.readValue(content, valueType);
+    }
+
+
+    /**
+     * Serializes the given object instance to a String of compact JSON on a
+     * single line.
+     *
+     * @param instance - the object instance to serialize.
+     * @throws IOException if the instance cannot be serialized.
+     */
+    public static String serializeToString(Object instance) throws IOException {
+        return objectMapper.writeValueAsString(instance);
+    }
+
+
     /**
      * Serializes the given object instance to a file in the specified path in
      * JSON format.
@@ -125,6 +160,22 @@ public class JsonUtil {
     }
 
 
+    /**
+     * Serializes the given object instance to a file in the specified path in
+     * compact JSON without any whitespace.
+     *
+     * @param path - the path to the file to write to.
+     * @param instance - the object instance to serialize.
+     * @throws IOException if an I/O error occurs during the write process.
+     */
+    public static void serializeCompactToFile(Path path, Object instance) throws IOException {
+        Objects.requireNonNull(path, "Path is null");
+        try (BufferedWriter writer = FileUtil.getFileWriter(path)) {
+            objectMapper.writeValue(writer, instance);
+        }
+    }
+
+
 
 
 
@@ -12,6 +12,7 @@ import org.apache.logging.log4j.Logger;
 import com.hanyans.gachacounter.core.AppUpdateMessage;
 import com.hanyans.gachacounter.core.PopupMessage;
 import com.hanyans.gachacounter.core.util.FileUtil;
+import com.hanyans.gachacounter.gui.popup.BatchUpdateWindow;
 import com.hanyans.gachacounter.gui.popup.MessagePopupWindow;
 import com.hanyans.gachacounter.gui.popup.NameMappingMenuWindow;
 import com.hanyans.gachacounter.gui.popup.PreferenceMenuWindow;
@@ -139,6 +140,7 @@ public class CounterPanel extends UiComponent<VBox> {
         logic.setReportCompletionTask(formRenderTask());
         logic.setPopupMessageHandler(formErrorMessageHandler());
         logic.setAppUpdateMessageHandler(formAppUpdateMessageHandler());
+        logic.setWatchedUrlHandler(urlString -> Platform.runLater(() -> urlTextField.setText(urlString)));
         setLogicPropertyListener();
     }
 
@@ -421,6 +423,22 @@ public class CounterPanel extends UiComponent<VBox> {
     }
 
 
+    @FXML
+    private void handleBatchUpdate(ActionEvent event) {
+        logger.debug("-{HANDLE BATCH UPDATE}- action fired");
+        isFilterShowingProperty.set(false);
+        BatchUpdateWindow.displayAndWait(parentStage, logic);
+    }
+
+
+    @FXML
+    private void handleReplayCache(ActionEvent event) {
+        logger.debug("-{HANDLE REPLAY CACHE}- action fired");
+        isFilterShowingProperty.set(false);
+        logic.replayGachaHistory();
+    }
+
+
     @FXML
     private void handleCheckForUpdates(ActionEvent event) {
         logger.debug("-{HANDLE CHECK FOR UPDATES}- action fired");
@@ -0,0 +1,58 @@
+package com.hanyans.gachacounter.gui.popup;
+
+import java.util.List;
+
+import com.hanyans.gachacounter.MainApp;
+import com.hanyans.gachacounter.gui.UiComponent;
+import com.hanyans.gachacounter.logic.Logic;
+
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.scene.Scene;
+import javafx.scene.control.TextArea;
+import javafx.scene.layout.VBox;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+
+
+public class BatchUpdateWindow extends UiComponent<VBox> {
+    private static final String FXML_FILE = "BatchUpdatePanel.fxml";
+
+    private final Stage displayStage;
+    private final Logic logic;
+
+    @FXML private TextArea urlTextArea;
+
+
+    private BatchUpdateWindow(Stage displayStage, Logic logic) {
+        super(FXML_FILE);
+        this.displayStage = displayStage;
+        this.logic = logic;
+    }
+
+
+    public static void displayAndWait(Stage parentStage, Logic logic) {
+        Stage hostStage = new Stage();
+        hostStage.setScene(new Scene(new BatchUpdateWindow(hostStage, logic)
+                .getRoot()));
+        hostStage.initModality(Modality.WINDOW_MODAL);
+        hostStage.initOwner(parentStage);
+        hostStage.setTitle("Batch Update");
+        MainApp.setStageIcon(hostStage);
+        hostStage.showAndWait();
+    }
+
+
+    @FXML
+    private void handleCancel(ActionEvent event) {
+        displayStage.close();
+    }
+
+
+    @FXML
+    private void handleOk(ActionEvent event) {
+        displayStage.close();
+        // one player URL per line, blank lines are dropped by logic
+        logic.updateGachaHistories(List.of(urlTextArea.getText().split("\\R")));
+    }
+}
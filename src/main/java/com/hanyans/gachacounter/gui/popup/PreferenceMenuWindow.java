@@ -36,14 +36,20 @@ public class PreferenceMenuWindow extends UiComponent<VBox> {
             new FormInputBox("Frequency Step Factor");
     private final FormInputBox freqMaxCountInput =
             new FormInputBox("Frequency Marking Max Count");
+    private final FormInputBox batchParallelismInput =
+            new FormInputBox("Accounts Retrieved at Once in Batch");
 
     private final Stage displayStage;
     private final Logic logic;
     private final UserPreference preference;
 
     @FXML private Pane chartPrefEntryBox;
+    @FXML private Pane systemPrefEntryBox;
 
     @FXML private CheckBox checkUpdatesOnStartCB;
+    @FXML private CheckBox watchWebCacheCB;
+    @FXML private CheckBox syncOnWatchedUrlCB;
+    @FXML private CheckBox cachePagesCB;
     @FXML private ComboBox<Level> logLevelCmbBox;
 
 
@@ -78,7 +84,13 @@ public class PreferenceMenuWindow extends UiComponent<VBox> {
                 .forEach(lvl -> logLevelCmbBox.getItems().add(lvl));
 
         checkUpdatesOnStartCB.setSelected(prefs.isCheckUpdateOnStart());
+        watchWebCacheCB.setSelected(prefs.isWatchWebCache());
+        syncOnWatchedUrlCB.setSelected(prefs.isSyncOnWatchedUrl());
+        syncOnWatchedUrlCB.disableProperty().bind(watchWebCacheCB.selectedProperty().not());
+        cachePagesCB.setSelected(prefs.isCachePages());
         logLevelCmbBox.getSelectionModel().select(prefs.getLogLevel());
+        batchParallelismInput.setText(String.valueOf(prefs.getBatchParallelism()));
+        systemPrefEntryBox.getChildren().add(batchParallelismInput.getRoot());
     }
 
 
@@ -112,7 +124,11 @@ public class PreferenceMenuWindow extends UiComponent<VBox> {
                 freqStepFactInput,
                 freqMaxCountInput,
                 checkUpdatesOnStartCB,
-                logLevelCmbBox);
+                watchWebCacheCB,
+                syncOnWatchedUrlCB,
+                cachePagesCB,
+                logLevelCmbBox,
+                batchParallelismInput);
         logic.updatePreference(task, this::handleTaskComplete, this::handleException);
     }
 
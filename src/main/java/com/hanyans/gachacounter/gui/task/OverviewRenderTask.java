@@ -10,7 +10,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.hanyans.gachacounter.core.Constants;
-import com.hanyans.gachacounter.core.FrequencyMap;
+import com.hanyans.gachacounter.core.PityHistogram;
 import com.hanyans.gachacounter.core.task.ConsumerTask;
 import com.hanyans.gachacounter.gui.GachaItemCountBox;
 import com.hanyans.gachacounter.gui.updater.BannerCardUpdater;
@@ -166,8 +166,8 @@ public class OverviewRenderTask extends ConsumerTask<GachaReport> {
             accFreqMap = accFreqMap.condense(pityStep);
         }
         ArrayList<XYChart.Series<String, Number>> seriesList = new ArrayList<>();
-        FrequencyMap<Integer> combFreqMap = accFreqMap.combineAll();
-        for (Map.Entry<Long, FrequencyMap<Integer>> entry : accFreqMap.entrySet()) {
+        PityHistogram combFreqMap = accFreqMap.combineAll();
+        for (Map.Entry<Long, PityHistogram> entry : accFreqMap.entrySet()) {
             seriesList.add(formSeries(
                     entry.getKey(), nameMap,
                     entry.getValue(), combFreqMap,
@@ -188,7 +188,7 @@ public class OverviewRenderTask extends ConsumerTask<GachaReport> {
 
     private XYChart.Series<String, Number> formSeries(
                 long uid, UidNameMap nameMap,
-                FrequencyMap<Integer> freqMap, FrequencyMap<Integer> combFreqMap,
+                PityHistogram freqMap, PityHistogram combFreqMap,
                 int pityStep, int maxPity) {
         ObservableList<XYChart.Data<String, Number>> datas = FXCollections.observableArrayList();
         // iterate through all pity even if frequency of it is 0 to populate data
@@ -23,7 +23,11 @@ public class PrefFormValidationTask extends RunnableTask<UserPreference> {
     private final FormInputBox freqMaxCountInput;
 
     private final CheckBox checkUpdatesOnStartCB;
+    private final CheckBox watchWebCacheCB;
+    private final CheckBox syncOnWatchedUrlCB;
+    private final CheckBox cachePagesCB;
     private final ComboBox<Level> logLevelCmbBox;
+    private final FormInputBox batchParallelismInput;
 
 
     public PrefFormValidationTask(
@@ -34,7 +38,11 @@ public class PrefFormValidationTask extends RunnableTask<UserPreference> {
             FormInputBox freqStepFactInput,
             FormInputBox freqMaxCountInput,
             CheckBox checkUpdatesOnStartCB,
-            ComboBox<Level> logLevelCmbBox) {
+            CheckBox watchWebCacheCB,
+            CheckBox syncOnWatchedUrlCB,
+            CheckBox cachePagesCB,
+            ComboBox<Level> logLevelCmbBox,
+            FormInputBox batchParallelismInput) {
         this.reference = reference.getCopy();
         this.pityStep5NormInput = pityStep5NormInput;
         this.pityStep5WeapInput = pityStep5WeapInput;
@@ -42,7 +50,11 @@ public class PrefFormValidationTask extends RunnableTask<UserPreference> {
         this.freqStepFactInput = freqStepFactInput;
         this.freqMaxCountInput = freqMaxCountInput;
         this.checkUpdatesOnStartCB = checkUpdatesOnStartCB;
+        this.watchWebCacheCB = watchWebCacheCB;
+        this.syncOnWatchedUrlCB = syncOnWatchedUrlCB;
+        this.cachePagesCB = cachePagesCB;
         this.logLevelCmbBox = logLevelCmbBox;
+        this.batchParallelismInput = batchParallelismInput;
     }
 
 
@@ -63,7 +75,12 @@ public class PrefFormValidationTask extends RunnableTask<UserPreference> {
                 .ifPresent(exList::add);
 
         reference.setCheckUpdateOnStart(checkUpdatesOnStartCB.isSelected());
+        reference.setWatchWebCache(watchWebCacheCB.isSelected());
+        reference.setSyncOnWatchedUrl(syncOnWatchedUrlCB.isSelected());
+        reference.setCachePages(cachePagesCB.isSelected());
         reference.setLogLevel(logLevelCmbBox.getSelectionModel().getSelectedItem());
+        batchParallelismInput.processAsInteger(reference::setBatchParallelism)
+                .ifPresent(exList::add);
 
         if (!exList.isEmpty()) {
             throw new IllegalArgumentException("Invalid values present in fields");
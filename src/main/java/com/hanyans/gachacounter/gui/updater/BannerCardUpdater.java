@@ -33,13 +33,13 @@ public class BannerCardUpdater {
             uid = List.copyOf(report.uids).get(0);
         }
 
-        if (report.isRateUp4.getOrDefault(uid, true)) {
+        if (report.isRateUp4(uid)) {
             pityLabel4.getStyleClass().remove(RATE_UP_NEXT_STYLECLASS);
         } else {
             pityLabel4.getStyleClass().add(RATE_UP_NEXT_STYLECLASS);
         }
 
-        if (report.isRateUp5.getOrDefault(uid, true)) {
+        if (report.isRateUp5(uid)) {
             pityLabel5.getStyleClass().remove(RATE_UP_NEXT_STYLECLASS);
         } else {
             pityLabel5.getStyleClass().add(RATE_UP_NEXT_STYLECLASS);
@@ -50,8 +50,8 @@ public class BannerCardUpdater {
             return;
         }
 
-        pityLabel4.setText(String.valueOf(report.pullSince4.get(uid)));
-        pityLabel5.setText(String.valueOf(report.pullSince5.get(uid)));
+        pityLabel4.setText(String.valueOf(report.getPullSince4(uid)));
+        pityLabel5.setText(String.valueOf(report.getPullSince5(uid)));
         totalLabel.setText(String.valueOf(report.total));
     }
 
@@ -2,19 +2,32 @@ package com.hanyans.gachacounter.logic;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
 import com.hanyans.gachacounter.core.task.RunnableTask;
+import com.hanyans.gachacounter.logic.task.BatchRetrieverTask;
+import com.hanyans.gachacounter.logic.task.CheckpointHandler;
 import com.hanyans.gachacounter.logic.task.GachaCounterTask;
 import com.hanyans.gachacounter.logic.task.HistoryRetrieverTask;
 import com.hanyans.gachacounter.mhy.Game;
+import com.hanyans.gachacounter.mhy.auth.AuthKeyValidator;
+import com.hanyans.gachacounter.mhy.auth.AuthKeyVerdict;
+import com.hanyans.gachacounter.mhy.exception.ResponseException;
+import com.hanyans.gachacounter.mhy.pacer.PacerRegistry;
+import com.hanyans.gachacounter.mhy.transport.GachaLogTransport;
+import com.hanyans.gachacounter.model.BannerHistory;
 import com.hanyans.gachacounter.model.GameGachaData;
 import com.hanyans.gachacounter.model.UidNameMap;
 import com.hanyans.gachacounter.model.count.GachaReport;
+import com.hanyans.gachacounter.model.sync.BatchReport;
+import com.hanyans.gachacounter.storage.PageCache;
 
 
 /**
@@ -185,7 +198,18 @@ public class DataManager {
      * Forms a {@code RunnableTask} that retrieves the player's gacha log
      * through the given player URL.
      *
+     * <p>The authkey of the URL is checked with the given validator before
+     * the data is locked, so that a retrieval that cannot succeed fails
+     * without blocking the data.
+     *
      * @param playerUrl - URL to retrieve gacha log.
+     * @param pacers - registry of the pacers to pace the requests with.
+     * @param transport - the transport to send the requests through.
+     * @param validator - the validator to check the authkey with.
+     * @param pageCache - the cache to add the raw pages retrieved to, if
+     *      any.
+     * @param checkpointHandler - the handler that persists the histories and
+     *      cursors at the checkpoints. Called from multiple threads.
      * @param comHandler - a {@code Consumer} that accepts a
      *      {@code GachaReport} the reset procedure is completed.
      * @param exHandler a {@code Consumer} that accepts a {@code Throwable}
@@ -193,19 +217,174 @@ public class DataManager {
      */
     public RunnableTask<Void> formRetrieverTask(
                 String playerUrl,
+                PacerRegistry pacers,
+                GachaLogTransport transport,
+                AuthKeyValidator validator,
+                Optional<PageCache> pageCache,
+                CheckpointHandler checkpointHandler,
                 Consumer<GachaReport> comHandler,
                 Consumer<Throwable> exHandler) {
         return new RunnableTask<>() {
             @Override
             public Void performTask() {
+                try {
+                    setMessage("Checking authkey");
+                    AuthKeyVerdict verdict = validator.validate(playerUrl, getGame());
+                    if (!verdict.isUsable()) {
+                        throw new ResponseException(verdict.getDescription());
+                    }
+                } catch (Throwable ex) {
+                    exHandler.accept(ex);
+                    return null;
+                }
+
                 try {
                     lock.writeLock().lock();
 
                     // retrieve history
-                    HistoryRetrieverTask retTask = new HistoryRetrieverTask(playerUrl, gameGachaData);
+                    HistoryRetrieverTask retTask = new HistoryRetrieverTask(playerUrl, gameGachaData)
+                            .setPacerRegistry(pacers)
+                            .setTransport(transport)
+                            .setCheckpointHandler(checkpointHandler);
+                    if (pageCache.isPresent()) {
+                        retTask = retTask.setPageCache(pageCache.get());
+                    }
                     bindMessageProperty(retTask.messageProperty());
                     bindProgressProeprty(retTask.progressProperty());
-                    retTask.performTask();
+                    try {
+                        retTask.performTask();
+                    } catch (ResponseException resEx) {
+                        validator.invalidate(playerUrl);
+                        throw resEx;
+                    }
+
+                    // form gacha report
+                    GachaCounterTask countTask = new GachaCounterTask(gameGachaData);
+                    bindMessageProperty(countTask.messageProperty());
+                    bindProgressProeprty(countTask.progressProperty());
+                    GachaReport report = countTask.performTask();
+
+                    // update UID map to add new UIDs if present
+                    resetUidFilterMap(report);
+                    // unlock to allow handler to read
+                    lock.writeLock().unlock();
+                    comHandler.accept(report);
+                } catch (Throwable ex) {
+                    lock.writeLock().unlock();
+                    exHandler.accept(ex);
+                }
+                return null;
+            }
+        };
+    }
+
+
+    /**
+     * Forms a {@code RunnableTask} that retrieves the gacha logs of several
+     * accounts through the given player URLs. See {@link BatchRetrieverTask}.
+     *
+     * <p>The entries of accounts of the current game are added to the
+     * current data. Those of accounts of other games are added to the data
+     * returned by the given loader.
+     *
+     * @param playerUrls - URLs of the accounts to retrieve.
+     * @param parallelism - the maximum number of accounts retrieved at the
+     *      same time.
+     * @param otherGameLoader - a {@code Function} that returns the data of a
+     *      game that is not the current game. Called at most once per game.
+     * @param pacers - registry of the pacers to pace the requests with.
+     * @param transport - the transport to send the requests through.
+     * @param validator - the validator to check the authkeys with.
+     * @param checkpointHandler - the handler that persists the histories and
+     *      cursors at the checkpoints. Called from multiple threads.
+     * @param comHandler - a {@code BiConsumer} that accepts the
+     *      {@code BatchReport} and the {@code GachaReport} of the current game
+     *      when the batch is completed.
+     * @param exHandler a {@code Consumer} that accepts a {@code Throwable}
+     *      whenever an exception while performing the task.
+     */
+    public RunnableTask<Void> formBatchRetrieverTask(
+                List<String> playerUrls,
+                int parallelism,
+                Function<Game, GameGachaData> otherGameLoader,
+                PacerRegistry pacers,
+                GachaLogTransport transport,
+                AuthKeyValidator validator,
+                CheckpointHandler checkpointHandler,
+                BiConsumer<BatchReport, GachaReport> comHandler,
+                Consumer<Throwable> exHandler) {
+        return new RunnableTask<>() {
+            @Override
+            public Void performTask() {
+                try {
+                    lock.writeLock().lock();
+
+                    // retrieve histories
+                    GameGachaData data = gameGachaData;
+                    BatchRetrieverTask batchTask = new BatchRetrieverTask(
+                            playerUrls,
+                            game -> game == data.game ? data : otherGameLoader.apply(game),
+                            pacers,
+                            transport,
+                            validator,
+                            checkpointHandler,
+                            parallelism);
+                    bindMessageProperty(batchTask.messageProperty());
+                    bindProgressProeprty(batchTask.progressProperty());
+                    BatchReport batchReport = batchTask.performTask();
+
+                    // form gacha report
+                    GachaCounterTask countTask = new GachaCounterTask(gameGachaData);
+                    bindMessageProperty(countTask.messageProperty());
+                    bindProgressProeprty(countTask.progressProperty());
+                    GachaReport report = countTask.performTask();
+
+                    // update UID map to add new UIDs if present
+                    resetUidFilterMap(report);
+                    // unlock to allow handler to read
+                    lock.writeLock().unlock();
+                    comHandler.accept(batchReport, report);
+                } catch (Throwable ex) {
+                    lock.writeLock().unlock();
+                    exHandler.accept(ex);
+                }
+                return null;
+            }
+        };
+    }
+
+
+    /**
+     * Forms a {@code RunnableTask} that rebuilds the histories of the current
+     * game from the raw pages of the given cache without sending any request.
+     *
+     * @param pageCache - the cache of the current game to replay.
+     * @param checkpointHandler - the handler that persists the histories at
+     *      the checkpoints.
+     * @param comHandler - a {@code Consumer} that accepts a
+     *      {@code GachaReport} when the replay is completed.
+     * @param exHandler a {@code Consumer} that accepts a {@code Throwable}
+     *      whenever an exception while performing the task.
+     */
+    public RunnableTask<Void> formReplayTask(
+                PageCache pageCache,
+                CheckpointHandler checkpointHandler,
+                Consumer<GachaReport> comHandler,
+                Consumer<Throwable> exHandler) {
+        return new RunnableTask<>() {
+            @Override
+            public Void performTask() {
+                try {
+                    lock.writeLock().lock();
+
+                    // replay histories
+                    HistoryRetrieverTask replayTask = new HistoryRetrieverTask(null, gameGachaData)
+                            .setPageCache(pageCache)
+                            .setReplay(true)
+                            .setCheckpointHandler(checkpointHandler);
+                    bindMessageProperty(replayTask.messageProperty());
+                    bindProgressProeprty(replayTask.progressProperty());
+                    replayTask.performTask();
 
                     // form gacha report
                     GachaCounterTask countTask = new GachaCounterTask(gameGachaData);
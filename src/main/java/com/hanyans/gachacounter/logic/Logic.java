@@ -2,6 +2,7 @@ package com.hanyans.gachacounter.logic;
 
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.function.Consumer;
 
 import com.hanyans.gachacounter.core.AppUpdateMessage;
@@ -34,13 +35,38 @@ public interface Logic {
     public void updateGachaHistory(String playerUrl);
 
 
+    /**
+     * Updates the gacha history of several accounts, which can be of
+     * different games, by retrieving the gacha logs from the given player
+     * URLs. The failure of an account does not stop the others.
+     *
+     * <p>A valid game should be set using {@link #setGame(Game)} prior to a
+     * call to this method.
+     *
+     * @param playerUrls - the player URLs of the accounts.
+     */
+    public void updateGachaHistories(List<String> playerUrls);
+
+
+    /**
+     * Rebuilds the gacha history of the current game from the raw pages kept
+     * in its page cache without retrieving anything from the server. Pages
+     * are only kept while page caching is enabled in the preference.
+     *
+     * <p>A valid game should be set using {@link #setGame(Game)} prior to a
+     * call to this method.
+     */
+    public void replayGachaHistory();
+
+
     /**
      * Grabs the player's URL for gacha log retrieval.
      *
      * <p>A valid game should be set using {@link #setGame(Game)} prior to a
      * call to this method.
      *
-     * @param pathString - the path Stirng to the data file.
+     * @param pathString - the path Stirng to the data file or the web cache
+     *      directory containing it.
      * @param onComplete - {@code Consumer} to handle completion.
      */
     public void grabPlayerUrl(String pathString, Consumer<String> onComplete);
@@ -146,6 +172,15 @@ public interface Logic {
     public void setAppUpdateMessageHandler(Consumer<AppUpdateMessage> handler);
 
 
+    /**
+     * Sets the handler to handle the player URLs found while watching the web
+     * cache, which is only watched while enabled in the preference.
+     *
+     * @param handler - the URL handler to set to.
+     */
+    public void setWatchedUrlHandler(Consumer<String> handler);
+
+
     public void updatePreference(
             RunnableTask<UserPreference> task,
             Consumer<UserPreference> onComplete,
@@ -1,14 +1,20 @@
 package com.hanyans.gachacounter.logic;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -26,14 +32,24 @@ import com.hanyans.gachacounter.logic.task.AppUpdateCheckTask;
 import com.hanyans.gachacounter.logic.task.UpdateDataTask;
 import com.hanyans.gachacounter.logic.task.UrlGrabberTask;
 import com.hanyans.gachacounter.mhy.Game;
+import com.hanyans.gachacounter.mhy.auth.AuthKeyValidator;
+import com.hanyans.gachacounter.mhy.cache.WebCacheWatcher;
 import com.hanyans.gachacounter.mhy.exception.ResponseException;
+import com.hanyans.gachacounter.mhy.pacer.PacerRegistry;
+import com.hanyans.gachacounter.mhy.transport.HttpGachaLogTransport;
+import com.hanyans.gachacounter.mhy.transport.RetryingGachaLogTransport;
+import com.hanyans.gachacounter.model.BannerHistory;
 import com.hanyans.gachacounter.model.GameGachaData;
 import com.hanyans.gachacounter.model.UidNameMap;
 import com.hanyans.gachacounter.model.count.GachaReport;
 import com.hanyans.gachacounter.model.preference.UserPreference;
+import com.hanyans.gachacounter.model.sync.BatchReport;
+import com.hanyans.gachacounter.model.sync.SyncCursor;
 import com.hanyans.gachacounter.storage.LoadReport;
+import com.hanyans.gachacounter.storage.PageCache;
 import com.hanyans.gachacounter.storage.Storage;
 
+import javafx.application.Platform;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.ObjectProperty;
@@ -62,22 +78,34 @@ public class LogicManager implements Logic {
             new LockedValue<>(msg -> {});
     private final LockedValue<Consumer<AppUpdateMessage>> updateHandler =
             new LockedValue<>(msg -> {});
+    private final LockedValue<Consumer<String>> watchedUrlHandler =
+            new LockedValue<>(url -> {});
 
     private final ObjectProperty<String> messageProperty = new SimpleObjectProperty<>();
     private final DoubleProperty progressProperty = new SimpleDoubleProperty(1.0);
     private final BooleanProperty runningProperty = new SimpleBooleanProperty(false);
 
     private final DataManager dataManager = new DataManager();
+    private final RetryingGachaLogTransport transport =
+            new RetryingGachaLogTransport(new HttpGachaLogTransport());
+    private final Object checkpointLock = new Object();
+    private final Object watcherLock = new Object();
 
     private final Version version;
     private final Storage storage;
     private final UserPreference preference;
+    private final PacerRegistry pacers;
+    private final AuthKeyValidator validator;
 
+    private Optional<WebCacheWatcher> watcher = Optional.empty();
 
-    public LogicManager(Version version, Storage storage, UserPreference preference) {
+
+    public LogicManager(Version version, Storage storage, UserPreference preference, PacerRegistry pacers) {
         this.version = version;
         this.storage = storage;
         this.preference = preference;
+        this.pacers = pacers;
+        this.validator = new AuthKeyValidator(transport, pacers);
     }
 
 
@@ -105,6 +133,7 @@ public class LogicManager implements Logic {
             updateDataPathPref(Path.of(pathString));
             ArrayList<Throwable> errList = saveState();
             handleIoError(errList, LOADING_ERROR_TITLE);
+            refreshWebCacheWatcher();
             setRunningState(false);
         });
         bindTaskProperty(task);
@@ -134,6 +163,7 @@ public class LogicManager implements Logic {
                     .andThen(report -> {
                         handleIoError(loadReport.exList, LOADING_ERROR_TITLE);
                         logger.info("Game set from <%s> to <%s>", oldGame, game);
+                        refreshWebCacheWatcher();
                         setRunningState(false);
                     });
             dataManager.formResetTask(loadReport.data, comHandler, this::handleErrorMessage)
@@ -183,6 +213,7 @@ public class LogicManager implements Logic {
 
         setRunningState(true);
         Consumer<GachaReport> comHandler = report -> {
+            logger.info("Requests so far: %s", transport.getStats());
             ArrayList<Throwable> exList = saveState();
             reportCompletionTask.get()
                     .bindProperties(messageProperty, progressProperty)
@@ -190,7 +221,89 @@ public class LogicManager implements Logic {
             handleIoError(exList, SAVING_ERROR_TITLE);
             setRunningState(false);
         };
-        RunnableTask<Void> task = dataManager.formRetrieverTask(playerUrl, comHandler, this::handleHistoryFailure);
+        Optional<PageCache> pageCache = preference.isCachePages()
+                ? Optional.of(storage.getPageCache(getGame()))
+                : Optional.empty();
+        RunnableTask<Void> task = dataManager.formRetrieverTask(
+                playerUrl, pacers, transport, validator, pageCache, this::saveCheckpoint,
+                comHandler, this::handleHistoryFailure);
+        bindTaskProperty(task);
+        executor.execute(task);
+    }
+
+
+    @Override
+    public void updateGachaHistories(List<String> playerUrls) {
+        if (!canRun("BATCH UPDATE GACHA HISTORY", true)) {
+            return;
+        }
+
+        // drop blank URLs
+        List<String> urls = playerUrls.stream()
+                .filter(url -> url != null && !url.isBlank())
+                .map(String::strip)
+                .toList();
+        logger.debug("Attempting to execute -{BATCH UPDATE GACHA HISTORY}-\n\t<ACCOUNTS> = %d", urls.size());
+        if (urls.isEmpty()) {
+            logger.error("Unable to execute -{BATCH UPDATE GACHA HISTORY}- as no <PLAYER URL> is given");
+            handleErrorMessage("Invalid URL", "No URL given");
+            return;
+        }
+
+        setRunningState(true);
+        // data of games other than the current one, loaded when first needed
+        EnumMap<Game, GameGachaData> otherData = new EnumMap<>(Game.class);
+        Function<Game, GameGachaData> otherGameLoader = game -> {
+            LoadReport<GameGachaData> loadReport = storage.loadGachaData(game);
+            if (!loadReport.exList.isEmpty()) {
+                // saving partially loaded data would overwrite what failed to load
+                throw new IllegalStateException(String.format("Unable to load data of <%s> -- %s",
+                        game, loadReport.exList.iterator().next().getMessage()));
+            }
+            synchronized (otherData) {
+                otherData.put(game, loadReport.data);
+            }
+            return loadReport.data;
+        };
+        BiConsumer<BatchReport, GachaReport> comHandler = (batchReport, report) -> {
+            logger.info("Requests so far: %s", transport.getStats());
+            ArrayList<Throwable> exList = saveState();
+            synchronized (otherData) {
+                for (GameGachaData data : otherData.values()) {
+                    exList.addAll(storage.saveGachaData(data));
+                }
+            }
+            reportCompletionTask.get()
+                    .bindProperties(messageProperty, progressProperty)
+                    .accept(report);
+            handleIoError(exList, SAVING_ERROR_TITLE);
+            handleBatchFailures(batchReport);
+            setRunningState(false);
+        };
+        RunnableTask<Void> task = dataManager.formBatchRetrieverTask(
+                urls, preference.getBatchParallelism(), otherGameLoader, pacers, transport, validator,
+                this::saveCheckpoint, comHandler, this::handleHistoryFailure);
+        bindTaskProperty(task);
+        executor.execute(task);
+    }
+
+
+    @Override
+    public void replayGachaHistory() {
+        if (!canRun("REPLAY GACHA HISTORY", true)) {
+            return;
+        }
+        setRunningState(true);
+        Consumer<GachaReport> comHandler = report -> {
+            ArrayList<Throwable> exList = saveState();
+            reportCompletionTask.get()
+                    .bindProperties(messageProperty, progressProperty)
+                    .accept(report);
+            handleIoError(exList, SAVING_ERROR_TITLE);
+            setRunningState(false);
+        };
+        RunnableTask<Void> task = dataManager.formReplayTask(
+                storage.getPageCache(getGame()), this::saveCheckpoint, comHandler, this::handleReplayFailure);
         bindTaskProperty(task);
         executor.execute(task);
     }
@@ -254,6 +367,7 @@ public class LogicManager implements Logic {
             preference.resetTo(pref);
             MainApp.setLogLevel(preference.getLogLevel());
             saveState();
+            refreshWebCacheWatcher();
             if (getGame() == null) {
                 setRunningState(false);
                 return;
@@ -295,11 +409,31 @@ public class LogicManager implements Logic {
     private ArrayList<Throwable> saveState() {
         ArrayList<Throwable> exList = new ArrayList<>();
         exList.addAll(storage.savePreference(preference));
+        exList.addAll(storage.savePacerRegistry(pacers));
         exList.addAll(dataManager.readGachaData(storage::saveGachaData));
         return exList;
     }
 
 
+    /**
+     * Saves the given history, then puts the given cursor into the retrieval
+     * cursors of the given data and saves the cursors. The cursor is only put
+     * and the cursors only saved if the history is, so that the cursors never
+     * point past the entries saved.
+     */
+    private ArrayList<Throwable> saveCheckpoint(GameGachaData data, BannerHistory history, Optional<SyncCursor> cursor) {
+        synchronized (checkpointLock) {
+            ArrayList<Throwable> exList = new ArrayList<>();
+            exList.addAll(storage.saveBannerHistory(data.game, history));
+            if (exList.isEmpty()) {
+                cursor.ifPresent(data.cursors::put);
+                exList.addAll(storage.saveSyncCursors(data.game, data.cursors));
+            }
+            return exList;
+        }
+    }
+
+
     /*
      * ========================================================================
      *      EXCEPTION HANDLERS
@@ -319,6 +453,30 @@ public class LogicManager implements Logic {
     }
 
 
+    private void handleReplayFailure(Throwable ex) {
+        logger.error("Failed to replay page cache due to unexpected exception", ex);
+        handleErrorMessage(ex);
+        setRunningState(false);
+    }
+
+
+    private void handleBatchFailures(BatchReport batchReport) {
+        if (batchReport.getFailures().isEmpty()) {
+            return;
+        }
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < batchReport.results.size(); i++) {
+            BatchReport.AccountResult result = batchReport.results.get(i);
+            if (!result.isSuccess()) {
+                builder.append(String.format("(%d) %s", i + 1, result)).append("\n\n");
+            }
+        }
+        handleErrorMessage(String.format("Failed to retrieve %d of %d accounts",
+                batchReport.getFailures().size(), batchReport.results.size()),
+                builder.toString().strip());
+    }
+
+
     public void handleIoError(Collection<Throwable> exList, String errorTitle) {
         if (exList.isEmpty()) {
             return;
@@ -393,6 +551,21 @@ public class LogicManager implements Logic {
     }
 
 
+    @Override
+    public void setWatchedUrlHandler(Consumer<String> handler) {
+        watchedUrlHandler.set(handler);
+    }
+
+
+    private void handleWatchedUrl(String urlString) {
+        watchedUrlHandler.get().accept(urlString);
+        if (preference.isSyncOnWatchedUrl()) {
+            // checks and sets the running state with the other tasks started from the UI
+            Platform.runLater(() -> updateGachaHistory(urlString));
+        }
+    }
+
+
     /*
      * ========================================================================
      *      SYNC GETTER / SETTER
@@ -411,6 +584,44 @@ public class LogicManager implements Logic {
     }
 
 
+    /**
+     * Restarts the web cache watcher on the data file path of the current
+     * game, or stops it if watching is disabled or there is nothing to watch.
+     */
+    private void refreshWebCacheWatcher() {
+        synchronized (watcherLock) {
+            watcher.ifPresent(WebCacheWatcher::close);
+            watcher = Optional.empty();
+            if (!preference.isWatchWebCache() || getGame() == null) {
+                return;
+            }
+            Path path = getDataPathPref();
+            if (path == null) {
+                logger.info("Not watching web cache as data file path of <%s> is not set", getGame());
+                return;
+            }
+            try {
+                watcher = Optional.of(new WebCacheWatcher(
+                        path, WebCacheWatcher.DEFAULT_DEBOUNCE_TIME, this::handleWatchedUrl));
+            } catch (IOException ioEx) {
+                logger.warn("Unable to watch web cache in \"%s\" -- %s", path, ioEx);
+            }
+        }
+    }
+
+
+    private Path getDataPathPref() {
+        switch (getGame()) {
+            case HSR:
+                return preference.getDataFilePathHsr();
+            case Genshin:
+                return preference.getDataFilePathGenshin();
+            default:
+                return null;
+        }
+    }
+
+
     private void updateDataPathPref(Path path) {
         switch (getGame()) {
             case HSR:
@@ -520,6 +731,10 @@ public class LogicManager implements Logic {
 
 
     public void shutdown() {
+        synchronized (watcherLock) {
+            watcher.ifPresent(WebCacheWatcher::close);
+            watcher = Optional.empty();
+        }
         executor.shutdownNow();
         try {
             executor.awaitTermination(10000, TimeUnit.MILLISECONDS);
@@ -0,0 +1,288 @@
+package com.hanyans.gachacounter.logic.task;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.hanyans.gachacounter.core.task.RunnableTask;
+import com.hanyans.gachacounter.mhy.Game;
+import com.hanyans.gachacounter.mhy.PlayerDetail;
+import com.hanyans.gachacounter.mhy.auth.AuthKeyValidator;
+import com.hanyans.gachacounter.mhy.auth.AuthKeyVerdict;
+import com.hanyans.gachacounter.mhy.exception.ResponseException;
+import com.hanyans.gachacounter.mhy.pacer.PacerRegistry;
+import com.hanyans.gachacounter.mhy.transport.GachaLogTransport;
+import com.hanyans.gachacounter.model.BannerHistory;
+import com.hanyans.gachacounter.model.GameGachaData;
+import com.hanyans.gachacounter.model.sync.BatchReport;
+import com.hanyans.gachacounter.model.sync.BatchReport.AccountResult;
+import com.hanyans.gachacounter.model.sync.SyncCursor;
+import com.hanyans.gachacounter.model.sync.SyncCursorMap;
+
+
+/**
+ * A {@code RunnableTask} to retrieve the gacha logs of several accounts,
+ * possibly of different games, with up to a set number of accounts retrieved
+ * at the same time.
+ *
+ * <p>The game of each account is told by the {@code game_biz} of its player
+ * URL. All requests are paced by the pacers of a single
+ * {@link PacerRegistry}, so accounts of the same host share the same request
+ * budget however many of them are retrieved at the same time.
+ *
+ * <p>Each account is retrieved into its own copy of the histories and cursors
+ * of its game and merged into the data of the game at every checkpoint and
+ * when the retrieval of the account stops. The cursor of a checkpoint is only
+ * put into the cursors of the data once the history of the checkpoint is
+ * merged and persisted, so an account never persists the cursors of another
+ * account past the entries that are still only in the copy of the other. The
+ * merges into the data of a game, and the checkpoints that follow, are made
+ * while holding the lock of that {@code GameGachaData}.
+ *
+ * <p>The failure of an account does not stop the others. It is recorded in
+ * its {@link AccountResult} along with the entries added before it failed.
+ */
+public class BatchRetrieverTask extends RunnableTask<BatchReport> {
+    private final Logger logger = LogManager.getFormatterLogger(BatchRetrieverTask.class);
+
+    private final TreeMap<Integer, String> accountMessages = new TreeMap<>();
+    private final TreeMap<Integer, Double> accountProgress = new TreeMap<>();
+    private final EnumMap<Game, GameGachaData> resolvedData = new EnumMap<>(Game.class);
+
+    private final List<String> playerUrls;
+    private final Function<Game, GameGachaData> dataResolver;
+    private final PacerRegistry pacers;
+    private final GachaLogTransport transport;
+    private final AuthKeyValidator validator;
+    private final CheckpointHandler checkpointHandler;
+    private final int parallelism;
+
+
+    /**
+     * Constructs a {@code BatchRetrieverTask}.
+     *
+     * @param playerUrls - the player URLs of the accounts to retrieve.
+     * @param dataResolver - a {@code Function} that returns the data of the
+     *      given game to add the retrieved entries to. Called at most once
+     *      per game.
+     * @param pacers - registry of the pacers to pace the requests with.
+     * @param transport - the transport to send the requests through.
+     * @param validator - the validator to check the authkeys with.
+     * @param checkpointHandler - the handler that persists the histories and
+     *      cursors at the checkpoints. Called from multiple threads.
+     * @param parallelism - the maximum number of accounts retrieved at the
+     *      same time.
+     * @throws NullPointerException if any parameter is {@code null}.
+     * @throws IllegalArgumentException if {@code parallelism} is less than
+     *      {@code 1}.
+     */
+    public BatchRetrieverTask(
+                List<String> playerUrls,
+                Function<Game, GameGachaData> dataResolver,
+                PacerRegistry pacers,
+                GachaLogTransport transport,
+                AuthKeyValidator validator,
+                CheckpointHandler checkpointHandler,
+                int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(String.format("Invalid parallelism <%d>", parallelism));
+        }
+        this.playerUrls = List.copyOf(playerUrls);
+        this.dataResolver = Objects.requireNonNull(dataResolver);
+        this.pacers = Objects.requireNonNull(pacers);
+        this.transport = Objects.requireNonNull(transport);
+        this.validator = Objects.requireNonNull(validator);
+        this.checkpointHandler = Objects.requireNonNull(checkpointHandler);
+        this.parallelism = parallelism;
+    }
+
+
+    @Override
+    public BatchReport performTask() throws InterruptedException {
+        logger.info("Started batch retrieval of %d accounts (parallelism = %d)",
+                playerUrls.size(), parallelism);
+        if (playerUrls.isEmpty()) {
+            return new BatchReport(List.of());
+        }
+        ExecutorService workers = Executors.newFixedThreadPool(Math.min(parallelism, playerUrls.size()));
+        try {
+            ArrayList<Future<AccountResult>> futures = new ArrayList<>();
+            for (int i = 0; i < playerUrls.size(); i++) {
+                int index = i;
+                updateStatus(index, String.format("%s Waiting", formLabel(index, Optional.empty())), 0D);
+                futures.add(workers.submit(() -> retrieveAccount(index)));
+            }
+            ArrayList<AccountResult> results = new ArrayList<>();
+            for (Future<AccountResult> future : futures) {
+                results.add(awaitAccount(future));
+            }
+            BatchReport report = new BatchReport(results);
+            logger.info("Completed batch retrieval, total of %d new entries added with %d of %d accounts failed",
+                    report.getTotalAdded(), report.getFailures().size(), results.size());
+            return report;
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+
+    private AccountResult awaitAccount(Future<AccountResult> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException exeEx) {
+            // retrieveAccount records all of its failures in its result
+            throw new IllegalStateException(exeEx.getCause());
+        }
+    }
+
+
+    private AccountResult retrieveAccount(int index) {
+        String playerUrl = playerUrls.get(index);
+        Optional<Game> game = Optional.empty();
+        GameGachaData data = null;
+        GameGachaData copy = null;
+        // entries merged at the checkpoints, guarded by the lock of the data
+        int[] numMerged = {0};
+        try {
+            game = PlayerDetail.of(playerUrl).getGame();
+            if (game.isEmpty()) {
+                throw new IllegalArgumentException("URL is not of a known game");
+            }
+            String label = formLabel(index, game);
+
+            updateStatus(index, String.format("%s Checking authkey", label), 0D);
+            AuthKeyVerdict verdict = validator.validate(playerUrl, game.get());
+            if (!verdict.isUsable()) {
+                throw new ResponseException(verdict.getDescription());
+            }
+
+            data = resolveData(game.get());
+            copy = copyOf(data);
+            GameGachaData target = data;
+            // the checkpoints of the copy are merged into the data
+            HistoryRetrieverTask task = new HistoryRetrieverTask(playerUrl, copy)
+                    .setPacerRegistry(pacers)
+                    .setTransport(transport)
+                    .setCheckpointHandler((copyData, history, cursor) ->
+                            mergeCheckpoint(target, history, cursor, numMerged));
+            task.messageProperty().addListener((obs, oldMsg, newMsg) -> updateStatus(
+                    index, String.format("%s\n%s", label, newMsg), task.progressProperty().get()));
+            task.performTask();
+        } catch (Throwable ex) {
+            if (ex instanceof ResponseException) {
+                validator.invalidate(playerUrl);
+            }
+            int numAdded = (copy == null) ? 0 : merge(data, copy, numMerged);
+            logger.error("Failed to retrieve account %d of batch -- %s", index + 1, ex.getMessage());
+            updateStatus(index, String.format("%s FAILED -- %s", formLabel(index, game), ex.getMessage()), 1D);
+            return AccountResult.failure(playerUrl, game, numAdded, ex);
+        }
+
+        int numAdded = merge(data, copy, numMerged);
+        logger.info("Completed account %d of batch, added %d new entries", index + 1, numAdded);
+        updateStatus(index, String.format("%s Added %d entries (DONE)", formLabel(index, game), numAdded), 1D);
+        return AccountResult.success(playerUrl, game.get(), numAdded);
+    }
+
+
+    private synchronized GameGachaData resolveData(Game game) {
+        return resolvedData.computeIfAbsent(game, dataResolver);
+    }
+
+
+    /**
+     * Returns a copy of the given data with copies of its histories and
+     * cursors to retrieve an account into. The rest of the data is shared.
+     */
+    private GameGachaData copyOf(GameGachaData data) {
+        synchronized (data) {
+            return new GameGachaData(
+                    data.game,
+                    data.nameMap,
+                    new BannerHistory(data.stndHist.getGachaType(), data.stndHist.getEntrySet()),
+                    new BannerHistory(data.charHist.getGachaType(), data.charHist.getEntrySet()),
+                    new BannerHistory(data.weapHist.getGachaType(), data.weapHist.getEntrySet()),
+                    data.charEvents,
+                    data.weapEvents,
+                    new SyncCursorMap(data.cursors.getCursors()));
+        }
+    }
+
+
+    /**
+     * Merges the given history of an account into the data, counting the new
+     * entries in the given counter, and passes the history of the data and the
+     * given cursor to the checkpoint handler, which puts the cursor into the
+     * cursors of the data once the history is persisted.
+     */
+    private Collection<Throwable> mergeCheckpoint(
+                GameGachaData data, BannerHistory history, Optional<SyncCursor> cursor, int[] numMerged) {
+        synchronized (data) {
+            BannerHistory target = getHistory(data, history);
+            numMerged[0] += target.addAll(history);
+            return checkpointHandler.apply(data, target, cursor);
+        }
+    }
+
+
+    /**
+     * Merges all histories of the given copy into the data and returns the
+     * number of new entries added, including those counted in the given
+     * counter from the checkpoints.
+     */
+    private int merge(GameGachaData data, GameGachaData copy, int[] numMerged) {
+        synchronized (data) {
+            return numMerged[0]
+                    + data.stndHist.addAll(copy.stndHist)
+                    + data.charHist.addAll(copy.charHist)
+                    + data.weapHist.addAll(copy.weapHist);
+        }
+    }
+
+
+    private BannerHistory getHistory(GameGachaData data, BannerHistory history) {
+        switch (history.getGachaType()) {
+            case STANDARD:
+                return data.stndHist;
+            case CHARACTER:
+                return data.charHist;
+            case WEAPON:
+                return data.weapHist;
+            default:
+                throw new IllegalArgumentException(String.format("Unknown gacha type <%s>", history.getGachaType()));
+        }
+    }
+
+
+    private String formLabel(int index, Optional<Game> game) {
+        return String.format("(%d/%d) %s", index + 1, playerUrls.size(),
+                game.map(Game::toString).orElse("-"));
+    }
+
+
+    /**
+     * Updates the status of the specified account and reflects the status of
+     * all accounts in the task's message and progress.
+     */
+    private synchronized void updateStatus(int index, String message, double progress) {
+        accountMessages.put(index, message);
+        accountProgress.put(index, progress);
+        setMessage(String.join("\n", accountMessages.values()));
+        setProgress(accountProgress.values().stream()
+                .mapToDouble(Double::doubleValue)
+                .average()
+                .orElse(0D));
+    }
+}
@@ -0,0 +1,29 @@
+package com.hanyans.gachacounter.logic.task;
+
+import java.util.Collection;
+import java.util.Optional;
+
+import com.hanyans.gachacounter.model.BannerHistory;
+import com.hanyans.gachacounter.model.GameGachaData;
+import com.hanyans.gachacounter.model.sync.SyncCursor;
+
+
+/**
+ * Handler that persists the progress of a retrieval of a banner.
+ */
+@FunctionalInterface
+public interface CheckpointHandler {
+    /**
+     * Persists the given history of the given data and, only once the history
+     * is persisted, puts the given cursor into the cursors of the data and
+     * persists the cursors. The cursors of the data thus never point past
+     * the entries persisted. May be called from multiple threads.
+     *
+     * @param data - the data the history belongs to.
+     * @param history - the history to persist.
+     * @param cursor - the cursor of the banner of the history up to the
+     *      entries of the history, if any.
+     * @return the exceptions that occurred.
+     */
+    public Collection<Throwable> apply(GameGachaData data, BannerHistory history, Optional<SyncCursor> cursor);
+}
@@ -1,7 +1,6 @@
 package com.hanyans.gachacounter.logic.task;
 
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
@@ -10,7 +9,8 @@ import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import com.hanyans.gachacounter.core.FrequencyMap;
+import com.hanyans.gachacounter.core.LongObjectMap;
+import com.hanyans.gachacounter.core.PityHistogram;
 import com.hanyans.gachacounter.core.task.RunnableTask;
 import com.hanyans.gachacounter.mhy.GachaType;
 import com.hanyans.gachacounter.model.BannerHistory;
@@ -18,6 +18,7 @@ import com.hanyans.gachacounter.model.GachaEntry;
 import com.hanyans.gachacounter.model.count.AccPityFreqMap;
 import com.hanyans.gachacounter.model.count.BannerReport;
 import com.hanyans.gachacounter.model.count.GachaItemMap;
+import com.hanyans.gachacounter.model.count.PityState;
 import com.hanyans.gachacounter.model.count.ProcessedGachaEntry;
 import com.hanyans.gachacounter.model.rateup.BannerEventHistory;
 
@@ -27,6 +28,9 @@ import com.hanyans.gachacounter.model.rateup.BannerEventHistory;
  * for a specified banner.
  */
 public class CounterTask extends RunnableTask<BannerReport> {
+    /** Number of entries counted between updates of the message and progress. */
+    private static final int MESSAGE_INTERVAL = 256;
+
     private final Logger logger = LogManager.getFormatterLogger(CounterTask.class);
 
     private final GachaType gachaType;
@@ -74,10 +78,8 @@ public class CounterTask extends RunnableTask<BannerReport> {
         // initialize counters
         HashSet<Long> uids = new HashSet<>();
         GachaItemMap counter = new GachaItemMap();
-        FrequencyMap<Long> pullSinceLast4 = new FrequencyMap<>();
-        FrequencyMap<Long> pullSinceLast5 = new FrequencyMap<>();
-        HashMap<Long, Boolean> isRateUp4 = new HashMap<>();
-        HashMap<Long, Boolean> isRateUp5 = new HashMap<>();
+        LongObjectMap<PityState> pityStates = new LongObjectMap<>();
+        LongObjectMap<UidCounter> uidCounters = new LongObjectMap<>();
         AccPityFreqMap freqMap5 = new AccPityFreqMap();
         AccPityFreqMap freqMap4 = new AccPityFreqMap();
         ProcessedGachaEntry prev5 = null;
@@ -86,41 +88,49 @@ public class CounterTask extends RunnableTask<BannerReport> {
         // iterate through entries
         for (int i = 0; i < sortedEntries.size(); i++) {
             GachaEntry entry = sortedEntries.get(i);
-            setProgress(i, sortedEntries.size());
-            setMessage(String.format("[%s] %s (%d of %d)",
-                    gachaType.toString(),
-                    entry.toString(),
-                    i + 1, sortedEntries.size()));
+            if (i % MESSAGE_INTERVAL == 0) {
+                setProgress(i, sortedEntries.size());
+                setMessage(String.format("[%s] %s (%d of %d)",
+                        gachaType.toString(),
+                        entry.toString(),
+                        i + 1, sortedEntries.size()));
+            }
 
-            if (uidFilters.contains(entry.uid)) {
+            // look up the account once, boxing its UID only when first seen
+            UidCounter uidCounter = uidCounters.get(entry.uid);
+            if (uidCounter == null) {
+                uidCounter = uidFilters.contains(entry.uid)
+                        ? UidCounter.FILTERED
+                        : new UidCounter(entry.uid);
+                uidCounters.put(entry.uid, uidCounter);
+                if (uidCounter != UidCounter.FILTERED) {
+                    uids.add(entry.uid);
+                    pityStates.put(entry.uid, uidCounter.state);
+                }
+            }
+            if (uidCounter == UidCounter.FILTERED) {
                 continue;
             }
 
+            PityState state = uidCounter.state;
             int pityCount = 0;
             boolean isRateUp = rateUpMap.isRateUp(entry);
             boolean isRateUpWon = false;
-            pullSinceLast4.add(entry.uid);
-            pullSinceLast5.add(entry.uid);
+            state.pull();
             ProcessedGachaEntry processedEntry;
             switch (entry.rank) {
                 case 5:
-                    pityCount = pullSinceLast5.get(entry.uid);
-                    isRateUpWon = isRateUp5.getOrDefault(entry.uid, true);
-                    pullSinceLast4.put(entry.uid, 0);
-                    pullSinceLast5.put(entry.uid, 0);
-                    isRateUp4.put(entry.uid, isRateUp);
-                    isRateUp5.put(entry.uid, isRateUp);
-                    freqMap5.add(entry.uid, pityCount);
+                    isRateUpWon = state.isRateUp5();
+                    pityCount = state.obtain5(isRateUp);
+                    uidCounter.add5(freqMap5, pityCount);
                     processedEntry = new ProcessedGachaEntry(
                             entry, pityCount, isRateUp, isRateUpWon, prev5);
                     prev5 = processedEntry;
                     break;
                 case 4:
-                    pityCount = pullSinceLast4.get(entry.uid);
-                    isRateUpWon = isRateUp4.getOrDefault(entry.uid, true);
-                    pullSinceLast4.put(entry.uid, 0);
-                    isRateUp4.put(entry.uid, isRateUp);
-                    freqMap4.add(entry.uid, pityCount);
+                    isRateUpWon = state.isRateUp4();
+                    pityCount = state.obtain4(isRateUp);
+                    uidCounter.add4(freqMap4, pityCount);
                     processedEntry = new ProcessedGachaEntry(
                             entry, pityCount, isRateUp, isRateUpWon, prev4);
                     prev4 = processedEntry;
@@ -132,7 +142,6 @@ public class CounterTask extends RunnableTask<BannerReport> {
             }
 
             // add entry count
-            uids.add(entry.uid);
             counter.add(processedEntry);
         }
 
@@ -143,10 +152,7 @@ public class CounterTask extends RunnableTask<BannerReport> {
         return new BannerReport(
                 uids,
                 gachaType,
-                pullSinceLast4,
-                pullSinceLast5,
-                isRateUp4,
-                isRateUp5,
+                pityStates,
                 counter,
                 freqMap5,
                 freqMap4);
@@ -161,4 +167,44 @@ public class CounterTask extends RunnableTask<BannerReport> {
     public CounterTask setUidFilters(HashSet<Long> uidFilters) {
         return new CounterTask(gachaType, entrySet, rateUpMap, uidFilters);
     }
+
+
+
+
+
+    /**
+     * Counting state of an account, looked up once per entry.
+     */
+    private static class UidCounter {
+        /** Counter of the accounts filtered out. */
+        private static final UidCounter FILTERED = new UidCounter(0L);
+
+        private final PityState state = new PityState();
+        private final long uid;
+
+        // put into the maps on the first pull of their rank only
+        private PityHistogram freqs5 = null;
+        private PityHistogram freqs4 = null;
+
+
+        private UidCounter(long uid) {
+            this.uid = uid;
+        }
+
+
+        private void add5(AccPityFreqMap freqMap5, int pity) {
+            if (freqs5 == null) {
+                freqs5 = freqMap5.get(uid);
+            }
+            freqs5.add(pity);
+        }
+
+
+        private void add4(AccPityFreqMap freqMap4, int pity) {
+            if (freqs4 == null) {
+                freqs4 = freqMap4.get(uid);
+            }
+            freqs4.add(pity);
+        }
+    }
 }
@@ -1,147 +1,575 @@
 package com.hanyans.gachacounter.logic.task;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.MalformedURLException;
-import java.net.URL;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Random;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.hanyans.gachacounter.core.task.RunnableTask;
-import com.hanyans.gachacounter.core.util.JsonUtil;
+import com.hanyans.gachacounter.mhy.GachaLogUrlTemplate;
 import com.hanyans.gachacounter.mhy.GachaType;
 import com.hanyans.gachacounter.mhy.Game;
-import com.hanyans.gachacounter.mhy.HistoryRetriever;
 import com.hanyans.gachacounter.mhy.PlayerDetail;
 import com.hanyans.gachacounter.mhy.exception.ResponseException;
+import com.hanyans.gachacounter.mhy.pacer.PacerRegistry;
+import com.hanyans.gachacounter.mhy.pacer.RequestPacer;
+import com.hanyans.gachacounter.mhy.response.GachaLogDecoder;
 import com.hanyans.gachacounter.mhy.response.GachaResponseResult;
+import com.hanyans.gachacounter.mhy.transport.GachaLogTransport;
+import com.hanyans.gachacounter.mhy.transport.HttpGachaLogTransport;
 import com.hanyans.gachacounter.model.BannerHistory;
 import com.hanyans.gachacounter.model.GachaEntry;
 import com.hanyans.gachacounter.model.GameGachaData;
+import com.hanyans.gachacounter.model.sync.GapDetector;
+import com.hanyans.gachacounter.model.sync.HistoryGap;
+import com.hanyans.gachacounter.model.sync.SyncCursor;
+import com.hanyans.gachacounter.model.sync.SyncCursorMap;
+import com.hanyans.gachacounter.storage.PageCache;
 
 
 /**
  * A {@code RunnableTask} to retrieve and add new gacha entries from all
  * banners.
+ *
+ * <p>In concurrent mode, the banners are retrieved at the same time with one
+ * worker per banner. All requests, whether concurrent or not, are paced by a
+ * single {@link RequestPacer}. Throttled requests are reported to the pacer
+ * and retried after the pacer has slowed down.
+ *
+ * <p>The pages of a banner are fetched, decoded and merged in a pipeline, so
+ * that the next page is requested as soon as the pacer allows rather than
+ * after the current page has been merged.
+ *
+ * <p>The position of the retrieval of each banner is recorded as a
+ * {@link SyncCursor} in the cursors of the data. A retrieval that was stopped
+ * partway is resumed from its cursor before newer entries are retrieved. The
+ * entries retrieved are passed to the checkpoint handler every
+ * {@value #CHECKPOINT_INTERVAL} pages and when the retrieval of a banner
+ * stops for any reason, along with the cursor of the banner up to them. The
+ * cursor is only put into the cursors of the data by the handler once the
+ * entries are persisted, so the cursors never point past the entries of
+ * another banner that are not persisted yet.
+ *
+ * <p>Once a banner is up to date, the ranges that {@link GapDetector} finds
+ * in the player's history are retrieved again, fetching only the pages that
+ * cover them. The bounds of the gaps walked are recorded in the cursor of the
+ * banner, whether they could be repaired or not, and those gaps are skipped
+ * by later retrievals.
+ *
+ * <p>With a {@link PageCache}, the raw content of every page retrieved is
+ * added to the cache. In replay mode, the histories are rebuilt from the
+ * pages of the cache alone without any request being sent.
  */
 public class HistoryRetrieverTask extends RunnableTask<Integer> {
     private static final int PAGE_SIZE = 5;
-    private static final long BASE_SLEEP_TIME = 1000;
-    private static final long SLEEP_VARIATION = 2500;
+    private static final int MAX_THROTTLE_RETRIES = 5;
     private static final long TIME_STEP = 100;
+    private static final int CHECKPOINT_INTERVAL = 10;
+    private static final int PIPELINE_CAPACITY = 2;
 
     private final Logger logger = LogManager.getFormatterLogger(HistoryRetrieverTask.class);
 
-    private final Random rng = new Random();
+    private final EnumMap<GachaType, String> bannerMessages = new EnumMap<>(GachaType.class);
+    // shown in place of the banner message while the banner is sleeping
+    private final EnumMap<GachaType, String> sleepMessages = new EnumMap<>(GachaType.class);
+    private final EnumMap<GachaType, Double> bannerProgress = new EnumMap<>(GachaType.class);
+    // each banner is retrieved by at most one thread
+    private final EnumMap<GachaType, StringBuilder> urlBuffers = new EnumMap<>(GachaType.class);
 
     private final String playerUrl;
+    private final GameGachaData data;
     private final Game game;
+    private final Function<PlayerDetail, ? extends RequestPacer> pacerResolver;
+    private final GachaLogTransport transport;
+    private final CheckpointHandler checkpointHandler;
+    private final boolean isConcurrent;
+    private final Optional<PageCache> pageCache;
+    private final boolean isReplay;
 
+    private final SyncCursorMap cursors;
     private final BannerHistory stndHist;
     private final BannerHistory charHist;
     private final BannerHistory weapHist;
 
+    private volatile boolean isAborted = false;
 
+
+    /**
+     * Constructs a {@code HistoryRetrieverTask} that retrieves all banners
+     * concurrently with a pacer from a new {@link PacerRegistry} and a new
+     * {@link HttpGachaLogTransport} without any checkpoint handling.
+     *
+     * @param playerUrl - the player URL to retrieve the gacha logs with.
+     * @param data - the data to add the retrieved entries to.
+     */
     public HistoryRetrieverTask(
                 String playerUrl,
                 GameGachaData data) {
+        this(playerUrl, data, new PacerRegistry()::getPacer, new HttpGachaLogTransport(),
+                (target, history, cursor) -> {
+                    cursor.ifPresent(target.cursors::put);
+                    return List.of();
+                }, true, Optional.empty(), false);
+    }
+
+
+    private HistoryRetrieverTask(
+                String playerUrl,
+                GameGachaData data,
+                Function<PlayerDetail, ? extends RequestPacer> pacerResolver,
+                GachaLogTransport transport,
+                CheckpointHandler checkpointHandler,
+                boolean isConcurrent,
+                Optional<PageCache> pageCache,
+                boolean isReplay) {
         this.playerUrl = playerUrl;
+        this.data = Objects.requireNonNull(data);
         this.game = data.game;
+        this.pacerResolver = Objects.requireNonNull(pacerResolver);
+        this.transport = Objects.requireNonNull(transport);
+        this.checkpointHandler = Objects.requireNonNull(checkpointHandler);
+        this.isConcurrent = isConcurrent;
+        this.pageCache = Objects.requireNonNull(pageCache);
+        this.isReplay = isReplay;
+        this.cursors = data.cursors;
         this.stndHist = data.stndHist;
         this.charHist = data.charHist;
         this.weapHist = data.weapHist;
+        for (GachaType gachaType : GachaType.values()) {
+            urlBuffers.put(gachaType, new StringBuilder());
+        }
     }
 
 
     @Override
     public Integer performTask() throws Throwable {
-        logger.debug("Started history retrieval task");
-        HistoryRetriever retriever = PlayerDetail.of(playerUrl).formHistoryRetriever();
+        List<BannerHistory> histories = List.of(stndHist, charHist, weapHist);
+        if (isReplay) {
+            return replayFromCache(pageCache.orElseThrow(
+                    () -> new IllegalStateException("Replay requires a page cache")), histories);
+        }
+        logger.debug("Started history retrieval task (concurrent = %s)", isConcurrent);
+        PlayerDetail detail = PlayerDetail.of(playerUrl);
+        GachaLogUrlTemplate template = GachaLogUrlTemplate.compile(
+                detail.formHistoryRetriever().setLang("en"), game); // force en
+        RequestPacer pacer = pacerResolver.apply(detail);
+        int totalAdded = isConcurrent
+                ? addEntriesConcurrently(template, pacer, histories)
+                : addEntriesSequentially(template, pacer, histories);
+        logger.info("Completed history retrieval task, total of %d new entries added in %d ms (%.3f req/s)",
+                totalAdded, getRunTime(), pacer.getRate());
+        return totalAdded;
+    }
+
+
+    /**
+     * Returns a copy of this task that paces its requests with the given
+     * pacer.
+     *
+     * @param pacer - the pacer to use.
+     */
+    public HistoryRetrieverTask setPacer(RequestPacer pacer) {
+        Objects.requireNonNull(pacer);
+        return new HistoryRetrieverTask(playerUrl, data, detail -> pacer, transport, checkpointHandler, isConcurrent,
+                pageCache, isReplay);
+    }
+
+
+    /**
+     * Returns a copy of this task that paces its requests with the pacer of
+     * the player's host and region from the given registry.
+     *
+     * @param pacers - the registry to get the pacer from.
+     */
+    public HistoryRetrieverTask setPacerRegistry(PacerRegistry pacers) {
+        return new HistoryRetrieverTask(playerUrl, data, pacers::getPacer, transport, checkpointHandler, isConcurrent,
+                pageCache, isReplay);
+    }
+
+
+    /**
+     * Returns a copy of this task that retrieves the banners concurrently or
+     * one after another as specified.
+     *
+     * @param isConcurrent - if the banners should be retrieved concurrently.
+     */
+    public HistoryRetrieverTask setConcurrent(boolean isConcurrent) {
+        return new HistoryRetrieverTask(playerUrl, data, pacerResolver, transport, checkpointHandler, isConcurrent,
+                pageCache, isReplay);
+    }
+
+
+    /**
+     * Returns a copy of this task that sends its requests through the given
+     * transport.
+     *
+     * @param transport - the transport to use.
+     */
+    public HistoryRetrieverTask setTransport(GachaLogTransport transport) {
+        return new HistoryRetrieverTask(playerUrl, data, pacerResolver, transport, checkpointHandler, isConcurrent,
+                pageCache, isReplay);
+    }
+
+
+    /**
+     * Returns a copy of this task that passes the data of the task, the
+     * history of a banner and the cursor of the banner up to its entries, if
+     * any, to the given handler whenever a checkpoint is reached. The handler
+     * may be called by multiple banners at once. See
+     * {@link CheckpointHandler}.
+     *
+     * @param checkpointHandler - the handler of the checkpoints.
+     */
+    public HistoryRetrieverTask setCheckpointHandler(CheckpointHandler checkpointHandler) {
+        return new HistoryRetrieverTask(playerUrl, data, pacerResolver, transport, checkpointHandler, isConcurrent,
+                pageCache, isReplay);
+    }
+
+
+    /**
+     * Returns a copy of this task that adds the raw content of every page it
+     * retrieves to the given cache.
+     *
+     * @param pageCache - the cache to add the pages to.
+     */
+    public HistoryRetrieverTask setPageCache(PageCache pageCache) {
+        return new HistoryRetrieverTask(playerUrl, data, pacerResolver, transport, checkpointHandler, isConcurrent,
+                Optional.of(pageCache), isReplay);
+    }
+
+
+    /**
+     * Returns a copy of this task that, if replaying, rebuilds the histories
+     * from the pages of its page cache instead of requesting the server. See
+     * {@link #setPageCache(PageCache)}.
+     *
+     * @param isReplay - if the task should replay the page cache.
+     */
+    public HistoryRetrieverTask setReplay(boolean isReplay) {
+        return new HistoryRetrieverTask(playerUrl, data, pacerResolver, transport, checkpointHandler, isConcurrent,
+                pageCache, isReplay);
+    }
+
+
+    /**
+     * Adds the entries of all cached pages of every player to the histories
+     * without sending any request. The cursors are left as they are.
+     */
+    private int replayFromCache(PageCache cache, List<BannerHistory> histories)
+                throws InterruptedException, ResponseException, IOException {
+        logger.debug("Started replay of page cache");
         int totalAdded = 0;
-        totalAdded += addEntries(GachaType.STANDARD, retriever, stndHist);
-        totalAdded += addEntries(GachaType.CHARACTER, retriever, charHist);
-        totalAdded += addEntries(GachaType.WEAPON, retriever, weapHist);
-        logger.info("Completed history retrieval task, total of %d new entries added in %d ms",
+        for (BannerHistory history : histories) {
+            GachaType gachaType = history.getGachaType();
+            GachaLogDecoder decoder = new GachaLogDecoder(gachaType);
+            List<Long> uids = cache.getUids(gachaType);
+            int numAdded = 0;
+            int numPages = 0;
+            for (int i = 0; i < uids.size(); i++) {
+                for (byte[] content : cache.getPages(uids.get(i), gachaType)) {
+                    checkAborted();
+                    ArrayList<GachaEntry> entries = new ArrayList<>(PAGE_SIZE);
+                    decoder.decode(content, entries::add);
+                    for (GachaEntry entry : entries) {
+                        if (history.add(entry)) {
+                            numAdded++;
+                        }
+                    }
+                    numPages++;
+                }
+                updateStatus(gachaType, String.format("[%s] Replayed %d pages, added %d entries",
+                        gachaType.toString(), numPages, numAdded), (double) (i + 1) / uids.size());
+            }
+            if (numAdded > 0) {
+                checkpoint(history, Optional.empty());
+            }
+            logger.info("Replayed %d cached pages of <%s> added %d new entries",
+                    numPages, gachaType.name(), numAdded);
+            updateStatus(gachaType, String.format("[%s] Added %s entries (DONE)",
+                    gachaType.toString(), numAdded), 1D);
+            totalAdded += numAdded;
+        }
+        logger.info("Completed replay of page cache, total of %d new entries added in %d ms",
                 totalAdded, getRunTime());
         return totalAdded;
     }
 
 
-    private int addEntries(GachaType gachaType, HistoryRetriever retriever, BannerHistory history)
+    private int addEntriesSequentially(
+                GachaLogUrlTemplate template, RequestPacer pacer, List<BannerHistory> histories)
                 throws InterruptedException, ResponseException, IOException {
-        logger.debug("Retrieving gacha history for <%s>", gachaType.name());
-        int page = 1;
-        long endId = 0;
-        boolean isEnd = false;
         int totalAdded = 0;
+        for (BannerHistory history : histories) {
+            totalAdded += addEntries(history.getGachaType(), template, pacer, history);
+        }
+        return totalAdded;
+    }
 
-        while (!isEnd) {
-            if (isCancelled()) {
-                throw new InterruptedException("Task cancelled");
+
+    private int addEntriesConcurrently(
+                GachaLogUrlTemplate template, RequestPacer pacer, List<BannerHistory> histories)
+                throws Throwable {
+        ExecutorService workers = Executors.newFixedThreadPool(histories.size());
+        try {
+            ArrayList<Future<Integer>> futures = new ArrayList<>();
+            for (BannerHistory history : histories) {
+                futures.add(workers.submit(
+                        () -> addEntries(history.getGachaType(), template, pacer, history)));
             }
-            List<GachaEntry> entries = retrieveGachaLog(retriever, gachaType, page, endId);
-            int numAdded = addEntries(entries, history);
-            totalAdded += numAdded;
-            logger.info("Added %d of %d entries retrieved to <%s> (Total added = %d)",
-                    numAdded, entries.size(), gachaType.name(), totalAdded);
-            for (GachaEntry entry : entries) {
-                logger.trace("Added <%s>", entry.name);
+            int totalAdded = 0;
+            for (Future<Integer> future : futures) {
+                totalAdded += awaitWorker(future);
             }
-            setMessage(String.format("[%s] Added %s entries",
-                    gachaType.toString(), totalAdded));
-            if (numAdded < PAGE_SIZE) {
-                isEnd = true;
-            } else {
-                endId = entries.get(entries.size() - 1).id;
-                page++;
+            return totalAdded;
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
 
-                // delay next retrieval to avoid too frequent visit error
-                long sleepTime = getSleepTime();
-                logger.debug("Sleeping %d ms before next request for <%s>",
-                        sleepTime, gachaType.name());
-                setMessage(String.format("%s (Sleeping %dms)",
-                        messageProperty().get(),
-                        sleepTime));
-                startSleepCycle(sleepTime);
+    private int awaitWorker(Future<Integer> future) throws Throwable {
+        try {
+            return future.get();
+        } catch (ExecutionException exeEx) {
+            // stop the other workers at their next check
+            isAborted = true;
+            throw exeEx.getCause();
+        } catch (InterruptedException interEx) {
+            isAborted = true;
+            throw interEx;
+        }
+    }
+
+
+    private int addEntries(
+                GachaType gachaType, GachaLogUrlTemplate template, RequestPacer pacer, BannerHistory history)
+                throws InterruptedException, ResponseException, IOException {
+        logger.debug("Retrieving gacha history for <%s>", gachaType.name());
+
+        // the latest page also tells the UID whose cursor to resume
+        List<GachaEntry> latestPage = retrievePacedGachaLog(template, pacer, gachaType, 1, 0);
+        int totalAdded = 0;
+        if (!latestPage.isEmpty()) {
+            long uid = latestPage.get(0).uid;
+            Optional<SyncCursor> cursor = cursors.get(uid, gachaType);
+            SyncCursor checked = cursor.orElse(new SyncCursor(uid, gachaType, 0, true));
+            if (cursor.isPresent() && !cursor.get().isComplete) {
+                logger.info("Resuming retrieval of <%s> from %s", gachaType.name(), cursor.get());
+                totalAdded += walkHistory(gachaType, template, pacer, history, checked, cursor.get().endId,
+                        List.of());
             }
+            totalAdded += walkHistory(gachaType, template, pacer, history, checked, 0, latestPage);
+            totalAdded += repairGaps(gachaType, template, pacer, history, checked);
         }
 
         logger.info("Completed retrieval for <%s> added %d new entries",
                 gachaType.name(), totalAdded);
-        setMessage(String.format("[%s] Added %s entries (DONE)",
-                gachaType.toString(), totalAdded));
+        updateStatus(gachaType, String.format("[%s] Added %s entries (DONE)",
+                gachaType.toString(), totalAdded), 1D);
+        return totalAdded;
+    }
+
+
+    /**
+     * Walks the gacha log of the banner from the given end ID towards older
+     * entries until the end of the log or a known entry is reached while
+     * keeping the cursor of the player up to date. See
+     * {@link HistoryPipeline}.
+     *
+     * @param checked - the cursor holding the checked gaps of the banner,
+     *      kept in the cursors of the walk.
+     * @param firstPage - the entries of the first page if it has already been
+     *      retrieved or an empty list if it has not.
+     */
+    private int walkHistory(
+                GachaType gachaType, GachaLogUrlTemplate template, RequestPacer pacer, BannerHistory history,
+                SyncCursor checked, long startEndId, List<GachaEntry> firstPage)
+                throws InterruptedException, ResponseException, IOException {
+        return new HistoryPipeline(gachaType, template, pacer, history, checked).run(startEndId, firstPage);
+    }
+
+
+    /**
+     * Walks the ranges of the gaps in the history that are not checked in the
+     * given cursor, recording each gap as checked once its range has been
+     * walked.
+     */
+    private int repairGaps(
+                GachaType gachaType, GachaLogUrlTemplate template, RequestPacer pacer, BannerHistory history,
+                SyncCursor checked)
+                throws InterruptedException, ResponseException, IOException {
+        List<HistoryGap> gaps = GapDetector.detect(history, checked.uid);
+        // the walks are complete by now, so the end ID is not used
+        SyncCursor cursor = new SyncCursor(checked.uid, gachaType, 0, true, checked.checkedGaps);
+        int totalAdded = 0;
+        for (HistoryGap gap : gaps) {
+            if (cursor.isChecked(gap)) {
+                logger.debug("Skipping gap in <%s> already checked %s", gachaType.name(), gap);
+                continue;
+            }
+            logger.info("Repairing gap in <%s> %s", gachaType.name(), gap);
+            updateStatus(gachaType, String.format("%s (Repairing gap)",
+                    getBannerMessage(gachaType)), 0D);
+            int numAdded = walkGap(gachaType, template, pacer, history, gap);
+            if (numAdded == 0) {
+                // the range may have expired from the server
+                logger.warn("Gap in <%s> could not be repaired and will not be walked again %s",
+                        gachaType.name(), gap);
+            }
+            totalAdded += numAdded;
+            cursor = cursor.withCheckedGaps(List.of(gap));
+            checkpoint(history, Optional.of(cursor));
+        }
+        return totalAdded;
+    }
+
+
+    /**
+     * Walks the gacha log of the banner through the range of the gap, adding
+     * the entries that are not known without stopping at those that are.
+     */
+    private int walkGap(
+                GachaType gachaType, GachaLogUrlTemplate template, RequestPacer pacer, BannerHistory history,
+                HistoryGap gap)
+                throws InterruptedException, ResponseException, IOException {
+        int page = 1;
+        long endId = gap.newerId;
+        boolean isComplete = false;
+        int totalAdded = 0;
+        int numUncommitted = 0;
+
+        try {
+            while (!isComplete) {
+                List<GachaEntry> entries = retrievePacedGachaLog(template, pacer, gachaType, page, endId);
+                int numAdded = 0;
+                for (GachaEntry entry : entries) {
+                    if (entry.id > gap.olderId && history.add(entry)) {
+                        numAdded++;
+                    }
+                }
+                totalAdded += numAdded;
+                logger.info("Added %d of %d entries retrieved to <%s> in gap (Total added = %d)",
+                        numAdded, entries.size(), gachaType.name(), totalAdded);
+                if (entries.size() < PAGE_SIZE || entries.get(entries.size() - 1).id <= gap.olderId) {
+                    isComplete = true;
+                } else {
+                    endId = entries.get(entries.size() - 1).id;
+                    page++;
+                }
+                numUncommitted++;
+                if (numUncommitted >= CHECKPOINT_INTERVAL) {
+                    checkpoint(history, Optional.empty());
+                    numUncommitted = 0;
+                }
+            }
+        } finally {
+            if (numUncommitted > 0) {
+                checkpoint(history, Optional.empty());
+            }
+        }
         return totalAdded;
     }
 
 
-    private int addEntries(Collection<GachaEntry> entries, BannerHistory history) {
-        int numAdded = 0;
-        for (GachaEntry entry : entries) {
-            if (history.contains(entry)) {
-                break;
+    /**
+     * Passes the history and cursor to the checkpoint handler and returns if
+     * the checkpoint was committed.
+     */
+    private boolean checkpoint(BannerHistory history, Optional<SyncCursor> cursor) {
+        Collection<Throwable> exList = checkpointHandler.apply(data, history, cursor);
+        if (exList.isEmpty()) {
+            logger.debug("Checkpoint of <%s> committed", history.getGachaType());
+            return true;
+        }
+        // entries remain in memory to be saved with the rest of the state
+        logger.warn("Failed to commit checkpoint of <%s> -- %s",
+                history.getGachaType(), exList);
+        return false;
+    }
+
+
+    private List<GachaEntry> retrievePacedGachaLog(
+                GachaLogUrlTemplate template, RequestPacer pacer,
+                GachaType gachaType, int page, long endId)
+                throws InterruptedException, ResponseException, IOException {
+        int numThrottled = 0;
+        while (true) {
+            startSleepCycle(gachaType, pacer.reserve());
+            List<GachaEntry> entries;
+            try {
+                entries = retrieveGachaLog(template, pacer, gachaType, page, endId);
+            } catch (ResponseException resEx) {
+                if (resEx.getRetcode() != GachaResponseResult.RETCODE_VISIT_TOO_FREQUENTLY) {
+                    throw resEx;
+                }
+                pacer.onThrottled();
+                numThrottled++;
+                logger.warn("Request for <%s> page %d throttled (%d of %d), rate lowered to %.3f req/s",
+                        gachaType.name(), page, numThrottled, MAX_THROTTLE_RETRIES, pacer.getRate());
+                if (numThrottled <= MAX_THROTTLE_RETRIES) {
+                    continue;
+                }
+                throw resEx;
             }
-            history.add(entry);
-            numAdded++;
+            pacer.onSuccess();
+            return entries;
+        }
+    }
+
+
+    private List<GachaEntry> retrieveGachaLog(
+                GachaLogUrlTemplate template, RequestPacer pacer, GachaType gachaType, int page, long endId)
+                throws InterruptedException, ResponseException, IOException {
+        String urlString = formUrlString(template, gachaType, page, endId);
+        byte[] content;
+        try (InputStream input = transport.open(urlString, pacer)) {
+            content = input.readAllBytes();
         }
-        return numAdded;
+        ArrayList<GachaEntry> entries = new ArrayList<>(PAGE_SIZE);
+        new GachaLogDecoder(gachaType).decode(content, entries::add);
+        cachePage(gachaType, endId, content, entries);
+        return entries;
     }
 
 
-    private List<GachaEntry> retrieveGachaLog(HistoryRetriever retriever, GachaType gachaType, int page, long endId)
-                throws ResponseException, IOException {
-        // form URL
-        retriever = retriever
-            .setLang("en") // force en
-            .setPage(page)
-            .setEndId(endId)
-            .setSize(PAGE_SIZE)
-            .setGachaType(gachaType, game);
-        String urlString = getUrlString(retriever);
+    /**
+     * Adds the raw content of a decoded page to the page cache if there is
+     * one. Pages without entries are not cached as the player of the page is
+     * not known. A page that fails to be cached does not fail the retrieval.
+     */
+    private void cachePage(GachaType gachaType, long endId, byte[] content, List<GachaEntry> entries) {
+        if (pageCache.isEmpty() || entries.isEmpty()) {
+            return;
+        }
+        try {
+            pageCache.get().put(entries.get(0).uid, gachaType, endId, content);
+        } catch (IOException ioEx) {
+            logger.warn("Failed to cache page of <%s> from end ID %d -- %s",
+                    gachaType.name(), endId, ioEx.getMessage());
+        }
+    }
+
+
+    private String formUrlString(GachaLogUrlTemplate template, GachaType gachaType, int page, long endId) {
+        StringBuilder urlBuffer = urlBuffers.get(gachaType);
+        urlBuffer.setLength(0);
+        String urlString = template.appendTo(urlBuffer, page, PAGE_SIZE, gachaType, endId).toString();
         logger.debug(String.join("\n\t",
                 "Attempting -{RETRIEVE GACHA LOG}-",
                 "page = %d",
@@ -149,57 +577,445 @@ public class HistoryRetrieverTask extends RunnableTask<Integer> {
                 "gachaType = <%s>",
                 "URL = %s"),
                 page, endId, gachaType.name(), urlString);
-        URL url;
+        return urlString;
+    }
+
+
+    /**
+     * Waits until the given request slot is reached while reporting the wait
+     * as the progress of the specified banner.
+     *
+     * @param gachaType - the banner that is waiting.
+     * @param slot - the time in milliseconds since epoch to wait till.
+     * @throws InterruptedException if the task is cancelled or aborted while
+     *      waiting.
+     */
+    private void startSleepCycle(GachaType gachaType, long slot) throws InterruptedException {
+        checkAborted();
+        long time = slot - System.currentTimeMillis();
+        if (time <= 0) {
+            return;
+        }
+        logger.debug("Sleeping %d ms before next request for <%s>",
+                time, gachaType.name());
+        long timeLeft = time;
         try {
-            url = new URL(urlString);
-        } catch (MalformedURLException malEx) {
-            throw new RuntimeException(malEx);
+            updateSleepStatus(gachaType, time, 0D);
+            while (timeLeft > 0) {
+                checkAborted();
+                Thread.sleep(Math.min(timeLeft, TIME_STEP));
+                timeLeft = slot - System.currentTimeMillis();
+                updateSleepStatus(gachaType, time, 1 - (double) Math.max(timeLeft, 0) / time);
+            }
+        } finally {
+            clearSleepStatus(gachaType);
         }
+    }
+
 
-        // get response
-        GachaResponseResult result;
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), "UTF-8"))) {
-            result = JsonUtil.deserialize(reader, GachaResponseResult.class);
+    private void checkAborted() throws InterruptedException {
+        if (isCancelled()) {
+            throw new InterruptedException("Task cancelled");
         }
+        if (isAborted) {
+            throw new InterruptedException("Task aborted");
+        }
+    }
+
 
-        // process response
-        if (result.retcode != 0) {
-            throw new ResponseException(result.message);
+    private synchronized String getBannerMessage(GachaType gachaType) {
+        return bannerMessages.getOrDefault(gachaType, String.format("[%s]", gachaType));
+    }
+
+
+    /**
+     * Updates the status of the specified banner and reflects the status of
+     * all banners retrieved so far in the task's message and progress.
+     */
+    private synchronized void updateStatus(GachaType gachaType, String message, double progress) {
+        bannerMessages.put(gachaType, message);
+        bannerProgress.put(gachaType, progress);
+        refreshStatus();
+    }
+
+
+    /**
+     * Shows the sleep of the specified banner after its current message
+     * without replacing the message, which can still be updated by the other
+     * stages of the banner while it sleeps.
+     */
+    private synchronized void updateSleepStatus(GachaType gachaType, long time, double progress) {
+        sleepMessages.put(gachaType, String.format("%s (Sleeping %dms)", getBannerMessage(gachaType), time));
+        bannerProgress.put(gachaType, progress);
+        refreshStatus();
+    }
+
+
+    private synchronized void clearSleepStatus(GachaType gachaType) {
+        if (sleepMessages.remove(gachaType) != null) {
+            refreshStatus();
         }
-        return result.data.list.stream()
-                .map(response -> GachaEntry.fromGachaEntryResponse(response, gachaType))
-                .toList();
     }
 
 
-    private String getUrlString(HistoryRetriever retriever) {
-        switch (game) {
-            case HSR:
-                return retriever.formUrlStringHsr();
-            case Genshin:
-                return retriever.formUrlStringGenshin();
-            default:
-                throw new IllegalArgumentException(String.format("Unknown game type <%s>", game));
+    private synchronized void refreshStatus() {
+        setMessage(String.join("\n", bannerMessages.keySet().stream()
+                .map(gachaType -> sleepMessages.getOrDefault(gachaType, bannerMessages.get(gachaType)))
+                .toList()));
+        setProgress(bannerProgress.values().stream()
+                .mapToDouble(Double::doubleValue)
+                .average()
+                .orElse(0D));
+    }
+
+
+
+
+
+    /**
+     * Walk of the gacha log of a banner in three stages connected by bounded
+     * queues, so that the request of a page is on its way while the pages
+     * before it are still being parsed and merged.
+     *
+     * <ul>
+     * <li><b>fetch</b> - waits for the request slot of the next page and
+     *      reads its raw response.
+     * <li><b>decode</b> - decodes the response and deduplicates its entries
+     *      against a snapshot of the history taken when the walk starts and
+     *      the entries seen since. The end ID of the next page is handed back
+     *      to the fetch stage as soon as it is known, before the page is
+     *      merged.
+     * <li><b>merge</b> - adds the new entries to the history, then moves
+     *      the cursor of the walk and checkpoints. Runs on the thread of the walk.
+     * </ul>
+     *
+     * <p>Throttled responses are found by the decode stage, which reports
+     * them to the pacer and sends the same request back to the fetch stage.
+     * The throughput and queue depth of the stages are shown in the status
+     * of the banner.
+     */
+    private class HistoryPipeline {
+        private final BlockingQueue<PageRequest> requests = new ArrayBlockingQueue<>(PIPELINE_CAPACITY);
+        private final BlockingQueue<FetchedPage> fetchedPages = new ArrayBlockingQueue<>(PIPELINE_CAPACITY);
+        private final BlockingQueue<DecodedPage> decodedPages = new ArrayBlockingQueue<>(PIPELINE_CAPACITY);
+        private final StageStats fetchStats = new StageStats();
+        private final StageStats decodeStats = new StageStats();
+        private final StageStats mergeStats = new StageStats();
+
+        private final GachaType gachaType;
+        private final GachaLogUrlTemplate template;
+        private final RequestPacer pacer;
+        private final BannerHistory history;
+        private final long uid;
+        private final SyncCursor checked;
+        private final GachaLogDecoder decoder;
+        private final HashSet<GachaEntry> knownEntries;
+
+        private int totalAdded = 0;
+        private int numUncommitted = 0;
+        // cursor up to the entries merged, committed with the next checkpoint
+        private SyncCursor cursor = null;
+        private SyncCursor committedCursor = null;
+
+
+        private HistoryPipeline(
+                    GachaType gachaType, GachaLogUrlTemplate template, RequestPacer pacer,
+                    BannerHistory history, SyncCursor checked) {
+            this.gachaType = gachaType;
+            this.template = template;
+            this.pacer = pacer;
+            this.history = history;
+            this.uid = checked.uid;
+            this.checked = checked;
+            this.decoder = new GachaLogDecoder(gachaType);
+            this.knownEntries = history.getEntrySet();
+        }
+
+
+        /**
+         * Walks the gacha log from the given end ID and returns the number of
+         * entries added.
+         *
+         * @param firstPage - the entries of the first page if it has already
+         *      been retrieved or an empty list if it has not.
+         */
+        private int run(long startEndId, List<GachaEntry> firstPage)
+                    throws InterruptedException, ResponseException, IOException {
+            try {
+                PageRequest firstRequest = new PageRequest(1, startEndId, 0);
+                if (firstPage.isEmpty()) {
+                    requests.put(firstRequest);
+                } else {
+                    DecodedPage page = dedupe(firstRequest, firstPage);
+                    merge(page);
+                    if (page.isComplete) {
+                        return totalAdded;
+                    }
+                }
+
+                ExecutorService stages = Executors.newFixedThreadPool(2);
+                try {
+                    Future<Void> fetchStage = stages.submit(this::fetchAll);
+                    Future<Void> decodeStage = stages.submit(this::decodeAll);
+                    boolean isComplete = false;
+                    while (!isComplete) {
+                        DecodedPage page = awaitDecodedPage(fetchStage, decodeStage);
+                        merge(page);
+                        isComplete = page.isComplete;
+                    }
+                } finally {
+                    stopStages(stages);
+                }
+            } finally {
+                if (numUncommitted > 0 || cursor != committedCursor) {
+                    checkpoint(history, Optional.ofNullable(cursor));
+                }
+                logger.info("Walked <%s> from %d (%s)", gachaType.name(), startEndId, formStats());
+            }
+            return totalAdded;
+        }
+
+
+        private Void fetchAll() throws InterruptedException, IOException {
+            while (true) {
+                PageRequest request = requests.take();
+                if (request == PageRequest.STOP) {
+                    return null;
+                }
+                startSleepCycle(gachaType, pacer.reserve());
+                long startTime = System.nanoTime();
+                String urlString = formUrlString(template, gachaType, request.page, request.endId);
+                byte[] content;
+                try (InputStream input = transport.open(urlString, pacer)) {
+                    content = input.readAllBytes();
+                }
+                fetchStats.record(System.nanoTime() - startTime);
+                fetchedPages.put(new FetchedPage(request, content));
+            }
+        }
+
+
+        private Void decodeAll() throws InterruptedException, ResponseException, IOException {
+            while (true) {
+                FetchedPage fetchedPage = fetchedPages.take();
+                long startTime = System.nanoTime();
+                ArrayList<GachaEntry> entries = new ArrayList<>(PAGE_SIZE);
+                try {
+                    decoder.decode(fetchedPage.content, entries::add);
+                } catch (ResponseException resEx) {
+                    retryThrottled(fetchedPage.request, resEx);
+                    continue;
+                }
+                pacer.onSuccess();
+                cachePage(gachaType, fetchedPage.request.endId, fetchedPage.content, entries);
+                DecodedPage page = dedupe(fetchedPage.request, entries);
+                decodeStats.record(System.nanoTime() - startTime);
+                decodedPages.put(page);
+                if (page.isComplete) {
+                    return null;
+                }
+            }
+        }
+
+
+        private void retryThrottled(PageRequest request, ResponseException resEx)
+                    throws InterruptedException, ResponseException {
+            if (resEx.getRetcode() != GachaResponseResult.RETCODE_VISIT_TOO_FREQUENTLY) {
+                throw resEx;
+            }
+            pacer.onThrottled();
+            int numThrottled = request.numThrottled + 1;
+            logger.warn("Request for <%s> page %d throttled (%d of %d), rate lowered to %.3f req/s",
+                    gachaType.name(), request.page, numThrottled, MAX_THROTTLE_RETRIES, pacer.getRate());
+            if (numThrottled > MAX_THROTTLE_RETRIES) {
+                throw resEx;
+            }
+            requests.put(new PageRequest(request.page, request.endId, numThrottled));
+        }
+
+
+        /**
+         * Keeps the entries of the page that come before the first entry
+         * known to the history or seen earlier in the walk, and schedules the
+         * request of the next page if the page has no known entry.
+         */
+        private DecodedPage dedupe(PageRequest request, List<GachaEntry> entries) throws InterruptedException {
+            int numNew = 0;
+            while (numNew < entries.size() && !knownEntries.contains(entries.get(numNew))) {
+                numNew++;
+            }
+            // entries seen by this walk are known to the pages after them
+            knownEntries.addAll(entries.subList(0, numNew));
+            boolean isComplete = numNew < PAGE_SIZE;
+            long nextEndId = isComplete ? request.endId : entries.get(entries.size() - 1).id;
+            requests.put(isComplete ? PageRequest.STOP : new PageRequest(request.page + 1, nextEndId, 0));
+            return new DecodedPage(entries.subList(0, numNew), entries.size(), nextEndId, isComplete);
+        }
+
+
+        private void merge(DecodedPage page) {
+            long startTime = System.nanoTime();
+            for (GachaEntry entry : page.entries) {
+                history.add(entry);
+                logger.trace("Added <%s>", entry.name);
+            }
+            totalAdded += page.entries.size();
+            logger.info("Added %d of %d entries retrieved to <%s> (Total added = %d)",
+                    page.entries.size(), page.numRetrieved, gachaType.name(), totalAdded);
+            cursor = new SyncCursor(uid, gachaType, page.nextEndId, page.isComplete, checked.checkedGaps);
+            numUncommitted++;
+            if (numUncommitted >= CHECKPOINT_INTERVAL) {
+                if (checkpoint(history, Optional.of(cursor))) {
+                    committedCursor = cursor;
+                }
+                numUncommitted = 0;
+            }
+            mergeStats.record(System.nanoTime() - startTime);
+            updateStatus(gachaType, String.format("[%s] Added %s entries (%s)",
+                    gachaType.toString(), totalAdded, formStats()), 0D);
+        }
+
+
+        private DecodedPage awaitDecodedPage(Future<Void> fetchStage, Future<Void> decodeStage)
+                    throws InterruptedException, ResponseException, IOException {
+            while (true) {
+                DecodedPage page = decodedPages.poll(TIME_STEP, TimeUnit.MILLISECONDS);
+                if (page != null) {
+                    return page;
+                }
+                checkAborted();
+                checkStage(fetchStage);
+                checkStage(decodeStage);
+            }
+        }
+
+
+        /**
+         * Rethrows the exception of the given stage if it has failed.
+         */
+        private void checkStage(Future<Void> stage) throws InterruptedException, ResponseException, IOException {
+            if (!stage.isDone()) {
+                return;
+            }
+            try {
+                stage.get();
+            } catch (ExecutionException exeEx) {
+                Throwable cause = exeEx.getCause();
+                if (cause instanceof InterruptedException) {
+                    throw (InterruptedException) cause;
+                } else if (cause instanceof ResponseException) {
+                    throw (ResponseException) cause;
+                } else if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IOException(cause);
+            }
+        }
+
+
+        /**
+         * Interrupts the stages and waits for them to stop so that none of
+         * them outlives the walk.
+         */
+        private void stopStages(ExecutorService stages) {
+            stages.shutdownNow();
+            try {
+                if (!stages.awaitTermination(1, TimeUnit.MINUTES)) {
+                    logger.warn("Stages of <%s> did not stop", gachaType.name());
+                }
+            } catch (InterruptedException interEx) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+
+        private String formStats() {
+            return String.format("fetch %.1f pages/s | decode %.0f pages/s | merge %.0f pages/s | queued %d+%d",
+                    fetchStats.getThroughput(), decodeStats.getThroughput(), mergeStats.getThroughput(),
+                    fetchedPages.size(), decodedPages.size());
         }
     }
 
 
-    private long getSleepTime() {
-        return BASE_SLEEP_TIME + rng.nextLong(SLEEP_VARIATION);
+
+
+
+    private static class PageRequest {
+        private static final PageRequest STOP = new PageRequest(0, 0, 0);
+
+        private final int page;
+        private final long endId;
+        private final int numThrottled;
+
+
+        private PageRequest(int page, long endId, int numThrottled) {
+            this.page = page;
+            this.endId = endId;
+            this.numThrottled = numThrottled;
+        }
     }
 
 
-    private void startSleepCycle(long time) throws InterruptedException {
-        long timeLeft = time;
-        setProgress(0D);
-        while (timeLeft > 0) {
-            if (isCancelled()) {
-                throw new InterruptedException("Task cancelled");
-            }
-            long sleepTime = Math.min(timeLeft, TIME_STEP);
-            Thread.sleep(sleepTime);
-            timeLeft -= sleepTime;
-            setProgress(1 - (double) timeLeft / time);
+
+
+
+    private static class FetchedPage {
+        private final PageRequest request;
+        private final byte[] content;
+
+
+        private FetchedPage(PageRequest request, byte[] content) {
+            this.request = request;
+            this.content = content;
+        }
+    }
+
+
+
+
+
+    private static class DecodedPage {
+        private final List<GachaEntry> entries;
+        private final int numRetrieved;
+        private final long nextEndId;
+        private final boolean isComplete;
+
+
+        private DecodedPage(List<GachaEntry> entries, int numRetrieved, long nextEndId, boolean isComplete) {
+            this.entries = entries;
+            this.numRetrieved = numRetrieved;
+            this.nextEndId = nextEndId;
+            this.isComplete = isComplete;
+        }
+    }
+
+
+
+
+
+    /**
+     * Number of pages a stage has processed and the time it spent on them.
+     */
+    private static class StageStats {
+        private long numPages = 0;
+        private long busyTime = 0;
+
+
+        private synchronized void record(long nanos) {
+            numPages++;
+            busyTime += nanos;
+        }
+
+
+        /**
+         * Returns the number of pages the stage processes per second of work.
+         */
+        private synchronized double getThroughput() {
+            return busyTime == 0 ? 0D : numPages * 1e9 / busyTime;
         }
     }
 }
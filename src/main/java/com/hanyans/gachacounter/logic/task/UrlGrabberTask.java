@@ -1,22 +1,38 @@
 package com.hanyans.gachacounter.logic.task;
 
-import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.hanyans.gachacounter.core.task.RunnableTask;
-import com.hanyans.gachacounter.core.util.FileUtil;
+import com.hanyans.gachacounter.mhy.PlayerDetail;
+import com.hanyans.gachacounter.mhy.cache.WebCacheScanner;
+import com.hanyans.gachacounter.mhy.cache.WebCacheScanner.ScanResult;
 
 
 /**
  * A {@code RunnableTask} to grab the player's URL from the specified path.
+ *
+ * <p>The path can either be a web cache file or the web cache directory
+ * ({@code Cache_Data}). For a directory, all its {@code data_*} and
+ * {@code f_*} shards are scanned in parallel and the URL with the newest
+ * {@code timestamp} is grabbed.
  */
 public class UrlGrabberTask extends RunnableTask<String> {
-    private static final String REQ_SEQ = "getGachaLog";
+    private static final int MAX_SCAN_THREADS = 4;
 
     private final Logger logger = LogManager.getFormatterLogger(UrlGrabberTask.class);
 
@@ -32,26 +48,101 @@ public class UrlGrabberTask extends RunnableTask<String> {
     public String performTask() throws Throwable {
         logger.debug("Started player URL grabbing task");
 
-        String urlLine;
         logger.debug("Grabbing player URL from \"%s\"",
                 pathString);
-        try (BufferedReader reader = FileUtil.getFileReader(Path.of(pathString))) {
-            List<String> lines = reader.lines()
-                    .filter(line -> line.contains(REQ_SEQ))
-                    .toList();
-            if (lines.isEmpty()) {
-                throw new IOException("Could not find URL");
-            }
-            urlLine = lines.get(lines.size() - 1);
+        Path path = Path.of(pathString);
+        String urlString = Files.isDirectory(path)
+                ? grabFromDirectory(path)
+                : grabFromFile(path);
+        logger.info("Completed player URL grabbing task in %d ms",
+                getRunTime());
+        return urlString;
+    }
+
+
+    private String grabFromFile(Path path) throws IOException {
+        ScanResult result = WebCacheScanner.scan(path);
+        logger.info("Scanned %s", result);
+        return result.url.orElseThrow(() -> new IOException("Could not find URL"));
+    }
+
+
+    private String grabFromDirectory(Path directory) throws Throwable {
+        List<Path> shards = listShards(directory);
+        logger.info("Scanning %d web cache shards in \"%s\"", shards.size(), directory);
+        if (shards.isEmpty()) {
+            throw new IOException("Could not find any web cache file in directory");
         }
-        for (String urlString : urlLine.split("\0+")) {
-            if (urlString.contains(REQ_SEQ)) {
-                logger.info("Completed player URL grabbing task in %d ms",
-                        getRunTime());
-                return urlString.substring(urlString.indexOf("http"));
+
+        ExecutorService scanners = Executors.newFixedThreadPool(Math.min(shards.size(), MAX_SCAN_THREADS));
+        ArrayList<ScanResult> results = new ArrayList<>();
+        try {
+            ArrayList<Future<ScanResult>> futures = new ArrayList<>();
+            for (Path shard : shards) {
+                futures.add(scanners.submit(() -> WebCacheScanner.scan(shard)));
             }
+            for (Future<ScanResult> future : futures) {
+                if (isCancelled()) {
+                    throw new InterruptedException("Task cancelled");
+                }
+                ScanResult result = awaitScan(future);
+                logger.debug("Scanned %s", result);
+                results.add(result);
+                setMessage(String.format("Scanned %d of %d web cache files", results.size(), shards.size()));
+                setProgress(results.size(), shards.size());
+            }
+        } finally {
+            scanners.shutdownNow();
+        }
+
+        ScanResult newest = results.stream()
+                .filter(result -> result.url.isPresent())
+                .max(Comparator.comparingLong((ScanResult result) -> getTimestamp(result.url.get()))
+                        .thenComparingLong(result -> getLastModified(result.path)))
+                .orElseThrow(() -> new IOException("Could not find URL"));
+        logger.info("Grabbed URL from %s", newest);
+        return newest.url.get();
+    }
+
+
+    private ScanResult awaitScan(Future<ScanResult> future) throws Throwable {
+        try {
+            return future.get();
+        } catch (ExecutionException exeEx) {
+            throw exeEx.getCause();
+        }
+    }
+
+
+    private static List<Path> listShards(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(Files::isRegularFile)
+                    .filter(WebCacheScanner::isShard)
+                    .toList();
+        }
+    }
+
+
+    /**
+     * Returns the {@code timestamp} of the given URL or {@code -1} if it
+     * cannot be parsed.
+     */
+    private long getTimestamp(String urlString) {
+        try {
+            return Long.parseLong(Optional.ofNullable(PlayerDetail.of(urlString).timestamp).orElseThrow());
+        } catch (NoSuchElementException | NumberFormatException ex) {
+            logger.debug("Could not parse timestamp of \"%s\" -- %s", urlString, ex);
+            return -1;
+        }
+    }
+
+
+    private static long getLastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException ioEx) {
+            return -1;
         }
-        // should not happen
-        throw new RuntimeException("Failed to parse URL");
     }
 }
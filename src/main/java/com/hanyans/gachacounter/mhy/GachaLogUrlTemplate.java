@@ -0,0 +1,156 @@
+package com.hanyans.gachacounter.mhy;
+
+import java.util.ArrayList;
+import java.util.Objects;
+
+
+/**
+ * A gacha log URL compiled once from the parameters of a
+ * {@link HistoryRetriever} that stay the same for a player, leaving slots for
+ * the parameters that change with every page.
+ *
+ * <p>The URLs formed are identical to those of {@link
+ * HistoryRetriever#formUrlString(Game)} with the same parameters, but are
+ * formed by appending the literal parts of the URL and the values of the
+ * {@code page}, {@code size}, {@code gacha_type} and {@code end_id} slots to
+ * a buffer, without forming any intermediate {@code HistoryRetriever} or
+ * {@code String}.
+ *
+ * <p>Templates are immutable and can be shared between threads.
+ */
+public class GachaLogUrlTemplate {
+    private static final char MARKER = '\0';
+
+    private final Game game;
+    private final String[] literals;
+    private final Slot[] slots;
+    private final int baseLength;
+
+
+    private GachaLogUrlTemplate(Game game, String[] literals, Slot[] slots) {
+        this.game = game;
+        this.literals = literals;
+        this.slots = slots;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.baseLength = length;
+    }
+
+
+    /**
+     * Compiles the URL of the given retriever in the format of the specified
+     * game. The {@code page}, {@code size}, {@code gacha_type} and
+     * {@code end_id} parameters of the retriever are ignored.
+     *
+     * @param retriever - the retriever of the parameters that stay the same.
+     * @param game - the game of the URL.
+     * @throws NullPointerException if any parameter is {@code null}.
+     */
+    public static GachaLogUrlTemplate compile(HistoryRetriever retriever, Game game) {
+        Objects.requireNonNull(retriever);
+        Objects.requireNonNull(game);
+        String marked = retriever
+                .setPage(Slot.PAGE.marker)
+                .setSize(Slot.SIZE.marker)
+                .setGachaType(Slot.GACHA_TYPE.marker)
+                .setEndId(Slot.END_ID.marker)
+                .formUrlString(game);
+
+        ArrayList<String> literals = new ArrayList<>();
+        ArrayList<Slot> slots = new ArrayList<>();
+        int literalStart = 0;
+        int index = marked.indexOf(MARKER);
+        while (index >= 0) {
+            int markerEnd = marked.indexOf(MARKER, index + 1) + 1;
+            literals.add(marked.substring(literalStart, index));
+            slots.add(Slot.of(marked.substring(index, markerEnd)));
+            literalStart = markerEnd;
+            index = marked.indexOf(MARKER, literalStart);
+        }
+        literals.add(marked.substring(literalStart));
+        return new GachaLogUrlTemplate(game, literals.toArray(String[]::new), slots.toArray(Slot[]::new));
+    }
+
+
+    /**
+     * Appends the URL with the given values in the slots to the given
+     * buffer.
+     *
+     * @param builder - the buffer to append to.
+     * @param page - value of the {@code page} parameter.
+     * @param size - value of the {@code size} parameter.
+     * @param gachaType - the banner to request.
+     * @param endId - value of the {@code end_id} parameter.
+     * @return the given buffer.
+     */
+    public StringBuilder appendTo(StringBuilder builder, int page, int size, GachaType gachaType, long endId) {
+        int gachaTypeId = getGachaTypeId(gachaType);
+        builder.append(literals[0]);
+        for (int i = 0; i < slots.length; i++) {
+            switch (slots[i]) {
+                case PAGE:
+                    builder.append(page);
+                    break;
+                case SIZE:
+                    builder.append(size);
+                    break;
+                case GACHA_TYPE:
+                    builder.append(gachaTypeId);
+                    break;
+                case END_ID:
+                    builder.append(endId);
+                    break;
+                default:
+                    throw new IllegalStateException(String.format("Unknown slot <%s>", slots[i]));
+            }
+            builder.append(literals[i + 1]);
+        }
+        return builder;
+    }
+
+
+    /**
+     * Returns the URL with the given values in the slots. See
+     * {@link #appendTo(StringBuilder, int, int, GachaType, long)}.
+     */
+    public String format(int page, int size, GachaType gachaType, long endId) {
+        // enough for the literals and the longest values of all slots
+        StringBuilder builder = new StringBuilder(baseLength + slots.length * 20);
+        return appendTo(builder, page, size, gachaType, endId).toString();
+    }
+
+
+    private int getGachaTypeId(GachaType gachaType) {
+        switch (game) {
+            case HSR:
+                return gachaType.getTypeIdHsr();
+            case Genshin:
+                return gachaType.getTypeIdGenshin();
+            default:
+                throw new IllegalArgumentException(String.format("Unknown game type <%s>", game));
+        }
+    }
+
+
+
+
+
+    private enum Slot {
+        PAGE, SIZE, GACHA_TYPE, END_ID;
+
+
+        private final String marker = String.format("%c%s%c", MARKER, name(), MARKER);
+
+
+        private static Slot of(String marker) {
+            for (Slot slot : values()) {
+                if (slot.marker.equals(marker)) {
+                    return slot;
+                }
+            }
+            throw new IllegalArgumentException(String.format("Unknown slot marker <%s>", marker));
+        }
+    }
+}
@@ -2,9 +2,11 @@ package com.hanyans.gachacounter.mhy;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
-import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 
+import com.hanyans.gachacounter.mhy.transport.GachaLogTransport;
+
 
 /**
  * Utility class to form the URL string to retrieve gacha logs from server.
@@ -777,6 +779,23 @@ public class HistoryRetriever {
     }
 
 
+    /**
+     * Forms the URL string in the format of the specified game.
+     *
+     * @param game - the game of the URL.
+     */
+    public String formUrlString(Game game) {
+        switch (game) {
+            case HSR:
+                return formUrlStringHsr();
+            case Genshin:
+                return formUrlStringGenshin();
+            default:
+                throw new IllegalArgumentException(String.format("Unknown game type <%s>", game));
+        }
+    }
+
+
     public String formUrlStringHsr() {
         return String.join("",
                 gachaLogUrl.orElseThrow(),
@@ -827,11 +846,10 @@ public class HistoryRetriever {
     }
 
 
-    public BufferedReader getHistoryReader() {
+    public BufferedReader getHistoryReader(GachaLogTransport transport) {
         String urlString = formUrlStringHsr();
         try {
-            URL url = new URL(urlString);
-            return new BufferedReader(new InputStreamReader(url.openStream()));
+            return new BufferedReader(new InputStreamReader(transport.open(urlString), StandardCharsets.UTF_8));
         } catch (Throwable ex) {
             ex.printStackTrace();
             return null;
@@ -5,15 +5,13 @@ public enum ItemType {
 
 
     public static ItemType getItemType(String typeName) {
-        switch (typeName.toUpperCase()) {
-            case "CHARACTER":
-                return CHARACTER;
-            case "LIGHT CONE":
-            case "WEAPON":
-                return WEAPON;
-            default:
-                throw new IllegalArgumentException(String.format("Unknown type name <%s>",
-                        typeName));
+        // compared without case conversion as it is called for every entry retrieved
+        if (typeName.equalsIgnoreCase("CHARACTER")) {
+            return CHARACTER;
+        } else if (typeName.equalsIgnoreCase("LIGHT CONE") || typeName.equalsIgnoreCase("WEAPON")) {
+            return WEAPON;
         }
+        throw new IllegalArgumentException(String.format("Unknown type name <%s>",
+                typeName));
     }
 }
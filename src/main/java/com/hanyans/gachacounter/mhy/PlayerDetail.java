@@ -2,6 +2,7 @@ package com.hanyans.gachacounter.mhy;
 
 import java.util.HashMap;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 
 
 /**
@@ -9,6 +10,9 @@ import java.util.NoSuchElementException;
  * player's URL.
  */
 public class PlayerDetail {
+    private static final String GAME_BIZ_HSR = "hkrpg";
+    private static final String GAME_BIZ_GENSHIN = "hk4e";
+
     public final String urlLink;
     public final String authKeyVer;
     public final String signType;
@@ -138,4 +142,21 @@ public class PlayerDetail {
                 .setInitType(initType)
                 .setGameVersion(gameVersion);
     }
+
+
+    /**
+     * Returns the game of the player as told by the {@code game_biz} of the
+     * URL, or an empty {@code Optional} if the URL has no {@code game_biz} or
+     * is of an unknown game.
+     */
+    public Optional<Game> getGame() {
+        if (gameBiz == null) {
+            return Optional.empty();
+        } else if (gameBiz.startsWith(GAME_BIZ_HSR)) {
+            return Optional.of(Game.HSR);
+        } else if (gameBiz.startsWith(GAME_BIZ_GENSHIN)) {
+            return Optional.of(Game.Genshin);
+        }
+        return Optional.empty();
+    }
 }
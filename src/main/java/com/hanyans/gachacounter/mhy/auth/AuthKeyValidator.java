@@ -0,0 +1,212 @@
+package com.hanyans.gachacounter.mhy.auth;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.hanyans.gachacounter.mhy.GachaType;
+import com.hanyans.gachacounter.mhy.Game;
+import com.hanyans.gachacounter.mhy.PlayerDetail;
+import com.hanyans.gachacounter.mhy.exception.ResponseException;
+import com.hanyans.gachacounter.mhy.pacer.PacerRegistry;
+import com.hanyans.gachacounter.mhy.pacer.RequestPacer;
+import com.hanyans.gachacounter.mhy.response.GachaLogDecoder;
+import com.hanyans.gachacounter.mhy.response.GachaResponseResult;
+import com.hanyans.gachacounter.mhy.transport.GachaLogTransport;
+
+
+/**
+ * Checks if the authkey of a player URL can be used before a full retrieval
+ * is started with it.
+ *
+ * <p>An authkey whose {@code timestamp} is older than
+ * {@link #AUTHKEY_LIFETIME} is expired without sending any request. Otherwise
+ * a single request of one entry is sent and its return code classified, any
+ * code other than those of an expired authkey, a throttled request or another
+ * game or region taken as an invalid authkey. The verdict of each URL is
+ * cached for a short time so that consecutive retrievals with the same URL
+ * are not checked again.
+ */
+public class AuthKeyValidator {
+    /** Time an authkey stays valid after it is issued. */
+    public static final Duration AUTHKEY_LIFETIME = Duration.ofHours(24);
+    /** Default time a verdict is cached for. */
+    public static final Duration DEFAULT_VERDICT_TTL = Duration.ofMinutes(1);
+
+    private final Logger logger = LogManager.getFormatterLogger(AuthKeyValidator.class);
+
+    private final HashMap<String, CachedVerdict> verdicts = new HashMap<>();
+
+    private final GachaLogTransport transport;
+    private final Function<PlayerDetail, ? extends RequestPacer> pacerResolver;
+    private final Duration verdictTtl;
+
+
+    /**
+     * Constructs an {@code AuthKeyValidator} that caches verdicts for
+     * {@link #DEFAULT_VERDICT_TTL}.
+     *
+     * @param transport - the transport to send the request through.
+     * @param pacers - registry of the pacers to pace the request with.
+     */
+    public AuthKeyValidator(GachaLogTransport transport, PacerRegistry pacers) {
+        this(transport, pacers::getPacer, DEFAULT_VERDICT_TTL);
+    }
+
+
+    /**
+     * Constructs an {@code AuthKeyValidator}.
+     *
+     * @param transport - the transport to send the request through.
+     * @param pacerResolver - resolver of the pacer of a player.
+     * @param verdictTtl - time a verdict is cached for.
+     */
+    public AuthKeyValidator(
+                GachaLogTransport transport,
+                Function<PlayerDetail, ? extends RequestPacer> pacerResolver,
+                Duration verdictTtl) {
+        this.transport = Objects.requireNonNull(transport);
+        this.pacerResolver = Objects.requireNonNull(pacerResolver);
+        this.verdictTtl = Objects.requireNonNull(verdictTtl);
+    }
+
+
+    /**
+     * Returns the verdict of the authkey of the given player URL, checking it
+     * if there is no cached verdict.
+     *
+     * @param playerUrl - the player URL to check.
+     * @param game - the game of the player URL.
+     * @throws java.util.NoSuchElementException if the URL cannot be parsed.
+     * @throws IOException if an I/O error occurs while sending the request.
+     * @throws InterruptedException if interrupted while waiting to send the
+     *      request.
+     */
+    public AuthKeyVerdict validate(String playerUrl, Game game) throws IOException, InterruptedException {
+        Objects.requireNonNull(playerUrl);
+        Objects.requireNonNull(game);
+        Optional<AuthKeyVerdict> cached = getCached(playerUrl);
+        if (cached.isPresent()) {
+            logger.debug("Using cached authkey verdict <%s>", cached.get());
+            return cached.get();
+        }
+
+        long startTime = System.currentTimeMillis();
+        PlayerDetail detail = PlayerDetail.of(playerUrl);
+        AuthKeyVerdict verdict = isTimestampExpired(detail)
+                ? AuthKeyVerdict.EXPIRED
+                : sendProbe(detail, game);
+        logger.info("Authkey pre-flight verdict <%s> in %d ms",
+                verdict, System.currentTimeMillis() - startTime);
+        // a throttled check says nothing about the authkey
+        if (verdict != AuthKeyVerdict.THROTTLED) {
+            putCached(playerUrl, verdict);
+        }
+        return verdict;
+    }
+
+
+    /**
+     * Removes the cached verdict of the given player URL, such as when a
+     * retrieval with it has failed.
+     *
+     * @param playerUrl - the player URL whose verdict to remove.
+     */
+    public synchronized void invalidate(String playerUrl) {
+        verdicts.remove(playerUrl);
+    }
+
+
+    private boolean isTimestampExpired(PlayerDetail detail) {
+        if (detail.timestamp == null) {
+            return false;
+        }
+        try {
+            long issuedAt = Long.parseLong(detail.timestamp) * 1000;
+            return System.currentTimeMillis() - issuedAt > AUTHKEY_LIFETIME.toMillis();
+        } catch (NumberFormatException numEx) {
+            logger.debug("Unable to parse authkey timestamp <%s>", detail.timestamp);
+            return false;
+        }
+    }
+
+
+    private AuthKeyVerdict sendProbe(PlayerDetail detail, Game game) throws IOException, InterruptedException {
+        String urlString = detail.formHistoryRetriever()
+                .setLang("en")
+                .setPage(1)
+                .setEndId(0)
+                .setSize(1)
+                .setGachaType(GachaType.STANDARD, game)
+                .formUrlString(game);
+        RequestPacer pacer = pacerResolver.apply(detail);
+        long waitTime = pacer.reserve() - System.currentTimeMillis();
+        if (waitTime > 0) {
+            Thread.sleep(waitTime);
+        }
+
+        try (InputStream input = transport.open(urlString, pacer)) {
+            new GachaLogDecoder(GachaType.STANDARD).decode(input, entry -> {});
+            pacer.onSuccess();
+            return AuthKeyVerdict.VALID;
+        } catch (ResponseException resEx) {
+            logger.debug("Authkey pre-flight rejected (retcode = %d) -- %s",
+                    resEx.getRetcode(), resEx.getMessage());
+            if (resEx.getRetcode() == GachaResponseResult.RETCODE_VISIT_TOO_FREQUENTLY) {
+                pacer.onThrottled();
+            }
+            return classify(resEx);
+        }
+    }
+
+
+    private static AuthKeyVerdict classify(ResponseException resEx) {
+        switch (resEx.getRetcode()) {
+            case GachaResponseResult.RETCODE_AUTHKEY_TIMEOUT:
+                return AuthKeyVerdict.EXPIRED;
+            case GachaResponseResult.RETCODE_VISIT_TOO_FREQUENTLY:
+                return AuthKeyVerdict.THROTTLED;
+            case GachaResponseResult.RETCODE_GAME_NAME_ERROR:
+                return AuthKeyVerdict.REGION_MISMATCH;
+            default:
+                return AuthKeyVerdict.INVALID;
+        }
+    }
+
+
+    private synchronized Optional<AuthKeyVerdict> getCached(String playerUrl) {
+        CachedVerdict cached = verdicts.get(playerUrl);
+        if (cached == null || cached.expiresAt < System.currentTimeMillis()) {
+            verdicts.remove(playerUrl);
+            return Optional.empty();
+        }
+        return Optional.of(cached.verdict);
+    }
+
+
+    private synchronized void putCached(String playerUrl, AuthKeyVerdict verdict) {
+        verdicts.put(playerUrl, new CachedVerdict(verdict, System.currentTimeMillis() + verdictTtl.toMillis()));
+    }
+
+
+
+
+
+    private static class CachedVerdict {
+        private final AuthKeyVerdict verdict;
+        private final long expiresAt;
+
+
+        private CachedVerdict(AuthKeyVerdict verdict, long expiresAt) {
+            this.verdict = verdict;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.hanyans.gachacounter.mhy.auth;
+
+
+/**
+ * Enumeration of the verdicts of an authkey pre-flight check.
+ */
+public enum AuthKeyVerdict {
+    /** The authkey can be used to retrieve the gacha log. */
+    VALID(true, "Authkey is valid"),
+    /** The authkey has expired. */
+    EXPIRED(false, "Authkey has expired, open the gacha history in game and grab the URL again"),
+    /** The authkey is of another game or region than the URL requests. */
+    REGION_MISMATCH(false, "Authkey does not belong to the game or region of the URL"),
+    /** The server is throttling requests, the authkey could not be checked. */
+    THROTTLED(true, "Server is throttling requests"),
+    /** The authkey is rejected for any other reason. */
+    INVALID(false, "Authkey is invalid");
+
+
+    private final boolean isUsable;
+    private final String description;
+
+
+    AuthKeyVerdict(boolean isUsable, String description) {
+        this.isUsable = isUsable;
+        this.description = description;
+    }
+
+
+    /**
+     * Returns {@code true} if a retrieval with the authkey may succeed.
+     */
+    public boolean isUsable() {
+        return isUsable;
+    }
+
+
+    /**
+     * Returns the description of the verdict to show to the user.
+     */
+    public String getDescription() {
+        return description;
+    }
+}
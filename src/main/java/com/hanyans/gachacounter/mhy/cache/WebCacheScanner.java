@@ -0,0 +1,267 @@
+package com.hanyans.gachacounter.mhy.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+
+/**
+ * Utility class to find the player URL in the game's web cache files.
+ *
+ * <p>Files are memory-mapped window by window from the end and matched byte by
+ * byte, so the newest URL is found without decoding the file or reading the
+ * parts of it before the URL. Files scanned repeatedly, such as the cache files
+ * of a running game, are instead read into a buffer reused across the scans,
+ * as a mapping stays alive until it is garbage collected and can keep the game
+ * from truncating or deleting the file.
+ */
+public class WebCacheScanner {
+    /** The sequence that identifies a gacha log URL. */
+    public static final String GACHA_LOG_SEQ = "getGachaLog";
+
+    private static final byte[] PATTERN = GACHA_LOG_SEQ.getBytes(StandardCharsets.US_ASCII);
+    private static final int[] SHIFTS = formShifts(PATTERN);
+    private static final byte[] URL_START = "http".getBytes(StandardCharsets.US_ASCII);
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+    private static final int MAX_URL_LENGTH = 8 * 1024;
+
+
+    /**
+     * Scans the whole file in the given path for the newest gacha log URL.
+     *
+     * @param path - path of the file to scan.
+     * @throws IOException if an I/O error occurs while reading the file.
+     */
+    public static ScanResult scan(Path path) throws IOException {
+        return scan(path, 0);
+    }
+
+
+    /**
+     * Scans the file in the given path from the end back to the specified
+     * offset for the newest gacha log URL. A URL is only found if its
+     * {@value #GACHA_LOG_SEQ} sequence starts at or after the offset.
+     *
+     * @param path - path of the file to scan.
+     * @param fromOffset - offset to scan back to.
+     * @throws IOException if an I/O error occurs while reading the file.
+     */
+    public static ScanResult scan(Path path, long fromOffset) throws IOException {
+        return scan(path, fromOffset, WINDOW_SIZE);
+    }
+
+
+    /**
+     * Scans the file in the given path from the end back to the specified
+     * offset for the newest gacha log URL accepted by the given filter. The
+     * file is read window by window into the given buffer instead of being
+     * memory-mapped.
+     *
+     * @param path - path of the file to scan.
+     * @param fromOffset - offset to scan back to.
+     * @param buffer - buffer to read the file into, its capacity is the size
+     *      of the windows read.
+     * @param filter - filter of the URLs to accept.
+     * @throws IOException if an I/O error occurs while reading the file.
+     */
+    public static ScanResult scan(Path path, long fromOffset, ByteBuffer buffer, Predicate<String> filter)
+                throws IOException {
+        Objects.requireNonNull(buffer);
+        return scan(path, fromOffset, buffer.capacity(), filter, (channel, start, length) -> {
+            buffer.clear().limit((int) length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    throw new IOException("File truncated while scanning");
+                }
+            }
+            return buffer.flip();
+        });
+    }
+
+
+    /**
+     * Returns {@code true} if the given path is named as a shard of the web
+     * cache directory ({@code data_*} or {@code f_*}).
+     */
+    public static boolean isShard(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith("data_") || name.startsWith("f_");
+    }
+
+
+    static ScanResult scan(Path path, long fromOffset, long windowSize) throws IOException {
+        return scan(path, fromOffset, windowSize, url -> true,
+                (channel, start, length) -> channel.map(FileChannel.MapMode.READ_ONLY, start, length));
+    }
+
+
+    private static ScanResult scan(Path path, long fromOffset, long windowSize, Predicate<String> filter,
+                WindowReader reader) throws IOException {
+        Objects.requireNonNull(path);
+        Objects.requireNonNull(filter);
+        long startTime = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long from = Math.max(0, Math.min(fromOffset, size));
+            long windowEnd = size;
+            while (windowEnd - from >= PATTERN.length) {
+                long windowStart = Math.max(from, windowEnd - windowSize);
+                ByteBuffer window = reader.read(channel, windowStart, windowEnd - windowStart);
+                int index = window.limit() - PATTERN.length;
+                while (index >= 0) {
+                    if (matchesAt(window, index)) {
+                        long offset = windowStart + index;
+                        Optional<String> url = extractUrl(channel, offset, size);
+                        if (url.isPresent() && filter.test(url.get())) {
+                            return new ScanResult(path, url, offset, size, size - offset,
+                                    System.nanoTime() - startTime);
+                        }
+                    }
+                    index -= SHIFTS[window.get(index) & 0xff];
+                }
+                if (windowStart == from) {
+                    break;
+                }
+                // overlap the windows so that a sequence across them is matched
+                windowEnd = windowStart + PATTERN.length - 1;
+            }
+            return new ScanResult(path, Optional.empty(), -1, size, size - from,
+                    System.nanoTime() - startTime);
+        }
+    }
+
+
+    private static boolean matchesAt(ByteBuffer buffer, int index) {
+        for (int i = 0; i < PATTERN.length; i++) {
+            if (buffer.get(index + i) != PATTERN[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Forms the shift table of a backward Horspool search, where the shift of
+     * a byte is the distance to its first occurrence in the pattern after the
+     * first byte.
+     */
+    private static int[] formShifts(byte[] pattern) {
+        int[] shifts = new int[256];
+        Arrays.fill(shifts, pattern.length);
+        for (int i = pattern.length - 1; i >= 1; i--) {
+            shifts[pattern[i] & 0xff] = i;
+        }
+        return shifts;
+    }
+
+
+    /**
+     * Extracts the URL around the sequence matched at the given offset. The
+     * URL starts at the first {@code http} of the run of URL characters
+     * containing the sequence and ends at the end of that run.
+     */
+    private static Optional<String> extractUrl(FileChannel channel, long offset, long size) throws IOException {
+        long regionStart = Math.max(0, offset - MAX_URL_LENGTH);
+        long regionEnd = Math.min(size, offset + MAX_URL_LENGTH);
+        ByteBuffer region = ByteBuffer.allocate((int) (regionEnd - regionStart));
+        while (region.hasRemaining()) {
+            if (channel.read(region, regionStart + region.position()) < 0) {
+                break;
+            }
+        }
+        byte[] bytes = region.array();
+        int match = (int) (offset - regionStart);
+
+        int runStart = match;
+        while (runStart > 0 && isUrlByte(bytes[runStart - 1])) {
+            runStart--;
+        }
+        int runEnd = match + PATTERN.length;
+        while (runEnd < region.position() && isUrlByte(bytes[runEnd])) {
+            runEnd++;
+        }
+        for (int i = runStart; i + URL_START.length <= match; i++) {
+            if (Arrays.equals(bytes, i, i + URL_START.length, URL_START, 0, URL_START.length)) {
+                return Optional.of(new String(bytes, i, runEnd - i, StandardCharsets.US_ASCII));
+            }
+        }
+        return Optional.empty();
+    }
+
+
+    private static boolean isUrlByte(byte b) {
+        // printable ASCII, which excludes the NUL and new lines separating
+        // cache entries
+        return b > 0x20 && b < 0x7f;
+    }
+
+
+
+
+
+    /**
+     * Reader of a window of a file into a buffer.
+     */
+    @FunctionalInterface
+    private static interface WindowReader {
+        /**
+         * Returns a buffer holding the given window of the file of the given
+         * channel from index 0.
+         *
+         * @param channel - channel of the file.
+         * @param start - offset of the window.
+         * @param length - length of the window.
+         * @throws IOException if an I/O error occurs while reading the file.
+         */
+        public ByteBuffer read(FileChannel channel, long start, long length) throws IOException;
+    }
+
+
+
+
+
+    /**
+     * Result of a scan.
+     */
+    public static class ScanResult {
+        /** Path of the file scanned. */
+        public final Path path;
+        /** The newest gacha log URL found, if any. */
+        public final Optional<String> url;
+        /** Offset of the sequence of the URL found or {@code -1}. */
+        public final long offset;
+        /** Size of the file when it was scanned. */
+        public final long fileSize;
+        /** Number of bytes scanned. */
+        public final long bytesScanned;
+        /** Time taken by the scan in nanoseconds. */
+        public final long scanTime;
+
+
+        private ScanResult(Path path, Optional<String> url, long offset, long fileSize,
+                    long bytesScanned, long scanTime) {
+            this.path = path;
+            this.url = url;
+            this.offset = offset;
+            this.fileSize = fileSize;
+            this.bytesScanned = bytesScanned;
+            this.scanTime = scanTime;
+        }
+
+
+        @Override
+        public String toString() {
+            return String.format("%s (%s, %d of %d bytes scanned in %.1f ms)",
+                    path, url.isPresent() ? "found at " + offset : "not found",
+                    bytesScanned, fileSize, scanTime / 1e6);
+        }
+    }
+}
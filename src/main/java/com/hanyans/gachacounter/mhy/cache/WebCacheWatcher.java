@@ -0,0 +1,231 @@
+package com.hanyans.gachacounter.mhy.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.hanyans.gachacounter.mhy.PlayerDetail;
+import com.hanyans.gachacounter.mhy.cache.WebCacheScanner.ScanResult;
+
+
+/**
+ * Watches the game's web cache for new gacha log URLs.
+ *
+ * <p>The watched path can either be a web cache file or the web cache
+ * directory, in which case all its shards are watched. Changes are collected
+ * until none has arrived for the debounce time, as the game writes a cache
+ * entry in several bursts, and only then are the changed files scanned. Each
+ * file is scanned only over the bytes appended since it was last scanned, or
+ * whole if it has not grown, as it was then rewritten in place. Files are read
+ * into a buffer reused across the scans rather than memory-mapped, so that the
+ * game is not kept from truncating or deleting them.
+ *
+ * <p>As a file rewritten in place can hold an older URL after a newer one,
+ * URLs are ordered by their {@code timestamp} parameter. The files are scanned
+ * whole when watching starts and a URL is only published to the handler, from
+ * the watching thread, if its timestamp is strictly newer than that of every
+ * URL found before, so only URLs written afterwards are published. URLs
+ * without a timestamp are never published.
+ */
+public class WebCacheWatcher implements AutoCloseable {
+    /** Default time without changes before the changed files are scanned. */
+    public static final Duration DEFAULT_DEBOUNCE_TIME = Duration.ofMillis(750);
+
+    // a sequence cut by the last scan is matched by the next
+    private static final long SCAN_OVERLAP = WebCacheScanner.GACHA_LOG_SEQ.length() - 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Logger logger = LogManager.getFormatterLogger(WebCacheWatcher.class);
+
+    private final HashMap<Path, Long> scannedSizes = new HashMap<>();
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    private final Path dirPath;
+    private final Optional<Path> filePath;
+    private final long debounceTime;
+    private final Consumer<String> urlHandler;
+    private final WatchService watchService;
+    private final Thread watchThread;
+
+    private long newestTimestamp = -1;
+
+
+    /**
+     * Constructs and starts a {@code WebCacheWatcher}.
+     *
+     * @param path - path of the web cache file or directory to watch.
+     * @param debounceTime - time without changes before the changed files
+     *      are scanned.
+     * @param urlHandler - handler of the new URLs found.
+     * @throws NullPointerException if any parameter is {@code null}.
+     * @throws IOException if the path cannot be watched or its files cannot
+     *      be scanned.
+     */
+    public WebCacheWatcher(Path path, Duration debounceTime, Consumer<String> urlHandler) throws IOException {
+        Path absPath = path.toAbsolutePath();
+        if (Files.isDirectory(absPath)) {
+            this.dirPath = absPath;
+            this.filePath = Optional.empty();
+        } else {
+            this.dirPath = absPath.getParent();
+            this.filePath = Optional.of(absPath);
+        }
+        this.debounceTime = Objects.requireNonNull(debounceTime).toMillis();
+        this.urlHandler = Objects.requireNonNull(urlHandler);
+
+        try (Stream<Path> files = Files.list(dirPath)) {
+            for (Path file : files.filter(Files::isRegularFile).filter(this::isWatched).toList()) {
+                scanNewer(file, 0);
+            }
+        }
+        this.watchService = dirPath.getFileSystem().newWatchService();
+        try {
+            dirPath.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException ioEx) {
+            watchService.close();
+            throw ioEx;
+        }
+        this.watchThread = new Thread(this::watch, "web-cache-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        logger.info("Watching web cache in \"%s\"", absPath);
+    }
+
+
+    /**
+     * Stops watching. Scans already started are let to complete.
+     */
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException ioEx) {
+            logger.warn("Error while closing web cache watch service", ioEx);
+        }
+        watchThread.interrupt();
+    }
+
+
+    private void watch() {
+        LinkedHashSet<Path> changed = new LinkedHashSet<>();
+        long deadline = 0;
+        try {
+            while (true) {
+                WatchKey key;
+                if (changed.isEmpty()) {
+                    key = watchService.take();
+                } else {
+                    long remaining = deadline - System.currentTimeMillis();
+                    key = remaining > 0
+                            ? watchService.poll(remaining, TimeUnit.MILLISECONDS)
+                            : null;
+                }
+
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            // events lost, check every file
+                            scannedSizes.keySet().forEach(changed::add);
+                            continue;
+                        }
+                        Path file = dirPath.resolve((Path) event.context());
+                        if (isWatched(file)) {
+                            changed.add(file);
+                        }
+                    }
+                    key.reset();
+                    deadline = System.currentTimeMillis() + debounceTime;
+                } else if (!changed.isEmpty()) {
+                    scanChanged(changed);
+                    changed.clear();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ex) {
+            logger.debug("Stopped watching web cache in \"%s\"", dirPath);
+        }
+    }
+
+
+    private void scanChanged(LinkedHashSet<Path> changed) {
+        Optional<ScanResult> newest = Optional.empty();
+        for (Path file : changed) {
+            try {
+                long size = Files.size(file);
+                long scannedSize = scannedSizes.getOrDefault(file, 0L);
+                long fromOffset = size <= scannedSize ? 0 : Math.max(0, scannedSize - SCAN_OVERLAP);
+                // a URL found in a later file is newer than those found before
+                Optional<ScanResult> result = scanNewer(file, fromOffset);
+                if (result.isPresent()) {
+                    newest = result;
+                }
+            } catch (IOException ioEx) {
+                // the game may be rewriting the file, retried on its next change
+                logger.warn("Unable to scan web cache file \"%s\" -- %s", file, ioEx);
+            }
+        }
+
+        if (newest.isEmpty()) {
+            return;
+        }
+        logger.info("Found new player URL in %s", newest.get());
+        urlHandler.accept(newest.get().url.get());
+    }
+
+
+    /**
+     * Scans the given file back to the given offset for the URL with the
+     * newest timestamp, if it is newer than that of every URL found before,
+     * and takes its timestamp as the newest.
+     */
+    private Optional<ScanResult> scanNewer(Path file, long fromOffset) throws IOException {
+        Optional<ScanResult> newest = Optional.empty();
+        while (true) {
+            // the scan stops at the last URL newer than the bound, which
+            // need not be the newest of the file
+            long bound = newestTimestamp;
+            ScanResult result = WebCacheScanner.scan(file, fromOffset, buffer, url -> getTimestamp(url) > bound);
+            scannedSizes.put(file, result.fileSize);
+            logger.debug("Scanned %s", result);
+            if (result.url.isEmpty()) {
+                return newest;
+            }
+            newestTimestamp = getTimestamp(result.url.get());
+            newest = Optional.of(result);
+        }
+    }
+
+
+    private long getTimestamp(String urlString) {
+        try {
+            return Long.parseLong(Optional.ofNullable(PlayerDetail.of(urlString).timestamp).orElseThrow());
+        } catch (NoSuchElementException | NumberFormatException ex) {
+            logger.debug("Could not parse timestamp of \"%s\" -- %s", urlString, ex);
+            return -1;
+        }
+    }
+
+
+    private boolean isWatched(Path file) {
+        return filePath.map(file::equals).orElseGet(() -> WebCacheScanner.isShard(file));
+    }
+}
@@ -0,0 +1,14 @@
+package com.hanyans.gachacounter.mhy.exception;
+
+import java.io.IOException;
+
+
+/**
+ * Thrown when a request is not sent because the circuit breaker of its host
+ * is open after too many failed requests.
+ */
+public class CircuitOpenException extends IOException {
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
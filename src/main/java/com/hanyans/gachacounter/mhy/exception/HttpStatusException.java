@@ -0,0 +1,26 @@
+package com.hanyans.gachacounter.mhy.exception;
+
+import java.io.IOException;
+
+
+/**
+ * Thrown when the server responds with an HTTP status other than
+ * {@code 200 OK}.
+ */
+public class HttpStatusException extends IOException {
+    private final int statusCode;
+
+
+    public HttpStatusException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+
+    /**
+     * Returns the HTTP status code of the response.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
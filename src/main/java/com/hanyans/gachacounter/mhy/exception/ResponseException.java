@@ -1,17 +1,42 @@
 package com.hanyans.gachacounter.mhy.exception;
 
 public class ResponseException extends Exception {
-    public ResponseException() {}
+    /** Return code of exceptions that are not from a response. */
+    public static final int UNKNOWN_RETCODE = Integer.MIN_VALUE;
+
+    private final int retcode;
+
+
+    public ResponseException() {
+        this.retcode = UNKNOWN_RETCODE;
+    }
 
     public ResponseException(String message) {
         super(message);
+        this.retcode = UNKNOWN_RETCODE;
+    }
+
+    public ResponseException(int retcode, String message) {
+        super(message);
+        this.retcode = retcode;
     }
 
     public ResponseException(Throwable cause) {
         super(cause);
+        this.retcode = UNKNOWN_RETCODE;
     }
 
     public ResponseException(String message, Throwable cause) {
         super(message, cause);
+        this.retcode = UNKNOWN_RETCODE;
+    }
+
+
+    /**
+     * Returns the return code of the response that caused this exception or
+     * {@link #UNKNOWN_RETCODE} if it is not caused by a response.
+     */
+    public int getRetcode() {
+        return retcode;
     }
 }
@@ -0,0 +1,82 @@
+package com.hanyans.gachacounter.mhy.pacer;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.hanyans.gachacounter.mhy.PlayerDetail;
+
+
+/**
+ * A registry of {@link TokenBucketPacer} keyed by the API host and region
+ * of the player URL.
+ *
+ * <p>Players of the same host and region share the same pacer. The learned
+ * rate of each pacer is kept by the registry so that it can be saved and new
+ * pacers of the same key start at their best known rate instead of
+ * {@link TokenBucketPacer#DEFAULT_RATE}.
+ */
+public class PacerRegistry {
+    @JsonIgnore private final HashMap<String, TokenBucketPacer> pacers = new HashMap<>();
+    @JsonIgnore private final HashMap<String, Double> learnedRates = new HashMap<>();
+
+
+    /**
+     * Constructs an empty {@code PacerRegistry}.
+     */
+    public PacerRegistry() {}
+
+
+    /**
+     * Constructs a {@code PacerRegistry}.
+     *
+     * @param learnedRates - the learned rates of each key.
+     */
+    @JsonCreator
+    public PacerRegistry(
+                @JsonProperty("learnedRates") Map<String, Double> learnedRates) {
+        this.learnedRates.putAll(Objects.requireNonNullElse(learnedRates, Map.of()));
+    }
+
+
+    /**
+     * Returns the pacer of the host and region of the specified player. The
+     * same pacer is returned for players of the same host and region.
+     *
+     * @param detail - the player whose pacer to return.
+     */
+    public synchronized TokenBucketPacer getPacer(PlayerDetail detail) {
+        return pacers.computeIfAbsent(formKey(detail), key -> new TokenBucketPacer(
+                learnedRates.getOrDefault(key, TokenBucketPacer.DEFAULT_RATE)));
+    }
+
+
+    /**
+     * Returns a map view of the learned rates of each key, including those of
+     * the pacers in use. Changes to the returned map will not affect this
+     * registry.
+     */
+    @JsonProperty("learnedRates")
+    public synchronized HashMap<String, Double> getLearnedRates() {
+        HashMap<String, Double> rates = new HashMap<>(learnedRates);
+        for (Map.Entry<String, TokenBucketPacer> entry : pacers.entrySet()) {
+            rates.put(entry.getKey(), entry.getValue().getLearnedRate());
+        }
+        return rates;
+    }
+
+
+    private static String formKey(PlayerDetail detail) {
+        String host;
+        try {
+            host = Objects.requireNonNullElse(URI.create(detail.urlLink).getHost(), detail.urlLink);
+        } catch (IllegalArgumentException illArgEx) {
+            host = detail.urlLink;
+        }
+        return String.format("%s/%s", host, detail.region);
+    }
+}
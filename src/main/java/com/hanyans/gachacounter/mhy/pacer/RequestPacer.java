@@ -0,0 +1,40 @@
+package com.hanyans.gachacounter.mhy.pacer;
+
+
+/**
+ * Paces the requests made to the gacha log API.
+ *
+ * <p>A single {@code RequestPacer} can be shared by multiple requesters
+ * running concurrently. Requesters reserve a slot through {@link #reserve()}
+ * before each request and report the outcome of the request through
+ * {@link #onSuccess()} or {@link #onThrottled()} so that implementations may
+ * adapt their rate to what the server tolerates.
+ */
+public interface RequestPacer {
+    /**
+     * Reserves the next free request slot.
+     *
+     * @return the time, in milliseconds since epoch, at which the reserved
+     *      request may be sent.
+     */
+    public long reserve();
+
+
+    /**
+     * Reports that a paced request was successful.
+     */
+    public void onSuccess();
+
+
+    /**
+     * Reports that a paced request was rejected by the server for being too
+     * frequent.
+     */
+    public void onThrottled();
+
+
+    /**
+     * Returns the current request rate in requests per second.
+     */
+    public double getRate();
+}
@@ -0,0 +1,140 @@
+package com.hanyans.gachacounter.mhy.pacer;
+
+
+/**
+ * A {@link RequestPacer} based on a token bucket whose refill rate adapts to
+ * the responses of the server.
+ *
+ * <p>The rate is cut by {@link #BACKOFF_FACTOR} every time a request is
+ * throttled, so repeated throttling slows the pacer down exponentially. After
+ * {@link #RAMP_UP_STREAK} consecutive successes the rate is raised by
+ * {@link #RAMP_UP_FACTOR}, never exceeding the maximum rate.
+ *
+ * <p>The last rate to complete a full success streak is kept as the learned
+ * rate of the pacer (see {@link #getLearnedRate()}), which can be used as the
+ * starting rate of a later pacer.
+ */
+public class TokenBucketPacer implements RequestPacer {
+    /** Default rate, close to one request every 2.25 seconds. */
+    public static final double DEFAULT_RATE = 1D / 2.25D;
+    /** Lowest rate the pacer will back off to. */
+    public static final double MIN_RATE = 1D / 15D;
+    /** Highest rate the pacer will ramp up to. */
+    public static final double MAX_RATE = 1D;
+
+    /** Factor to multiply the rate by when throttled. */
+    public static final double BACKOFF_FACTOR = 0.5D;
+    /** Factor to multiply the rate by after a success streak. */
+    public static final double RAMP_UP_FACTOR = 1.1D;
+    /** Number of consecutive successes required to ramp up. */
+    public static final int RAMP_UP_STREAK = 20;
+
+    private static final double BUCKET_CAPACITY = 1D;
+
+    private final double minRate;
+    private final double maxRate;
+
+    private double rate;
+    private double learnedRate;
+    private double tokens = BUCKET_CAPACITY;
+    private long lastRefill = System.currentTimeMillis();
+    private int successStreak = 0;
+
+
+    /**
+     * Constructs a {@code TokenBucketPacer} starting at the specified rate and
+     * bounded by the default minimum and maximum rates.
+     *
+     * @param initialRate - the starting rate in requests per second.
+     */
+    public TokenBucketPacer(double initialRate) {
+        this(initialRate, MIN_RATE, MAX_RATE);
+    }
+
+
+    /**
+     * Constructs a {@code TokenBucketPacer}.
+     *
+     * @param initialRate - the starting rate in requests per second. It is
+     *      clamped to the given bounds.
+     * @param minRate - the lowest rate to back off to.
+     * @param maxRate - the highest rate to ramp up to.
+     * @throws IllegalArgumentException if the bounds are not positive or
+     *      {@code minRate} is larger than {@code maxRate}.
+     */
+    public TokenBucketPacer(double initialRate, double minRate, double maxRate) {
+        if (minRate <= 0 || minRate > maxRate) {
+            throw new IllegalArgumentException(String.format("Invalid rate bounds (%f ~ %f)",
+                    minRate, maxRate));
+        }
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.rate = clamp(initialRate);
+        this.learnedRate = this.rate;
+    }
+
+
+    @Override
+    public synchronized long reserve() {
+        long now = System.currentTimeMillis();
+        refill(now);
+        tokens -= 1;
+        if (tokens >= 0) {
+            return now;
+        }
+        // tokens in debt are paid off at the current rate
+        return now + (long) Math.ceil(-tokens / rate * 1000D);
+    }
+
+
+    @Override
+    public synchronized void onSuccess() {
+        successStreak++;
+        if (successStreak < RAMP_UP_STREAK) {
+            return;
+        }
+        successStreak = 0;
+        learnedRate = rate;
+        rate = clamp(rate * RAMP_UP_FACTOR);
+    }
+
+
+    @Override
+    public synchronized void onThrottled() {
+        successStreak = 0;
+        if (learnedRate >= rate) {
+            learnedRate = clamp(rate * BACKOFF_FACTOR);
+        }
+        refill(System.currentTimeMillis());
+        rate = clamp(rate * BACKOFF_FACTOR);
+        // empty the bucket so the next request waits a full period
+        tokens = Math.min(tokens, 0D);
+    }
+
+
+    @Override
+    public synchronized double getRate() {
+        return rate;
+    }
+
+
+    /**
+     * Returns the last rate that completed a full success streak without
+     * being throttled. If no streak has been completed, the starting rate is
+     * returned unless it has since been throttled.
+     */
+    public synchronized double getLearnedRate() {
+        return learnedRate;
+    }
+
+
+    private void refill(long now) {
+        tokens = Math.min(BUCKET_CAPACITY, tokens + (now - lastRefill) * rate / 1000D);
+        lastRefill = now;
+    }
+
+
+    private double clamp(double value) {
+        return Math.max(minRate, Math.min(maxRate, value));
+    }
+}
@@ -0,0 +1,388 @@
+package com.hanyans.gachacounter.mhy.response;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.exc.InputCoercionException;
+import com.hanyans.gachacounter.mhy.GachaType;
+import com.hanyans.gachacounter.mhy.ItemType;
+import com.hanyans.gachacounter.mhy.exception.ResponseException;
+import com.hanyans.gachacounter.model.GachaEntry;
+
+
+/**
+ * Token streaming decoder of gacha log responses that maps the entries of a
+ * page straight to {@link GachaEntry} without going through
+ * {@link GachaResponseResult}, {@link GachaResponseData} and
+ * {@link GachaEntryResponse}.
+ *
+ * <p>The return code of the response is checked before any entry is handed to
+ * the sink. Entries that appear before the return code in the response are
+ * held back until the return code is known to be {@link
+ * GachaResponseResult#RETCODE_OK}.
+ *
+ * <p>Decoders hold no state between calls and can be shared between threads.
+ */
+public class GachaLogDecoder {
+    private static final JsonFactory jsonFactory = JsonFactory.builder()
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+            .build();
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int TIME_LENGTH = "yyyy-MM-dd HH:mm:ss".length();
+
+    private final GachaType gachaType;
+
+
+    /**
+     * Constructs a {@code GachaLogDecoder} that decodes entries of the given
+     * gacha type.
+     *
+     * @param gachaType - the gacha type of the entries decoded.
+     * @throws NullPointerException if {@code gachaType} is {@code null}.
+     */
+    public GachaLogDecoder(GachaType gachaType) {
+        this.gachaType = Objects.requireNonNull(gachaType);
+    }
+
+
+    /**
+     * Decodes the gacha log response from the given stream and passes each of
+     * its entries to the sink in the order they appear in. The method does
+     * <b>NOT</b> close the given stream.
+     *
+     * @param input - the stream of the response to decode.
+     * @param sink - the {@code Consumer} to pass the entries to.
+     * @return the number of entries passed to the sink.
+     * @throws ResponseException if the response has a return code that is
+     *      not {@link GachaResponseResult#RETCODE_OK} or has no return code.
+     * @throws JsonParseException if the response is not valid JSON.
+     * @throws IOException if any other I/O errors occurs.
+     */
+    public int decode(InputStream input, Consumer<? super GachaEntry> sink)
+                throws ResponseException, JsonParseException, IOException {
+        Objects.requireNonNull(input);
+        Objects.requireNonNull(sink);
+        try (JsonParser parser = jsonFactory.createParser(input)) {
+            return decode(parser, sink);
+        }
+    }
+
+
+    /**
+     * Decodes the gacha log response in the given array. See
+     * {@link #decode(InputStream, Consumer)}.
+     *
+     * @param content - the bytes of the response to decode.
+     * @param sink - the {@code Consumer} to pass the entries to.
+     * @return the number of entries passed to the sink.
+     */
+    public int decode(byte[] content, Consumer<? super GachaEntry> sink)
+                throws ResponseException, JsonParseException, IOException {
+        Objects.requireNonNull(content);
+        Objects.requireNonNull(sink);
+        try (JsonParser parser = jsonFactory.createParser(content)) {
+            return decode(parser, sink);
+        }
+    }
+
+
+    /**
+     * Checks the return code of the gacha log response in the given array
+     * without decoding its entries.
+     *
+     * @param content - the bytes of the response to check.
+     * @throws ResponseException if the response has a return code that is
+     *      not {@link GachaResponseResult#RETCODE_OK} or has no return code.
+     * @throws JsonParseException if the response is not valid JSON.
+     * @throws IOException if any other I/O errors occurs.
+     */
+    public static void checkRetcode(byte[] content) throws ResponseException, JsonParseException, IOException {
+        Objects.requireNonNull(content);
+        try (JsonParser parser = jsonFactory.createParser(content)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+            Integer retcode = null;
+            String message = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if (field.equals("retcode")) {
+                    retcode = parser.getValueAsInt();
+                } else if (field.equals("message")) {
+                    message = parser.getValueAsString();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (retcode == null) {
+                throw new ResponseException("Response has no return code");
+            }
+            if (retcode != GachaResponseResult.RETCODE_OK) {
+                throw new ResponseException(retcode, message);
+            }
+        }
+    }
+
+
+    private int decode(JsonParser parser, Consumer<? super GachaEntry> sink)
+                throws ResponseException, IOException {
+        expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+        Integer retcode = null;
+        String message = null;
+        ArrayList<GachaEntry> heldEntries = new ArrayList<>();
+        int numDecoded = 0;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "retcode":
+                    retcode = parser.getValueAsInt();
+                    if (retcode == GachaResponseResult.RETCODE_OK) {
+                        heldEntries.forEach(sink);
+                        numDecoded += heldEntries.size();
+                        heldEntries.clear();
+                    }
+                    break;
+                case "message":
+                    message = parser.getValueAsString();
+                    break;
+                case "data":
+                    if (retcode == null) {
+                        decodeData(parser, token, heldEntries::add);
+                    } else if (retcode == GachaResponseResult.RETCODE_OK) {
+                        numDecoded += decodeData(parser, token, sink);
+                    } else {
+                        // entries of a failed response are never used
+                        parser.skipChildren();
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        if (retcode == null) {
+            throw new ResponseException("Response has no return code");
+        }
+        if (retcode != GachaResponseResult.RETCODE_OK) {
+            throw new ResponseException(retcode, message);
+        }
+        return numDecoded;
+    }
+
+
+    private int decodeData(JsonParser parser, JsonToken token, Consumer<? super GachaEntry> sink)
+                throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return 0;
+        }
+        expect(parser, token, JsonToken.START_OBJECT);
+        int numDecoded = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            token = parser.nextToken();
+            // HSR names the list "entries" while Genshin names it "list"
+            if ((field.equals("list") || field.equals("entries")) && token == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    sink.accept(decodeEntry(parser));
+                    numDecoded++;
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return numDecoded;
+    }
+
+
+    private GachaEntry decodeEntry(JsonParser parser) throws IOException {
+        long uid = 0;
+        int gachaId = 0;
+        int itemId = 0;
+        int count = 0;
+        LocalDateTime time = null;
+        String name = null;
+        ItemType itemType = null;
+        int rank = 0;
+        long id = 0;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "uid":
+                    uid = parseLong(parser);
+                    break;
+                case "gacha_id":
+                    gachaId = parseInt(parser);
+                    break;
+                case "item_id":
+                    // Genshin sends an empty item ID, taken as 0 as databind does
+                    itemId = isEmptyText(parser) ? 0 : parseInt(parser);
+                    break;
+                case "count":
+                    count = parseInt(parser);
+                    break;
+                case "time":
+                    time = parseTime(parser);
+                    break;
+                case "name":
+                    name = parser.getValueAsString();
+                    break;
+                case "item_type":
+                    itemType = ItemType.getItemType(parser.getValueAsString());
+                    break;
+                case "rank_type":
+                    rank = parseInt(parser);
+                    break;
+                case "id":
+                    id = parseLong(parser);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        try {
+            return new GachaEntry(uid, gachaId, gachaType, itemId, count, time, name, itemType, rank, id);
+        } catch (NullPointerException nullEx) {
+            throw new JsonParseException(parser, String.format("Incomplete gacha entry <%d>", id), nullEx);
+        }
+    }
+
+
+    /**
+     * Parses the current value as a {@code long} without creating a
+     * {@code String} when the value is a quoted number as the server sends.
+     *
+     * @throws JsonParseException if the value is not a number, such as when
+     *      it is empty or only a sign, or does not fit in a {@code long}.
+     */
+    private static long parseLong(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+            try {
+                return parser.getLongValue();
+            } catch (InputCoercionException coerceEx) {
+                throw new JsonParseException(parser, String.format("Number out of range <%s>", parser.getText()),
+                        coerceEx);
+            }
+        }
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            throw new JsonParseException(parser, String.format("Invalid number <%s>", parser.getText()));
+        }
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int end = offset + parser.getTextLength();
+        boolean isNegative = offset < end && chars[offset] == '-';
+        int start = isNegative ? offset + 1 : offset;
+        if (start == end) {
+            throw new JsonParseException(parser, String.format("Invalid number <%s>", parser.getText()));
+        }
+        long value = 0;
+        try {
+            for (int i = start; i < end; i++) {
+                int digit = chars[i] - '0';
+                if (digit < 0 || digit > 9) {
+                    throw new JsonParseException(parser, String.format("Invalid number <%s>", parser.getText()));
+                }
+                value = Math.addExact(Math.multiplyExact(value, 10), digit);
+            }
+        } catch (ArithmeticException arithEx) {
+            throw new JsonParseException(parser, String.format("Number out of range <%s>", parser.getText()),
+                    arithEx);
+        }
+        return isNegative ? -value : value;
+    }
+
+
+    /**
+     * Parses the current value as an {@code int}. See
+     * {@link #parseLong(JsonParser)}.
+     *
+     * @throws JsonParseException if the value is not a number or does not fit
+     *      in an {@code int}.
+     */
+    private static int parseInt(JsonParser parser) throws IOException {
+        long value = parseLong(parser);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new JsonParseException(parser, String.format("Number out of range <%s>", parser.getText()));
+        }
+        return (int) value;
+    }
+
+
+    private static boolean isEmptyText(JsonParser parser) throws IOException {
+        return parser.currentToken() == JsonToken.VALUE_STRING && parser.getTextLength() == 0;
+    }
+
+
+    /**
+     * Parses the current value as a time of format
+     * {@code yyyy-MM-dd HH:mm:ss} directly from the parser's buffer.
+     */
+    private static LocalDateTime parseTime(JsonParser parser) throws IOException {
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        if (parser.currentToken() != JsonToken.VALUE_STRING || parser.getTextLength() != TIME_LENGTH) {
+            return parseTimeText(parser);
+        }
+        int year = parseDigits(chars, offset, 4);
+        int month = parseDigits(chars, offset + 5, 2);
+        int day = parseDigits(chars, offset + 8, 2);
+        int hour = parseDigits(chars, offset + 11, 2);
+        int minute = parseDigits(chars, offset + 14, 2);
+        int second = parseDigits(chars, offset + 17, 2);
+        if ((year | month | day | hour | minute | second) < 0) {
+            return parseTimeText(parser);
+        }
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second);
+        } catch (DateTimeException dtEx) {
+            throw new JsonParseException(parser, String.format("Invalid time <%s>", parser.getText()), dtEx);
+        }
+    }
+
+
+    private static LocalDateTime parseTimeText(JsonParser parser) throws IOException {
+        try {
+            return LocalDateTime.parse(parser.getText(), TIME_FORMATTER);
+        } catch (DateTimeException dtEx) {
+            throw new JsonParseException(parser, String.format("Invalid time <%s>", parser.getText()), dtEx);
+        }
+    }
+
+
+    /**
+     * Returns the value of the digits in the given range or {@code -1} if
+     * there is a non-digit character in the range.
+     */
+    private static int parseDigits(char[] chars, int offset, int length) {
+        int value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws JsonParseException {
+        if (actual != expected) {
+            throw new JsonParseException(parser, String.format("Expected <%s> but found <%s>", expected, actual));
+        }
+    }
+}
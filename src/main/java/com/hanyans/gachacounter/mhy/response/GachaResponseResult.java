@@ -5,6 +5,17 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 
 
 public class GachaResponseResult {
+    /** Return code of a successful response. */
+    public static final int RETCODE_OK = 0;
+    /** Return code of a response to an invalid authkey. */
+    public static final int RETCODE_AUTHKEY_ERROR = -100;
+    /** Return code of a response to an expired authkey. */
+    public static final int RETCODE_AUTHKEY_TIMEOUT = -101;
+    /** Return code of a response to a request that is too frequent. */
+    public static final int RETCODE_VISIT_TOO_FREQUENTLY = -110;
+    /** Return code of a response to an authkey of another game or region. */
+    public static final int RETCODE_GAME_NAME_ERROR = -111;
+
     public final int retcode;
     public final String message;
     public final GachaResponseData data;
@@ -19,4 +30,13 @@ public class GachaResponseResult {
         this.message = message;
         this.data = data;
     }
+
+
+    /**
+     * Returns {@code true} if the request of this response was throttled for
+     * being too frequent.
+     */
+    public boolean isThrottled() {
+        return retcode == RETCODE_VISIT_TOO_FREQUENTLY;
+    }
 }
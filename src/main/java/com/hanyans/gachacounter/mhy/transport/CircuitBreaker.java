@@ -0,0 +1,153 @@
+package com.hanyans.gachacounter.mhy.transport;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+import com.hanyans.gachacounter.mhy.exception.CircuitOpenException;
+
+
+/**
+ * Circuit breaker that stops requests to a host after too many consecutive
+ * failures.
+ *
+ * <p>The breaker starts closed and lets every request through. After the
+ * given number of consecutive failures it opens and rejects every request
+ * until the open time has passed. It then lets a single trial request
+ * through: the breaker closes again if the trial succeeds and opens for
+ * another open time if it fails. Requests asked for while the trial is in
+ * flight wait for its outcome instead of being rejected.
+ */
+public class CircuitBreaker {
+    /** Default number of consecutive failures that opens the breaker. */
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    /** Default time the breaker stays open before a trial request. */
+    public static final Duration DEFAULT_OPEN_TIME = Duration.ofSeconds(30);
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openTime;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int numFailures = 0;
+    private long openedAt = 0;
+    private boolean isTrialInFlight = false;
+
+
+    /**
+     * Constructs a {@code CircuitBreaker} with the default threshold and open
+     * time.
+     *
+     * @param name - name of what the breaker guards, used in messages.
+     */
+    public CircuitBreaker(String name) {
+        this(name, DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_TIME, System::currentTimeMillis);
+    }
+
+
+    /**
+     * Constructs a {@code CircuitBreaker}.
+     *
+     * @param name - name of what the breaker guards, used in messages.
+     * @param failureThreshold - number of consecutive failures that opens the
+     *      breaker.
+     * @param openTime - time the breaker stays open before a trial request.
+     * @param clock - supplier of the current time in milliseconds.
+     * @throws NullPointerException if any parameter is {@code null}.
+     * @throws IllegalArgumentException if {@code failureThreshold} is less
+     *      than {@code 1}.
+     */
+    public CircuitBreaker(String name, int failureThreshold, Duration openTime, LongSupplier clock) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException(String.format("Invalid failure threshold <%d>", failureThreshold));
+        }
+        this.name = Objects.requireNonNull(name);
+        this.failureThreshold = failureThreshold;
+        this.openTime = Objects.requireNonNull(openTime).toMillis();
+        this.clock = Objects.requireNonNull(clock);
+    }
+
+
+    /**
+     * Asks to send a request, which has to be followed by a call to
+     * {@link #onSuccess()}, {@link #onFailure()} or {@link #release()} once
+     * it completes. Waits for the outcome of the trial request if it is in
+     * flight.
+     *
+     * @throws CircuitOpenException if the breaker is open.
+     * @throws InterruptedException if interrupted while waiting for the
+     *      trial request.
+     */
+    public synchronized void acquire() throws CircuitOpenException, InterruptedException {
+        while (state == State.HALF_OPEN && isTrialInFlight) {
+            wait();
+        }
+        if (state == State.OPEN) {
+            long remaining = openedAt + openTime - clock.getAsLong();
+            if (remaining > 0) {
+                throw new CircuitOpenException(String.format(
+                        "Requests to %s suspended for %d ms after %d failures", name, remaining, numFailures));
+            }
+            state = State.HALF_OPEN;
+        }
+        if (state == State.HALF_OPEN) {
+            isTrialInFlight = true;
+        }
+    }
+
+
+    /**
+     * Records the success of a request, closing the breaker.
+     */
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        numFailures = 0;
+        isTrialInFlight = false;
+        notifyAll();
+    }
+
+
+    /**
+     * Records the failure of a request, opening the breaker if the threshold
+     * is reached or the trial request failed.
+     */
+    public synchronized void onFailure() {
+        numFailures++;
+        if (state == State.HALF_OPEN || numFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+        }
+        isTrialInFlight = false;
+        notifyAll();
+    }
+
+
+    /**
+     * Records that a request was given up on before it completed, such as
+     * when interrupted, without counting it as a success or a failure. The
+     * next request is let through as the trial if it was the trial request.
+     */
+    public synchronized void release() {
+        isTrialInFlight = false;
+        notifyAll();
+    }
+
+
+    /**
+     * Returns {@code true} if the breaker is rejecting requests.
+     */
+    public synchronized boolean isOpen() {
+        return state == State.OPEN && clock.getAsLong() < openedAt + openTime;
+    }
+
+
+
+
+
+    private static enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+}
@@ -0,0 +1,43 @@
+package com.hanyans.gachacounter.mhy.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.hanyans.gachacounter.mhy.pacer.RequestPacer;
+
+
+/**
+ * Transport to send gacha log requests through.
+ */
+public interface GachaLogTransport {
+    /**
+     * Sends a request to the specified URL and returns the stream of the
+     * response body. The returned stream is already decompressed and has to
+     * be closed by the caller.
+     *
+     * @param urlString - the URL String to request.
+     * @throws IOException if an I/O error occurs or the server does not
+     *      respond successfully.
+     * @throws InterruptedException if interrupted while waiting for the
+     *      response.
+     */
+    public InputStream open(String urlString) throws IOException, InterruptedException;
+
+
+    /**
+     * Sends a paced request to the specified URL like {@link #open(String)}.
+     * The slot of the first attempt is reserved from the pacer and waited for
+     * by the caller. Transports that send the request again reserve and wait
+     * for another slot of the pacer before every further attempt.
+     *
+     * @param urlString - the URL String to request.
+     * @param pacer - the pacer the request is paced with.
+     * @throws IOException if an I/O error occurs or the server does not
+     *      respond successfully.
+     * @throws InterruptedException if interrupted while waiting for the
+     *      response or for a slot of the pacer.
+     */
+    public default InputStream open(String urlString, RequestPacer pacer) throws IOException, InterruptedException {
+        return open(urlString);
+    }
+}
@@ -0,0 +1,122 @@
+package com.hanyans.gachacounter.mhy.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPInputStream;
+
+import com.hanyans.gachacounter.mhy.exception.HttpStatusException;
+
+
+/**
+ * A {@link GachaLogTransport} built on a single reusable {@link HttpClient}.
+ *
+ * <p>The client pools its connections so consecutive requests to the same
+ * host reuse the same connection (HTTP/2 where the server supports it and
+ * keep-alive HTTP/1.1 otherwise) instead of performing a new TLS handshake for
+ * every page. Responses are requested gzip compressed and read whole before
+ * they are returned, so a response that stalls midway times out like one
+ * that never arrives.
+ */
+public class HttpGachaLogTransport implements GachaLogTransport {
+    /** Default time allowed to establish a connection. */
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    /** Default time allowed for a whole response to arrive after sending a request. */
+    public static final Duration DEFAULT_READ_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final String GZIP_ENCODING = "gzip";
+    private static final int HTTP_OK = 200;
+
+    private final HttpClient client;
+    private final Duration readTimeout;
+
+
+    /**
+     * Constructs a {@code HttpGachaLogTransport} with the default timeouts.
+     */
+    public HttpGachaLogTransport() {
+        this(DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT);
+    }
+
+
+    /**
+     * Constructs a {@code HttpGachaLogTransport}.
+     *
+     * @param connectTimeout - time allowed to establish a connection.
+     * @param readTimeout - time allowed for the whole response, headers and
+     *      body, to arrive after sending a request.
+     * @throws NullPointerException if any parameter is {@code null}.
+     */
+    public HttpGachaLogTransport(Duration connectTimeout, Duration readTimeout) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Objects.requireNonNull(connectTimeout))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.readTimeout = Objects.requireNonNull(readTimeout);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws HttpTimeoutException if the whole response does not arrive
+     *      within the read timeout.
+     */
+    @Override
+    public InputStream open(String urlString) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(urlString))
+                .timeout(readTimeout)
+                .header("Accept-Encoding", GZIP_ENCODING)
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = receive(request);
+        InputStream body = new ByteArrayInputStream(response.body());
+        if (response.statusCode() != HTTP_OK) {
+            throw new HttpStatusException(response.statusCode(),
+                    String.format("Unexpected HTTP status <%d> from %s",
+                            response.statusCode(), request.uri().getHost()));
+        }
+        boolean isGzip = response.headers().firstValue("Content-Encoding")
+                .map(encoding -> encoding.equalsIgnoreCase(GZIP_ENCODING))
+                .orElse(false);
+        return isGzip ? new GZIPInputStream(body) : body;
+    }
+
+
+    /**
+     * Sends the request and waits for its whole response for at most the
+     * read timeout, as the request timeout only bounds the wait for the
+     * response headers.
+     */
+    private HttpResponse<byte[]> receive(HttpRequest request) throws IOException, InterruptedException {
+        CompletableFuture<HttpResponse<byte[]>> future =
+                client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        try {
+            return future.get(readTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException timeoutEx) {
+            throw new HttpTimeoutException(String.format("No complete response from %s within %d ms",
+                    request.uri().getHost(), readTimeout.toMillis()));
+        } catch (ExecutionException execEx) {
+            Throwable cause = execEx.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            // aborts the exchange if it is still running
+            future.cancel(true);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.hanyans.gachacounter.mhy.transport;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.net.ssl.SSLHandshakeException;
+import javax.net.ssl.SSLPeerUnverifiedException;
+
+import com.hanyans.gachacounter.mhy.exception.CircuitOpenException;
+import com.hanyans.gachacounter.mhy.exception.HttpStatusException;
+import com.hanyans.gachacounter.mhy.exception.ResponseException;
+import com.hanyans.gachacounter.mhy.response.GachaResponseResult;
+
+
+/**
+ * Decides which failed requests are retried and how long to back off before
+ * each retry.
+ *
+ * <p>I/O errors are retryable unless they cannot go away by themselves: an
+ * HTTP status of a client error other than {@code 408} and {@code 429}, a
+ * failed TLS handshake or an open circuit. Responses are retryable unless
+ * their return code says the authkey cannot be used or that the request was
+ * throttled, which is left to the request pacer.
+ *
+ * <p>The backoff before the n-th retry is drawn at random from the upper
+ * half of {@code min(maxDelay, baseDelay * 2^(n - 1))}, so that retries of
+ * concurrent requests spread out while still backing off.
+ */
+public class RetryPolicy {
+    /** Default number of attempts of a request, the first one included. */
+    public static final int DEFAULT_MAX_ATTEMPTS = 4;
+    /** Default backoff before the first retry. */
+    public static final Duration DEFAULT_BASE_DELAY = Duration.ofMillis(500);
+    /** Default longest backoff before a retry. */
+    public static final Duration DEFAULT_MAX_DELAY = Duration.ofSeconds(8);
+
+    private static final Set<Integer> FATAL_RETCODES = Set.of(
+            GachaResponseResult.RETCODE_AUTHKEY_ERROR,
+            GachaResponseResult.RETCODE_AUTHKEY_TIMEOUT,
+            GachaResponseResult.RETCODE_GAME_NAME_ERROR,
+            // slowed down by the pacer instead
+            GachaResponseResult.RETCODE_VISIT_TOO_FREQUENTLY);
+    private static final int HTTP_REQUEST_TIMEOUT = 408;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_SERVER_ERROR = 500;
+
+    private final int maxAttempts;
+    private final long baseDelay;
+    private final long maxDelay;
+
+
+    /**
+     * Constructs a {@code RetryPolicy} with the default attempts and delays.
+     */
+    public RetryPolicy() {
+        this(DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_DELAY, DEFAULT_MAX_DELAY);
+    }
+
+
+    /**
+     * Constructs a {@code RetryPolicy}.
+     *
+     * @param maxAttempts - number of attempts of a request, the first one
+     *      included.
+     * @param baseDelay - backoff before the first retry.
+     * @param maxDelay - longest backoff before a retry.
+     * @throws NullPointerException if any parameter is {@code null}.
+     * @throws IllegalArgumentException if {@code maxAttempts} is less than
+     *      {@code 1} or the delays are negative.
+     */
+    public RetryPolicy(int maxAttempts, Duration baseDelay, Duration maxDelay) {
+        if (maxAttempts < 1 || baseDelay.isNegative() || maxDelay.isNegative()) {
+            throw new IllegalArgumentException(String.format("Invalid retry policy <%d, %s, %s>",
+                    maxAttempts, baseDelay, maxDelay));
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelay = Objects.requireNonNull(baseDelay).toMillis();
+        this.maxDelay = Objects.requireNonNull(maxDelay).toMillis();
+    }
+
+
+    /**
+     * Returns the number of attempts of a request, the first one included.
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+
+    /**
+     * Returns {@code true} if a request that failed with the given I/O error
+     * should be retried.
+     */
+    public boolean isRetryable(IOException ioEx) {
+        if (ioEx instanceof HttpStatusException) {
+            int statusCode = ((HttpStatusException) ioEx).getStatusCode();
+            return statusCode >= HTTP_SERVER_ERROR
+                    || statusCode == HTTP_REQUEST_TIMEOUT
+                    || statusCode == HTTP_TOO_MANY_REQUESTS;
+        }
+        return !(ioEx instanceof CircuitOpenException
+                || ioEx instanceof SSLHandshakeException
+                || ioEx instanceof SSLPeerUnverifiedException);
+    }
+
+
+    /**
+     * Returns {@code true} if a request whose response was rejected with the
+     * given exception should be retried. Responses without a return code are
+     * taken as cut short and retried.
+     */
+    public boolean isRetryable(ResponseException resEx) {
+        return !FATAL_RETCODES.contains(resEx.getRetcode());
+    }
+
+
+    /**
+     * Returns the time in milliseconds to back off before the given retry.
+     *
+     * @param retry - the number of the retry, starting from {@code 1}.
+     */
+    public long getBackoff(int retry) {
+        int shift = Math.min(Math.max(retry - 1, 0), Long.SIZE - 2);
+        long cap = Math.min(maxDelay, baseDelay << shift);
+        if (cap < 0 || (shift > 0 && (cap >> shift) != baseDelay)) {
+            // overflown
+            cap = maxDelay;
+        }
+        return cap / 2 + ThreadLocalRandom.current().nextLong(cap / 2 + 1);
+    }
+}
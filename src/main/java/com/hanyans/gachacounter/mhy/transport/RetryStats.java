@@ -0,0 +1,100 @@
+package com.hanyans.gachacounter.mhy.transport;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Counters of the requests sent through a {@link RetryingGachaLogTransport}.
+ * The counters are updated atomically and can be read at any time.
+ */
+public class RetryStats {
+    private final AtomicLong numAttempts = new AtomicLong();
+    private final AtomicLong numRetries = new AtomicLong();
+    private final AtomicLong numRecovered = new AtomicLong();
+    private final AtomicLong numExhausted = new AtomicLong();
+    private final AtomicLong numRejected = new AtomicLong();
+    private final AtomicLong backoffTime = new AtomicLong();
+
+
+    void recordAttempt() {
+        numAttempts.incrementAndGet();
+    }
+
+
+    void recordRetry(long backoff) {
+        numRetries.incrementAndGet();
+        backoffTime.addAndGet(backoff);
+    }
+
+
+    void recordRecovered() {
+        numRecovered.incrementAndGet();
+    }
+
+
+    void recordExhausted() {
+        numExhausted.incrementAndGet();
+    }
+
+
+    void recordRejected() {
+        numRejected.incrementAndGet();
+    }
+
+
+    /**
+     * Returns the number of requests sent, retries included.
+     */
+    public long getNumAttempts() {
+        return numAttempts.get();
+    }
+
+
+    /**
+     * Returns the number of retries sent.
+     */
+    public long getNumRetries() {
+        return numRetries.get();
+    }
+
+
+    /**
+     * Returns the number of requests that succeeded after being retried.
+     */
+    public long getNumRecovered() {
+        return numRecovered.get();
+    }
+
+
+    /**
+     * Returns the number of requests given up on after their last attempt
+     * failed.
+     */
+    public long getNumExhausted() {
+        return numExhausted.get();
+    }
+
+
+    /**
+     * Returns the number of requests not sent as the circuit was open.
+     */
+    public long getNumRejected() {
+        return numRejected.get();
+    }
+
+
+    /**
+     * Returns the total time in milliseconds spent backing off.
+     */
+    public long getBackoffTime() {
+        return backoffTime.get();
+    }
+
+
+    @Override
+    public String toString() {
+        return String.format("%d attempts, %d retries, %d recovered, %d exhausted, %d rejected, %d ms backing off",
+                getNumAttempts(), getNumRetries(), getNumRecovered(), getNumExhausted(), getNumRejected(),
+                getBackoffTime());
+    }
+}
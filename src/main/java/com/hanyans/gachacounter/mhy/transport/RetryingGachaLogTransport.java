@@ -0,0 +1,179 @@
+package com.hanyans.gachacounter.mhy.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.hanyans.gachacounter.mhy.exception.CircuitOpenException;
+import com.hanyans.gachacounter.mhy.exception.ResponseException;
+import com.hanyans.gachacounter.mhy.pacer.RequestPacer;
+import com.hanyans.gachacounter.mhy.response.GachaLogDecoder;
+
+
+/**
+ * A {@link GachaLogTransport} that retries the requests of another transport
+ * that fail transiently, behind a {@link CircuitBreaker} for each host.
+ *
+ * <p>A request is retried as decided by its {@link RetryPolicy} when the
+ * delegate throws an I/O error or responds with a return code other than
+ * {@code OK}, which is read from the body before it is handed over. Once the
+ * attempts are used up, the last I/O error is thrown, or the last body is
+ * returned so that its return code is reported by the decoder as usual.
+ * Bodies with a return code that is not retried are returned at once.
+ * Retries of paced requests wait for a slot of their pacer after the
+ * backoff, so that they count towards the rate of the pacer.
+ *
+ * <p>Failed attempts count towards opening the breaker of the host, after
+ * which requests to the host fail with a {@link CircuitOpenException} without
+ * being sent until the breaker lets a trial request through. Requests made
+ * while the trial is in flight wait for its outcome.
+ */
+public class RetryingGachaLogTransport implements GachaLogTransport {
+    private final Logger logger = LogManager.getFormatterLogger(RetryingGachaLogTransport.class);
+
+    private final ConcurrentHashMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final RetryStats stats = new RetryStats();
+
+    private final GachaLogTransport delegate;
+    private final RetryPolicy policy;
+    private final Function<String, CircuitBreaker> breakerFactory;
+
+
+    /**
+     * Constructs a {@code RetryingGachaLogTransport} with the default retry
+     * policy and circuit breakers.
+     *
+     * @param delegate - the transport to send the requests through.
+     */
+    public RetryingGachaLogTransport(GachaLogTransport delegate) {
+        this(delegate, new RetryPolicy(), CircuitBreaker::new);
+    }
+
+
+    /**
+     * Constructs a {@code RetryingGachaLogTransport}.
+     *
+     * @param delegate - the transport to send the requests through.
+     * @param policy - the policy deciding what to retry.
+     * @param breakerFactory - the function forming the circuit breaker of a
+     *      host from its name.
+     * @throws NullPointerException if any parameter is {@code null}.
+     */
+    public RetryingGachaLogTransport(GachaLogTransport delegate, RetryPolicy policy,
+                Function<String, CircuitBreaker> breakerFactory) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.policy = Objects.requireNonNull(policy);
+        this.breakerFactory = Objects.requireNonNull(breakerFactory);
+    }
+
+
+    /**
+     * Returns the counters of the requests sent through this transport.
+     */
+    public RetryStats getStats() {
+        return stats;
+    }
+
+
+    @Override
+    public InputStream open(String urlString) throws IOException, InterruptedException {
+        return send(urlString, Optional.empty());
+    }
+
+
+    @Override
+    public InputStream open(String urlString, RequestPacer pacer) throws IOException, InterruptedException {
+        return send(urlString, Optional.of(pacer));
+    }
+
+
+    private InputStream send(String urlString, Optional<RequestPacer> pacer)
+                throws IOException, InterruptedException {
+        String host = Objects.requireNonNullElse(URI.create(urlString).getHost(), "");
+        CircuitBreaker breaker = breakers.computeIfAbsent(host, breakerFactory);
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                breaker.acquire();
+            } catch (CircuitOpenException openEx) {
+                stats.recordRejected();
+                throw openEx;
+            }
+            stats.recordAttempt();
+
+            byte[] content;
+            try {
+                content = fetch(urlString);
+            } catch (IOException ioEx) {
+                breaker.onFailure();
+                if (!policy.isRetryable(ioEx) || attempt >= policy.getMaxAttempts()) {
+                    stats.recordExhausted();
+                    throw ioEx;
+                }
+                backOff(attempt, host, ioEx.toString(), pacer);
+                continue;
+            } catch (InterruptedException | RuntimeException ex) {
+                // says nothing about the host
+                breaker.release();
+                throw ex;
+            }
+
+            ResponseException resEx;
+            try {
+                GachaLogDecoder.checkRetcode(content);
+                resEx = null;
+            } catch (ResponseException checkEx) {
+                resEx = checkEx;
+            } catch (IOException ioEx) {
+                // not parsable, reported by the decoder once given up on
+                resEx = new ResponseException(ioEx.toString());
+            }
+
+            if (resEx == null || !policy.isRetryable(resEx)) {
+                // the host answered, so it is up
+                breaker.onSuccess();
+                if (resEx == null && attempt > 1) {
+                    stats.recordRecovered();
+                }
+                return new ByteArrayInputStream(content);
+            }
+            breaker.onFailure();
+            if (attempt >= policy.getMaxAttempts()) {
+                stats.recordExhausted();
+                return new ByteArrayInputStream(content);
+            }
+            backOff(attempt, host, String.format("retcode %d -- %s", resEx.getRetcode(), resEx.getMessage()),
+                    pacer);
+        }
+    }
+
+
+    private byte[] fetch(String urlString) throws IOException, InterruptedException {
+        try (InputStream input = delegate.open(urlString)) {
+            return input.readAllBytes();
+        }
+    }
+
+
+    private void backOff(int attempt, String host, String reason, Optional<RequestPacer> pacer)
+                throws InterruptedException {
+        long backoff = policy.getBackoff(attempt);
+        stats.recordRetry(backoff);
+        logger.warn("Attempt %d to %s failed, retrying in %d ms -- %s", attempt, host, backoff, reason);
+        Thread.sleep(backoff);
+        if (pacer.isPresent()) {
+            long waitTime = pacer.get().reserve() - System.currentTimeMillis();
+            if (waitTime > 0) {
+                Thread.sleep(waitTime);
+            }
+        }
+    }
+}
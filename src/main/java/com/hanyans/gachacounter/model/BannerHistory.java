@@ -1,11 +1,14 @@
 package com.hanyans.gachacounter.model;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.function.Predicate;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.hanyans.gachacounter.mhy.GachaType;
 
@@ -18,6 +21,11 @@ public class BannerHistory {
     private final GachaType gachaType;
     private final HashSet<GachaEntry> entrySet = new HashSet<>();
 
+    // entries added since last cleared, such as by a save
+    @JsonIgnore private final ArrayList<GachaEntry> pendingEntries = new ArrayList<>();
+    @JsonIgnore private boolean hasRemovedEntries = false;
+    @JsonIgnore private long version = 0;
+
 
     /**
      * Constructs an empty {@code BannerHistory}.
@@ -54,7 +62,12 @@ public class BannerHistory {
      */
     public boolean add(GachaEntry entry) {
         Objects.requireNonNull(entry);
-        return entrySet.add(entry);
+        if (!entrySet.add(entry)) {
+            return false;
+        }
+        pendingEntries.add(entry);
+        version++;
+        return true;
     }
 
 
@@ -80,22 +93,31 @@ public class BannerHistory {
         int numAdded = 0;
         for (GachaEntry entry : history.entrySet) {
             if (entrySet.add(entry)) {
+                pendingEntries.add(entry);
                 numAdded++;
             }
         }
+        if (numAdded > 0) {
+            version++;
+        }
         return numAdded;
     }
 
 
     public int reset(BannerHistory history) {
         Objects.requireNonNull(history);
-        entrySet.clear();
+        reset();
         return addAll(history);
     }
 
 
     public void reset() {
-        entrySet.clear();
+        if (!entrySet.isEmpty()) {
+            entrySet.clear();
+            pendingEntries.clear();
+            hasRemovedEntries = true;
+            version++;
+        }
     }
 
 
@@ -107,6 +129,43 @@ public class BannerHistory {
     }
 
 
+    /**
+     * Returns the version of this history, which changes every time entries
+     * are added or removed.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+
+    /**
+     * Returns the entries added since the pending entries were last cleared,
+     * in the order they were added.
+     */
+    public List<GachaEntry> getPendingEntries() {
+        return List.copyOf(pendingEntries);
+    }
+
+
+    /**
+     * Returns {@code true} if entries were removed since the pending entries
+     * were last cleared, in which case the pending entries alone do not tell
+     * what has changed, and {@code false} otherwise.
+     */
+    public boolean hasRemovedEntries() {
+        return hasRemovedEntries;
+    }
+
+
+    /**
+     * Clears the pending entries, as when the history has been saved.
+     */
+    public void clearPendingEntries() {
+        pendingEntries.clear();
+        hasRemovedEntries = false;
+    }
+
+
     /**
      * Returns the gacha type this history corresponds to.
      */
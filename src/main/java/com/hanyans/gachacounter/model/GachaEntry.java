@@ -18,6 +18,9 @@ import com.hanyans.gachacounter.mhy.response.GachaEntryResponse;
  * {@link #name} and are ordered based on their {@link #time} followed by their
  * {@link #id} then {@link #name} from ealiest to latest, lowest to highest and
  * alphabetical order respectively.
+ *
+ * <p>Item names are interned in the {@link ItemCatalog}, so entries of the
+ * same item share a single name instance.
  */
 public class GachaEntry implements Comparable<GachaEntry> {
     /** UID of the player who owns the entry. */
@@ -60,7 +63,7 @@ public class GachaEntry implements Comparable<GachaEntry> {
         this.itemId = itemId;
         this.count = count;
         this.time = Objects.requireNonNull(time);
-        this.name = Objects.requireNonNull(name);
+        this.name = ItemCatalog.getInstance().internName(Objects.requireNonNull(name));
         this.itemType = Objects.requireNonNull(itemType);
         this.rank = rank;
         this.id = id;
@@ -29,12 +29,13 @@ public class GachaItem {
 
 
     /**
-     * Converts the given {@code GachaEntry} to a {@code GachaItem}.
+     * Converts the given {@code GachaEntry} to a {@code GachaItem}. The
+     * shared instance from the {@link ItemCatalog} is returned.
      *
      * @param entry - the {@code GachaEntry} to convert.
      */
     public static GachaItem fromGachaEntry(GachaEntry entry) {
-        return new GachaItem(entry.itemId, entry.name, entry.rank, entry.itemType);
+        return ItemCatalog.getInstance().getItem(entry);
     }
 
 
@@ -46,6 +47,9 @@ public class GachaItem {
 
     @Override
     public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
         if (other == null || !(other instanceof GachaItem)) {
             return false;
         }
@@ -57,6 +61,7 @@ public class GachaItem {
 
     @Override
     public int hashCode() {
-        return Objects.hash(itemId, name);
+        // as Objects.hash(itemId, name) without boxing
+        return (31 + itemId) * 31 + Objects.hashCode(name);
     }
 }
@@ -4,6 +4,7 @@ import java.util.Objects;
 
 import com.hanyans.gachacounter.mhy.Game;
 import com.hanyans.gachacounter.model.rateup.BannerEventHistory;
+import com.hanyans.gachacounter.model.sync.SyncCursorMap;
 
 
 /**
@@ -24,6 +25,8 @@ public class GameGachaData {
     public final BannerEventHistory charEvents;
     /** Weapon rate up event history. */
     public final BannerEventHistory weapEvents;
+    /** Retrieval cursors of every player and banner. */
+    public final SyncCursorMap cursors;
 
 
     /**
@@ -36,6 +39,7 @@ public class GameGachaData {
      * @param weapHist - weapon banner history.
      * @param charEvents - rate up events for character banner.
      * @param weapEvents - rate up events for weapon banner.
+     * @param cursors - retrieval cursors of every player and banner.
      */
     public GameGachaData(
                 Game game,
@@ -44,7 +48,8 @@ public class GameGachaData {
                 BannerHistory charHist,
                 BannerHistory weapHist,
                 BannerEventHistory charEvents,
-                BannerEventHistory weapEvents) {
+                BannerEventHistory weapEvents,
+                SyncCursorMap cursors) {
         this.game = Objects.requireNonNull(game);
         this.nameMap = Objects.requireNonNull(nameMap);
         this.stndHist = Objects.requireNonNull(stndHist);
@@ -52,5 +57,6 @@ public class GameGachaData {
         this.weapHist = Objects.requireNonNull(weapHist);
         this.charEvents = Objects.requireNonNull(charEvents);
         this.weapEvents = Objects.requireNonNull(weapEvents);
+        this.cursors = Objects.requireNonNull(cursors);
     }
 }
@@ -0,0 +1,175 @@
+package com.hanyans.gachacounter.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.hanyans.gachacounter.mhy.ItemType;
+
+
+/**
+ * Catalog of the gacha items seen, shared by the whole application.
+ *
+ * <p>A history of many thousands of entries only holds a few hundred distinct
+ * items, so the catalog hands out a single shared instance of each item name
+ * and of each {@link GachaItem}, along with a small ordinal numbering the
+ * items in the order they were first seen. Lookups of known items do not
+ * allocate. Items are never removed, which is fine as long as the number of
+ * distinct items stays that small.
+ *
+ * <p>The catalog is safe to be used by multiple threads at once.
+ */
+public class ItemCatalog {
+    private static final ItemCatalog INSTANCE = new ItemCatalog();
+
+    private final ConcurrentHashMap<String, String> names = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Item[]> itemsByName = new ConcurrentHashMap<>();
+    private final ArrayList<GachaItem> items = new ArrayList<>();
+
+
+    private ItemCatalog() {}
+
+
+    /**
+     * Returns the catalog shared by the application.
+     */
+    public static ItemCatalog getInstance() {
+        return INSTANCE;
+    }
+
+
+    /**
+     * Returns the shared instance of the given name.
+     *
+     * @param name - the item name to intern.
+     * @throws NullPointerException if {@code name} is {@code null}.
+     */
+    public String internName(String name) {
+        String shared = names.putIfAbsent(name, name);
+        return shared == null ? name : shared;
+    }
+
+
+    /**
+     * Returns the shared {@code GachaItem} of the item of the given entry.
+     *
+     * @param entry - the entry whose item to return.
+     */
+    public GachaItem getItem(GachaEntry entry) {
+        return find(entry.itemId, entry.name, entry.rank, entry.itemType).item;
+    }
+
+
+    /**
+     * Returns the shared {@code GachaItem} with the given values.
+     *
+     * @param itemId - ID of the item.
+     * @param name - name of the item.
+     * @param rank - rank of the item.
+     * @param itemType - item type of the item.
+     * @throws NullPointerException if {@code name} is {@code null}.
+     */
+    public GachaItem getItem(int itemId, String name, int rank, ItemType itemType) {
+        return find(itemId, name, rank, itemType).item;
+    }
+
+
+    /**
+     * Returns the item of the given ordinal.
+     *
+     * @param ordinal - ordinal of the item.
+     * @throws IndexOutOfBoundsException if no item has the given ordinal.
+     */
+    public synchronized GachaItem getItem(int ordinal) {
+        return items.get(ordinal);
+    }
+
+
+    /**
+     * Returns the ordinal of the item of the given entry. Ordinals start from
+     * {@code 0} and are below {@link #size()}.
+     *
+     * @param entry - the entry whose item ordinal to return.
+     */
+    public int getOrdinal(GachaEntry entry) {
+        return find(entry.itemId, entry.name, entry.rank, entry.itemType).ordinal;
+    }
+
+
+    /**
+     * Returns the ordinal of the given item.
+     *
+     * @param item - the item whose ordinal to return.
+     */
+    public int getOrdinal(GachaItem item) {
+        return find(item.itemId, item.name, item.rank, item.itemType).ordinal;
+    }
+
+
+    /**
+     * Returns the number of distinct items seen.
+     */
+    public synchronized int size() {
+        return items.size();
+    }
+
+
+    private Item find(int itemId, String name, int rank, ItemType itemType) {
+        Item item = match(itemsByName.get(name), itemId, rank, itemType);
+        if (item != null) {
+            return item;
+        }
+        synchronized (this) {
+            Item[] sameNamed = itemsByName.get(name);
+            item = match(sameNamed, itemId, rank, itemType);
+            if (item != null) {
+                return item;
+            }
+            String sharedName = internName(name);
+            item = new Item(new GachaItem(itemId, sharedName, rank, itemType), items.size());
+            items.add(item.item);
+            if (sameNamed == null) {
+                itemsByName.put(sharedName, new Item[] {item});
+            } else {
+                Item[] extended = Arrays.copyOf(sameNamed, sameNamed.length + 1);
+                extended[sameNamed.length] = item;
+                itemsByName.put(sharedName, extended);
+            }
+            return item;
+        }
+    }
+
+
+    private static Item match(Item[] sameNamed, int itemId, int rank, ItemType itemType) {
+        if (sameNamed == null) {
+            return null;
+        }
+        for (Item item : sameNamed) {
+            if (item.item.itemId == itemId
+                    && item.item.rank == rank
+                    && Objects.equals(item.item.itemType, itemType)) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+
+
+
+
+    /**
+     * A shared item and its ordinal.
+     */
+    private static class Item {
+        private final GachaItem item;
+        private final int ordinal;
+
+
+        private Item(GachaItem item, int ordinal) {
+            this.item = item;
+            this.ordinal = ordinal;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import java.util.Map;
 import java.util.Objects;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 
@@ -14,6 +15,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 public class UidNameMap {
     private final HashMap<Long, String> nameMap = new HashMap<>();
 
+    @JsonIgnore private long version = 0;
+
 
     /**
      * Constructs an empty {@code UidNameMap}.
@@ -56,7 +59,9 @@ public class UidNameMap {
      * @param name - the name mapping of the UID.
      */
     public void put(long uid, String name) {
-        nameMap.put(uid, name);
+        if (!Objects.equals(nameMap.put(uid, name), name)) {
+            version++;
+        }
     }
 
 
@@ -68,7 +73,7 @@ public class UidNameMap {
      * @throws NullPointerException if {@code nameMap} is {@code null}.
      */
     public void putAll(Map<Long, String> map) {
-        nameMap.putAll(map);
+        map.forEach(this::put);
     }
 
 
@@ -76,7 +81,10 @@ public class UidNameMap {
      * Clears the name map.
      */
     public void clearMap() {
-        nameMap.clear();
+        if (!nameMap.isEmpty()) {
+            nameMap.clear();
+            version++;
+        }
     }
 
 
@@ -87,11 +95,23 @@ public class UidNameMap {
      * @param ref - {@code UidNameMap} to copy over.
      */
     public void reset(UidNameMap ref) {
+        if (nameMap.equals(ref.nameMap)) {
+            return;
+        }
         clearMap();
         putAll(ref.nameMap);
     }
 
 
+    /**
+     * Returns the version of this map, which changes every time a mapping is
+     * added, changed or removed.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+
     @Override
     public boolean equals(Object other) {
         if (other == null || !(other instanceof UidNameMap)) {
@@ -4,15 +4,15 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
-import com.hanyans.gachacounter.core.FrequencyMap;
+import com.hanyans.gachacounter.core.PityHistogram;
 
 
 /**
  * Encapsulation of a map mapping accounts as their UIDs to their pity count
- * frequency map.
+ * histogram.
  */
 public class AccPityFreqMap {
-    private final HashMap<Long, FrequencyMap<Integer>> accMap = new HashMap<>();
+    private final HashMap<Long, PityHistogram> accMap = new HashMap<>();
 
 
     /**
@@ -27,7 +27,7 @@ public class AccPityFreqMap {
      *
      * @param accMap - the mappings to put into this map.
      */
-    public AccPityFreqMap(Map<Long, FrequencyMap<Integer>> accMap) {
+    public AccPityFreqMap(Map<Long, PityHistogram> accMap) {
         this.accMap.putAll(copyMap(accMap));
     }
 
@@ -37,7 +37,7 @@ public class AccPityFreqMap {
      * by 1.
      *
      * <p>If the UID does not yet exist in this map, an empty
-     * {@code FrequencyMap} is initialized for it.
+     * {@code PityHistogram} is initialized for it.
      *
      * @param uid - the account's UID whose pity to increment.
      * @param pity - the pity count frequency to increment.
@@ -53,7 +53,7 @@ public class AccPityFreqMap {
      * by the set number.
      *
      * <p>If the UID does not yet exist in this map, an empty
-     * {@code FrequencyMap} is initialized for it.
+     * {@code PityHistogram} is initialized for it.
      *
      * @param uid - the account's UID whose pity to increment.
      * @param pity - the pity count frequency to increment.
@@ -66,18 +66,15 @@ public class AccPityFreqMap {
 
 
     /**
-     * Returns the frequency map of the specified account.
+     * Returns the pity count histogram of the specified account.
      *
      * <p>If the UID does not yet exist in this map, an empty
-     * {@code FrequencyMap} is initialized for it.
+     * {@code PityHistogram} is initialized for it.
      *
-     * @param uid - the account's UID whose {@code FrequencyMap} to return.
+     * @param uid - the account's UID whose {@code PityHistogram} to return.
      */
-    public FrequencyMap<Integer> get(long uid) {
-        if (!accMap.containsKey(uid)) {
-            accMap.put(uid, new FrequencyMap<>());
-        }
-        return accMap.get(uid);
+    public PityHistogram get(long uid) {
+        return accMap.computeIfAbsent(uid, key -> new PityHistogram());
     }
 
 
@@ -85,13 +82,13 @@ public class AccPityFreqMap {
      * Returns the frequency of the specified account's pity count.
      *
      * <p>If the UID does not yet exist in this map, an empty
-     * {@code FrequencyMap} is initialized for it. Thus 0 will be returned.
+     * {@code PityHistogram} is initialized for it. Thus 0 will be returned.
      *
-     * @param uid - the account's UID whose {@code FrequencyMap} to return.
+     * @param uid - the account's UID whose {@code PityHistogram} to return.
      * @param pity - the pity count whose frequency to return.
      */
     public int get(long uid, int pity) {
-        return accMap.get(uid).get(pity);
+        return get(uid).get(pity);
     }
 
 
@@ -106,7 +103,7 @@ public class AccPityFreqMap {
     /**
      * Returns a set view of the entries of the encapsulated map.
      */
-    public Set<Map.Entry<Long, FrequencyMap<Integer>>> entrySet() {
+    public Set<Map.Entry<Long, PityHistogram>> entrySet() {
         return accMap.entrySet();
     }
 
@@ -121,7 +118,7 @@ public class AccPityFreqMap {
      */
     public AccPityFreqMap merge(AccPityFreqMap other) {
         AccPityFreqMap result = new AccPityFreqMap(accMap);
-        for (Map.Entry<Long, FrequencyMap<Integer>> entry : other.entrySet()) {
+        for (Map.Entry<Long, PityHistogram> entry : other.entrySet()) {
             result.get(entry.getKey()).addAll(entry.getValue());
         }
         return result;
@@ -136,44 +133,31 @@ public class AccPityFreqMap {
      */
     public AccPityFreqMap condense(int factor) {
         AccPityFreqMap result = new AccPityFreqMap();
-        for (Map.Entry<Long, FrequencyMap<Integer>> entry : accMap.entrySet()) {
-            result.accMap.put(entry.getKey(), condense(entry.getValue(), factor));
-        }
-        return result;
-    }
-
-
-    private FrequencyMap<Integer> condense(FrequencyMap<Integer> freqMap, int factor) {
-        FrequencyMap<Integer> result = new FrequencyMap<>(freqMap);
-        for (Integer pity : freqMap.keySet()) {
-            int value = pity / factor;
-            if (pity % factor != 0 || value < 1) {
-                value++;
-            }
-            result.add(value * factor, freqMap.get(pity));
+        for (Map.Entry<Long, PityHistogram> entry : accMap.entrySet()) {
+            result.accMap.put(entry.getKey(), entry.getValue().condense(factor));
         }
         return result;
     }
 
 
     /**
-     * Combines all account's {@code FrequencyMap} into 1.
+     * Combines all account's {@code PityHistogram} into 1.
      *
-     * @return the condensed {@code FrequencyMap}.
+     * @return the combined {@code PityHistogram}.
      */
-    public FrequencyMap<Integer> combineAll() {
-        return accMap.values().stream()
-                .reduce(
-                        new FrequencyMap<>(),
-                        (sum, next) -> sum.merge(next),
-                        (sum1, sum2) -> sum1.merge(sum2));
+    public PityHistogram combineAll() {
+        PityHistogram result = new PityHistogram();
+        for (PityHistogram histogram : accMap.values()) {
+            result.addAll(histogram);
+        }
+        return result;
     }
 
 
-    private static HashMap<Long, FrequencyMap<Integer>> copyMap(Map<Long, FrequencyMap<Integer>> map) {
-        HashMap<Long, FrequencyMap<Integer>> result = new HashMap<>();
-        for (Map.Entry<Long, FrequencyMap<Integer>> entry : map.entrySet()) {
-            result.put(entry.getKey(), new FrequencyMap<>(entry.getValue()));
+    private static HashMap<Long, PityHistogram> copyMap(Map<Long, PityHistogram> map) {
+        HashMap<Long, PityHistogram> result = new HashMap<>();
+        for (Map.Entry<Long, PityHistogram> entry : map.entrySet()) {
+            result.put(entry.getKey(), new PityHistogram(entry.getValue()));
         }
         return result;
     }
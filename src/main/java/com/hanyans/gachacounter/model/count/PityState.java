@@ -0,0 +1,87 @@
+package com.hanyans.gachacounter.model.count;
+
+
+/**
+ * The pity state of an account in a banner, the number of pulls since its
+ * last 4 and 5 star and whether those were rate up items.
+ */
+public class PityState {
+    private int pullSince4 = 0;
+    private int pullSince5 = 0;
+    private boolean isRateUp4 = true;
+    private boolean isRateUp5 = true;
+
+
+    /**
+     * Counts a pull towards both the 4 and 5 star pity.
+     */
+    public void pull() {
+        pullSince4++;
+        pullSince5++;
+    }
+
+
+    /**
+     * Records a 5 star obtained on the last pull, resetting both the 4 and 5
+     * star pity.
+     *
+     * @param isRateUp - if the 5 star obtained is a rate up item.
+     * @return the pity count of the 5 star.
+     */
+    public int obtain5(boolean isRateUp) {
+        int pityCount = pullSince5;
+        pullSince4 = 0;
+        pullSince5 = 0;
+        isRateUp4 = isRateUp;
+        isRateUp5 = isRateUp;
+        return pityCount;
+    }
+
+
+    /**
+     * Records a 4 star obtained on the last pull, resetting the 4 star pity.
+     *
+     * @param isRateUp - if the 4 star obtained is a rate up item.
+     * @return the pity count of the 4 star.
+     */
+    public int obtain4(boolean isRateUp) {
+        int pityCount = pullSince4;
+        pullSince4 = 0;
+        isRateUp4 = isRateUp;
+        return pityCount;
+    }
+
+
+    /**
+     * Returns the number of pulls since the last 4 star.
+     */
+    public int getPullSince4() {
+        return pullSince4;
+    }
+
+
+    /**
+     * Returns the number of pulls since the last 5 star.
+     */
+    public int getPullSince5() {
+        return pullSince5;
+    }
+
+
+    /**
+     * Returns if the last 4 star obtained was a rate up item, {@code true} if
+     * there was none.
+     */
+    public boolean isRateUp4() {
+        return isRateUp4;
+    }
+
+
+    /**
+     * Returns if the last 5 star obtained was a rate up item, {@code true} if
+     * there was none.
+     */
+    public boolean isRateUp5() {
+        return isRateUp5;
+    }
+}
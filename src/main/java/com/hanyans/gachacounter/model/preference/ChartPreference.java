@@ -1,5 +1,7 @@
 package com.hanyans.gachacounter.model.preference;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -25,6 +27,8 @@ public class ChartPreference {
     @JsonIgnore private LockedValue<Integer> freqMarkingStepFactor;
     @JsonIgnore private LockedValue<Integer> freqMarkingMaxCount;
 
+    @JsonIgnore private final AtomicLong version = new AtomicLong();
+
 
     /**
      * Constructs a {@code ChartPreference} with its parameters set as its
@@ -66,7 +70,7 @@ public class ChartPreference {
 
 
     public void setPityStep5Norm(int step) throws IllegalArgumentException {
-        pityStep5Norm.set(validateStep(step, Constants.MAX_PITY_5_NORM));
+        update(pityStep5Norm, validateStep(step, Constants.MAX_PITY_5_NORM));
     }
 
 
@@ -77,7 +81,7 @@ public class ChartPreference {
 
 
     public void setPityStep5Weap(int step) throws IllegalArgumentException {
-        pityStep5Weap.set(validateStep(step, Constants.MAX_PITY_5_WEAP));
+        update(pityStep5Weap, validateStep(step, Constants.MAX_PITY_5_WEAP));
     }
 
 
@@ -88,7 +92,7 @@ public class ChartPreference {
 
 
     public void setPityStep4(int step) throws IllegalArgumentException {
-        pityStep4.set(validateStep(step, Constants.MAX_PITY_4));
+        update(pityStep4, validateStep(step, Constants.MAX_PITY_4));
     }
 
 
@@ -99,7 +103,7 @@ public class ChartPreference {
 
 
     public void setFreqMarkingStepFactor(int factor) throws IllegalArgumentException {
-        freqMarkingStepFactor.set(validateFactor(factor));
+        update(freqMarkingStepFactor, validateFactor(factor));
     }
 
 
@@ -110,7 +114,7 @@ public class ChartPreference {
 
 
     public void setFreqMarkingMaxCount(int count) throws IllegalArgumentException {
-        freqMarkingMaxCount.set(validateCount(count));
+        update(freqMarkingMaxCount, validateCount(count));
     }
 
 
@@ -120,6 +124,15 @@ public class ChartPreference {
     }
 
 
+    /**
+     * Returns the version of this preference, which changes every time one of
+     * its values changes.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+
     /*
      * ========================================================================
      *      UTILITY
@@ -152,4 +165,11 @@ public class ChartPreference {
         }
         return count;
     }
+
+
+    private <T> void update(LockedValue<T> field, T value) {
+        if (field.update(value)) {
+            version.incrementAndGet();
+        }
+    }
 }
@@ -2,6 +2,7 @@ package com.hanyans.gachacounter.model.preference;
 
 import java.nio.file.Path;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.logging.log4j.Level;
 
@@ -16,17 +17,24 @@ import com.hanyans.gachacounter.core.LockedValue;
  */
 public class UserPreference {
     private static final Level DEFAULT_LOG_LEVEL = Level.INFO;
+    private static final int DEFAULT_BATCH_PARALLELISM = 2;
 
     @JsonIgnore private LockedValue<Path> dataFilePathHsr;
     @JsonIgnore private LockedValue<Path> dataFilePathGenshin;
     @JsonIgnore private LockedValue<Level> logLevel;
     @JsonIgnore private LockedValue<Boolean> checkUpdatesOnStart;
+    @JsonIgnore private LockedValue<Integer> batchParallelism;
+    @JsonIgnore private LockedValue<Boolean> cachePages;
+    @JsonIgnore private LockedValue<Boolean> watchWebCache;
+    @JsonIgnore private LockedValue<Boolean> syncOnWatchedUrl;
 
     @JsonIgnore private ChartPreference chartPrefs;
 
+    @JsonIgnore private final AtomicLong version = new AtomicLong();
+
 
     public UserPreference() {
-        this(null, null, null, null, null);
+        this(null, null, null, null, null, null, null, null, null);
     }
 
 
@@ -36,12 +44,21 @@ public class UserPreference {
                 @JsonProperty("dataFilePathGenshin") Path dataFilePathGenshin,
                 @JsonProperty("logLevel") Level logLevel,
                 @JsonProperty("checkUpdateOnStart") Boolean checkUpdatesOnStart,
-                @JsonProperty("chartPrefs") ChartPreference chartPrefs) {
+                @JsonProperty("chartPrefs") ChartPreference chartPrefs,
+                @JsonProperty("batchParallelism") Integer batchParallelism,
+                @JsonProperty("cachePages") Boolean cachePages,
+                @JsonProperty("watchWebCache") Boolean watchWebCache,
+                @JsonProperty("syncOnWatchedUrl") Boolean syncOnWatchedUrl) {
         this.dataFilePathHsr = new LockedValue<>(dataFilePathHSR);
         this.dataFilePathGenshin = new LockedValue<>(dataFilePathGenshin);
         this.logLevel = new LockedValue<>(Objects.requireNonNullElse(logLevel, DEFAULT_LOG_LEVEL));
         this.checkUpdatesOnStart = new LockedValue<>(Objects.requireNonNullElse(checkUpdatesOnStart, true));
         this.chartPrefs = Objects.requireNonNullElse(chartPrefs, new ChartPreference());
+        this.batchParallelism = new LockedValue<>(DEFAULT_BATCH_PARALLELISM);
+        setBatchParallelism(Objects.requireNonNullElse(batchParallelism, DEFAULT_BATCH_PARALLELISM));
+        this.cachePages = new LockedValue<>(Objects.requireNonNullElse(cachePages, false));
+        this.watchWebCache = new LockedValue<>(Objects.requireNonNullElse(watchWebCache, false));
+        this.syncOnWatchedUrl = new LockedValue<>(Objects.requireNonNullElse(syncOnWatchedUrl, false));
     }
 
 
@@ -56,11 +73,15 @@ public class UserPreference {
         setLogLevel(other.getLogLevel());
         setCheckUpdateOnStart(other.isCheckUpdateOnStart());
         chartPrefs.resetTo(other.getChartPreference());
+        setBatchParallelism(other.getBatchParallelism());
+        setCachePages(other.isCachePages());
+        setWatchWebCache(other.isWatchWebCache());
+        setSyncOnWatchedUrl(other.isSyncOnWatchedUrl());
     }
 
 
     public void setDataFilePathHsr(Path path) {
-        dataFilePathHsr.set(path);
+        update(dataFilePathHsr, path);
     }
 
 
@@ -75,7 +96,7 @@ public class UserPreference {
 
 
     public void setDataFilePathGenshin(Path path) {
-        dataFilePathGenshin.set(path);
+        update(dataFilePathGenshin, path);
     }
 
 
@@ -94,7 +115,7 @@ public class UserPreference {
      * is assumed.
      */
     public void setLogLevel(Level logLevel) {
-        this.logLevel.set(Objects.requireNonNullElse(logLevel, DEFAULT_LOG_LEVEL));
+        update(this.logLevel, Objects.requireNonNullElse(logLevel, DEFAULT_LOG_LEVEL));
     }
 
 
@@ -105,7 +126,7 @@ public class UserPreference {
 
 
     public void setCheckUpdateOnStart(boolean shouldCheck) {
-        checkUpdatesOnStart.set(shouldCheck);
+        update(checkUpdatesOnStart, shouldCheck);
     }
 
 
@@ -115,15 +136,92 @@ public class UserPreference {
     }
 
 
+    /**
+     * Sets the number of accounts retrieved at the same time in a batch
+     * retrieval. Values below {@code 1} are taken as {@code 1}.
+     */
+    public void setBatchParallelism(int parallelism) {
+        update(batchParallelism, Math.max(parallelism, 1));
+    }
+
+
+    @JsonProperty("batchParallelism")
+    public int getBatchParallelism() {
+        return batchParallelism.get();
+    }
+
+
+    /**
+     * Sets if the raw pages retrieved should be kept in the page cache of the
+     * game so that the histories can be rebuilt from them later.
+     */
+    public void setCachePages(boolean shouldCache) {
+        update(cachePages, shouldCache);
+    }
+
+
+    @JsonProperty("cachePages")
+    public boolean isCachePages() {
+        return cachePages.get();
+    }
+
+
+    /**
+     * Sets if the web cache in the data file path of the current game should
+     * be watched for new player URLs.
+     */
+    public void setWatchWebCache(boolean shouldWatch) {
+        update(watchWebCache, shouldWatch);
+    }
+
+
+    @JsonProperty("watchWebCache")
+    public boolean isWatchWebCache() {
+        return watchWebCache.get();
+    }
+
+
+    /**
+     * Sets if the gacha history should be updated from a player URL found by
+     * watching the web cache as soon as it is found.
+     */
+    public void setSyncOnWatchedUrl(boolean shouldSync) {
+        update(syncOnWatchedUrl, shouldSync);
+    }
+
+
+    @JsonProperty("syncOnWatchedUrl")
+    public boolean isSyncOnWatchedUrl() {
+        return syncOnWatchedUrl.get();
+    }
+
+
     @JsonProperty("chartPrefs")
     public ChartPreference getChartPreference() {
         return chartPrefs;
     }
 
 
+    /**
+     * Returns the version of this preference, which changes every time a
+     * value of this or its chart preference changes. Setting a value to what
+     * it already is does not change the version.
+     */
+    public long getVersion() {
+        return version.get() + chartPrefs.getVersion();
+    }
+
+
     public UserPreference getCopy() {
         UserPreference preference = new UserPreference();
         preference.resetTo(this);
         return preference;
     }
+
+
+    private <T> void update(LockedValue<T> field, T value) {
+        if (field.update(value)) {
+            version.incrementAndGet();
+        }
+    }
 }
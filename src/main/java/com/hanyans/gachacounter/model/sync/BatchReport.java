@@ -0,0 +1,115 @@
+package com.hanyans.gachacounter.model.sync;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import com.hanyans.gachacounter.mhy.Game;
+
+
+/**
+ * Data class containing the result of every account of a batch retrieval in
+ * the order the accounts were given.
+ */
+public class BatchReport {
+    /** Result of each account. */
+    public final List<AccountResult> results;
+
+
+    /**
+     * Constructs a {@code BatchReport}.
+     *
+     * @param results - result of each account.
+     * @throws NullPointerException if {@code results} is {@code null}.
+     */
+    public BatchReport(List<AccountResult> results) {
+        this.results = List.copyOf(results);
+    }
+
+
+    /**
+     * Returns the total number of new entries added from all accounts.
+     */
+    public int getTotalAdded() {
+        return results.stream()
+                .mapToInt(result -> result.numAdded)
+                .sum();
+    }
+
+
+    /**
+     * Returns the results of the accounts that failed.
+     */
+    public List<AccountResult> getFailures() {
+        return results.stream()
+                .filter(result -> !result.isSuccess())
+                .toList();
+    }
+
+
+
+
+
+    /**
+     * The result of the retrieval of a single account.
+     */
+    public static class AccountResult {
+        /** The player URL of the account. */
+        public final String playerUrl;
+        /** The game of the account if it is known. */
+        public final Optional<Game> game;
+        /** The number of new entries added from the account. */
+        public final int numAdded;
+        /** The reason the retrieval failed if it did. */
+        public final Optional<Throwable> failure;
+
+
+        private AccountResult(String playerUrl, Optional<Game> game, int numAdded, Optional<Throwable> failure) {
+            this.playerUrl = Objects.requireNonNull(playerUrl);
+            this.game = Objects.requireNonNull(game);
+            this.numAdded = numAdded;
+            this.failure = Objects.requireNonNull(failure);
+        }
+
+
+        /**
+         * Constructs the result of an account that was retrieved.
+         *
+         * @param playerUrl - the player URL of the account.
+         * @param game - the game of the account.
+         * @param numAdded - the number of new entries added.
+         */
+        public static AccountResult success(String playerUrl, Game game, int numAdded) {
+            return new AccountResult(playerUrl, Optional.of(game), numAdded, Optional.empty());
+        }
+
+
+        /**
+         * Constructs the result of an account that could not be retrieved.
+         *
+         * @param playerUrl - the player URL of the account.
+         * @param game - the game of the account if it is known.
+         * @param numAdded - the number of new entries added before the failure.
+         * @param failure - the reason of the failure.
+         */
+        public static AccountResult failure(String playerUrl, Optional<Game> game, int numAdded, Throwable failure) {
+            return new AccountResult(playerUrl, game, numAdded, Optional.of(failure));
+        }
+
+
+        /**
+         * Returns {@code true} if the account was retrieved successfully.
+         */
+        public boolean isSuccess() {
+            return failure.isEmpty();
+        }
+
+
+        @Override
+        public String toString() {
+            return String.format("%s %s", game.map(Game::toString).orElse("<unknown game>"),
+                    failure.map(ex -> String.format("failed -- %s", ex.getMessage()))
+                            .orElse(String.format("added %d entries", numAdded)));
+        }
+    }
+}
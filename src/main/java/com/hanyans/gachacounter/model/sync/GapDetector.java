@@ -0,0 +1,124 @@
+package com.hanyans.gachacounter.model.sync;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import com.hanyans.gachacounter.mhy.GachaType;
+import com.hanyans.gachacounter.model.BannerHistory;
+import com.hanyans.gachacounter.model.GachaEntry;
+
+
+/**
+ * Utility class to find the ranges of a banner history that are missing
+ * entries.
+ *
+ * <p>Entries cannot be checked for completeness from their IDs as the IDs of
+ * consecutive pulls are not consecutive. Instead, the history of a player is
+ * checked, from the earliest to the latest entry, for the following that
+ * cannot happen in a complete history:
+ * <ul>
+ * <li>a multi-pull with fewer than {@value #MULTI_PULL_SIZE} entries, i.e.
+ *      2 to 9 entries with the same time.
+ * <li>more consecutive 3 star entries than the 4 star pity allows.
+ * <li>more consecutive entries below 5 star than the 5 star pity allows.
+ * </ul>
+ * Overlapping ranges found are merged.
+ */
+public class GapDetector {
+    /** Number of entries in a multi-pull. */
+    public static final int MULTI_PULL_SIZE = 10;
+
+
+    /**
+     * Returns the ranges of the history of the specified player that are
+     * likely to be missing entries, from the earliest to the latest.
+     *
+     * @param history - the history to check.
+     * @param uid - UID of the player to check.
+     */
+    public static List<HistoryGap> detect(BannerHistory history, long uid) {
+        Objects.requireNonNull(history);
+        GachaType gachaType = history.getGachaType();
+        List<GachaEntry> entries = history.getEntrySet().stream()
+                .filter(entry -> entry.uid == uid)
+                .sorted()
+                .toList();
+
+        // ranges as [older bound index, newer bound index], excluding both
+        ArrayList<int[]> ranges = new ArrayList<>();
+        ArrayList<String> reasons = new ArrayList<>();
+        int groupStart = 0;
+        int last4 = -1;
+        int last5 = -1;
+        for (int i = 0; i <= entries.size(); i++) {
+            boolean isEnd = i == entries.size();
+
+            // multi-pull groups
+            if (isEnd || !entries.get(i).time.equals(entries.get(groupStart).time)) {
+                int groupSize = i - groupStart;
+                if (groupSize > 1 && groupSize < MULTI_PULL_SIZE) {
+                    addRange(ranges, reasons, groupStart - 1, i,
+                            String.format("multi-pull of %d entries", groupSize));
+                }
+                groupStart = i;
+            }
+
+            // pity overruns
+            int rank = isEnd ? Integer.MAX_VALUE : entries.get(i).rank;
+            if (rank >= 4) {
+                if (i - last4 - 1 >= gachaType.getMax4Pity()) {
+                    addRange(ranges, reasons, last4, i,
+                            String.format("%d entries without 4 star", i - last4 - 1));
+                }
+                last4 = i;
+            }
+            if (rank >= 5) {
+                if (i - last5 - 1 >= gachaType.getMax5Pity()) {
+                    addRange(ranges, reasons, last5, i,
+                            String.format("%d entries without 5 star", i - last5 - 1));
+                }
+                last5 = i;
+            }
+        }
+
+        return toGaps(mergeRanges(ranges, reasons), reasons, entries, uid, gachaType);
+    }
+
+
+    private static void addRange(ArrayList<int[]> ranges, ArrayList<String> reasons,
+                int olderIndex, int newerIndex, String reason) {
+        ranges.add(new int[] {olderIndex, newerIndex, reasons.size()});
+        reasons.add(reason);
+    }
+
+
+    private static List<int[]> mergeRanges(ArrayList<int[]> ranges, ArrayList<String> reasons) {
+        ranges.sort((r1, r2) -> Integer.compare(r1[0], r2[0]));
+        ArrayList<int[]> merged = new ArrayList<>();
+        for (int[] range : ranges) {
+            int[] previous = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            // ranges sharing a bound are merged as well, since they would be
+            // retrieved by the same pages
+            if (previous != null && range[0] <= previous[1]) {
+                previous[1] = Math.max(previous[1], range[1]);
+                reasons.set(previous[2], String.join(", ", reasons.get(previous[2]), reasons.get(range[2])));
+            } else {
+                merged.add(range);
+            }
+        }
+        return merged;
+    }
+
+
+    private static List<HistoryGap> toGaps(List<int[]> ranges, ArrayList<String> reasons,
+                List<GachaEntry> entries, long uid, GachaType gachaType) {
+        ArrayList<HistoryGap> gaps = new ArrayList<>();
+        for (int[] range : ranges) {
+            long olderId = range[0] < 0 ? HistoryGap.EARLIEST : entries.get(range[0]).id;
+            long newerId = range[1] >= entries.size() ? HistoryGap.LATEST : entries.get(range[1]).id;
+            gaps.add(new HistoryGap(uid, gachaType, newerId, olderId, reasons.get(range[2])));
+        }
+        return gaps;
+    }
+}
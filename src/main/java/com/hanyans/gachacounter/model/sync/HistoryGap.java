@@ -0,0 +1,56 @@
+package com.hanyans.gachacounter.model.sync;
+
+import java.util.Objects;
+
+import com.hanyans.gachacounter.mhy.GachaType;
+
+
+/**
+ * A range of a player's banner history that is likely to be missing entries.
+ *
+ * <p>The range is bounded by two known entries and excludes them. The missing
+ * entries can be retrieved by walking the gacha log from {@link #newerId}
+ * until an entry of ID {@link #olderId} or lower is reached.
+ */
+public class HistoryGap {
+    /** Bound value of a range that extends to the latest entry of the log. */
+    public static final long LATEST = 0;
+    /** Bound value of a range that extends to the earliest entry of the log. */
+    public static final long EARLIEST = 0;
+
+    /** UID of the player. */
+    public final long uid;
+    /** {@code GachaType} of the banner. */
+    public final GachaType gachaType;
+    /** ID of the known entry right after the range or {@link #LATEST}. */
+    public final long newerId;
+    /** ID of the known entry right before the range or {@link #EARLIEST}. */
+    public final long olderId;
+    /** Description of why the range is suspected. */
+    public final String reason;
+
+
+    /**
+     * Constructs a {@code HistoryGap}.
+     *
+     * @param uid - UID of the player.
+     * @param gachaType - gacha type of the banner.
+     * @param newerId - ID of the known entry right after the range.
+     * @param olderId - ID of the known entry right before the range.
+     * @param reason - description of why the range is suspected.
+     */
+    public HistoryGap(long uid, GachaType gachaType, long newerId, long olderId, String reason) {
+        this.uid = uid;
+        this.gachaType = Objects.requireNonNull(gachaType);
+        this.newerId = newerId;
+        this.olderId = olderId;
+        this.reason = Objects.requireNonNull(reason);
+    }
+
+
+    @Override
+    public String toString() {
+        return String.format("%d/%s (%d, %d) %s",
+                uid, gachaType, olderId, newerId, reason);
+    }
+}
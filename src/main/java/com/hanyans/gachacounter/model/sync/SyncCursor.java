@@ -0,0 +1,153 @@
+package com.hanyans.gachacounter.model.sync;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.hanyans.gachacounter.mhy.GachaType;
+
+
+/**
+ * Records how far the retrieval of the gacha log of a banner of a player has
+ * walked so that an interrupted retrieval can be resumed from where it
+ * stopped.
+ *
+ * <p>The bounds of the gaps whose range has already been walked are recorded
+ * as well, so that a gap that the server can no longer fill is not walked
+ * again by every later retrieval.
+ */
+public class SyncCursor {
+    /** UID of the player. */
+    public final long uid;
+    /** {@code GachaType} of the banner. */
+    public final GachaType gachaType;
+    /** The end ID to request the next page with. */
+    public final long endId;
+    /** If the walk has reached either the end of the log or a known entry. */
+    public final boolean isComplete;
+    /** Bounds of the gaps whose range has been walked. */
+    public final List<CheckedGap> checkedGaps;
+
+
+    /**
+     * Constructs a {@code SyncCursor} without any checked gap.
+     *
+     * @param uid - UID of the player.
+     * @param gachaType - gacha type of the banner.
+     * @param endId - end ID to request the next page with.
+     * @param isComplete - if the walk has completed.
+     * @throws NullPointerException if {@code gachaType} is {@code null}.
+     */
+    public SyncCursor(long uid, GachaType gachaType, long endId, boolean isComplete) {
+        this(uid, gachaType, endId, isComplete, List.of());
+    }
+
+
+    /**
+     * Constructs a {@code SyncCursor}.
+     *
+     * @param uid - UID of the player.
+     * @param gachaType - gacha type of the banner.
+     * @param endId - end ID to request the next page with.
+     * @param isComplete - if the walk has completed.
+     * @param checkedGaps - bounds of the gaps whose range has been walked,
+     *      none if {@code null}.
+     * @throws NullPointerException if {@code gachaType} is {@code null}.
+     */
+    @JsonCreator
+    public SyncCursor(
+                @JsonProperty("uid") long uid,
+                @JsonProperty("gachaType") GachaType gachaType,
+                @JsonProperty("endId") long endId,
+                @JsonProperty("isComplete") boolean isComplete,
+                @JsonProperty("checkedGaps") Collection<CheckedGap> checkedGaps) {
+        this.uid = uid;
+        this.gachaType = Objects.requireNonNull(gachaType);
+        this.endId = endId;
+        this.isComplete = isComplete;
+        this.checkedGaps = (checkedGaps == null) ? List.of() : List.copyOf(checkedGaps);
+    }
+
+
+    /**
+     * Returns {@code true} if the range of the given gap has been walked and
+     * {@code false} otherwise.
+     *
+     * @param gap - the gap to check.
+     */
+    public boolean isChecked(HistoryGap gap) {
+        return checkedGaps.contains(new CheckedGap(gap.olderId, gap.newerId));
+    }
+
+
+    /**
+     * Returns a copy of this cursor with the given gaps recorded as checked.
+     *
+     * @param gaps - the gaps whose range has been walked.
+     */
+    public SyncCursor withCheckedGaps(Collection<HistoryGap> gaps) {
+        ArrayList<CheckedGap> checked = new ArrayList<>(checkedGaps);
+        for (HistoryGap gap : gaps) {
+            if (!isChecked(gap)) {
+                checked.add(new CheckedGap(gap.olderId, gap.newerId));
+            }
+        }
+        return new SyncCursor(uid, gachaType, endId, isComplete, checked);
+    }
+
+
+    @Override
+    public String toString() {
+        return String.format("%d/%s (endId = %d, complete = %s, checked gaps = %d)",
+                uid, gachaType, endId, isComplete, checkedGaps.size());
+    }
+
+
+
+
+
+    /**
+     * Bounds of a {@link HistoryGap} whose range has been walked.
+     */
+    public static class CheckedGap {
+        /** ID of the known entry right before the range. */
+        public final long olderId;
+        /** ID of the known entry right after the range. */
+        public final long newerId;
+
+
+        /**
+         * Constructs a {@code CheckedGap}.
+         *
+         * @param olderId - ID of the known entry right before the range.
+         * @param newerId - ID of the known entry right after the range.
+         */
+        @JsonCreator
+        public CheckedGap(
+                    @JsonProperty("olderId") long olderId,
+                    @JsonProperty("newerId") long newerId) {
+            this.olderId = olderId;
+            this.newerId = newerId;
+        }
+
+
+        @Override
+        public boolean equals(Object other) {
+            if (other == null || !(other instanceof CheckedGap)) {
+                return false;
+            }
+            CheckedGap casted = (CheckedGap) other;
+            return this.olderId == casted.olderId
+                    && this.newerId == casted.newerId;
+        }
+
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(olderId, newerId);
+        }
+    }
+}
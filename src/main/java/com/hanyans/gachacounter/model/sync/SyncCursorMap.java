@@ -0,0 +1,91 @@
+package com.hanyans.gachacounter.model.sync;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.Optional;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.hanyans.gachacounter.mhy.GachaType;
+
+
+/**
+ * The {@link SyncCursor} of every player and banner of a game. Safe to be
+ * updated by the retrieval of multiple banners at once.
+ */
+public class SyncCursorMap {
+    @JsonIgnore private final HashMap<String, SyncCursor> cursors = new HashMap<>();
+
+    @JsonIgnore private long version = 0;
+
+
+    /**
+     * Constructs an empty {@code SyncCursorMap}.
+     */
+    public SyncCursorMap() {}
+
+
+    /**
+     * Constructs a {@code SyncCursorMap}.
+     *
+     * @param cursors - the cursors to contain.
+     */
+    @JsonCreator
+    public SyncCursorMap(@JsonProperty("cursors") Collection<SyncCursor> cursors) {
+        if (cursors != null) {
+            cursors.forEach(this::put);
+        }
+    }
+
+
+    /**
+     * Returns the cursor of the specified player and banner.
+     *
+     * @param uid - UID of the player.
+     * @param gachaType - gacha type of the banner.
+     */
+    public synchronized Optional<SyncCursor> get(long uid, GachaType gachaType) {
+        return Optional.ofNullable(cursors.get(formKey(uid, gachaType)));
+    }
+
+
+    /**
+     * Puts the given cursor, replacing the cursor of the same player and
+     * banner.
+     *
+     * @param cursor - the cursor to put.
+     */
+    public synchronized void put(SyncCursor cursor) {
+        Objects.requireNonNull(cursor);
+        if (cursors.put(formKey(cursor.uid, cursor.gachaType), cursor) != cursor) {
+            version++;
+        }
+    }
+
+
+    /**
+     * Returns the version of this map, which changes every time a cursor is
+     * put.
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+
+    /**
+     * Returns a list of all the cursors. Changes to the returned list will not
+     * affect this map.
+     */
+    @JsonProperty("cursors")
+    public synchronized ArrayList<SyncCursor> getCursors() {
+        return new ArrayList<>(cursors.values());
+    }
+
+
+    private static String formKey(long uid, GachaType gachaType) {
+        return String.format("%d/%s", uid, gachaType);
+    }
+}
@@ -0,0 +1,214 @@
+package com.hanyans.gachacounter.storage;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Objects;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.fasterxml.jackson.core.JacksonException;
+import com.hanyans.gachacounter.core.util.FileUtil;
+import com.hanyans.gachacounter.core.util.JsonUtil;
+import com.hanyans.gachacounter.model.BannerHistory;
+import com.hanyans.gachacounter.model.GachaEntry;
+
+
+/**
+ * Append-only journal of the entries added to a {@link BannerHistory} since
+ * its JSON snapshot was last written.
+ *
+ * <p>Saving a history appends only its pending entries, those added since it
+ * was last saved or loaded, to the journal, one compact JSON
+ * {@link GachaEntry} per line, so the cost of a save scales with the number
+ * of new entries rather than with the size of the history.
+ * The journal is compacted into a new snapshot, written to a temporary file
+ * and moved over the old one, once it has grown past the compaction threshold,
+ * when entries were removed from the history, when the history is not the one
+ * last loaded or saved through the journal or when the journal holds lines cut
+ * short by a crash. A history is loaded by reading its snapshot and replaying the
+ * journal over it. Entries in both are replayed harmlessly, so a crash between
+ * writing the snapshot and deleting the journal loses nothing.
+ *
+ * <p>The snapshot keeps the format of the whole history files, so it can
+ * still be read without the journal, only missing the entries journaled
+ * since the last compaction.
+ */
+public class HistoryJournal {
+    /** Default number of journaled entries after which the journal is compacted. */
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 2000;
+    /** Extension of a journal file appended to the name of its snapshot. */
+    public static final String JOURNAL_EXTENSION = ".journal";
+
+    private final Logger logger = LogManager.getFormatterLogger(HistoryJournal.class);
+
+    // history whose entries other than its pending ones are on disk
+    private BannerHistory tracked = null;
+
+    private final Path snapshotPath;
+    private final Path journalPath;
+    private final int compactionThreshold;
+
+    private boolean isCompactionDue = false;
+    private int numJournaled = 0;
+
+
+    /**
+     * Constructs a {@code HistoryJournal} of the snapshot in the given path
+     * with the default compaction threshold.
+     *
+     * @param snapshotPath - path of the JSON snapshot of the history.
+     */
+    public HistoryJournal(Path snapshotPath) {
+        this(snapshotPath, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+
+    /**
+     * Constructs a {@code HistoryJournal} of the snapshot in the given path.
+     *
+     * @param snapshotPath - path of the JSON snapshot of the history.
+     * @param compactionThreshold - number of journaled entries after which
+     *      the journal is compacted.
+     * @throws NullPointerException if {@code snapshotPath} is {@code null}.
+     */
+    public HistoryJournal(Path snapshotPath, int compactionThreshold) {
+        this.snapshotPath = Objects.requireNonNull(snapshotPath);
+        this.journalPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + JOURNAL_EXTENSION);
+        this.compactionThreshold = Math.max(compactionThreshold, 1);
+    }
+
+
+    /**
+     * Returns the path of the journal file.
+     */
+    public Path getJournalPath() {
+        return journalPath;
+    }
+
+
+    /**
+     * Adds the entries in the journal to the given history, which should hold
+     * the entries of the snapshot, and takes the result as what is on disk.
+     *
+     * @param history - the history loaded from the snapshot.
+     * @return the number of entries replayed that were not in the snapshot.
+     * @throws IOException if an I/O error occurs while reading the journal.
+     */
+    public synchronized int replay(BannerHistory history) throws IOException {
+        int numReplayed = 0;
+        int numLines = 0;
+        isCompactionDue = false;
+        if (Files.exists(journalPath)) {
+            try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    numLines++;
+                    try {
+                        if (history.add(JsonUtil.deserialize(line, GachaEntry.class))) {
+                            numReplayed++;
+                        }
+                    } catch (JacksonException jsonEx) {
+                        // a line cut short by a crash, rewritten by the next compaction
+                        logger.warn("Skipping malformed journal line in %s -- %s", journalPath, line);
+                        isCompactionDue = true;
+                    }
+                }
+            }
+        }
+        track(history);
+        numJournaled = numLines;
+        return numReplayed;
+    }
+
+
+    /**
+     * Saves the given history, appending its pending entries to the journal
+     * or writing a new snapshot if compaction is due. A new snapshot is
+     * always written if the history was not last loaded or saved through this
+     * journal.
+     *
+     * @param history - the history to save.
+     * @return the number of entries written.
+     * @throws IOException if an I/O error occurs.
+     */
+    public synchronized int save(BannerHistory history) throws IOException {
+        if (history != tracked || isCompactionDue || history.hasRemovedEntries()) {
+            return compact(history);
+        }
+
+        ArrayList<GachaEntry> newEntries = new ArrayList<>(history.getPendingEntries());
+        if (numJournaled + newEntries.size() > compactionThreshold) {
+            return compact(history);
+        }
+        if (newEntries.isEmpty()) {
+            return 0;
+        }
+
+        Collections.sort(newEntries);
+        StringBuilder builder = new StringBuilder();
+        for (GachaEntry entry : newEntries) {
+            builder.append(JsonUtil.serializeToString(entry)).append('\n');
+        }
+        FileUtil.createParentDir(journalPath);
+        try (BufferedWriter writer = Files.newBufferedWriter(journalPath, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(builder.toString());
+        }
+        history.clearPendingEntries();
+        numJournaled += newEntries.size();
+        logger.debug("Journaled %d entries to %s", newEntries.size(), journalPath);
+        return newEntries.size();
+    }
+
+
+    /**
+     * Sets the next save to write a new snapshot, as when the snapshot could
+     * not be read.
+     */
+    public synchronized void requestCompaction() {
+        isCompactionDue = true;
+    }
+
+
+    /**
+     * Writes the given history as a new snapshot and empties the journal.
+     *
+     * @param history - the history to write.
+     * @return the number of entries written.
+     * @throws IOException if an I/O error occurs.
+     */
+    public synchronized int compact(BannerHistory history) throws IOException {
+        FileUtil.createParentDir(snapshotPath);
+        Path tempPath = Files.createTempFile(snapshotPath.getParent(), null, null);
+        try {
+            JsonUtil.serializeCompactToFile(tempPath, history);
+            Files.move(tempPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+        Files.deleteIfExists(journalPath);
+        track(history);
+        numJournaled = 0;
+        isCompactionDue = false;
+        logger.debug("Compacted %d entries into %s", history.size(), snapshotPath);
+        return history.size();
+    }
+
+
+    private void track(BannerHistory history) {
+        history.clearPendingEntries();
+        tracked = history;
+    }
+}
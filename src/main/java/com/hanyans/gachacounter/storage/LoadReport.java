@@ -1,6 +1,10 @@
 package com.hanyans.gachacounter.storage;
 
+import java.time.Duration;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 
 
@@ -13,6 +17,11 @@ public class LoadReport<T> {
     public final T data;
     /** List of exceptions that occured. */
     public final Collection<Throwable> exList;
+    /**
+     * Time taken to load each data file by the name of the data, in the order
+     * the files are reported. Empty if the times are not measured.
+     */
+    public final Map<String, Duration> loadTimes;
 
 
     /**
@@ -23,7 +32,23 @@ public class LoadReport<T> {
      * @throws NullPointerException if any parameter is {@code null}.
      */
     public LoadReport(T data, Collection<Throwable> exList) {
+        this(data, exList, new LinkedHashMap<>());
+    }
+
+
+    /**
+     * Constructs a {@code LoadReport} with the time taken to load each data
+     * file.
+     *
+     * @param data - the data loaded.
+     * @param exList - the list of exceptions that occured while loading.
+     * @param loadTimes - the time taken to load each data file by the name of
+     *      the data.
+     * @throws NullPointerException if any parameter is {@code null}.
+     */
+    public LoadReport(T data, Collection<Throwable> exList, LinkedHashMap<String, Duration> loadTimes) {
         this.data = Objects.requireNonNull(data);
         this.exList = Objects.requireNonNull(exList);
+        this.loadTimes = Collections.unmodifiableMap(Objects.requireNonNull(loadTimes));
     }
 }
@@ -0,0 +1,245 @@
+package com.hanyans.gachacounter.storage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.hanyans.gachacounter.core.util.FileUtil;
+import com.hanyans.gachacounter.mhy.GachaType;
+
+
+/**
+ * Content-addressed cache of the raw gacha log pages of a game, from which
+ * the histories can be rebuilt without requesting the server again.
+ *
+ * <p>Each distinct page is stored once, gzip compressed, under the SHA-256
+ * of its content in {@code objects/}. The pages of a player and banner are
+ * indexed by the {@code end_id} they were requested with in
+ * {@code index/<GACHA TYPE>/<UID>.idx}, one {@code <end_id> <hash>} line per
+ * page, appended as pages are added. A later line of the same
+ * {@code end_id} replaces the earlier ones.
+ *
+ * <p>All methods are synchronized, so a single {@code PageCache} can be
+ * shared by the banners of a retrieval. The index is read from disk when
+ * first needed.
+ */
+public class PageCache {
+    private static final Path OBJECTS_DIR_PATH = Path.of("objects");
+    private static final Path INDEX_DIR_PATH = Path.of("index");
+    private static final String OBJECT_EXTENSION = ".json.gz";
+    private static final String INDEX_EXTENSION = ".idx";
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final Pattern INDEX_LINE_PATTERN = Pattern.compile("(\\d+) ([0-9a-f]{64})");
+
+    private final Logger logger = LogManager.getFormatterLogger(PageCache.class);
+
+    // gacha type -> UID -> end ID -> hash
+    private final EnumMap<GachaType, HashMap<Long, HashMap<Long, String>>> index = new EnumMap<>(GachaType.class);
+
+    private final Path dirPath;
+
+    private boolean isIndexLoaded = false;
+
+
+    /**
+     * Constructs a {@code PageCache} stored in the given directory.
+     *
+     * @param dirPath - the directory of the cache.
+     * @throws NullPointerException if {@code dirPath} is {@code null}.
+     */
+    public PageCache(Path dirPath) {
+        this.dirPath = Objects.requireNonNull(dirPath);
+    }
+
+
+    /**
+     * Adds the raw content of a page to the cache.
+     *
+     * @param uid - UID of the player of the page.
+     * @param gachaType - the banner of the page.
+     * @param endId - the {@code end_id} the page was requested with.
+     * @param content - the raw content of the page.
+     * @throws IOException if an I/O error occurs.
+     */
+    public synchronized void put(long uid, GachaType gachaType, long endId, byte[] content) throws IOException {
+        loadIndex();
+        String hash = hash(content);
+        HashMap<Long, String> pages = index.get(gachaType).computeIfAbsent(uid, key -> new HashMap<>());
+        if (hash.equals(pages.get(endId))) {
+            return;
+        }
+
+        Path objectPath = getObjectPath(hash);
+        if (!Files.exists(objectPath)) {
+            writeObject(objectPath, content);
+        }
+        Path indexPath = getIndexPath(uid, gachaType);
+        FileUtil.createParentDir(indexPath);
+        Files.writeString(indexPath, String.format("%d %s%n", endId, hash), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        pages.put(endId, hash);
+        logger.debug("Cached page of <%s> from end ID %d as %s", gachaType, endId, hash);
+    }
+
+
+    /**
+     * Returns the raw content of the page of the player and banner requested
+     * with the given {@code end_id}, or an empty {@code Optional} if it is not
+     * cached.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    public synchronized Optional<byte[]> get(long uid, GachaType gachaType, long endId) throws IOException {
+        loadIndex();
+        String hash = index.get(gachaType).getOrDefault(uid, new HashMap<>()).get(endId);
+        if (hash == null) {
+            return Optional.empty();
+        }
+        return Optional.of(readObject(getObjectPath(hash)));
+    }
+
+
+    /**
+     * Returns the UIDs of the players with pages of the given banner cached.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    public synchronized List<Long> getUids(GachaType gachaType) throws IOException {
+        loadIndex();
+        return List.copyOf(index.get(gachaType).keySet());
+    }
+
+
+    /**
+     * Returns the raw content of all distinct pages of the player and banner
+     * cached, in no particular order.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    public synchronized List<byte[]> getPages(long uid, GachaType gachaType) throws IOException {
+        loadIndex();
+        LinkedHashSet<String> hashes = new LinkedHashSet<>(
+                index.get(gachaType).getOrDefault(uid, new HashMap<>()).values());
+        ArrayList<byte[]> pages = new ArrayList<>(hashes.size());
+        for (String hash : hashes) {
+            pages.add(readObject(getObjectPath(hash)));
+        }
+        return pages;
+    }
+
+
+    private void loadIndex() throws IOException {
+        if (isIndexLoaded) {
+            return;
+        }
+        for (GachaType gachaType : GachaType.values()) {
+            index.put(gachaType, new HashMap<>());
+            Path typePath = dirPath.resolve(INDEX_DIR_PATH).resolve(gachaType.name());
+            if (!Files.isDirectory(typePath)) {
+                continue;
+            }
+            try (DirectoryStream<Path> paths = Files.newDirectoryStream(typePath, "*" + INDEX_EXTENSION)) {
+                for (Path path : paths) {
+                    loadIndexFile(gachaType, path);
+                }
+            }
+        }
+        isIndexLoaded = true;
+    }
+
+
+    private void loadIndexFile(GachaType gachaType, Path path) throws IOException {
+        String fileName = path.getFileName().toString();
+        long uid;
+        try {
+            uid = Long.parseLong(fileName.substring(0, fileName.length() - INDEX_EXTENSION.length()));
+        } catch (NumberFormatException numFormatEx) {
+            logger.warn("Skipping page cache index of unknown UID -- %s", path);
+            return;
+        }
+
+        HashMap<Long, String> pages = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher matcher = INDEX_LINE_PATTERN.matcher(line);
+                if (matcher.matches()) {
+                    pages.put(Long.parseLong(matcher.group(1)), matcher.group(2));
+                } else {
+                    // a line cut short by a crash while appending
+                    logger.warn("Skipping malformed page cache index line in %s -- %s", path, line);
+                }
+            }
+        }
+        index.get(gachaType).put(uid, pages);
+    }
+
+
+    private void writeObject(Path objectPath, byte[] content) throws IOException {
+        FileUtil.createParentDir(objectPath);
+        Path tempPath = Files.createTempFile(objectPath.getParent(), null, null);
+        try {
+            try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(tempPath))) {
+                output.write(content);
+            }
+            Files.move(tempPath, objectPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+
+    private byte[] readObject(Path objectPath) throws IOException {
+        try (InputStream input = new GZIPInputStream(Files.newInputStream(objectPath))) {
+            return input.readAllBytes();
+        }
+    }
+
+
+    private Path getObjectPath(String hash) {
+        return dirPath.resolve(OBJECTS_DIR_PATH)
+                .resolve(hash.substring(0, 2))
+                .resolve(hash + OBJECT_EXTENSION);
+    }
+
+
+    private Path getIndexPath(long uid, GachaType gachaType) {
+        return dirPath.resolve(INDEX_DIR_PATH)
+                .resolve(gachaType.name())
+                .resolve(uid + INDEX_EXTENSION);
+    }
+
+
+    private static String hash(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance(HASH_ALGORITHM).digest(content));
+        } catch (NoSuchAlgorithmException noAlgoEx) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(noAlgoEx);
+        }
+    }
+}
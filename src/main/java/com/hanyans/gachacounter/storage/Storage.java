@@ -3,10 +3,12 @@ package com.hanyans.gachacounter.storage;
 import java.util.Collection;
 
 import com.hanyans.gachacounter.mhy.Game;
+import com.hanyans.gachacounter.mhy.pacer.PacerRegistry;
 import com.hanyans.gachacounter.model.BannerHistory;
 import com.hanyans.gachacounter.model.GameGachaData;
 import com.hanyans.gachacounter.model.UidNameMap;
 import com.hanyans.gachacounter.model.preference.UserPreference;
+import com.hanyans.gachacounter.model.sync.SyncCursorMap;
 
 
 /**
@@ -51,6 +53,16 @@ public interface Storage {
     public Collection<Throwable> saveBannerHistory(Game game, BannerHistory history);
 
 
+    /**
+     * Saves the state of the given {@code SyncCursorMap}.
+     *
+     * @param game - the game of the given cursors.
+     * @param cursors - the cursors to save.
+     * @return a list of exceptions that occured while saving.
+     */
+    public Collection<Throwable> saveSyncCursors(Game game, SyncCursorMap cursors);
+
+
     /**
      * Loads user preference data.
      *
@@ -66,4 +78,31 @@ public interface Storage {
      * @return a list of exceptions that occured while saving.
      */
     public Collection<Throwable> savePreference(UserPreference preference);
+
+
+    /**
+     * Loads the learned request pacing rates.
+     *
+     * @return a {@code LoadReport} of the loaded data.
+     */
+    public LoadReport<PacerRegistry> loadPacerRegistry();
+
+
+    /**
+     * Saves the learned request pacing rates of the given
+     * {@code PacerRegistry}.
+     *
+     * @param pacers - the registry to save.
+     * @return a list of exceptions that occured while saving.
+     */
+    public Collection<Throwable> savePacerRegistry(PacerRegistry pacers);
+
+
+    /**
+     * Returns the cache of the raw gacha log pages of the specified game. The
+     * same {@code PageCache} is returned for the same game.
+     *
+     * @param game - the game whose page cache to return.
+     */
+    public PageCache getPageCache(Game game);
 }
@@ -2,8 +2,21 @@ package com.hanyans.gachacounter.storage;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -13,21 +26,37 @@ import com.hanyans.gachacounter.core.util.FileUtil;
 import com.hanyans.gachacounter.core.util.JsonUtil;
 import com.hanyans.gachacounter.mhy.GachaType;
 import com.hanyans.gachacounter.mhy.Game;
+import com.hanyans.gachacounter.mhy.pacer.PacerRegistry;
 import com.hanyans.gachacounter.model.BannerHistory;
 import com.hanyans.gachacounter.model.GameGachaData;
 import com.hanyans.gachacounter.model.UidNameMap;
 import com.hanyans.gachacounter.model.preference.UserPreference;
 import com.hanyans.gachacounter.model.rateup.BannerEventHistory;
+import com.hanyans.gachacounter.model.sync.SyncCursorMap;
+import com.hanyans.gachacounter.storage.binary.HistorySnapshotCache;
 
 
 /**
  * Complete implementation of {@link Storage} to manage I/O operations of data
  * to and from hard disk.
+ *
+ * <p>Banner histories are saved through a {@link HistoryJournal} each, so a
+ * save only appends the entries added since the last one.
+ *
+ * <p>The version of the data last loaded or saved from each file is kept, so
+ * data that has not changed since is not written again. The data files of a
+ * game that have changed are written in parallel.
+ *
+ * <p>The independent data files of a game are loaded in parallel as well.
+ * Exceptions are still reported in the order of the files, as if they were
+ * loaded one after another. Histories are loaded through a
+ * {@link HistorySnapshotCache}, so history files unchanged since they were
+ * last loaded are read from their binary snapshots instead of parsed again.
  */
 public class StorageManager implements Storage {
-    /** User data directory path relative to the working directory. */
+    /** User data directory path relative to the storage root directory. */
     public static final Path USER_DATA_DIR_PATH = Path.of("user_data");
-    /** Event data directory path relative to the working directory. */
+    /** Event data directory path relative to the storage root directory. */
     public static final Path EVENT_DIR_PATH = Path.of("events");
 
     /**
@@ -67,28 +96,110 @@ public class StorageManager implements Storage {
      * Weapon events data file path relative to a game directory.
      */
     public static final Path WEAP_EVENTS_PATH = Path.of("WeaponEvents.json");
+    /**
+     * Retrieval cursors data file path relative to a game directory.
+     */
+    public static final Path SYNC_CURSORS_PATH = Path.of("SyncCursors.json");
+    /**
+     * Raw page cache directory path relative to a game directory.
+     */
+    public static final Path PAGE_CACHE_DIR_PATH = Path.of("PageCache");
 
-    /** User preference data file path relative to the working directory. */
+    /** User preference data file path relative to the storage root directory. */
     public static final Path USER_PREF_PATH = USER_DATA_DIR_PATH.resolve("Preference.json");
+    /** Request pacing data file path relative to the storage root directory. */
+    public static final Path PACING_PATH = USER_DATA_DIR_PATH.resolve("Pacing.json");
+
+    private static final int MAX_SAVE_THREADS = 4;
+    private static final int MAX_LOAD_THREADS = 4;
 
 
     private final Logger logger = LogManager.getFormatterLogger(StorageManager.class);
 
+    private final EnumMap<Game, PageCache> pageCaches = new EnumMap<>(Game.class);
+    private final HashMap<Path, HistoryJournal> journals = new HashMap<>();
+    private final HashMap<Path, SavedState> savedStates = new HashMap<>();
+    private final HistorySnapshotCache historyCache = new HistorySnapshotCache();
+
+    private final Path rootPath;
+
+
+    /**
+     * Constructs a {@code StorageManager} that stores its files relative to
+     * the working directory.
+     */
+    public StorageManager() {
+        this(Path.of(""));
+    }
+
+
+    /**
+     * Constructs a {@code StorageManager} that stores its files relative to
+     * the given directory instead of the working directory.
+     *
+     * @param rootPath - path of the directory to store the files in.
+     * @throws NullPointerException if {@code rootPath} is {@code null}.
+     */
+    public StorageManager(Path rootPath) {
+        this.rootPath = Objects.requireNonNull(rootPath);
+    }
+
 
     @Override
     public LoadReport<GameGachaData> loadGachaData(Game game) {
         ArrayList<Throwable> exList = new ArrayList<>();
+        LinkedHashMap<String, Duration> loadTimes = new LinkedHashMap<>();
         Path gamePath = getGamePath(game, USER_DATA_DIR_PATH);
         Path eventPath = getGamePath(game, EVENT_DIR_PATH);
-        GameGachaData data = new GameGachaData(
-                game,
-                loadNameMap(gamePath.resolve(NAME_MAP_PATH), exList),
-                loadHistory(GachaType.STANDARD, gamePath.resolve(STND_HIST_PATH), exList),
-                loadHistory(GachaType.CHARACTER, gamePath.resolve(CHAR_HIST_PATH), exList),
-                loadHistory(GachaType.WEAPON, gamePath.resolve(WEAP_HIST_PATH), exList),
-                loadEvent(GachaType.CHARACTER, eventPath.resolve(CHAR_EVENTS_PATH), exList),
-                loadEvent(GachaType.WEAPON, eventPath.resolve(WEAP_EVENTS_PATH), exList));
-        return new LoadReport<>(data, exList);
+        long startTime = System.nanoTime();
+
+        ExecutorService loaders = Executors.newFixedThreadPool(MAX_LOAD_THREADS);
+        GameGachaData data;
+        try {
+            FileLoad<UidNameMap> nameMap = new FileLoad<>(loaders, "UID NAME MAP",
+                    fileExList -> loadNameMap(gamePath.resolve(NAME_MAP_PATH), fileExList));
+            FileLoad<BannerHistory> stndHist = new FileLoad<>(loaders, "STANDARD HISTORY",
+                    fileExList -> loadHistory(GachaType.STANDARD, gamePath.resolve(STND_HIST_PATH), fileExList));
+            FileLoad<BannerHistory> charHist = new FileLoad<>(loaders, "CHARACTER HISTORY",
+                    fileExList -> loadHistory(GachaType.CHARACTER, gamePath.resolve(CHAR_HIST_PATH), fileExList));
+            FileLoad<BannerHistory> weapHist = new FileLoad<>(loaders, "WEAPON HISTORY",
+                    fileExList -> loadHistory(GachaType.WEAPON, gamePath.resolve(WEAP_HIST_PATH), fileExList));
+            FileLoad<BannerEventHistory> charEvents = new FileLoad<>(loaders, "CHARACTER EVENT",
+                    fileExList -> loadEvent(GachaType.CHARACTER, eventPath.resolve(CHAR_EVENTS_PATH), fileExList));
+            FileLoad<BannerEventHistory> weapEvents = new FileLoad<>(loaders, "WEAPON EVENT",
+                    fileExList -> loadEvent(GachaType.WEAPON, eventPath.resolve(WEAP_EVENTS_PATH), fileExList));
+            FileLoad<SyncCursorMap> cursors = new FileLoad<>(loaders, "SYNC CURSORS",
+                    fileExList -> loadSyncCursors(gamePath.resolve(SYNC_CURSORS_PATH), fileExList));
+
+            // joined in file order for the exceptions to be in that order
+            data = new GameGachaData(
+                    game,
+                    nameMap.join(UidNameMap::new, exList, loadTimes),
+                    stndHist.join(() -> new BannerHistory(GachaType.STANDARD), exList, loadTimes),
+                    charHist.join(() -> new BannerHistory(GachaType.CHARACTER), exList, loadTimes),
+                    weapHist.join(() -> new BannerHistory(GachaType.WEAPON), exList, loadTimes),
+                    charEvents.join(BannerEventHistory::new, exList, loadTimes),
+                    weapEvents.join(BannerEventHistory::new, exList, loadTimes),
+                    cursors.join(SyncCursorMap::new, exList, loadTimes));
+        } finally {
+            loaders.shutdown();
+        }
+
+        logger.info("Loaded data of <%s> in %d ms -- %s",
+                game, Duration.ofNanos(System.nanoTime() - startTime).toMillis(), formLoadTimeSummary(loadTimes));
+        return new LoadReport<>(data, exList, loadTimes);
+    }
+
+
+    private static String formLoadTimeSummary(LinkedHashMap<String, Duration> loadTimes) {
+        StringBuilder builder = new StringBuilder();
+        loadTimes.forEach((dataName, loadTime) -> {
+            if (builder.length() > 0) {
+                builder.append(", ");
+            }
+            builder.append(String.format("%s: %d ms", dataName, loadTime.toMillis()));
+        });
+        return builder.toString();
     }
 
 
@@ -98,20 +209,40 @@ public class StorageManager implements Storage {
             logger.info("An empty name map will be used");
             return new UidNameMap();
         }
+        markSaved(path, nameMap, nameMap.getVersion());
         logger.info("Successfully loaded name map");
         return nameMap;
     }
 
 
     private BannerHistory loadHistory(GachaType gachaType, Path path, ArrayList<Throwable> exList) {
-        BannerHistory history = loadData(path, BannerHistory.class, exList, String.format("%s HISTORY", gachaType));
+        int numErrors = exList.size();
+        BannerHistory history = loadData(path, historyCache::load, exList, String.format("%s HISTORY", gachaType));
+        boolean isLoaded = history != null;
         if (history == null) {
             logger.info("An empty history data will be used for <%s HISTORY>",
                     gachaType);
-            return new BannerHistory(gachaType);
+            history = new BannerHistory(gachaType);
+        } else {
+            logger.info("Successfully loaded %d <%s HISTORY>",
+                    history.size(), gachaType);
+        }
+
+        HistoryJournal journal = getJournal(path);
+        try {
+            int numReplayed = journal.replay(history);
+            logger.info("Replayed %d journaled entries of <%s HISTORY>", numReplayed, gachaType);
+        } catch (Throwable ex) {
+            exList.add(new IOException(String.format("[%s HISTORY JOURNAL]: %s",
+                    gachaType, ex)));
+            logger.error(String.format("Error occured while replaying <%s HISTORY> journal", gachaType), ex);
+        }
+        if (exList.size() > numErrors) {
+            // rewrite what could be loaded in full as before
+            journal.requestCompaction();
+        } else if (isLoaded) {
+            markSaved(path, history, history.getVersion());
         }
-        logger.info("Successfully loaded %d <%s HISTORY>",
-                history.size(), gachaType);
         return history;
     }
 
@@ -129,6 +260,18 @@ public class StorageManager implements Storage {
     }
 
 
+    private SyncCursorMap loadSyncCursors(Path path, ArrayList<Throwable> exList) {
+        SyncCursorMap cursors = loadData(path, SyncCursorMap.class, exList, "SYNC CURSORS");
+        if (cursors == null) {
+            logger.info("Retrievals will start from the latest entry for <SYNC CURSORS>");
+            return new SyncCursorMap();
+        }
+        markSaved(path, cursors, cursors.getVersion());
+        logger.info("Successfully loaded <SYNC CURSORS>");
+        return cursors;
+    }
+
+
     /**
      * {@inheritDoc}
      *
@@ -140,21 +283,88 @@ public class StorageManager implements Storage {
         if (data == null) {
             return exList;
         }
-        exList.addAll(saveNameMap(data.game, data.nameMap));
-        exList.addAll(saveBannerHistory(data.game, data.stndHist));
-        exList.addAll(saveBannerHistory(data.game, data.charHist));
-        exList.addAll(saveBannerHistory(data.game, data.weapHist));
+        ArrayList<Callable<ArrayList<Throwable>>> saves = new ArrayList<>();
+        if (!isSaved(getNameMapPath(data.game), data.nameMap, data.nameMap.getVersion())) {
+            saves.add(() -> saveNameMap(data.game, data.nameMap));
+        }
+        for (BannerHistory history : new BannerHistory[] {data.stndHist, data.charHist, data.weapHist}) {
+            if (!isSaved(getHistoryPath(data.game, history.getGachaType()), history, history.getVersion())) {
+                saves.add(() -> saveBannerHistory(data.game, history));
+            }
+        }
+        logger.info("Saving %d changed data files of <%s>", saves.size(), data.game);
+        exList.addAll(runSaves(saves));
+        // after the histories so that the cursors never point past what is saved
+        if (!exList.isEmpty()) {
+            logger.warn("Not saving sync cursors of <%s> as its other data files failed to save", data.game);
+            return exList;
+        }
+        exList.addAll(saveSyncCursors(data.game, data.cursors));
         return exList;
     }
 
 
+    /**
+     * Runs the given saves in parallel and returns the exceptions in the
+     * order of the saves.
+     */
+    private ArrayList<Throwable> runSaves(ArrayList<Callable<ArrayList<Throwable>>> saves) {
+        ArrayList<Throwable> exList = new ArrayList<>();
+        if (saves.size() <= 1) {
+            for (Callable<ArrayList<Throwable>> save : saves) {
+                exList.addAll(callSave(save));
+            }
+            return exList;
+        }
+
+        ExecutorService savers = Executors.newFixedThreadPool(Math.min(saves.size(), MAX_SAVE_THREADS));
+        try {
+            ArrayList<Future<ArrayList<Throwable>>> futures = new ArrayList<>();
+            for (Callable<ArrayList<Throwable>> save : saves) {
+                futures.add(savers.submit(() -> callSave(save)));
+            }
+            for (Future<ArrayList<Throwable>> future : futures) {
+                try {
+                    exList.addAll(future.get());
+                } catch (ExecutionException exeEx) {
+                    exList.add(exeEx.getCause());
+                } catch (InterruptedException intEx) {
+                    Thread.currentThread().interrupt();
+                    exList.add(new IOException("Interrupted while saving", intEx));
+                    break;
+                }
+            }
+        } finally {
+            savers.shutdown();
+        }
+        return exList;
+    }
+
+
+    private ArrayList<Throwable> callSave(Callable<ArrayList<Throwable>> save) {
+        try {
+            return save.call();
+        } catch (Throwable ex) {
+            ArrayList<Throwable> exList = new ArrayList<>();
+            exList.add(ex);
+            return exList;
+        }
+    }
+
+
     @Override
     public ArrayList<Throwable> saveNameMap(Game game, UidNameMap nameMap) {
-        Path gamePath = getGamePath(game, USER_DATA_DIR_PATH).resolve(NAME_MAP_PATH);
+        Path gamePath = getNameMapPath(game);
         ArrayList<Throwable> exList = new ArrayList<>();
+        long version = nameMap.getVersion();
+        if (isSaved(gamePath, nameMap, version)) {
+            logger.debug("Skipped saving unchanged <NAME MAP>");
+            return exList;
+        }
         try {
             FileUtil.createFile(gamePath);
             JsonUtil.serializeToFile(gamePath, nameMap);
+            markSaved(gamePath, nameMap, version);
             logger.info("Successfully save the state of <NAME MAP>");
         } catch (Throwable ex) {
             exList.add(new IOException(String.format("[NAME MAP]:\n%s",
@@ -168,27 +378,18 @@ public class StorageManager implements Storage {
 
     @Override
     public ArrayList<Throwable> saveBannerHistory(Game game, BannerHistory history) {
-        Path gamePath = getGamePath(game, USER_DATA_DIR_PATH);
-        switch (history.getGachaType()) {
-            case STANDARD:
-                gamePath = gamePath.resolve(STND_HIST_PATH);
-                break;
-            case CHARACTER:
-                gamePath = gamePath.resolve(CHAR_HIST_PATH);
-                break;
-            case WEAPON:
-                gamePath = gamePath.resolve(WEAP_HIST_PATH);
-                break;
-            default:
-                throw new IllegalArgumentException(
-                        String.format("Unknown gacha type <%s>", history.getGachaType()));
-        }
-
+        Path gamePath = getHistoryPath(game, history.getGachaType());
         ArrayList<Throwable> exList = new ArrayList<>();
+        long version = history.getVersion();
+        if (isSaved(gamePath, history, version)) {
+            logger.debug("Skipped saving unchanged <%s HISTORY>", history.getGachaType());
+            return exList;
+        }
         try {
-            FileUtil.createFile(gamePath);
-            JsonUtil.serializeToFile(gamePath, history);
-            logger.info("Successfully save the state of <%s HISTORY>", history.getGachaType());
+            int numWritten = getJournal(gamePath).save(history);
+            markSaved(gamePath, history, version);
+            logger.info("Successfully save the state of <%s HISTORY> (%d entries written)",
+                    history.getGachaType(), numWritten);
         } catch (Throwable ex) {
             exList.add(new IOException(String.format("[%s HISTORY]:\n%s",
                     history.getGachaType(), ex.toString())));
@@ -200,14 +401,39 @@ public class StorageManager implements Storage {
     }
 
 
+    @Override
+    public ArrayList<Throwable> saveSyncCursors(Game game, SyncCursorMap cursors) {
+        Path cursorPath = getGamePath(game, USER_DATA_DIR_PATH).resolve(SYNC_CURSORS_PATH);
+        ArrayList<Throwable> exList = new ArrayList<>();
+        long version = cursors.getVersion();
+        if (isSaved(cursorPath, cursors, version)) {
+            logger.debug("Skipped saving unchanged <SYNC CURSORS>");
+            return exList;
+        }
+        try {
+            FileUtil.createFile(cursorPath);
+            JsonUtil.serializeToFile(cursorPath, cursors);
+            markSaved(cursorPath, cursors, version);
+            logger.info("Successfully save the state of <SYNC CURSORS>");
+        } catch (Throwable ex) {
+            exList.add(new IOException(String.format("[SYNC CURSORS]:\n%s",
+                    ex.toString())));
+            logger.error("Failed to save the state of <SYNC CURSORS>", ex);
+        }
+        return exList;
+    }
+
+
     @Override
     public LoadReport<UserPreference> loadPreference() {
         ArrayList<Throwable> exList = new ArrayList<>();
-        UserPreference prefs = loadData(USER_PREF_PATH, UserPreference.class, exList, "USER PREFERENCE");
+        Path prefPath = rootPath.resolve(USER_PREF_PATH);
+        UserPreference prefs = loadData(prefPath, UserPreference.class, exList, "USER PREFERENCE");
         if (prefs == null) {
             logger.info("An empty event data will be used for <USER PREFERENCE>");
             prefs = new UserPreference();
         } else {
+            markSaved(prefPath, prefs, prefs.getVersion());
             logger.info("Successfully loaded <USER PREFERENCE>");
         }
         return new LoadReport<>(prefs, exList);
@@ -217,9 +443,16 @@ public class StorageManager implements Storage {
     @Override
     public ArrayList<Throwable> savePreference(UserPreference preference) {
         ArrayList<Throwable> exList = new ArrayList<>();
+        long version = preference.getVersion();
+        Path prefPath = rootPath.resolve(USER_PREF_PATH);
+        if (isSaved(prefPath, preference, version)) {
+            logger.debug("Skipped saving unchanged <USER PREFERENCE>");
+            return exList;
+        }
         try {
-            FileUtil.createFile(USER_PREF_PATH);
-            JsonUtil.serializeToFile(USER_PREF_PATH, preference);
+            FileUtil.createFile(prefPath);
+            JsonUtil.serializeToFile(prefPath, preference);
+            markSaved(prefPath, preference, version);
             logger.info("Successfully save the state of <USER PREFERENCE>");
         } catch (Throwable ex) {
             exList.add(new IOException(String.format("[USER PREFERENCE]:\n%s",
@@ -230,12 +463,92 @@ public class StorageManager implements Storage {
     }
 
 
+    @Override
+    public LoadReport<PacerRegistry> loadPacerRegistry() {
+        ArrayList<Throwable> exList = new ArrayList<>();
+        Path pacingPath = rootPath.resolve(PACING_PATH);
+        PacerRegistry pacers = loadData(pacingPath, PacerRegistry.class, exList, "PACING");
+        if (pacers == null) {
+            logger.info("Default request rates will be used for <PACING>");
+            pacers = new PacerRegistry();
+        } else {
+            logger.info("Successfully loaded <PACING>");
+        }
+        return new LoadReport<>(pacers, exList);
+    }
+
+
+    @Override
+    public ArrayList<Throwable> savePacerRegistry(PacerRegistry pacers) {
+        ArrayList<Throwable> exList = new ArrayList<>();
+        Path pacingPath = rootPath.resolve(PACING_PATH);
+        try {
+            FileUtil.createFile(pacingPath);
+            JsonUtil.serializeToFile(pacingPath, pacers);
+            logger.info("Successfully save the state of <PACING>");
+        } catch (Throwable ex) {
+            exList.add(new IOException(String.format("[PACING]:\n%s",
+                    ex.toString())));
+            logger.error("Failed to save the state of <PACING>", ex);
+        }
+        return exList;
+    }
+
+
+    @Override
+    public synchronized PageCache getPageCache(Game game) {
+        return pageCaches.computeIfAbsent(game,
+                key -> new PageCache(getGamePath(key, USER_DATA_DIR_PATH).resolve(PAGE_CACHE_DIR_PATH)));
+    }
+
+
+    private synchronized HistoryJournal getJournal(Path snapshotPath) {
+        return journals.computeIfAbsent(snapshotPath, HistoryJournal::new);
+    }
+
+
+    /**
+     * Returns {@code true} if the given data at the given version is the last
+     * loaded from or saved to the file in the given path.
+     */
+    private synchronized boolean isSaved(Path path, Object data, long version) {
+        SavedState state = savedStates.get(path);
+        return state != null && state.data.get() == data && state.version == version;
+    }
+
+
+    private synchronized void markSaved(Path path, Object data, long version) {
+        savedStates.put(path, new SavedState(data, version));
+    }
+
+
+    private Path getNameMapPath(Game game) {
+        return getGamePath(game, USER_DATA_DIR_PATH).resolve(NAME_MAP_PATH);
+    }
+
+
+    private Path getHistoryPath(Game game, GachaType gachaType) {
+        Path gamePath = getGamePath(game, USER_DATA_DIR_PATH);
+        switch (gachaType) {
+            case STANDARD:
+                return gamePath.resolve(STND_HIST_PATH);
+            case CHARACTER:
+                return gamePath.resolve(CHAR_HIST_PATH);
+            case WEAPON:
+                return gamePath.resolve(WEAP_HIST_PATH);
+            default:
+                throw new IllegalArgumentException(
+                        String.format("Unknown gacha type <%s>", gachaType));
+        }
+    }
+
+
     private Path getGamePath(Game game, Path from) {
         switch (game) {
             case HSR:
-                return from.resolve(HSR_DIR_PATH);
+                return rootPath.resolve(from).resolve(HSR_DIR_PATH);
             case Genshin:
-                return from.resolve(GENSHIN_DIR_PATH);
+                return rootPath.resolve(from).resolve(GENSHIN_DIR_PATH);
             default:
                 throw new IllegalArgumentException(String.format("Unknown game type <%s>", game));
         }
@@ -243,9 +556,14 @@ public class StorageManager implements Storage {
 
 
     private <T> T loadData(Path path, Class<T> valueType, ArrayList<Throwable> exList, String dataName) {
+        return loadData(path, dataPath -> JsonUtil.deserialize(dataPath, valueType), exList, dataName);
+    }
+
+
+    private <T> T loadData(Path path, DataLoader<T> loader, ArrayList<Throwable> exList, String dataName) {
         T data = null;
         try {
-            data = JsonUtil.deserialize(path, valueType);
+            data = loader.load(path);
         } catch (FileNotFoundException fnfEx) {
             // ignore file not found
             // exList.add(new FileNotFoundException(String.format("[%s]: %s",
@@ -273,4 +591,101 @@ public class StorageManager implements Storage {
         }
         return data;
     }
+
+
+
+
+
+    /**
+     * Loader of the data in a file.
+     *
+     * @param <T> the type of data loaded.
+     */
+    @FunctionalInterface
+    private static interface DataLoader<T> {
+        /**
+         * Loads the data in the file in the given path.
+         *
+         * @param path - path of the file to load.
+         * @throws FileNotFoundException if the file cannot be found.
+         * @throws DatabindException if the file does not hold the data.
+         * @throws IOException if any other I/O error occurs.
+         */
+        public T load(Path path) throws IOException;
+    }
+
+
+
+
+
+    /**
+     * The data last loaded from or saved to a file and its version at the
+     * time. The data is weakly referenced so that data replaced by newer
+     * loads is not kept alive.
+     */
+    private static class SavedState {
+        private final WeakReference<Object> data;
+        private final long version;
+
+
+        private SavedState(Object data, long version) {
+            this.data = new WeakReference<>(data);
+            this.version = version;
+        }
+    }
+
+
+
+
+
+    /**
+     * The load of a data file running on a pool, with the exceptions that
+     * occured while loading it and the time it took.
+     */
+    private static class FileLoad<T> {
+        private final String dataName;
+        private final ArrayList<Throwable> exList = new ArrayList<>();
+        private final Future<T> future;
+
+        private Duration loadTime = Duration.ZERO;
+
+
+        private FileLoad(ExecutorService loaders, String dataName, Function<ArrayList<Throwable>, T> loader) {
+            this.dataName = dataName;
+            this.future = loaders.submit(() -> {
+                long startTime = System.nanoTime();
+                try {
+                    return loader.apply(exList);
+                } finally {
+                    loadTime = Duration.ofNanos(System.nanoTime() - startTime);
+                }
+            });
+        }
+
+
+        /**
+         * Waits for the load to complete, then adds its exceptions and load
+         * time to the given ones. If the load failed or is interrupted, the
+         * data from the given fallback is returned.
+         */
+        private T join(Supplier<T> fallback, ArrayList<Throwable> allExList,
+                    LinkedHashMap<String, Duration> loadTimes) {
+            T data;
+            try {
+                data = future.get();
+            } catch (ExecutionException exeEx) {
+                exList.add(new IOException(String.format("[%s]: %s",
+                        dataName, exeEx.getCause())));
+                data = fallback.get();
+            } catch (InterruptedException intEx) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                allExList.add(new IOException(String.format("[%s]: Interrupted while loading", dataName)));
+                return fallback.get();
+            }
+            allExList.addAll(exList);
+            loadTimes.put(dataName, loadTime);
+            return data;
+        }
+    }
 }
@@ -0,0 +1,115 @@
+package com.hanyans.gachacounter.storage.binary;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * Constants and primitive codecs of the binary history format.
+ *
+ * <p>A file starts with the magic {@code GCHB}, the format version, the gacha
+ * type of the history and the names of the {@code GachaType} and
+ * {@code ItemType} constants that the entries refer to by index. The entries
+ * follow in blocks of up to {@value #BLOCK_SIZE}, each holding:
+ * <ol>
+ * <li>the number of entries in the block,
+ * <li>the dictionary items first used in the block, each an item ID, name
+ *      and item type index, numbered on from the items of earlier blocks,
+ * <li>the columns of UID, ID and time in seconds as deltas from the previous
+ *      entry of the block,
+ * <li>a flag and, if set, the column of nanoseconds of the times,
+ * <li>the columns of gacha type index, dictionary index, gacha ID, rank and
+ *      count.
+ * </ol>
+ * A block of no entries ends the file, followed by the CRC32C of all bytes
+ * before it as a big-endian {@code int}.
+ *
+ * <p>Integers are written as unsigned LEB128 varints, signed ones after
+ * zigzag encoding, and Strings as the varint length of their UTF-8 bytes
+ * followed by the bytes.
+ */
+public class BinaryHistoryFormat {
+    /** Magic bytes a binary history file starts with. */
+    public static final byte[] MAGIC = {'G', 'C', 'H', 'B'};
+    /** Current version of the format. */
+    public static final int VERSION = 1;
+    /** Most entries in a block. */
+    public static final int BLOCK_SIZE = 4096;
+    /** Extension of binary history files. */
+    public static final String EXTENSION = ".gchb";
+
+    private static final int MAX_STRING_LENGTH = 1 << 20;
+
+
+    private BinaryHistoryFormat() {}
+
+
+    static void writeVarLong(OutputStream output, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.write((int) value);
+    }
+
+
+    static long readVarLong(InputStream input) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            int b = input.read();
+            if (b < 0) {
+                throw new EOFException("Binary history ended within a varint");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in binary history");
+    }
+
+
+    static void writeSignedVarLong(OutputStream output, long value) throws IOException {
+        writeVarLong(output, (value << 1) ^ (value >> 63));
+    }
+
+
+    static long readSignedVarLong(InputStream input) throws IOException {
+        long value = readVarLong(input);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+
+    /**
+     * Reads a varint that has to be a non-negative {@code int} less than the
+     * given bound.
+     */
+    static int readIndex(InputStream input, int bound, String name) throws IOException {
+        long value = readVarLong(input);
+        if (value < 0 || value >= bound) {
+            throw new IOException(String.format("Invalid %s <%d> in binary history, expected below %d",
+                    name, value, bound));
+        }
+        return (int) value;
+    }
+
+
+    static void writeString(OutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(output, bytes.length);
+        output.write(bytes);
+    }
+
+
+    static String readString(InputStream input) throws IOException {
+        int length = readIndex(input, MAX_STRING_LENGTH, "string length");
+        byte[] bytes = input.readNBytes(length);
+        if (bytes.length < length) {
+            throw new EOFException("Binary history ended within a string");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,222 @@
+package com.hanyans.gachacounter.storage.binary;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Array;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+
+import com.hanyans.gachacounter.mhy.GachaType;
+import com.hanyans.gachacounter.mhy.ItemType;
+import com.hanyans.gachacounter.model.BannerHistory;
+import com.hanyans.gachacounter.model.GachaEntry;
+
+
+/**
+ * Streaming reader of the binary history format described in
+ * {@link BinaryHistoryFormat}.
+ *
+ * <p>Entries are decoded a block at a time and handed to a sink, so at most a
+ * block of entries is held in memory. Constants of {@code GachaType} and
+ * {@code ItemType} are resolved by name, so files stay readable if the
+ * constants are reordered.
+ */
+public class BinaryHistoryReader implements Closeable {
+    private final ArrayList<String> dictNames = new ArrayList<>();
+    private final ArrayList<Integer> dictItemIds = new ArrayList<>();
+    private final ArrayList<ItemType> dictItemTypes = new ArrayList<>();
+    private final CRC32C checksum = new CRC32C();
+
+    private final CheckedInputStream input;
+    private final GachaType gachaType;
+    private final GachaType[] gachaTypes;
+    private final ItemType[] itemTypes;
+
+
+    /**
+     * Constructs a {@code BinaryHistoryReader} and reads the header. The
+     * stream is closed with the reader.
+     *
+     * @param input - the stream to read from.
+     * @throws NullPointerException if {@code input} is {@code null}.
+     * @throws IOException if an I/O error occurs or the stream is not of a
+     *      supported binary history.
+     */
+    public BinaryHistoryReader(InputStream input) throws IOException {
+        this.input = new CheckedInputStream(new BufferedInputStream(Objects.requireNonNull(input)), checksum);
+        byte[] magic = this.input.readNBytes(BinaryHistoryFormat.MAGIC.length);
+        if (!Arrays.equals(magic, BinaryHistoryFormat.MAGIC)) {
+            throw new IOException("Not a binary history");
+        }
+        int version = this.input.read();
+        if (version != BinaryHistoryFormat.VERSION) {
+            throw new IOException(String.format("Unsupported binary history version <%d>", version));
+        }
+        this.gachaType = valueOf(GachaType.class, BinaryHistoryFormat.readString(this.input));
+        this.gachaTypes = readNames(GachaType.class);
+        this.itemTypes = readNames(ItemType.class);
+    }
+
+
+    /**
+     * Reads the whole history in the file in the given path.
+     *
+     * @param path - path of the file to read.
+     * @throws IOException if an I/O error occurs or the file is malformed.
+     */
+    public static BannerHistory read(Path path) throws IOException {
+        return read(Files.newInputStream(path));
+    }
+
+
+    /**
+     * Reads the whole history in the given stream and closes the stream.
+     *
+     * @param input - the stream to read from.
+     * @throws IOException if an I/O error occurs or the history is malformed.
+     */
+    public static BannerHistory read(InputStream input) throws IOException {
+        try (BinaryHistoryReader reader = new BinaryHistoryReader(input)) {
+            BannerHistory history = new BannerHistory(reader.getGachaType());
+            reader.read(history::add);
+            return history;
+        }
+    }
+
+
+    /**
+     * Returns the gacha type of the history.
+     */
+    public GachaType getGachaType() {
+        return gachaType;
+    }
+
+
+    /**
+     * Reads all entries to the given sink in the order they were written and
+     * checks the checksum of the file.
+     *
+     * @param sink - the consumer of the entries.
+     * @return the number of entries read.
+     * @throws IOException if an I/O error occurs or the file is malformed.
+     */
+    public int read(Consumer<? super GachaEntry> sink) throws IOException {
+        int numRead = 0;
+        int size;
+        while ((size = BinaryHistoryFormat.readIndex(input, BinaryHistoryFormat.BLOCK_SIZE + 1, "block size")) > 0) {
+            readBlock(size, sink);
+            numRead += size;
+        }
+        long expected = checksum.getValue() & 0xFFFFFFFFL;
+        long actual = new DataInputStream(input).readInt() & 0xFFFFFFFFL;
+        if (expected != actual) {
+            throw new IOException(String.format("Binary history checksum mismatch <%08x> != <%08x>",
+                    actual, expected));
+        }
+        return numRead;
+    }
+
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+
+    private void readBlock(int size, Consumer<? super GachaEntry> sink) throws IOException {
+        int numNewItems = BinaryHistoryFormat.readIndex(input, size + 1, "dictionary item count");
+        for (int i = 0; i < numNewItems; i++) {
+            dictItemIds.add((int) BinaryHistoryFormat.readSignedVarLong(input));
+            dictNames.add(BinaryHistoryFormat.readString(input));
+            dictItemTypes.add(itemTypes[BinaryHistoryFormat.readIndex(input, itemTypes.length, "item type")]);
+        }
+
+        long[] uids = readDeltas(size);
+        long[] ids = readDeltas(size);
+        long[] seconds = readDeltas(size);
+        int[] nanos = new int[size];
+        if (BinaryHistoryFormat.readIndex(input, 2, "nanosecond flag") == 1) {
+            for (int i = 0; i < size; i++) {
+                nanos[i] = BinaryHistoryFormat.readIndex(input, 1_000_000_000, "nanosecond");
+            }
+        }
+        int[] typeIndices = new int[size];
+        for (int i = 0; i < size; i++) {
+            typeIndices[i] = BinaryHistoryFormat.readIndex(input, gachaTypes.length, "gacha type");
+        }
+        int[] dictIndices = new int[size];
+        for (int i = 0; i < size; i++) {
+            dictIndices[i] = BinaryHistoryFormat.readIndex(input, dictNames.size(), "dictionary index");
+        }
+        int[] gachaIds = readInts(size);
+        int[] ranks = readInts(size);
+        int[] counts = readInts(size);
+
+        for (int i = 0; i < size; i++) {
+            int dictIndex = dictIndices[i];
+            sink.accept(new GachaEntry(
+                    uids[i],
+                    gachaIds[i],
+                    gachaTypes[typeIndices[i]],
+                    dictItemIds.get(dictIndex),
+                    counts[i],
+                    LocalDateTime.ofEpochSecond(seconds[i], nanos[i], ZoneOffset.UTC),
+                    dictNames.get(dictIndex),
+                    dictItemTypes.get(dictIndex),
+                    ranks[i],
+                    ids[i]));
+        }
+    }
+
+
+    private long[] readDeltas(int size) throws IOException {
+        long[] values = new long[size];
+        long prev = 0;
+        for (int i = 0; i < size; i++) {
+            prev += BinaryHistoryFormat.readSignedVarLong(input);
+            values[i] = prev;
+        }
+        return values;
+    }
+
+
+    private int[] readInts(int size) throws IOException {
+        int[] values = new int[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = (int) BinaryHistoryFormat.readSignedVarLong(input);
+        }
+        return values;
+    }
+
+
+    private <E extends Enum<E>> E[] readNames(Class<E> enumType) throws IOException {
+        int numNames = BinaryHistoryFormat.readIndex(input, 1 << 10, "name count");
+        @SuppressWarnings("unchecked")
+        E[] constants = (E[]) Array.newInstance(enumType, numNames);
+        for (int i = 0; i < numNames; i++) {
+            constants[i] = valueOf(enumType, BinaryHistoryFormat.readString(input));
+        }
+        return constants;
+    }
+
+
+    private static <E extends Enum<E>> E valueOf(Class<E> enumType, String name) throws IOException {
+        try {
+            return Enum.valueOf(enumType, name);
+        } catch (IllegalArgumentException illArgEx) {
+            throw new IOException(String.format("Unknown %s <%s> in binary history",
+                    enumType.getSimpleName(), name));
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.hanyans.gachacounter.storage.binary;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+import com.hanyans.gachacounter.core.util.FileUtil;
+import com.hanyans.gachacounter.mhy.GachaType;
+import com.hanyans.gachacounter.mhy.ItemType;
+import com.hanyans.gachacounter.model.BannerHistory;
+import com.hanyans.gachacounter.model.GachaEntry;
+import com.hanyans.gachacounter.model.ItemCatalog;
+
+
+/**
+ * Streaming writer of the binary history format described in
+ * {@link BinaryHistoryFormat}.
+ *
+ * <p>Entries are buffered until a block is full, so at most a block of
+ * entries is held in memory. Entries compress best when written in order, as
+ * their IDs and times are stored as deltas. The file is only complete once
+ * the writer is closed.
+ */
+public class BinaryHistoryWriter implements Closeable {
+    private final ItemCatalog catalog = ItemCatalog.getInstance();
+    private final ArrayList<GachaEntry> block = new ArrayList<>(BinaryHistoryFormat.BLOCK_SIZE);
+    private final ByteArrayOutputStream blockBuffer = new ByteArrayOutputStream();
+    private final CRC32C checksum = new CRC32C();
+
+    private final OutputStream output;
+
+    /** Dictionary index plus one by item ordinal, {@code 0} if not written yet. */
+    private int[] dictIndices = new int[64];
+    private int dictSize = 0;
+    private boolean isClosed = false;
+
+
+    /**
+     * Constructs a {@code BinaryHistoryWriter} and writes the header of a
+     * history of the given gacha type. The stream is closed with the writer.
+     *
+     * @param output - the stream to write to.
+     * @param gachaType - the gacha type of the history.
+     * @throws NullPointerException if any parameter is {@code null}.
+     * @throws IOException if an I/O error occurs.
+     */
+    public BinaryHistoryWriter(OutputStream output, GachaType gachaType) throws IOException {
+        Objects.requireNonNull(gachaType);
+        this.output = new CheckedOutputStream(new BufferedOutputStream(Objects.requireNonNull(output)), checksum);
+        this.output.write(BinaryHistoryFormat.MAGIC);
+        this.output.write(BinaryHistoryFormat.VERSION);
+        BinaryHistoryFormat.writeString(this.output, gachaType.name());
+        writeNames(GachaType.values());
+        writeNames(ItemType.values());
+    }
+
+
+    /**
+     * Writes the given history to the file in the specified path in entry
+     * order, replacing the file if it exists.
+     *
+     * @param path - path of the file to write to.
+     * @param history - the history to write.
+     * @throws IOException if an I/O error occurs.
+     */
+    public static void write(Path path, BannerHistory history) throws IOException {
+        FileUtil.createParentDir(path);
+        write(Files.newOutputStream(path), history);
+    }
+
+
+    /**
+     * Writes the given history to the given stream in entry order and closes
+     * the stream.
+     *
+     * @param output - the stream to write to.
+     * @param history - the history to write.
+     * @throws IOException if an I/O error occurs.
+     */
+    public static void write(OutputStream output, BannerHistory history) throws IOException {
+        List<GachaEntry> entries = history.getEntrySet().stream()
+                .sorted()
+                .toList();
+        try (BinaryHistoryWriter writer = new BinaryHistoryWriter(output, history.getGachaType())) {
+            for (GachaEntry entry : entries) {
+                writer.write(entry);
+            }
+        }
+    }
+
+
+    /**
+     * Writes the given entry.
+     *
+     * @throws IOException if an I/O error occurs.
+     * @throws IllegalStateException if the writer is closed.
+     */
+    public void write(GachaEntry entry) throws IOException {
+        if (isClosed) {
+            throw new IllegalStateException("Binary history writer is closed");
+        }
+        block.add(Objects.requireNonNull(entry));
+        if (block.size() >= BinaryHistoryFormat.BLOCK_SIZE) {
+            flushBlock();
+        }
+    }
+
+
+    /**
+     * Writes the remaining entries, ends the file with its checksum and closes
+     * the stream.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+        if (isClosed) {
+            return;
+        }
+        isClosed = true;
+        try {
+            flushBlock();
+            BinaryHistoryFormat.writeVarLong(output, 0);
+            output.flush();
+            // not part of the checksummed bytes
+            new DataOutputStream(output).writeInt((int) checksum.getValue());
+        } finally {
+            output.close();
+        }
+    }
+
+
+    private void writeNames(Enum<?>[] constants) throws IOException {
+        BinaryHistoryFormat.writeVarLong(output, constants.length);
+        for (Enum<?> constant : constants) {
+            BinaryHistoryFormat.writeString(output, constant.name());
+        }
+    }
+
+
+    private void flushBlock() throws IOException {
+        if (block.isEmpty()) {
+            return;
+        }
+        blockBuffer.reset();
+        BinaryHistoryFormat.writeVarLong(blockBuffer, block.size());
+
+        // dictionary items first used in this block
+        int[] blockDictIndices = new int[block.size()];
+        ArrayList<GachaEntry> newItems = new ArrayList<>();
+        for (int i = 0; i < block.size(); i++) {
+            int ordinal = catalog.getOrdinal(block.get(i));
+            if (ordinal >= dictIndices.length) {
+                dictIndices = Arrays.copyOf(dictIndices, Math.max(ordinal + 1, dictIndices.length * 2));
+            }
+            if (dictIndices[ordinal] == 0) {
+                dictIndices[ordinal] = ++dictSize;
+                newItems.add(block.get(i));
+            }
+            blockDictIndices[i] = dictIndices[ordinal] - 1;
+        }
+        BinaryHistoryFormat.writeVarLong(blockBuffer, newItems.size());
+        for (GachaEntry item : newItems) {
+            BinaryHistoryFormat.writeSignedVarLong(blockBuffer, item.itemId);
+            BinaryHistoryFormat.writeString(blockBuffer, item.name);
+            BinaryHistoryFormat.writeVarLong(blockBuffer, item.itemType.ordinal());
+        }
+
+        long prevUid = 0;
+        for (GachaEntry entry : block) {
+            BinaryHistoryFormat.writeSignedVarLong(blockBuffer, entry.uid - prevUid);
+            prevUid = entry.uid;
+        }
+        long prevId = 0;
+        for (GachaEntry entry : block) {
+            BinaryHistoryFormat.writeSignedVarLong(blockBuffer, entry.id - prevId);
+            prevId = entry.id;
+        }
+        long prevSecond = 0;
+        boolean hasNanos = false;
+        for (GachaEntry entry : block) {
+            long second = entry.time.toEpochSecond(ZoneOffset.UTC);
+            BinaryHistoryFormat.writeSignedVarLong(blockBuffer, second - prevSecond);
+            prevSecond = second;
+            hasNanos |= entry.time.getNano() != 0;
+        }
+        blockBuffer.write(hasNanos ? 1 : 0);
+        if (hasNanos) {
+            for (GachaEntry entry : block) {
+                BinaryHistoryFormat.writeVarLong(blockBuffer, entry.time.getNano());
+            }
+        }
+        for (GachaEntry entry : block) {
+            BinaryHistoryFormat.writeVarLong(blockBuffer, entry.gachaType.ordinal());
+        }
+        for (int dictIndex : blockDictIndices) {
+            BinaryHistoryFormat.writeVarLong(blockBuffer, dictIndex);
+        }
+        for (GachaEntry entry : block) {
+            BinaryHistoryFormat.writeSignedVarLong(blockBuffer, entry.gachaId);
+        }
+        for (GachaEntry entry : block) {
+            BinaryHistoryFormat.writeSignedVarLong(blockBuffer, entry.rank);
+        }
+        for (GachaEntry entry : block) {
+            BinaryHistoryFormat.writeSignedVarLong(blockBuffer, entry.count);
+        }
+
+        blockBuffer.writeTo(output);
+        block.clear();
+    }
+}
@@ -0,0 +1,81 @@
+package com.hanyans.gachacounter.storage.binary;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import com.hanyans.gachacounter.core.util.FileUtil;
+import com.hanyans.gachacounter.core.util.JsonUtil;
+import com.hanyans.gachacounter.model.BannerHistory;
+import com.hanyans.gachacounter.storage.HistoryJournal;
+
+
+/**
+ * Utility class to convert banner histories between the JSON files of
+ * {@code StorageManager} and the binary history format.
+ *
+ * <p>Can be run on its own with
+ * {@code HistoryFormatConverter <to-binary|to-json> <input path> <output path>}.
+ */
+public class HistoryFormatConverter {
+    private HistoryFormatConverter() {}
+
+
+    /**
+     * Converts the JSON history in the given path, with the entries journaled
+     * since its last compaction by {@code StorageManager}, to a binary
+     * history.
+     *
+     * @param jsonPath - path of the JSON history to read.
+     * @param binaryPath - path of the binary history to write.
+     * @return the number of entries converted.
+     * @throws IOException if an I/O error occurs or the JSON is malformed.
+     */
+    public static int toBinary(Path jsonPath, Path binaryPath) throws IOException {
+        BannerHistory history = JsonUtil.deserialize(jsonPath, BannerHistory.class);
+        // the newest entries may only be in the journal of the snapshot
+        new HistoryJournal(jsonPath).replay(history);
+        BinaryHistoryWriter.write(binaryPath, history);
+        return history.size();
+    }
+
+
+    /**
+     * Converts the binary history in the given path to a JSON history.
+     *
+     * @param binaryPath - path of the binary history to read.
+     * @param jsonPath - path of the JSON history to write.
+     * @return the number of entries converted.
+     * @throws IOException if an I/O error occurs or the binary history is
+     *      malformed.
+     */
+    public static int toJson(Path binaryPath, Path jsonPath) throws IOException {
+        BannerHistory history = BinaryHistoryReader.read(binaryPath);
+        FileUtil.createFile(jsonPath);
+        JsonUtil.serializeToFile(jsonPath, history);
+        return history.size();
+    }
+
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: HistoryFormatConverter <to-binary|to-json> <input path> <output path>");
+            System.exit(2);
+        }
+        Path input = Path.of(args[1]);
+        Path output = Path.of(args[2]);
+        int numConverted;
+        switch (args[0]) {
+            case "to-binary":
+                numConverted = toBinary(input, output);
+                break;
+            case "to-json":
+                numConverted = toJson(input, output);
+                break;
+            default:
+                System.err.println(String.format("Unknown conversion <%s>", args[0]));
+                System.exit(2);
+                return;
+        }
+        System.out.println(String.format("Converted %d entries from %s to %s", numConverted, input, output));
+    }
+}
@@ -0,0 +1,177 @@
+package com.hanyans.gachacounter.storage.binary;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.hanyans.gachacounter.core.util.FileUtil;
+import com.hanyans.gachacounter.core.util.JsonUtil;
+import com.hanyans.gachacounter.model.BannerHistory;
+
+
+/**
+ * Cache of JSON history files as binary history snapshots, so that a history
+ * file that has not changed since it was last loaded is not parsed again.
+ *
+ * <p>The snapshot of a history file is kept next to it with the
+ * {@value BinaryHistoryFormat#EXTENSION} extension appended. It starts with
+ * the magic {@code GCHS} and the key of the JSON file it was made from, its
+ * size, last modified time and the CRC32C of its bytes, followed by the
+ * history in the binary history format. A snapshot is only used when its key
+ * matches the JSON file, which remains the source of truth. Otherwise the
+ * JSON file is parsed and the snapshot made again.
+ */
+public class HistorySnapshotCache {
+    private static final byte[] MAGIC = {'G', 'C', 'H', 'S'};
+
+    private final Logger logger = LogManager.getFormatterLogger(HistorySnapshotCache.class);
+
+
+    /**
+     * Returns the path of the snapshot of the JSON history file in the given
+     * path.
+     *
+     * @param jsonPath - path of the JSON history file.
+     */
+    public static Path getSnapshotPath(Path jsonPath) {
+        return jsonPath.resolveSibling(jsonPath.getFileName() + BinaryHistoryFormat.EXTENSION);
+    }
+
+
+    /**
+     * Loads the history of the JSON file in the given path, from its snapshot
+     * if it is up to date. Failing to read or write the snapshot is logged
+     * and otherwise ignored.
+     *
+     * @param jsonPath - path of the JSON history file.
+     * @return the loaded history.
+     * @throws java.io.FileNotFoundException if the JSON file cannot be found.
+     * @throws com.fasterxml.jackson.databind.DatabindException if the JSON
+     *      file does not hold a history.
+     * @throws IOException if any other I/O error occurs.
+     */
+    public BannerHistory load(Path jsonPath) throws IOException {
+        long lastModified;
+        byte[] content;
+        try (InputStream input = FileUtil.getInputStream(jsonPath)) {
+            lastModified = Files.getLastModifiedTime(jsonPath).toMillis();
+            content = input.readAllBytes();
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(content);
+        Key key = new Key(content.length, lastModified, (int) checksum.getValue());
+
+        Path snapshotPath = getSnapshotPath(jsonPath);
+        if (Files.isRegularFile(snapshotPath)) {
+            try {
+                BannerHistory history = readSnapshot(snapshotPath, key);
+                if (history != null) {
+                    logger.debug("Loaded %d entries from snapshot %s", history.size(), snapshotPath);
+                    return history;
+                }
+                logger.debug("Snapshot %s is out of date", snapshotPath);
+            } catch (IOException ioEx) {
+                logger.warn("Failed to read snapshot %s -- %s", snapshotPath, ioEx);
+            }
+        }
+
+        BannerHistory history = JsonUtil.deserialize(content, BannerHistory.class);
+        try {
+            writeSnapshot(snapshotPath, key, history);
+            logger.debug("Wrote snapshot of %d entries to %s", history.size(), snapshotPath);
+        } catch (IOException ioEx) {
+            logger.warn("Failed to write snapshot %s -- %s", snapshotPath, ioEx);
+        }
+        return history;
+    }
+
+
+    /**
+     * Returns the history in the snapshot in the given path if the snapshot
+     * has the given key and {@code null} otherwise.
+     */
+    private BannerHistory readSnapshot(Path snapshotPath, Key key) throws IOException {
+        InputStream input = FileUtil.getInputStream(snapshotPath);
+        boolean isMatched = false;
+        try {
+            DataInputStream dataInput = new DataInputStream(input);
+            byte[] magic = dataInput.readNBytes(MAGIC.length);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a history snapshot");
+            }
+            isMatched = key.equals(new Key(dataInput.readLong(), dataInput.readLong(), dataInput.readInt()));
+        } finally {
+            if (!isMatched) {
+                input.close();
+            }
+        }
+        return isMatched ? BinaryHistoryReader.read(input) : null;
+    }
+
+
+    private void writeSnapshot(Path snapshotPath, Key key, BannerHistory history) throws IOException {
+        Path tempPath = Files.createTempFile(snapshotPath.getParent(), null, null);
+        try {
+            try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(tempPath))) {
+                DataOutputStream dataOutput = new DataOutputStream(output);
+                dataOutput.write(MAGIC);
+                dataOutput.writeLong(key.size);
+                dataOutput.writeLong(key.lastModified);
+                dataOutput.writeInt(key.checksum);
+                BinaryHistoryWriter.write(output, history);
+            }
+            Files.move(tempPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+
+
+
+
+    /**
+     * Identity of the contents of a JSON history file.
+     */
+    private static class Key {
+        private final long size;
+        private final long lastModified;
+        private final int checksum;
+
+
+        private Key(long size, long lastModified, int checksum) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.checksum = checksum;
+        }
+
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key casted = (Key) other;
+            return size == casted.size
+                    && lastModified == casted.lastModified
+                    && checksum == casted.checksum;
+        }
+
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(size) * 31 + checksum;
+        }
+    }
+}
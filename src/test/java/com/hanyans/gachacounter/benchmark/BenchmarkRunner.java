@@ -0,0 +1,60 @@
+package com.hanyans.gachacounter.benchmark;
+
+import java.lang.management.ManagementFactory;
+
+
+/**
+ * Minimal harness for the benchmarks in this package that reports the time
+ * and heap allocation per operation of the current thread.
+ *
+ * <p>Benchmarks are plain {@code main} classes run with
+ * {@code gradle benchmark -Pbenchmark=<class name>}.
+ */
+public class BenchmarkRunner {
+    /** Work that returns a value to keep it from being optimized away. */
+    @FunctionalInterface
+    public interface Operation {
+        public long run() throws Exception;
+    }
+
+
+    private static final com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static long blackhole = 0;
+
+
+    /**
+     * Runs the operation for the specified number of warm up and measured
+     * iterations and prints the average time and allocation per operation.
+     *
+     * @param name - name of the operation to print.
+     * @param warmUps - number of iterations to run before measuring.
+     * @param iterations - number of iterations to measure.
+     * @param operation - the operation to measure.
+     */
+    public static void measure(String name, int warmUps, int iterations, Operation operation) throws Exception {
+        for (int i = 0; i < warmUps; i++) {
+            blackhole += operation.run();
+        }
+        long threadId = Thread.currentThread().getId();
+        long startBytes = threadBean.getThreadAllocatedBytes(threadId);
+        long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            blackhole += operation.run();
+        }
+        long time = System.nanoTime() - startTime;
+        long bytes = threadBean.getThreadAllocatedBytes(threadId) - startBytes;
+        System.out.println(String.format("%-40s %12.1f ns/op %12.1f B/op",
+                name, (double) time / iterations, (double) bytes / iterations));
+    }
+
+
+    /**
+     * Prints the accumulated results of all operations measured so that
+     * they are observed.
+     */
+    public static void printBlackhole() {
+        System.out.println(String.format("(blackhole %d)", blackhole));
+    }
+}
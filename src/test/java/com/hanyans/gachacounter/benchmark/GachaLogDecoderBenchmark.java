@@ -0,0 +1,69 @@
+package com.hanyans.gachacounter.benchmark;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+import com.hanyans.gachacounter.core.util.JsonUtil;
+import com.hanyans.gachacounter.mhy.GachaType;
+import com.hanyans.gachacounter.mhy.response.GachaLogDecoder;
+import com.hanyans.gachacounter.mhy.response.GachaResponseResult;
+import com.hanyans.gachacounter.model.GachaEntry;
+
+
+/**
+ * Compares decoding a full gacha log page through {@link GachaResponseResult}
+ * against decoding it with {@link GachaLogDecoder}.
+ */
+public class GachaLogDecoderBenchmark {
+    private static final int WARM_UPS = 20_000;
+    private static final int ITERATIONS = 50_000;
+
+
+    public static void main(String[] args) throws Exception {
+        byte[] page = formPage(20);
+        GachaLogDecoder decoder = new GachaLogDecoder(GachaType.CHARACTER);
+
+        BenchmarkRunner.measure("databind (GachaResponseResult)", WARM_UPS, ITERATIONS, () -> {
+            try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(new ByteArrayInputStream(page), StandardCharsets.UTF_8))) {
+                GachaResponseResult result = JsonUtil.deserialize(reader, GachaResponseResult.class);
+                return result.data.list.stream()
+                        .map(response -> GachaEntry.fromGachaEntryResponse(response, GachaType.CHARACTER))
+                        .mapToLong(entry -> entry.id)
+                        .sum();
+            }
+        });
+        BenchmarkRunner.measure("streaming (GachaLogDecoder)", WARM_UPS, ITERATIONS, () -> {
+            long[] sum = {0};
+            decoder.decode(new ByteArrayInputStream(page), entry -> sum[0] += entry.id);
+            return sum[0];
+        });
+        BenchmarkRunner.printBlackhole();
+    }
+
+
+    /**
+     * Forms a page of the given size in the shape that the server responds
+     * with.
+     */
+    static byte[] formPage(int size) {
+        StringBuilder builder = new StringBuilder("{\"retcode\":0,\"message\":\"OK\",\"data\":{")
+                .append("\"page\":\"1\",\"size\":\"").append(size).append("\",\"list\":[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"uid\":\"100000001\",\"gacha_id\":\"2003\",\"gacha_type\":\"11\",")
+                    .append("\"item_id\":\"").append(20000 + i).append("\",\"count\":\"1\",")
+                    .append("\"time\":\"2023-05-10 18:02:").append(10 + i).append("\",")
+                    .append("\"name\":\"Item ").append(i).append("\",\"lang\":\"en-us\",")
+                    .append("\"item_type\":\"").append(i % 2 == 0 ? "Character" : "Light Cone").append("\",")
+                    .append("\"rank_type\":\"").append(3 + i % 3).append("\",")
+                    .append("\"id\":\"").append(1683712200000123456L - i).append("\"}");
+        }
+        builder.append("],\"region\":\"prod_official_asia\"}}");
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,80 @@
+package com.hanyans.gachacounter.benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import com.hanyans.gachacounter.core.util.JsonUtil;
+import com.hanyans.gachacounter.mhy.GachaType;
+import com.hanyans.gachacounter.mhy.ItemType;
+import com.hanyans.gachacounter.model.BannerHistory;
+import com.hanyans.gachacounter.model.GachaEntry;
+import com.hanyans.gachacounter.storage.binary.BinaryHistoryFormat;
+import com.hanyans.gachacounter.storage.binary.BinaryHistoryReader;
+import com.hanyans.gachacounter.storage.binary.BinaryHistoryWriter;
+import com.hanyans.gachacounter.storage.binary.HistorySnapshotCache;
+
+
+/**
+ * Compares the size, save and load time of a large history in the JSON files
+ * of {@code StorageManager} against the binary history format.
+ */
+public class HistoryFormatBenchmark {
+    private static final int NUM_ENTRIES = 120_000;
+    private static final int NUM_ITEMS = 300;
+    private static final int WARM_UPS = 3;
+    private static final int ITERATIONS = 10;
+
+
+    public static void main(String[] args) throws Exception {
+        BannerHistory history = formHistory(NUM_ENTRIES);
+        Path dir = Files.createTempDirectory("history-format");
+        Path jsonPath = dir.resolve("CharacterHistory.json");
+        Path binaryPath = dir.resolve("CharacterHistory" + BinaryHistoryFormat.EXTENSION);
+        try {
+            BenchmarkRunner.measure("save JSON", WARM_UPS, ITERATIONS, () -> {
+                JsonUtil.serializeToFile(jsonPath, history);
+                return Files.size(jsonPath);
+            });
+            BenchmarkRunner.measure("save binary", WARM_UPS, ITERATIONS, () -> {
+                BinaryHistoryWriter.write(binaryPath, history);
+                return Files.size(binaryPath);
+            });
+            BenchmarkRunner.measure("load JSON", WARM_UPS, ITERATIONS,
+                    () -> JsonUtil.deserialize(jsonPath, BannerHistory.class).size());
+            BenchmarkRunner.measure("load binary", WARM_UPS, ITERATIONS,
+                    () -> BinaryHistoryReader.read(binaryPath).size());
+            HistorySnapshotCache cache = new HistorySnapshotCache();
+            BenchmarkRunner.measure("load JSON through snapshot", WARM_UPS, ITERATIONS,
+                    () -> cache.load(jsonPath).size());
+
+            long jsonSize = Files.size(jsonPath);
+            long binarySize = Files.size(binaryPath);
+            System.out.println(String.format("%d entries: JSON %d B, binary %d B (%.1f%%)",
+                    NUM_ENTRIES, jsonSize, binarySize, 100.0 * binarySize / jsonSize));
+        } finally {
+            Files.deleteIfExists(jsonPath);
+            Files.deleteIfExists(binaryPath);
+            Files.deleteIfExists(HistorySnapshotCache.getSnapshotPath(jsonPath));
+            Files.deleteIfExists(dir);
+        }
+        BenchmarkRunner.printBlackhole();
+    }
+
+
+    private static BannerHistory formHistory(int size) {
+        LocalDateTime start = LocalDateTime.of(2020, 9, 28, 10, 0, 0);
+        ArrayList<GachaEntry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int rank = (i % 90 == 89) ? 5 : (i % 10 == 9) ? 4 : 3;
+            int item = (i * 31) % NUM_ITEMS;
+            // pulls in tens a few minutes apart
+            LocalDateTime time = start.plusMinutes(i / 10 * 7L).plusSeconds(i % 10 == 0 ? 0 : 1);
+            entries.add(new GachaEntry(100000001L, 2003 + i / 2000, GachaType.CHARACTER, 20000 + item, 1,
+                    time, "Item Name " + item, item % 2 == 0 ? ItemType.CHARACTER : ItemType.WEAPON,
+                    rank, 1601000000000000000L + i * 1000L + (i % 7)));
+        }
+        return new BannerHistory(GachaType.CHARACTER, entries);
+    }
+}
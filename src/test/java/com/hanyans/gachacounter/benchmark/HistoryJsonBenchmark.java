@@ -0,0 +1,64 @@
+package com.hanyans.gachacounter.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.hanyans.gachacounter.core.util.JsonUtil;
+import com.hanyans.gachacounter.mhy.GachaType;
+import com.hanyans.gachacounter.mhy.ItemType;
+import com.hanyans.gachacounter.model.BannerHistory;
+import com.hanyans.gachacounter.model.GachaEntry;
+
+
+/**
+ * Compares the streaming history codecs registered in {@code JsonUtil}
+ * against the reflective serialization of a large history.
+ */
+public class HistoryJsonBenchmark {
+    private static final int NUM_ENTRIES = 120_000;
+    private static final int NUM_ITEMS = 300;
+    private static final int WARM_UPS = 3;
+    private static final int ITERATIONS = 10;
+
+    private static final ObjectMapper REFLECTIVE_MAPPER = new ObjectMapper().findAndRegisterModules()
+            .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+            .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+
+
+    public static void main(String[] args) throws Exception {
+        BannerHistory history = formHistory(NUM_ENTRIES);
+        String json = REFLECTIVE_MAPPER.writeValueAsString(history);
+
+        BenchmarkRunner.measure("write reflective", WARM_UPS, ITERATIONS,
+                () -> REFLECTIVE_MAPPER.writeValueAsString(history).length());
+        BenchmarkRunner.measure("write streaming", WARM_UPS, ITERATIONS,
+                () -> JsonUtil.serializeToString(history).length());
+        BenchmarkRunner.measure("read reflective", WARM_UPS, ITERATIONS,
+                () -> REFLECTIVE_MAPPER.readValue(json, BannerHistory.class).size());
+        BenchmarkRunner.measure("read streaming", WARM_UPS, ITERATIONS,
+                () -> JsonUtil.deserialize(json, BannerHistory.class).size());
+        BenchmarkRunner.printBlackhole();
+    }
+
+
+    private static BannerHistory formHistory(int size) {
+        LocalDateTime start = LocalDateTime.of(2020, 9, 28, 10, 0, 0);
+        ArrayList<GachaEntry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int rank = (i % 90 == 89) ? 5 : (i % 10 == 9) ? 4 : 3;
+            int item = (i * 31) % NUM_ITEMS;
+            LocalDateTime time = start.plusMinutes(i / 10 * 7L).plusSeconds(i % 10 == 0 ? 0 : 1);
+            entries.add(new GachaEntry(100000001L, 2003 + i / 2000, GachaType.CHARACTER, 20000 + item, 1,
+                    time, "Item Name " + item, item % 2 == 0 ? ItemType.CHARACTER : ItemType.WEAPON,
+                    rank, 1601000000000000000L + i * 1000L + (i % 7)));
+        }
+        return new BannerHistory(GachaType.CHARACTER, entries);
+    }
+}
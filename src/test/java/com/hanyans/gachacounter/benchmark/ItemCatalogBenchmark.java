@@ -0,0 +1,59 @@
+package com.hanyans.gachacounter.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import com.hanyans.gachacounter.mhy.GachaType;
+import com.hanyans.gachacounter.mhy.ItemType;
+import com.hanyans.gachacounter.model.GachaEntry;
+import com.hanyans.gachacounter.model.GachaItem;
+
+
+/**
+ * Compares counting the items of a large history through a new
+ * {@code GachaItem} per entry against the shared items of the
+ * {@code ItemCatalog}.
+ */
+public class ItemCatalogBenchmark {
+    private static final int NUM_ENTRIES = 120_000;
+    private static final int NUM_ITEMS = 300;
+    private static final int WARM_UPS = 5;
+    private static final int ITERATIONS = 20;
+
+
+    public static void main(String[] args) throws Exception {
+        ArrayList<GachaEntry> entries = formEntries(NUM_ENTRIES);
+
+        BenchmarkRunner.measure("count new items", WARM_UPS, ITERATIONS, () -> {
+            HashMap<GachaItem, Integer> counts = new HashMap<>();
+            for (GachaEntry entry : entries) {
+                counts.merge(new GachaItem(entry.itemId, entry.name, entry.rank, entry.itemType), 1, Integer::sum);
+            }
+            return counts.size();
+        });
+        BenchmarkRunner.measure("count catalog items", WARM_UPS, ITERATIONS, () -> {
+            HashMap<GachaItem, Integer> counts = new HashMap<>();
+            for (GachaEntry entry : entries) {
+                counts.merge(GachaItem.fromGachaEntry(entry), 1, Integer::sum);
+            }
+            return counts.size();
+        });
+        BenchmarkRunner.printBlackhole();
+    }
+
+
+    private static ArrayList<GachaEntry> formEntries(int size) {
+        LocalDateTime start = LocalDateTime.of(2020, 9, 28, 10, 0, 0);
+        ArrayList<GachaEntry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int rank = (i % 90 == 89) ? 5 : (i % 10 == 9) ? 4 : 3;
+            int item = (i * 31) % NUM_ITEMS;
+            // a new name String per entry, as parsed from the history files
+            entries.add(new GachaEntry(100000001L, 2003, GachaType.CHARACTER, 20000 + item, 1,
+                    start.plusMinutes(i), new StringBuilder("Item Name ").append(item).toString(),
+                    item % 2 == 0 ? ItemType.CHARACTER : ItemType.WEAPON, rank, 1601000000000000000L + i));
+        }
+        return entries;
+    }
+}
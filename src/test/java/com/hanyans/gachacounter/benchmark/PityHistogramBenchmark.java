@@ -0,0 +1,99 @@
+package com.hanyans.gachacounter.benchmark;
+
+import java.util.Random;
+
+import com.hanyans.gachacounter.core.Constants;
+import com.hanyans.gachacounter.core.FrequencyMap;
+import com.hanyans.gachacounter.core.PityHistogram;
+
+
+/**
+ * Compares counting, merging and condensing pity counts through a
+ * {@code FrequencyMap<Integer>} against a {@code PityHistogram}.
+ */
+public class PityHistogramBenchmark {
+    private static final int NUM_PITIES = 20_000;
+    private static final int NUM_ACCOUNTS = 16;
+    private static final int PITY_STEP = 5;
+    private static final int WARM_UPS = 10;
+    private static final int ITERATIONS = 50;
+
+
+    public static void main(String[] args) throws Exception {
+        int[] pities = formPities(NUM_PITIES);
+
+        BenchmarkRunner.measure("count frequency map", WARM_UPS, ITERATIONS, () -> {
+            return countMaps(pities)[0].totalFreq();
+        });
+        BenchmarkRunner.measure("count histogram", WARM_UPS, ITERATIONS, () -> {
+            return countHistograms(pities)[0].totalFreq();
+        });
+
+        FrequencyMap<Integer>[] maps = countMaps(pities);
+        PityHistogram[] histograms = countHistograms(pities);
+        BenchmarkRunner.measure("condense and combine frequency map", WARM_UPS, ITERATIONS, () -> {
+            FrequencyMap<Integer> combined = new FrequencyMap<>();
+            for (FrequencyMap<Integer> map : maps) {
+                combined = combined.merge(condense(map, PITY_STEP));
+            }
+            return combined.largestFreq();
+        });
+        BenchmarkRunner.measure("condense and combine histogram", WARM_UPS, ITERATIONS, () -> {
+            PityHistogram combined = new PityHistogram();
+            for (PityHistogram histogram : histograms) {
+                combined.addAllCondensed(histogram, PITY_STEP);
+            }
+            return combined.largestFreq();
+        });
+        BenchmarkRunner.printBlackhole();
+    }
+
+
+    @SuppressWarnings("unchecked")
+    private static FrequencyMap<Integer>[] countMaps(int[] pities) {
+        FrequencyMap<Integer>[] maps = new FrequencyMap[NUM_ACCOUNTS];
+        for (int i = 0; i < NUM_ACCOUNTS; i++) {
+            maps[i] = new FrequencyMap<>();
+        }
+        for (int i = 0; i < pities.length; i++) {
+            maps[i % NUM_ACCOUNTS].add(pities[i]);
+        }
+        return maps;
+    }
+
+
+    private static PityHistogram[] countHistograms(int[] pities) {
+        PityHistogram[] histograms = new PityHistogram[NUM_ACCOUNTS];
+        for (int i = 0; i < NUM_ACCOUNTS; i++) {
+            histograms[i] = new PityHistogram();
+        }
+        for (int i = 0; i < pities.length; i++) {
+            histograms[i % NUM_ACCOUNTS].add(pities[i]);
+        }
+        return histograms;
+    }
+
+
+    /** Condensing as {@code AccPityFreqMap} did on frequency maps. */
+    private static FrequencyMap<Integer> condense(FrequencyMap<Integer> freqMap, int factor) {
+        FrequencyMap<Integer> result = new FrequencyMap<>();
+        for (Integer pity : freqMap.keySet()) {
+            int value = pity / factor;
+            if (pity % factor != 0 || value < 1) {
+                value++;
+            }
+            result.add(value * factor, freqMap.get(pity));
+        }
+        return result;
+    }
+
+
+    private static int[] formPities(int size) {
+        Random random = new Random(42);
+        int[] pities = new int[size];
+        for (int i = 0; i < size; i++) {
+            pities[i] = 1 + random.nextInt(Constants.MAX_PITY_5_NORM);
+        }
+        return pities;
+    }
+}
@@ -0,0 +1,82 @@
+package com.hanyans.gachacounter.benchmark;
+
+import java.util.HashMap;
+import java.util.HashSet;
+
+import com.hanyans.gachacounter.core.FrequencyMap;
+import com.hanyans.gachacounter.core.LongObjectMap;
+import com.hanyans.gachacounter.model.count.PityState;
+
+
+/**
+ * Compares tracking the per account pity state of {@code CounterTask} through
+ * boxed hash maps against a {@code LongObjectMap} of {@code PityState}.
+ */
+public class PityStateBenchmark {
+    private static final int NUM_ENTRIES = 120_000;
+    private static final int NUM_ACCOUNTS = 8;
+    private static final long FIRST_UID = 800000000L;
+    private static final int WARM_UPS = 10;
+    private static final int ITERATIONS = 50;
+
+
+    public static void main(String[] args) throws Exception {
+        long[] uids = new long[NUM_ENTRIES];
+        int[] ranks = new int[NUM_ENTRIES];
+        for (int i = 0; i < NUM_ENTRIES; i++) {
+            uids[i] = FIRST_UID + (i * 7) % NUM_ACCOUNTS;
+            ranks[i] = (i % 73 == 72) ? 5 : (i % 9 == 8) ? 4 : 3;
+        }
+
+        BenchmarkRunner.measure("boxed maps", WARM_UPS, ITERATIONS, () -> {
+            HashSet<Long> seen = new HashSet<>();
+            FrequencyMap<Long> pullSince4 = new FrequencyMap<>();
+            FrequencyMap<Long> pullSince5 = new FrequencyMap<>();
+            HashMap<Long, Boolean> isRateUp4 = new HashMap<>();
+            HashMap<Long, Boolean> isRateUp5 = new HashMap<>();
+            long sum = 0;
+            for (int i = 0; i < NUM_ENTRIES; i++) {
+                long uid = uids[i];
+                boolean isRateUp = (i & 1) == 0;
+                pullSince4.add(uid);
+                pullSince5.add(uid);
+                if (ranks[i] == 5) {
+                    sum += pullSince5.get(uid) + (isRateUp5.getOrDefault(uid, true) ? 1 : 0);
+                    pullSince4.put(uid, 0);
+                    pullSince5.put(uid, 0);
+                    isRateUp4.put(uid, isRateUp);
+                    isRateUp5.put(uid, isRateUp);
+                } else if (ranks[i] == 4) {
+                    sum += pullSince4.get(uid) + (isRateUp4.getOrDefault(uid, true) ? 1 : 0);
+                    pullSince4.put(uid, 0);
+                    isRateUp4.put(uid, isRateUp);
+                }
+                seen.add(uid);
+            }
+            return sum + seen.size();
+        });
+        BenchmarkRunner.measure("pity states", WARM_UPS, ITERATIONS, () -> {
+            HashSet<Long> seen = new HashSet<>();
+            LongObjectMap<PityState> states = new LongObjectMap<>();
+            long sum = 0;
+            for (int i = 0; i < NUM_ENTRIES; i++) {
+                long uid = uids[i];
+                boolean isRateUp = (i & 1) == 0;
+                PityState state = states.get(uid);
+                if (state == null) {
+                    state = new PityState();
+                    states.put(uid, state);
+                    seen.add(uid);
+                }
+                state.pull();
+                if (ranks[i] == 5) {
+                    sum += (state.isRateUp5() ? 1 : 0) + state.obtain5(isRateUp);
+                } else if (ranks[i] == 4) {
+                    sum += (state.isRateUp4() ? 1 : 0) + state.obtain4(isRateUp);
+                }
+            }
+            return sum + seen.size();
+        });
+        BenchmarkRunner.printBlackhole();
+    }
+}
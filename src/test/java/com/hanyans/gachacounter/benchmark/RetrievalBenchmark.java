@@ -0,0 +1,78 @@
+package com.hanyans.gachacounter.benchmark;
+
+import com.hanyans.gachacounter.logic.task.HistoryRetrieverTask;
+import com.hanyans.gachacounter.mhy.GachaType;
+import com.hanyans.gachacounter.mhy.Game;
+import com.hanyans.gachacounter.mhy.pacer.TokenBucketPacer;
+import com.hanyans.gachacounter.mhy.stub.StubGachaLogServer;
+import com.hanyans.gachacounter.model.BannerHistory;
+import com.hanyans.gachacounter.model.GameGachaData;
+import com.hanyans.gachacounter.model.UidNameMap;
+import com.hanyans.gachacounter.model.rateup.BannerEventHistory;
+import com.hanyans.gachacounter.model.sync.SyncCursorMap;
+
+
+/**
+ * Measures the end to end throughput of a full retrieval of several players
+ * from a {@link StubGachaLogServer}, and how closely the requests follow the
+ * rate of the pacer, with the banners retrieved one after another and
+ * concurrently at different response latencies.
+ */
+public class RetrievalBenchmark {
+    private static final int NUM_PLAYERS = 4;
+    private static final int NUM_PULLS = 200;
+    private static final double RATE = 100D;
+    private static final long[] LATENCIES = {0, 20, 50};
+
+
+    public static void main(String[] args) throws Throwable {
+        try (StubGachaLogServer server = new StubGachaLogServer()) {
+            for (int i = 0; i < NUM_PLAYERS; i++) {
+                server.addPlayer("player" + i, 100000001L + i, NUM_PULLS);
+            }
+            // warm up the client, the decoder and the server
+            run(server, false);
+
+            for (long latency : LATENCIES) {
+                server.setLatency(latency);
+                for (boolean isConcurrent : new boolean[] {false, true}) {
+                    int startRequests = server.getNumRequests();
+                    long startTime = System.nanoTime();
+                    int numAdded = run(server, isConcurrent);
+                    double seconds = (System.nanoTime() - startTime) / 1e9;
+                    int numRequests = server.getNumRequests() - startRequests;
+                    System.out.println(String.format(
+                            "%-40s %9.1f entries/s %7.1f req/s (pacer %.0f req/s, max in flight %d)",
+                            String.format("%s, %d ms latency", isConcurrent ? "concurrent" : "sequential", latency),
+                            numAdded / seconds, numRequests / seconds, RATE, server.getMaxInFlight()));
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Retrieves all players into empty data sharing a single pacer and
+     * returns the number of entries added.
+     */
+    private static int run(StubGachaLogServer server, boolean isConcurrent) throws Throwable {
+        TokenBucketPacer pacer = new TokenBucketPacer(RATE, RATE, RATE);
+        int totalAdded = 0;
+        for (int i = 0; i < NUM_PLAYERS; i++) {
+            GameGachaData data = new GameGachaData(
+                    Game.HSR,
+                    new UidNameMap(),
+                    new BannerHistory(GachaType.STANDARD),
+                    new BannerHistory(GachaType.CHARACTER),
+                    new BannerHistory(GachaType.WEAPON),
+                    new BannerEventHistory(),
+                    new BannerEventHistory(),
+                    new SyncCursorMap());
+            totalAdded += new HistoryRetrieverTask(server.getPlayerUrl("player" + i, Game.HSR), data)
+                    .setPacer(pacer)
+                    .setConcurrent(isConcurrent)
+                    .performTask();
+        }
+        return totalAdded;
+    }
+}
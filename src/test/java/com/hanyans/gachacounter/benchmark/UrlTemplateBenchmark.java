@@ -0,0 +1,58 @@
+package com.hanyans.gachacounter.benchmark;
+
+import com.hanyans.gachacounter.mhy.GachaLogUrlTemplate;
+import com.hanyans.gachacounter.mhy.GachaType;
+import com.hanyans.gachacounter.mhy.Game;
+import com.hanyans.gachacounter.mhy.HistoryRetriever;
+import com.hanyans.gachacounter.mhy.PlayerDetail;
+
+
+/**
+ * Compares forming the URL of a page through the setters of
+ * {@link HistoryRetriever} against forming it with a compiled
+ * {@link GachaLogUrlTemplate}.
+ */
+public class UrlTemplateBenchmark {
+    private static final int WARM_UPS = 50_000;
+    private static final int ITERATIONS = 200_000;
+    private static final int PAGE_SIZE = 20;
+
+    static final String PLAYER_URL = "https://api-os-takumi.mihoyo.com/common/gacha_record/api/getGachaLog"
+            + "?authkey_ver=1&sign_type=2&auth_appid=webview_gacha&win_mode=fullscreen"
+            + "&gacha_id=dbebc8d9fbb0d4ffa067423482ce505bc5ea&timestamp=1686697200&region=prod_official_asia"
+            + "&default_gacha_type=11&lang=en&authkey=" + "AbCdEfGhIjKlMnOpQrStUvWxYz0123456789%2B%2F".repeat(16)
+            + "&game_biz=hkrpg_global&os_system=Windows%2011&device_model=System%20Product%20Name"
+            + "&plat_type=pc&page=1&size=5&gacha_type=11&end_id=0";
+
+
+    public static void main(String[] args) throws Exception {
+        HistoryRetriever retriever = PlayerDetail.of(PLAYER_URL).formHistoryRetriever().setLang("en");
+        GachaLogUrlTemplate template = GachaLogUrlTemplate.compile(retriever, Game.HSR);
+        StringBuilder buffer = new StringBuilder();
+
+        long endId = 1686697200000123456L;
+        String expected = retriever.setPage(3).setEndId(endId).setSize(PAGE_SIZE)
+                .setGachaType(GachaType.CHARACTER, Game.HSR).formUrlString(Game.HSR);
+        String actual = template.format(3, PAGE_SIZE, GachaType.CHARACTER, endId);
+        if (!expected.equals(actual)) {
+            throw new IllegalStateException(String.format("URLs differ:%n%s%n%s", expected, actual));
+        }
+
+        long[] page = {0};
+        BenchmarkRunner.measure("builder (HistoryRetriever)", WARM_UPS, ITERATIONS, () -> retriever
+                .setPage((int) (++page[0] & 0xff))
+                .setEndId(endId - page[0])
+                .setSize(PAGE_SIZE)
+                .setGachaType(GachaType.CHARACTER, Game.HSR)
+                .formUrlString(Game.HSR)
+                .length());
+        BenchmarkRunner.measure("template (GachaLogUrlTemplate)", WARM_UPS, ITERATIONS, () -> {
+            buffer.setLength(0);
+            ++page[0];
+            return template.appendTo(buffer, (int) (page[0] & 0xff), PAGE_SIZE, GachaType.CHARACTER, endId - page[0])
+                    .toString()
+                    .length();
+        });
+        BenchmarkRunner.printBlackhole();
+    }
+}
@@ -0,0 +1,43 @@
+package com.hanyans.gachacounter.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+
+public class LongObjectMapTest {
+    @Test
+    public void putTest() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        for (long uid = 800000000L; uid < 800001000L; uid++) {
+            assertNull(map.put(uid, String.valueOf(uid)));
+        }
+        assertNull(map.put(-1L, "negative"));
+        assertEquals("800000000", map.put(800000000L, "replaced"));
+
+        assertEquals(1001, map.size());
+        assertEquals("replaced", map.get(800000000L));
+        assertEquals("800000999", map.get(800000999L));
+        assertEquals("negative", map.get(-1L));
+        assertFalse(map.containsKey(0L));
+        assertNull(map.get(800001000L));
+        assertEquals("default", map.getOrDefault(0L, "default"));
+        assertThrows(NullPointerException.class, () -> map.put(1L, null));
+    }
+
+
+    @Test
+    public void computeIfAbsentTest() {
+        LongObjectMap<StringBuilder> map = new LongObjectMap<>();
+        StringBuilder first = map.computeIfAbsent(0L, key -> new StringBuilder());
+        StringBuilder second = map.computeIfAbsent(0L, key -> new StringBuilder());
+
+        assertSame(first, second);
+        assertEquals(1, map.size());
+        assertFalse(map.isEmpty());
+    }
+}
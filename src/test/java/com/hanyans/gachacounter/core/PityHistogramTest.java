@@ -0,0 +1,59 @@
+package com.hanyans.gachacounter.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+
+public class PityHistogramTest {
+    @Test
+    public void addTest() {
+        PityHistogram histogram = new PityHistogram(10);
+        histogram.add(3);
+        histogram.add(3);
+        assertEquals(5, histogram.add(200, 5));
+
+        assertEquals(2, histogram.get(3));
+        assertEquals(5, histogram.get(200));
+        assertEquals(0, histogram.get(201));
+        assertEquals(0, histogram.get(-1));
+        assertEquals(7, histogram.totalFreq());
+        assertEquals(5, histogram.largestFreq());
+        assertThrows(IllegalArgumentException.class, () -> histogram.add(-1));
+    }
+
+
+    @Test
+    public void mergeTest() {
+        PityHistogram shorter = new PityHistogram(10);
+        shorter.add(1, 2);
+        PityHistogram longer = new PityHistogram(90);
+        longer.add(1);
+        longer.add(90, 4);
+
+        PityHistogram merged = shorter.merge(longer);
+        assertEquals(3, merged.get(1));
+        assertEquals(4, merged.get(90));
+        assertEquals(2, shorter.totalFreq());
+    }
+
+
+    @Test
+    public void condenseTest() {
+        PityHistogram histogram = new PityHistogram();
+        histogram.add(0);
+        histogram.add(3, 2);
+        histogram.add(5);
+        histogram.add(6, 4);
+        histogram.add(90);
+
+        PityHistogram condensed = histogram.condense(5);
+        assertEquals(4, condensed.get(5));
+        assertEquals(4, condensed.get(10));
+        assertEquals(1, condensed.get(90));
+        assertEquals(0, condensed.get(3));
+        assertEquals(histogram.totalFreq(), condensed.totalFreq());
+        assertThrows(IllegalArgumentException.class, () -> histogram.condense(0));
+    }
+}
@@ -0,0 +1,117 @@
+package com.hanyans.gachacounter.core.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.hanyans.gachacounter.mhy.GachaType;
+import com.hanyans.gachacounter.mhy.ItemType;
+import com.hanyans.gachacounter.model.BannerHistory;
+import com.hanyans.gachacounter.model.GachaEntry;
+
+
+public class HistoryJsonModuleTest {
+    private static final ObjectMapper REFLECTIVE_MAPPER = new ObjectMapper().findAndRegisterModules()
+            .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+            .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+
+
+    @Test
+    public void serializeTest() throws Throwable {
+        BannerHistory history = formHistory();
+
+        String reflective = REFLECTIVE_MAPPER.writeValueAsString(history);
+        String streamed = JsonUtil.serializeToString(history);
+        assertFields(sorted(history), sorted(JsonUtil.deserialize(reflective, BannerHistory.class)));
+        assertFields(sorted(history), sorted(REFLECTIVE_MAPPER.readValue(streamed, BannerHistory.class)));
+    }
+
+
+    @Test
+    public void deserializeTest() throws Throwable {
+        BannerHistory read = JsonUtil.deserialize(JsonUtil.serializeToString(formHistory()), BannerHistory.class);
+        List<GachaEntry> entries = sorted(read);
+
+        assertSame(entries.get(0).name, entries.get(3).name);
+    }
+
+
+    @Test
+    public void deserializeTest_missingName() {
+        String json = "{\"uid\":1,\"gachaType\":\"CHARACTER\",\"time\":\"2023-04-26T12:00:00\",\"itemType\":\"WEAPON\"}";
+
+        assertThrows(DatabindException.class, () -> JsonUtil.deserialize(json, GachaEntry.class));
+    }
+
+
+    @Test
+    public void timeTest() {
+        LocalDateTime[] times = {
+            LocalDateTime.of(2023, 4, 26, 12, 0, 0),
+            LocalDateTime.of(2023, 4, 26, 12, 0, 5, 120_000_000),
+            LocalDateTime.of(1, 1, 1, 0, 0, 0, 1),
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59, 999_999_999),
+        };
+        for (LocalDateTime time : times) {
+            String formatted = HistoryJsonModule.formatTime(time);
+            assertEquals(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(time), formatted);
+            assertEquals(time, HistoryJsonModule.parseTime(formatted));
+        }
+        assertNull(HistoryJsonModule.parseTime("2023-02-30T12:00:00"));
+        assertNull(HistoryJsonModule.parseTime("2023-04-26T12:00"));
+        assertNull(HistoryJsonModule.parseTime("2023-04-26T12:00:00Z"));
+    }
+
+
+    private static void assertFields(List<GachaEntry> expected, List<GachaEntry> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            GachaEntry exp = expected.get(i);
+            GachaEntry act = actual.get(i);
+            assertEquals(exp.uid, act.uid);
+            assertEquals(exp.gachaId, act.gachaId);
+            assertEquals(exp.gachaType, act.gachaType);
+            assertEquals(exp.itemId, act.itemId);
+            assertEquals(exp.count, act.count);
+            assertEquals(exp.time, act.time);
+            assertEquals(exp.name, act.name);
+            assertEquals(exp.itemType, act.itemType);
+            assertEquals(exp.rank, act.rank);
+            assertEquals(exp.id, act.id);
+        }
+    }
+
+
+    private static List<GachaEntry> sorted(BannerHistory history) {
+        return history.getEntrySet().stream().sorted().toList();
+    }
+
+
+    private static BannerHistory formHistory() {
+        LocalDateTime start = LocalDateTime.of(2023, 4, 26, 12, 0, 0);
+        ArrayList<GachaEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            int item = i % 3;
+            entries.add(new GachaEntry(100000001L, 2003, GachaType.CHARACTER, 20000 + item, 1,
+                    start.plusSeconds(i).withNano(i * 1000), "Item \u00fc\"" + item, ItemType.WEAPON,
+                    3 + item, 1683000000000000000L + i));
+        }
+        return new BannerHistory(GachaType.CHARACTER, entries);
+    }
+}
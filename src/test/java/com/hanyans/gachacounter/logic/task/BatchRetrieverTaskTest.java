@@ -0,0 +1,143 @@
+package com.hanyans.gachacounter.logic.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.EnumMap;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.hanyans.gachacounter.mhy.GachaType;
+import com.hanyans.gachacounter.mhy.Game;
+import com.hanyans.gachacounter.mhy.auth.AuthKeyValidator;
+import com.hanyans.gachacounter.mhy.exception.ResponseException;
+import com.hanyans.gachacounter.mhy.pacer.PacerRegistry;
+import com.hanyans.gachacounter.mhy.stub.StubFixtures;
+import com.hanyans.gachacounter.mhy.stub.StubGachaLogServer;
+import com.hanyans.gachacounter.mhy.transport.GachaLogTransport;
+import com.hanyans.gachacounter.mhy.transport.HttpGachaLogTransport;
+import com.hanyans.gachacounter.model.GameGachaData;
+import com.hanyans.gachacounter.model.sync.BatchReport;
+import com.hanyans.gachacounter.model.sync.BatchReport.AccountResult;
+
+
+public class BatchRetrieverTaskTest {
+    private static final String HSR_AUTH_KEY = "stubkeyhsr";
+    private static final String GENSHIN_AUTH_KEY = "stubkeygenshin";
+    private static final String BAD_AUTH_KEY = "badkey";
+    private static final long HSR_UID = 100000001L;
+    private static final long GENSHIN_UID = 800000001L;
+    private static final int NUM_PULLS = 23;
+
+    private final EnumMap<Game, GameGachaData> dataMap = new EnumMap<>(Game.class);
+
+    private StubGachaLogServer server;
+    private PacerRegistry pacers;
+
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new StubGachaLogServer();
+        server.addPlayer(HSR_AUTH_KEY, HSR_UID, NUM_PULLS);
+        server.addPlayer(GENSHIN_AUTH_KEY, GENSHIN_UID, NUM_PULLS);
+        dataMap.put(Game.HSR, StubFixtures.emptyData(Game.HSR));
+        dataMap.put(Game.Genshin, StubFixtures.emptyData(Game.Genshin));
+
+        pacers = StubFixtures.formPacerRegistry(StubFixtures.formPacer());
+    }
+
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+
+    @Test
+    public void performTaskTest() throws Throwable {
+        List<String> urls = List.of(
+                server.getPlayerUrl(HSR_AUTH_KEY, Game.HSR),
+                server.getPlayerUrl(GENSHIN_AUTH_KEY, Game.Genshin));
+        BatchReport report = formTask(urls, 2).performTask();
+
+        assertTrue(report.getFailures().isEmpty());
+        assertEquals(2 * 3 * NUM_PULLS, report.getTotalAdded());
+        for (Game game : List.of(Game.HSR, Game.Genshin)) {
+            GameGachaData data = dataMap.get(game);
+            long uid = (game == Game.HSR) ? HSR_UID : GENSHIN_UID;
+            assertEquals(NUM_PULLS, data.stndHist.size());
+            assertEquals(NUM_PULLS, data.charHist.size());
+            assertEquals(NUM_PULLS, data.weapHist.size());
+            for (GachaType gachaType : GachaType.values()) {
+                assertTrue(data.cursors.get(uid, gachaType).orElseThrow().isComplete);
+            }
+        }
+    }
+
+
+    @Test
+    public void performTaskTest_badAuthKey() throws Throwable {
+        String badUrl = server.getPlayerUrl(BAD_AUTH_KEY, Game.HSR);
+        List<String> urls = List.of(
+                server.getPlayerUrl(HSR_AUTH_KEY, Game.HSR),
+                badUrl,
+                server.getPlayerUrl(GENSHIN_AUTH_KEY, Game.Genshin));
+        BatchReport report = formTask(urls, 2).performTask();
+
+        // results are in the order the accounts were given
+        assertEquals(3, report.results.size());
+        for (int i = 0; i < urls.size(); i++) {
+            assertEquals(urls.get(i), report.results.get(i).playerUrl);
+        }
+        assertTrue(report.results.get(0).isSuccess());
+        assertTrue(report.results.get(2).isSuccess());
+
+        List<AccountResult> failures = report.getFailures();
+        assertEquals(1, failures.size());
+        AccountResult failure = failures.get(0);
+        assertEquals(badUrl, failure.playerUrl);
+        assertEquals(Game.HSR, failure.game.orElseThrow());
+        assertEquals(0, failure.numAdded);
+        assertTrue(failure.failure.orElseThrow() instanceof ResponseException);
+        assertFalse(failure.isSuccess());
+
+        // the failed account does not hold back the others of its game
+        assertEquals(2 * 3 * NUM_PULLS, report.getTotalAdded());
+        assertEquals(NUM_PULLS, dataMap.get(Game.HSR).charHist.size());
+        assertEquals(NUM_PULLS, dataMap.get(Game.Genshin).charHist.size());
+    }
+
+
+    @Test
+    public void performTaskTest_unknownGame() throws Throwable {
+        String badUrl = "https://example.com/gacha?authkey=stub&game_biz=unknown";
+        List<String> urls = List.of(badUrl, server.getPlayerUrl(HSR_AUTH_KEY, Game.HSR));
+        BatchReport report = formTask(urls, 1).performTask();
+
+        List<AccountResult> failures = report.getFailures();
+        assertEquals(1, failures.size());
+        assertEquals(badUrl, failures.get(0).playerUrl);
+        assertTrue(failures.get(0).game.isEmpty());
+        assertEquals(3 * NUM_PULLS, report.getTotalAdded());
+    }
+
+
+    private BatchRetrieverTask formTask(List<String> urls, int parallelism) {
+        GachaLogTransport transport = new HttpGachaLogTransport();
+        return new BatchRetrieverTask(
+                urls,
+                dataMap::get,
+                pacers,
+                transport,
+                new AuthKeyValidator(transport, pacers),
+                (data, history, cursor) -> {
+                    cursor.ifPresent(data.cursors::put);
+                    return List.of();
+                },
+                parallelism);
+    }
+}
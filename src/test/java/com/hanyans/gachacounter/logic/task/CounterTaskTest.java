@@ -0,0 +1,45 @@
+package com.hanyans.gachacounter.logic.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.hanyans.gachacounter.mhy.GachaType;
+import com.hanyans.gachacounter.mhy.ItemType;
+import com.hanyans.gachacounter.model.BannerHistory;
+import com.hanyans.gachacounter.model.GachaEntry;
+import com.hanyans.gachacounter.model.count.BannerReport;
+
+
+public class CounterTaskTest {
+    private static final LocalDateTime START = LocalDateTime.of(2023, 4, 26, 12, 0, 0);
+    private static final long UID_A = 100000001L;
+    private static final long UID_B = 100000002L;
+
+
+    @Test
+    public void performTaskTest() {
+        BannerHistory history = new BannerHistory(GachaType.CHARACTER);
+        // only UID_A gets a 4 star and neither gets a 5 star
+        for (int i = 0; i < 10; i++) {
+            history.add(formEntry(UID_A, i, i == 9 ? 4 : 3));
+            history.add(formEntry(UID_B, 100 + i, 3));
+        }
+
+        BannerReport report = new CounterTask(history).performTask();
+        assertEquals(Set.of(UID_A, UID_B), report.uids);
+        assertEquals(Set.of(UID_A), report.freqMap4.keySet());
+        assertEquals(1, report.freqMap4.get(UID_A, 10));
+        assertEquals(Set.of(), report.freqMap5.keySet());
+        assertEquals(10, report.getPullSince5(UID_B));
+    }
+
+
+    private static GachaEntry formEntry(long uid, int index, int rank) {
+        return new GachaEntry(uid, 1, GachaType.CHARACTER, 1, 1, START.plusSeconds(index),
+                "Item", ItemType.WEAPON, rank, 1683000000000000000L + index);
+    }
+}
@@ -0,0 +1,260 @@
+package com.hanyans.gachacounter.logic.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.hanyans.gachacounter.mhy.GachaType;
+import com.hanyans.gachacounter.mhy.Game;
+import com.hanyans.gachacounter.mhy.ItemType;
+import com.hanyans.gachacounter.mhy.exception.ResponseException;
+import com.hanyans.gachacounter.mhy.response.GachaResponseResult;
+import com.hanyans.gachacounter.mhy.stub.StubFixtures;
+import com.hanyans.gachacounter.mhy.stub.StubGachaLogServer;
+import com.hanyans.gachacounter.mhy.transport.GachaLogTransport;
+import com.hanyans.gachacounter.mhy.transport.HttpGachaLogTransport;
+import com.hanyans.gachacounter.model.GachaEntry;
+import com.hanyans.gachacounter.model.GameGachaData;
+import com.hanyans.gachacounter.model.sync.GapDetector;
+import com.hanyans.gachacounter.model.sync.SyncCursor;
+import com.hanyans.gachacounter.storage.PageCache;
+
+
+public class HistoryRetrieverTaskTest {
+    private static final String AUTH_KEY = "stubkey";
+    private static final long UID = 100000001L;
+    private static final int NUM_PULLS = 23;
+    private static final int PAGE_SIZE = 5;
+    private static final int FAILED_REQUEST = 4;
+    private static final int NUM_OLD_PULLS = 91;
+
+    @TempDir private Path tempDir;
+
+    private StubGachaLogServer server;
+
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new StubGachaLogServer();
+        server.addPlayer(AUTH_KEY, UID, NUM_PULLS);
+    }
+
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+
+    @Test
+    public void performTaskTest() throws Throwable {
+        GameGachaData data = StubFixtures.emptyData(Game.HSR);
+        int numAdded = formTask(Game.HSR, data).performTask();
+
+        assertEquals(3 * NUM_PULLS, numAdded);
+        assertEquals(NUM_PULLS, data.stndHist.size());
+        assertEquals(NUM_PULLS, data.charHist.size());
+        assertEquals(NUM_PULLS, data.weapHist.size());
+        for (GachaType gachaType : GachaType.values()) {
+            assertTrue(data.cursors.get(UID, gachaType).orElseThrow().isComplete);
+        }
+    }
+
+
+    @Test
+    public void performTaskTest_upToDate() throws Throwable {
+        GameGachaData data = StubFixtures.emptyData(Game.Genshin);
+        formTask(Game.Genshin, data).performTask();
+        int numRequests = server.getNumRequests();
+
+        int numAdded = formTask(Game.Genshin, data).performTask();
+        assertEquals(0, numAdded);
+        // only the latest page of each banner
+        assertEquals(3, server.getNumRequests() - numRequests);
+    }
+
+
+    @Test
+    public void performTaskTest_failedCheckpoint() throws Throwable {
+        GameGachaData data = StubFixtures.emptyData(Game.HSR);
+        formTask(Game.HSR, data)
+                .setCheckpointHandler((target, history, cursor) -> {
+                    if (history.getGachaType() == GachaType.CHARACTER) {
+                        return List.of(new IOException("disk full"));
+                    }
+                    cursor.ifPresent(target.cursors::put);
+                    return List.of();
+                })
+                .performTask();
+
+        assertEquals(NUM_PULLS, data.charHist.size());
+        assertTrue(data.cursors.get(UID, GachaType.CHARACTER).isEmpty());
+        assertTrue(data.cursors.get(UID, GachaType.STANDARD).orElseThrow().isComplete);
+        assertTrue(data.cursors.get(UID, GachaType.WEAPON).orElseThrow().isComplete);
+    }
+
+
+    @Test
+    public void performTaskTest_resumed() throws Throwable {
+        GameGachaData data = StubFixtures.emptyData(Game.HSR);
+        RecordingTransport interrupted = new RecordingTransport(FAILED_REQUEST);
+        assertThrows(IOException.class,
+                () -> formTask(Game.HSR, data).setConcurrent(false).setTransport(interrupted).performTask());
+        SyncCursor cursor = data.cursors.get(UID, GachaType.STANDARD).orElseThrow();
+        assertFalse(cursor.isComplete);
+        assertEquals((FAILED_REQUEST - 1) * PAGE_SIZE, data.stndHist.size());
+
+        RecordingTransport resumed = new RecordingTransport(0);
+        formTask(Game.HSR, data).setConcurrent(false).setTransport(resumed).performTask();
+        assertEquals(NUM_PULLS, data.stndHist.size());
+        assertTrue(data.cursors.get(UID, GachaType.STANDARD).orElseThrow().isComplete);
+
+        // the latest page is requested first, then the walk resumes from the cursor
+        List<Long> endIds = resumed.getEndIds(GachaType.STANDARD);
+        assertEquals(0, endIds.get(0).longValue());
+        assertEquals(cursor.endId, endIds.get(1).longValue());
+        for (long endId : interrupted.getEndIds(GachaType.STANDARD)) {
+            assertTrue(endId == 0 || !endIds.contains(endId), "page re-fetched from end ID " + endId);
+        }
+    }
+
+
+    @Test
+    public void performTaskTest_unrepairableGap() throws Throwable {
+        GameGachaData data = StubFixtures.emptyData(Game.HSR);
+        // older entries than the server has, too many without a 4 star
+        for (int i = 0; i < NUM_OLD_PULLS; i++) {
+            data.stndHist.add(new GachaEntry(UID, 2003, GachaType.STANDARD, 20003, 1,
+                    LocalDateTime.of(2023, 1, 1, 0, 0, 0).plusSeconds(i), "Item 3", ItemType.WEAPON, 3,
+                    1682000000000000000L + i));
+        }
+
+        formTask(Game.HSR, data).performTask();
+        assertEquals(NUM_OLD_PULLS + NUM_PULLS, data.stndHist.size());
+        SyncCursor cursor = data.cursors.get(UID, GachaType.STANDARD).orElseThrow();
+        assertFalse(cursor.checkedGaps.isEmpty());
+        assertEquals(GapDetector.detect(data.stndHist, UID).size(), cursor.checkedGaps.size());
+        int numRequests = server.getNumRequests();
+
+        // only the latest page of every banner is requested again
+        formTask(Game.HSR, data).performTask();
+        assertEquals(numRequests + GachaType.values().length, server.getNumRequests());
+    }
+
+
+    @Test
+    public void performTaskTest_throttled() throws Throwable {
+        server.setThrottleInterval(4);
+        GameGachaData data = StubFixtures.emptyData(Game.HSR);
+
+        int numAdded = formTask(Game.HSR, data).performTask();
+        assertEquals(3 * NUM_PULLS, numAdded);
+        assertTrue(server.getNumThrottled() > 0);
+    }
+
+
+    @Test
+    public void performTaskTest_expiredAuthKey() {
+        server.expireAuthKey(AUTH_KEY);
+        GameGachaData data = StubFixtures.emptyData(Game.HSR);
+
+        ResponseException resEx = assertThrows(ResponseException.class,
+                () -> formTask(Game.HSR, data).performTask());
+        assertEquals(GachaResponseResult.RETCODE_AUTHKEY_TIMEOUT, resEx.getRetcode());
+        assertEquals(0, data.charHist.size());
+    }
+
+
+    @Test
+    public void performTaskTest_paced() throws Throwable {
+        server.setLatency(5);
+        long startTime = System.currentTimeMillis();
+        formTask(Game.HSR, StubFixtures.emptyData(Game.HSR)).performTask();
+        long elapsed = System.currentTimeMillis() - startTime;
+
+        // the first request is sent at once from a full bucket
+        long minElapsed = (long) ((server.getNumRequests() - 1) * 1000 / StubFixtures.RATE);
+        assertTrue(elapsed >= minElapsed, String.format("%d ms < %d ms", elapsed, minElapsed));
+    }
+
+
+    @Test
+    public void performTaskTest_replay() throws Throwable {
+        PageCache cache = new PageCache(tempDir);
+        GameGachaData retrieved = StubFixtures.emptyData(Game.HSR);
+        formTask(Game.HSR, retrieved).setPageCache(cache).performTask();
+        server.close();
+        int numRequests = server.getNumRequests();
+
+        // a new cache reads the index written by the first
+        GameGachaData replayed = StubFixtures.emptyData(Game.HSR);
+        int numAdded = new HistoryRetrieverTask(null, replayed)
+                .setPageCache(new PageCache(tempDir))
+                .setReplay(true)
+                .performTask();
+        assertEquals(3 * NUM_PULLS, numAdded);
+        assertEquals(retrieved.stndHist.getEntrySet(), replayed.stndHist.getEntrySet());
+        assertEquals(retrieved.charHist.getEntrySet(), replayed.charHist.getEntrySet());
+        assertEquals(retrieved.weapHist.getEntrySet(), replayed.weapHist.getEntrySet());
+        assertEquals(numRequests, server.getNumRequests());
+    }
+
+
+    private HistoryRetrieverTask formTask(Game game, GameGachaData data) {
+        return new HistoryRetrieverTask(server.getPlayerUrl(AUTH_KEY, game), data)
+                .setPacer(StubFixtures.formPacer());
+    }
+
+
+
+
+
+    /**
+     * Transport that fails the request of the given number and records the
+     * URLs of the other requests sent through it.
+     */
+    private static class RecordingTransport implements GachaLogTransport {
+        private final HttpGachaLogTransport transport = new HttpGachaLogTransport();
+        private final ArrayList<String> urls = new ArrayList<>();
+        private final int failedRequest;
+
+        private int numRequests = 0;
+
+
+        private RecordingTransport(int failedRequest) {
+            this.failedRequest = failedRequest;
+        }
+
+
+        @Override
+        public synchronized InputStream open(String urlString) throws IOException, InterruptedException {
+            if (++numRequests == failedRequest) {
+                throw new IOException("connection reset");
+            }
+            urls.add(urlString);
+            return transport.open(urlString);
+        }
+
+
+        private synchronized List<Long> getEndIds(GachaType gachaType) {
+            String typeArg = "gacha_type=" + gachaType.getTypeIdHsr() + "&";
+            return urls.stream()
+                    .filter(url -> (url + "&").contains(typeArg))
+                    .map(url -> Long.parseLong(url.replaceAll(".*[?&]end_id=(\\d+).*", "$1")))
+                    .toList();
+        }
+    }
+}
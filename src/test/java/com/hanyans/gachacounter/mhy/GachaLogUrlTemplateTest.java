@@ -0,0 +1,41 @@
+package com.hanyans.gachacounter.mhy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+
+public class GachaLogUrlTemplateTest {
+    private static final String PLAYER_URL = "https://api.example.com/gacha_record/api/getGachaLog"
+            + "?authkey_ver=1&sign_type=2&auth_appid=webview_gacha&win_mode=fullscreen&init_type=301"
+            + "&gacha_id=abc&timestamp=1686697200&region=os_asia&default_gacha_type=301&lang=en"
+            + "&device_type=pc&game_version=OSRELWin3.7.0&plat_type=pc&authkey=a%2Bb%3D&game_biz=hk4e_global"
+            + "&gacha_type=301&page=1&size=5&end_id=0";
+
+
+    @Test
+    public void formatTest_hsr() {
+        assertSameAsBuilder(Game.HSR);
+    }
+
+
+    @Test
+    public void formatTest_genshin() {
+        assertSameAsBuilder(Game.Genshin);
+    }
+
+
+    private void assertSameAsBuilder(Game game) {
+        HistoryRetriever retriever = PlayerDetail.of(PLAYER_URL).formHistoryRetriever();
+        GachaLogUrlTemplate template = GachaLogUrlTemplate.compile(retriever, game);
+        for (GachaType gachaType : GachaType.values()) {
+            String expected = retriever
+                    .setPage(7)
+                    .setSize(20)
+                    .setGachaType(gachaType, game)
+                    .setEndId(1686697200000123456L)
+                    .formUrlString(game);
+            assertEquals(expected, template.format(7, 20, gachaType, 1686697200000123456L));
+        }
+    }
+}
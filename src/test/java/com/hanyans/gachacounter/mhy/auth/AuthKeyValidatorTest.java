@@ -0,0 +1,116 @@
+package com.hanyans.gachacounter.mhy.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.hanyans.gachacounter.mhy.Game;
+import com.hanyans.gachacounter.mhy.pacer.TokenBucketPacer;
+import com.hanyans.gachacounter.mhy.response.GachaResponseResult;
+import com.hanyans.gachacounter.mhy.stub.StubGachaLogServer;
+import com.hanyans.gachacounter.mhy.transport.HttpGachaLogTransport;
+
+
+public class AuthKeyValidatorTest {
+    private static final String AUTH_KEY = "stubkey";
+    private static final long UID = 100000001L;
+    private static final double RATE = 40D;
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    private StubGachaLogServer server;
+    private TokenBucketPacer pacer;
+
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new StubGachaLogServer();
+        server.addPlayer(AUTH_KEY, UID, 1);
+        pacer = new TokenBucketPacer(RATE, RATE / 8, RATE);
+    }
+
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+
+    @Test
+    public void validateTest() throws Throwable {
+        AuthKeyValidator validator = formValidator(TTL);
+        String url = server.getPlayerUrl(AUTH_KEY, Game.HSR);
+        assertEquals(AuthKeyVerdict.VALID, validator.validate(url, Game.HSR));
+        assertEquals(1, server.getNumRequests());
+
+        // cached until invalidated
+        assertEquals(AuthKeyVerdict.VALID, validator.validate(url, Game.HSR));
+        assertEquals(1, server.getNumRequests());
+        validator.invalidate(url);
+        assertEquals(AuthKeyVerdict.VALID, validator.validate(url, Game.HSR));
+        assertEquals(2, server.getNumRequests());
+    }
+
+
+    @Test
+    public void validateTest_expiredTimestamp() throws Throwable {
+        long issuedAt = System.currentTimeMillis() / 1000 - AuthKeyValidator.AUTHKEY_LIFETIME.toSeconds() - 60;
+        String url = server.getPlayerUrl(AUTH_KEY, Game.HSR)
+                .replaceFirst("timestamp=\\d+", "timestamp=" + issuedAt);
+        assertEquals(AuthKeyVerdict.EXPIRED, formValidator(TTL).validate(url, Game.HSR));
+        assertEquals(0, server.getNumRequests());
+    }
+
+
+    @Test
+    public void validateTest_retcodes() throws Throwable {
+        assertVerdict(GachaResponseResult.RETCODE_AUTHKEY_TIMEOUT, AuthKeyVerdict.EXPIRED);
+        assertVerdict(GachaResponseResult.RETCODE_GAME_NAME_ERROR, AuthKeyVerdict.REGION_MISMATCH);
+        assertVerdict(GachaResponseResult.RETCODE_AUTHKEY_ERROR, AuthKeyVerdict.INVALID);
+        assertVerdict(-1, AuthKeyVerdict.INVALID);
+    }
+
+
+    @Test
+    public void validateTest_throttledNotCached() throws Throwable {
+        AuthKeyValidator validator = formValidator(TTL);
+        String url = server.getPlayerUrl(AUTH_KEY, Game.HSR);
+        server.setThrottleInterval(1);
+        assertEquals(AuthKeyVerdict.THROTTLED, validator.validate(url, Game.HSR));
+        assertEquals(RATE * TokenBucketPacer.BACKOFF_FACTOR, pacer.getRate(), 1e-9);
+
+        server.setThrottleInterval(0);
+        assertEquals(AuthKeyVerdict.VALID, validator.validate(url, Game.HSR));
+        assertEquals(2, server.getNumRequests());
+    }
+
+
+    @Test
+    public void validateTest_verdictExpired() throws Throwable {
+        AuthKeyValidator validator = formValidator(Duration.ofMillis(50));
+        String url = server.getPlayerUrl(AUTH_KEY, Game.HSR);
+        validator.validate(url, Game.HSR);
+        validator.validate(url, Game.HSR);
+        assertEquals(1, server.getNumRequests());
+
+        Thread.sleep(100);
+        validator.validate(url, Game.HSR);
+        assertEquals(2, server.getNumRequests());
+    }
+
+
+    private void assertVerdict(int retcode, AuthKeyVerdict expected) throws Throwable {
+        String authKey = "rejected" + retcode;
+        server.rejectAuthKey(authKey, retcode);
+        String url = server.getPlayerUrl(authKey, Game.Genshin);
+        assertEquals(expected, formValidator(TTL).validate(url, Game.Genshin), "retcode " + retcode);
+    }
+
+
+    private AuthKeyValidator formValidator(Duration verdictTtl) {
+        return new AuthKeyValidator(new HttpGachaLogTransport(), detail -> pacer, verdictTtl);
+    }
+}
@@ -0,0 +1,101 @@
+package com.hanyans.gachacounter.mhy.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.hanyans.gachacounter.mhy.cache.WebCacheScanner.ScanResult;
+
+public class WebCacheScannerTest {
+    private static final String OLD_URL =
+            "https://api.example.com/common/gacha_record/api/getGachaLog?authkey_ver=1&timestamp=1&authkey=old";
+    private static final String NEW_URL =
+            "https://api.example.com/common/gacha_record/api/getGachaLog?authkey_ver=1&timestamp=2&authkey=new";
+
+    @TempDir private Path tempDir;
+
+
+    @Test
+    public void scanTest_newestUrl() throws Throwable {
+        Path cache = writeCache(OLD_URL, NEW_URL);
+        ScanResult result = WebCacheScanner.scan(cache);
+        assertEquals(NEW_URL, result.url.orElseThrow());
+    }
+
+
+    @Test
+    public void scanTest_urlAcrossWindows() throws Throwable {
+        Path cache = writeCache(OLD_URL, NEW_URL);
+        long size = Files.size(cache);
+        // windows small enough for the sequence to be split between them
+        for (long windowSize = 16; windowSize < 64; windowSize++) {
+            ScanResult result = WebCacheScanner.scan(cache, 0, windowSize);
+            assertEquals(NEW_URL, result.url.orElseThrow(), "window size " + windowSize);
+            assertEquals(size, result.fileSize);
+        }
+    }
+
+
+    @Test
+    public void scanTest_fromOffset() throws Throwable {
+        Path cache = writeCache(OLD_URL, NEW_URL);
+        ScanResult result = WebCacheScanner.scan(cache);
+        ScanResult afterNewest = WebCacheScanner.scan(cache, result.offset + 1);
+        assertTrue(afterNewest.url.isEmpty());
+        assertEquals(NEW_URL, WebCacheScanner.scan(cache, result.offset).url.orElseThrow());
+    }
+
+
+    @Test
+    public void scanTest_readIntoBuffer() throws Throwable {
+        Path cache = writeCache(OLD_URL, NEW_URL);
+        // a buffer small enough for the sequence to be split between windows
+        ByteBuffer buffer = ByteBuffer.allocate(32);
+        assertEquals(NEW_URL, WebCacheScanner.scan(cache, 0, buffer, url -> true).url.orElseThrow());
+        assertEquals(OLD_URL, WebCacheScanner.scan(cache, 0, buffer, OLD_URL::equals).url.orElseThrow());
+        assertTrue(WebCacheScanner.scan(cache, 0, buffer, url -> false).url.isEmpty());
+    }
+
+
+    @Test
+    public void scanTest_noUrl() throws Throwable {
+        Path cache = writeCache();
+        assertTrue(WebCacheScanner.scan(cache).url.isEmpty());
+    }
+
+
+    /**
+     * Writes a cache file of the given URLs stored as cache keys between
+     * blocks of random bytes without any printable characters.
+     */
+    private Path writeCache(String... urls) throws Throwable {
+        Random random = new Random(0);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writeJunk(output, random);
+        for (String url : urls) {
+            output.write("\0\0\01/0/_dk_https://example.com https://example.com ".getBytes(StandardCharsets.US_ASCII));
+            output.write(url.getBytes(StandardCharsets.US_ASCII));
+            output.write(0);
+            writeJunk(output, random);
+        }
+        Path cache = tempDir.resolve("data_2");
+        Files.write(cache, output.toByteArray());
+        return cache;
+    }
+
+
+    private static void writeJunk(ByteArrayOutputStream output, Random random) {
+        for (int i = 0; i < 500; i++) {
+            output.write(random.nextInt(0x20));
+        }
+    }
+}
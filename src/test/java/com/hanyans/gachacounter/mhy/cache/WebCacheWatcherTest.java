@@ -0,0 +1,97 @@
+package com.hanyans.gachacounter.mhy.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class WebCacheWatcherTest {
+    private static final String OLD_URL =
+            "https://api.example.com/common/gacha_record/api/getGachaLog?authkey_ver=1&timestamp=1&authkey=old";
+    private static final String NEW_URL =
+            "https://api.example.com/common/gacha_record/api/getGachaLog?authkey_ver=1&timestamp=2&authkey=new";
+    private static final String NEWER_URL =
+            "https://api.example.com/common/gacha_record/api/getGachaLog?authkey_ver=1&timestamp=3&authkey=newer";
+    private static final Duration DEBOUNCE_TIME = Duration.ofMillis(50);
+    private static final long TIMEOUT = 10;
+
+    @TempDir private Path tempDir;
+
+
+    @Test
+    public void watchTest_appendedUrl() throws Throwable {
+        Path shard = tempDir.resolve("data_2");
+        append(shard, OLD_URL);
+        BlockingQueue<String> urls = new LinkedBlockingQueue<>();
+
+        try (WebCacheWatcher watcher = new WebCacheWatcher(tempDir, DEBOUNCE_TIME, urls::add)) {
+            append(shard, NEW_URL);
+            assertEquals(NEW_URL, urls.poll(TIMEOUT, TimeUnit.SECONDS));
+
+            // neither files other than shards nor bytes scanned before are scanned
+            append(tempDir.resolve("index"), OLD_URL);
+            append(shard, "\0padding");
+            assertNull(urls.poll(DEBOUNCE_TIME.toMillis() * 10, TimeUnit.MILLISECONDS));
+        }
+    }
+
+
+    @Test
+    public void watchTest_overwrittenInPlace() throws Throwable {
+        Path shard = tempDir.resolve("data_1");
+        append(shard, OLD_URL);
+        append(shard, "\0".repeat(4096));
+        BlockingQueue<String> urls = new LinkedBlockingQueue<>();
+
+        try (WebCacheWatcher watcher = new WebCacheWatcher(tempDir, DEBOUNCE_TIME, urls::add)) {
+            // same size, so the new URL is outside of the bytes appended
+            overwrite(shard, 1, NEW_URL);
+            assertEquals(NEW_URL, urls.poll(TIMEOUT, TimeUnit.SECONDS));
+        }
+    }
+
+
+    @Test
+    public void watchTest_olderUrlAfterNewer() throws Throwable {
+        Path shard = tempDir.resolve("data_1");
+        append(shard, NEW_URL);
+        append(shard, "\0".repeat(4096));
+        BlockingQueue<String> urls = new LinkedBlockingQueue<>();
+
+        try (WebCacheWatcher watcher = new WebCacheWatcher(tempDir, DEBOUNCE_TIME, urls::add)) {
+            // an older URL after the newest one is not published
+            overwrite(shard, 1024, OLD_URL);
+            assertNull(urls.poll(DEBOUNCE_TIME.toMillis() * 10, TimeUnit.MILLISECONDS));
+
+            // a newer URL is, even if an older one comes after it
+            overwrite(shard, 1, NEWER_URL);
+            assertEquals(NEWER_URL, urls.poll(TIMEOUT, TimeUnit.SECONDS));
+            assertNull(urls.poll(DEBOUNCE_TIME.toMillis() * 10, TimeUnit.MILLISECONDS));
+        }
+    }
+
+
+    private static void overwrite(Path file, long offset, String content) throws Exception {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(("\0" + content + "\0").getBytes(StandardCharsets.US_ASCII)), offset);
+        }
+    }
+
+
+    private static void append(Path file, String content) throws Exception {
+        Files.writeString(file, "\0" + content + "\0", StandardCharsets.US_ASCII,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
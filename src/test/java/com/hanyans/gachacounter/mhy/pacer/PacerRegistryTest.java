@@ -0,0 +1,47 @@
+package com.hanyans.gachacounter.mhy.pacer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.hanyans.gachacounter.mhy.PlayerDetail;
+
+
+public class PacerRegistryTest {
+    private static final String ASIA_URL = "https://api.example.com/gacha_record/api/getGachaLog"
+            + "?authkey=first&region=prod_official_asia";
+    private static final String ASIA_URL_2 = "https://api.example.com/gacha_record/api/getGachaLog"
+            + "?authkey=second&region=prod_official_asia";
+    private static final String USA_URL = "https://api.example.com/gacha_record/api/getGachaLog"
+            + "?authkey=third&region=prod_official_usa";
+    private static final double DELTA = 1e-9;
+
+
+    @Test
+    public void getPacerTest() {
+        PacerRegistry pacers = new PacerRegistry();
+        TokenBucketPacer asia = pacers.getPacer(PlayerDetail.of(ASIA_URL));
+        assertSame(asia, pacers.getPacer(PlayerDetail.of(ASIA_URL_2)));
+        assertNotSame(asia, pacers.getPacer(PlayerDetail.of(USA_URL)));
+        assertEquals(TokenBucketPacer.DEFAULT_RATE, asia.getRate(), DELTA);
+    }
+
+
+    @Test
+    public void getPacerTest_learnedRate() {
+        PacerRegistry pacers = new PacerRegistry(Map.of("api.example.com/prod_official_asia", 0.8D));
+        TokenBucketPacer asia = pacers.getPacer(PlayerDetail.of(ASIA_URL));
+        assertEquals(0.8D, asia.getRate(), DELTA);
+
+        // the rates of the pacers in use replace those they started from
+        asia.onThrottled();
+        pacers.getPacer(PlayerDetail.of(USA_URL));
+        Map<String, Double> rates = new PacerRegistry(pacers.getLearnedRates()).getLearnedRates();
+        assertEquals(0.4D, rates.get("api.example.com/prod_official_asia"), DELTA);
+        assertEquals(TokenBucketPacer.DEFAULT_RATE, rates.get("api.example.com/prod_official_usa"), DELTA);
+    }
+}
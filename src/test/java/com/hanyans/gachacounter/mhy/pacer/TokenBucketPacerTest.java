@@ -0,0 +1,108 @@
+package com.hanyans.gachacounter.mhy.pacer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+
+public class TokenBucketPacerTest {
+    private static final double MIN_RATE = 0.25D;
+    private static final double MAX_RATE = 4D;
+    private static final double DELTA = 1e-9;
+    // leeway for the tokens refilled between the reservations
+    private static final long LEEWAY = 100;
+
+
+    @Test
+    public void constructorTest_clamped() {
+        assertEquals(MAX_RATE, new TokenBucketPacer(10D, MIN_RATE, MAX_RATE).getRate(), DELTA);
+        assertEquals(MIN_RATE, new TokenBucketPacer(0.01D, MIN_RATE, MAX_RATE).getLearnedRate(), DELTA);
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketPacer(1D, 0D, MAX_RATE));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketPacer(1D, MAX_RATE, MIN_RATE));
+    }
+
+
+    @Test
+    public void reserveTest() {
+        TokenBucketPacer pacer = new TokenBucketPacer(2D, MIN_RATE, MAX_RATE);
+        long startTime = System.currentTimeMillis();
+        // the full bucket allows one request at once
+        assertTrue(pacer.reserve() <= System.currentTimeMillis());
+
+        // each token in debt is paid off in a period of the rate
+        assertWaits(500, pacer.reserve(), startTime);
+        assertWaits(1000, pacer.reserve(), startTime);
+        assertWaits(1500, pacer.reserve(), startTime);
+    }
+
+
+    @Test
+    public void onThrottledTest() {
+        TokenBucketPacer pacer = new TokenBucketPacer(2D, MIN_RATE, MAX_RATE);
+        long startTime = System.currentTimeMillis();
+        pacer.onThrottled();
+        assertEquals(1D, pacer.getRate(), DELTA);
+        assertEquals(1D, pacer.getLearnedRate(), DELTA);
+        // the bucket is emptied, so the next request waits a full period
+        assertWaits(1000, pacer.reserve(), startTime);
+
+        pacer.onThrottled();
+        assertEquals(0.5D, pacer.getLearnedRate(), DELTA);
+        pacer.onThrottled();
+        pacer.onThrottled();
+        assertEquals(MIN_RATE, pacer.getRate(), DELTA);
+        assertEquals(MIN_RATE, pacer.getLearnedRate(), DELTA);
+    }
+
+
+    @Test
+    public void onSuccessTest() {
+        TokenBucketPacer pacer = new TokenBucketPacer(2D, MIN_RATE, MAX_RATE);
+        succeed(pacer, TokenBucketPacer.RAMP_UP_STREAK - 1);
+        assertEquals(2D, pacer.getRate(), DELTA);
+
+        succeed(pacer, 1);
+        assertEquals(2D * TokenBucketPacer.RAMP_UP_FACTOR, pacer.getRate(), DELTA);
+        assertEquals(2D, pacer.getLearnedRate(), DELTA);
+
+        // never ramps up past the maximum rate
+        succeed(pacer, 100 * TokenBucketPacer.RAMP_UP_STREAK);
+        assertEquals(MAX_RATE, pacer.getRate(), DELTA);
+        assertEquals(MAX_RATE, pacer.getLearnedRate(), DELTA);
+    }
+
+
+    @Test
+    public void onSuccessTest_throttledStreak() {
+        TokenBucketPacer pacer = new TokenBucketPacer(2D, MIN_RATE, MAX_RATE);
+        succeed(pacer, TokenBucketPacer.RAMP_UP_STREAK);
+        // the learned rate survives a throttle at a rate above it
+        pacer.onThrottled();
+        assertEquals(2D * TokenBucketPacer.RAMP_UP_FACTOR * TokenBucketPacer.BACKOFF_FACTOR, pacer.getRate(),
+                DELTA);
+        assertEquals(2D, pacer.getLearnedRate(), DELTA);
+
+        // a throttle restarts the streak
+        succeed(pacer, TokenBucketPacer.RAMP_UP_STREAK - 1);
+        pacer.onThrottled();
+        succeed(pacer, TokenBucketPacer.RAMP_UP_STREAK - 1);
+        assertEquals(2D * TokenBucketPacer.RAMP_UP_FACTOR * TokenBucketPacer.BACKOFF_FACTOR
+                * TokenBucketPacer.BACKOFF_FACTOR, pacer.getRate(), DELTA);
+    }
+
+
+    private static void succeed(TokenBucketPacer pacer, int numSuccesses) {
+        for (int i = 0; i < numSuccesses; i++) {
+            pacer.onSuccess();
+        }
+    }
+
+
+    private static void assertWaits(long wait, long slot, long startTime) {
+        long actual = slot - startTime;
+        assertTrue(actual > wait - LEEWAY && actual <= wait + LEEWAY,
+                String.format("waits %d ms instead of %d ms", actual, wait));
+    }
+}
@@ -0,0 +1,140 @@
+package com.hanyans.gachacounter.mhy.response;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.hanyans.gachacounter.core.util.JsonUtil;
+import com.hanyans.gachacounter.mhy.GachaType;
+import com.hanyans.gachacounter.mhy.ItemType;
+import com.hanyans.gachacounter.mhy.exception.ResponseException;
+import com.hanyans.gachacounter.model.GachaEntry;
+
+public class GachaLogDecoderTest {
+    private static final String ENTRY_1 = String.join("",
+            "{\"uid\":\"100000001\",\"gacha_id\":\"2003\",\"gacha_type\":\"11\",\"item_id\":\"1208\",",
+            "\"count\":\"1\",\"time\":\"2023-05-10 18:02:41\",\"name\":\"Fu Xuan\",\"lang\":\"en-us\",",
+            "\"item_type\":\"Character\",\"rank_type\":\"5\",\"id\":\"1683712200000123456\"}");
+    private static final String ENTRY_2 = String.join("",
+            "{\"uid\":\"100000001\",\"gacha_id\":\"2003\",\"gacha_type\":\"11\",\"item_id\":\"\",",
+            "\"count\":\"1\",\"time\":\"2023-05-10 18:02:41\",\"name\":\"Arrows\",\"lang\":\"en-us\",",
+            "\"item_type\":\"Light Cone\",\"rank_type\":\"3\",\"id\":\"1683712200000123455\"}");
+
+
+    @Test
+    public void decodeTest_matchesDatabind() throws Throwable {
+        String content = response("0", "OK", "entries", ENTRY_1 + "," + ENTRY_2);
+        List<GachaEntry> actual = decode(GachaType.CHARACTER, content);
+
+        GachaResponseResult result = JsonUtil.deserialize(content, GachaResponseResult.class);
+        List<GachaEntry> expected = result.data.list.stream()
+                .map(response -> GachaEntry.fromGachaEntryResponse(response, GachaType.CHARACTER))
+                .toList();
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEntryEquals(expected.get(i), actual.get(i));
+        }
+        GachaEntry first = actual.get(0);
+        assertEquals(1683712200000123456L, first.id);
+        assertEquals(LocalDateTime.of(2023, 5, 10, 18, 2, 41), first.time);
+        assertEquals(ItemType.CHARACTER, first.itemType);
+        assertEquals(ItemType.WEAPON, actual.get(1).itemType);
+        assertEquals(0, actual.get(1).itemId);
+    }
+
+
+    @Test
+    public void decodeTest_genshinList() throws Throwable {
+        List<GachaEntry> actual = decode(GachaType.STANDARD, response("0", "OK", "list", ENTRY_1));
+        assertEquals(1, actual.size());
+        assertEquals(GachaType.STANDARD, actual.get(0).gachaType);
+    }
+
+
+    @Test
+    public void decodeTest_dataBeforeRetcode() throws Throwable {
+        String content = String.format("{\"data\":{\"entries\":[%s]},\"message\":\"OK\",\"retcode\":0}", ENTRY_1);
+        assertEquals(1, decode(GachaType.CHARACTER, content).size());
+    }
+
+
+    @Test
+    public void decodeTest_errorRetcode() {
+        String content = "{\"retcode\":-110,\"message\":\"visit too frequently\",\"data\":null}";
+        ResponseException resEx = assertThrows(ResponseException.class,
+                () -> decode(GachaType.CHARACTER, content));
+        assertEquals(GachaResponseResult.RETCODE_VISIT_TOO_FREQUENTLY, resEx.getRetcode());
+        assertEquals("visit too frequently", resEx.getMessage());
+    }
+
+
+    @Test
+    public void decodeTest_errorRetcodeAfterData() {
+        String content = String.format("{\"data\":{\"entries\":[%s]},\"retcode\":-101,\"message\":\"authkey timeout\"}",
+                ENTRY_1);
+        ArrayList<GachaEntry> entries = new ArrayList<>();
+        assertThrows(ResponseException.class, () -> new GachaLogDecoder(GachaType.CHARACTER)
+                .decode(content.getBytes(StandardCharsets.UTF_8), entries::add));
+        assertTrue(entries.isEmpty());
+    }
+
+
+    @Test
+    public void decodeTest_numberOutOfRange() {
+        assertInvalidEntry(ENTRY_1.replace("1683712200000123456", "99999999999999999999"));
+        assertInvalidEntry(ENTRY_1.replace("\"rank_type\":\"5\"", "\"rank_type\":\"4294967301\""));
+        assertInvalidEntry(ENTRY_1.replace("\"gacha_id\":\"2003\"", "\"gacha_id\":\"-2147483649\""));
+    }
+
+
+    @Test
+    public void decodeTest_emptyNumber() {
+        assertInvalidEntry(ENTRY_1.replace("1683712200000123456", ""));
+        assertInvalidEntry(ENTRY_1.replace("1683712200000123456", "-"));
+        assertInvalidEntry(ENTRY_1.replace("\"count\":\"1\"", "\"count\":\"\""));
+        assertInvalidEntry(ENTRY_1.replace("\"item_id\":\"1208\"", "\"item_id\":\"-\""));
+    }
+
+
+    private static void assertInvalidEntry(String entry) {
+        assertThrows(JsonParseException.class,
+                () -> decode(GachaType.CHARACTER, response("0", "OK", "entries", entry)));
+    }
+
+
+    private static List<GachaEntry> decode(GachaType gachaType, String content) throws Throwable {
+        ArrayList<GachaEntry> entries = new ArrayList<>();
+        new GachaLogDecoder(gachaType).decode(content.getBytes(StandardCharsets.UTF_8), entries::add);
+        return entries;
+    }
+
+
+    private static String response(String retcode, String message, String listName, String entries) {
+        return String.format(
+                "{\"retcode\":%s,\"message\":\"%s\",\"data\":{\"page\":\"1\",\"size\":\"20\",\"%s\":[%s],"
+                        + "\"region\":\"prod_official_asia\",\"region_time_zone\":8}}",
+                retcode, message, listName, entries);
+    }
+
+
+    private static void assertEntryEquals(GachaEntry expected, GachaEntry actual) {
+        assertEquals(expected, actual);
+        assertEquals(expected.uid, actual.uid);
+        assertEquals(expected.gachaId, actual.gachaId);
+        assertEquals(expected.gachaType, actual.gachaType);
+        assertEquals(expected.itemId, actual.itemId);
+        assertEquals(expected.count, actual.count);
+        assertEquals(expected.time, actual.time);
+        assertEquals(expected.itemType, actual.itemType);
+        assertEquals(expected.rank, actual.rank);
+    }
+}
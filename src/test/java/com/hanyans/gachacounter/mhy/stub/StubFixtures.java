@@ -0,0 +1,68 @@
+package com.hanyans.gachacounter.mhy.stub;
+
+import com.hanyans.gachacounter.mhy.GachaType;
+import com.hanyans.gachacounter.mhy.Game;
+import com.hanyans.gachacounter.mhy.PlayerDetail;
+import com.hanyans.gachacounter.mhy.pacer.PacerRegistry;
+import com.hanyans.gachacounter.mhy.pacer.TokenBucketPacer;
+import com.hanyans.gachacounter.model.BannerHistory;
+import com.hanyans.gachacounter.model.GameGachaData;
+import com.hanyans.gachacounter.model.UidNameMap;
+import com.hanyans.gachacounter.model.rateup.BannerEventHistory;
+import com.hanyans.gachacounter.model.sync.SyncCursorMap;
+
+
+/**
+ * Fixtures shared by the tests retrieving from a {@link StubGachaLogServer}.
+ */
+public class StubFixtures {
+    /** Request rate of the pacers of the fixtures, in requests per second. */
+    public static final double RATE = 40D;
+
+
+    private StubFixtures() {}
+
+
+    /**
+     * Returns a new pacer of {@link #RATE} requests per second that does not
+     * back off below an eighth of it.
+     */
+    public static TokenBucketPacer formPacer() {
+        return new TokenBucketPacer(RATE, RATE / 8, RATE);
+    }
+
+
+    /**
+     * Returns a {@code PacerRegistry} that gives the given pacer for every
+     * player, as the pacers of a real registry are bounded to a rate far too
+     * low for tests.
+     *
+     * @param pacer - the pacer of every player.
+     */
+    public static PacerRegistry formPacerRegistry(TokenBucketPacer pacer) {
+        return new PacerRegistry() {
+            @Override
+            public synchronized TokenBucketPacer getPacer(PlayerDetail detail) {
+                return pacer;
+            }
+        };
+    }
+
+
+    /**
+     * Returns the gacha data of the given game without any entry or cursor.
+     *
+     * @param game - the game of the data.
+     */
+    public static GameGachaData emptyData(Game game) {
+        return new GameGachaData(
+                game,
+                new UidNameMap(),
+                new BannerHistory(GachaType.STANDARD),
+                new BannerHistory(GachaType.CHARACTER),
+                new BannerHistory(GachaType.WEAPON),
+                new BannerEventHistory(),
+                new BannerEventHistory(),
+                new SyncCursorMap());
+    }
+}
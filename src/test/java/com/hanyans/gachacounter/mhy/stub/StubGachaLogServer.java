@@ -0,0 +1,316 @@
+package com.hanyans.gachacounter.mhy.stub;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.hanyans.gachacounter.mhy.GachaType;
+import com.hanyans.gachacounter.mhy.Game;
+import com.hanyans.gachacounter.mhy.response.GachaResponseResult;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+
+/**
+ * In-process stand-in for the gacha log API serving synthetic pages over
+ * HTTP on the loopback interface.
+ *
+ * <p>Each player is identified by its authkey and has a history of the given
+ * number of pulls on every banner. The pulls are one second apart and ranked
+ * so that {@code GapDetector} finds no gap in a complete retrieval. Pages are
+ * served newest first from the {@code end_id} of the request in the shape of
+ * the real server, so that {@code HistoryRetrieverTask} can be run against it
+ * with a {@code HttpGachaLogTransport}.
+ *
+ * <p>The server can be set to delay every response, to respond to every n-th
+ * request with {@value GachaResponseResult#RETCODE_VISIT_TOO_FREQUENTLY} and
+ * to respond to the requests of an authkey with an error return code, such as
+ * {@value GachaResponseResult#RETCODE_AUTHKEY_TIMEOUT}. It counts the requests
+ * it receives and the most that were in flight at once.
+ */
+public class StubGachaLogServer implements AutoCloseable {
+    /** Path of the gacha log endpoint. */
+    public static final String LOG_PATH = "/gacha_record/api/getGachaLog";
+
+    private static final long BASE_ID = 1683000000000000000L;
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2023, 4, 26, 0, 0, 0);
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int ID_STEP = 7;
+
+    static {
+        // without it small responses wait out the delayed ACK of the client
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HashMap<String, Player> players = new HashMap<>();
+    private final ConcurrentHashMap<String, Integer> rejectedAuthKeys = new ConcurrentHashMap<>();
+    private final AtomicInteger numRequests = new AtomicInteger();
+    private final AtomicInteger numThrottled = new AtomicInteger();
+    private final AtomicInteger numInFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private volatile long latency = 0;
+    private volatile int throttleInterval = 0;
+
+
+    /**
+     * Constructs and starts a {@code StubGachaLogServer} on a free port.
+     *
+     * @throws IOException if the server cannot be bound.
+     */
+    public StubGachaLogServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext(LOG_PATH, this::handle);
+        server.start();
+    }
+
+
+    /**
+     * Adds a player with the given number of pulls on every banner.
+     *
+     * @param authKey - the authkey of the player.
+     * @param uid - UID of the player.
+     * @param numPulls - number of pulls on every banner.
+     */
+    public synchronized void addPlayer(String authKey, long uid, int numPulls) {
+        players.put(authKey, new Player(uid, numPulls));
+    }
+
+
+    /**
+     * Returns the player URL of the given authkey in the format of the
+     * specified game.
+     */
+    public String getPlayerUrl(String authKey, Game game) {
+        String url = String.format("http://127.0.0.1:%d%s", server.getAddress().getPort(), LOG_PATH);
+        // issued now so that the authkey is not taken as expired
+        long timestamp = System.currentTimeMillis() / 1000;
+        switch (game) {
+            case HSR:
+                return url + "?authkey_ver=1&sign_type=2&auth_appid=webview_gacha&win_mode=fullscreen"
+                        + "&gacha_id=stub&timestamp=" + timestamp + "&region=prod_official_asia&default_gacha_type=11"
+                        + "&lang=en&authkey=" + authKey + "&game_biz=hkrpg_global&os_system=Windows"
+                        + "&device_model=Stub&plat_type=pc&page=1&size=5&gacha_type=11&end_id=0";
+            case Genshin:
+                return url + "?win_mode=fullscreen&authkey_ver=1&sign_type=2&auth_appid=webview_gacha"
+                        + "&init_type=301&gacha_id=stub&timestamp=" + timestamp + "&lang=en&device_type=pc"
+                        + "&game_version=OSRELWin3.7.0&plat_type=pc&region=os_asia&authkey=" + authKey
+                        + "&game_biz=hk4e_global&gacha_type=301&page=1&size=5&end_id=0";
+            default:
+                throw new IllegalArgumentException(String.format("Unknown game type <%s>", game));
+        }
+    }
+
+
+    /**
+     * Sets the time in milliseconds to delay every response by.
+     */
+    public void setLatency(long latency) {
+        this.latency = latency;
+    }
+
+
+    /**
+     * Sets the server to throttle every n-th request it receives. A value of
+     * {@code 0} stops the throttling.
+     */
+    public void setThrottleInterval(int throttleInterval) {
+        this.throttleInterval = throttleInterval;
+    }
+
+
+    /**
+     * Sets the given authkey to be responded to as expired.
+     */
+    public void expireAuthKey(String authKey) {
+        rejectAuthKey(authKey, GachaResponseResult.RETCODE_AUTHKEY_TIMEOUT);
+    }
+
+
+    /**
+     * Sets the given authkey to be responded to with the given error return
+     * code.
+     */
+    public void rejectAuthKey(String authKey, int retcode) {
+        rejectedAuthKeys.put(authKey, retcode);
+    }
+
+
+    /**
+     * Returns the number of requests received, throttled ones included.
+     */
+    public int getNumRequests() {
+        return numRequests.get();
+    }
+
+
+    /**
+     * Returns the number of requests throttled.
+     */
+    public int getNumThrottled() {
+        return numThrottled.get();
+    }
+
+
+    /**
+     * Returns the most requests that were handled at the same time.
+     */
+    public int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int inFlight = numInFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(inFlight, Math::max);
+        try {
+            int requestNum = numRequests.incrementAndGet();
+            if (latency > 0) {
+                Thread.sleep(latency);
+            }
+            respond(exchange, formResponse(exchange.getRequestURI().getRawQuery(), requestNum));
+        } catch (InterruptedException interEx) {
+            Thread.currentThread().interrupt();
+        } finally {
+            numInFlight.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+
+    private String formResponse(String query, int requestNum) {
+        HashMap<String, String> args = new HashMap<>();
+        for (String arg : query.split("&")) {
+            String[] parts = arg.split("=", 2);
+            args.put(parts[0], parts.length < 2 ? "" : URLDecoder.decode(parts[1], StandardCharsets.UTF_8));
+        }
+
+        int interval = throttleInterval;
+        if (interval > 0 && requestNum % interval == 0) {
+            numThrottled.incrementAndGet();
+            return formError(GachaResponseResult.RETCODE_VISIT_TOO_FREQUENTLY, "visit too frequently");
+        }
+        String authKey = args.getOrDefault("authkey", "");
+        Integer retcode = rejectedAuthKeys.get(authKey);
+        if (retcode != null) {
+            return formError(retcode, "authkey rejected");
+        }
+        Player player;
+        synchronized (this) {
+            player = players.get(authKey);
+        }
+        if (player == null) {
+            return formError(GachaResponseResult.RETCODE_AUTHKEY_ERROR, "authkey error");
+        }
+
+        int typeId = Integer.parseInt(args.get("gacha_type"));
+        GachaType gachaType = toGachaType(typeId);
+        int size = Integer.parseInt(args.get("size"));
+        long endId = Long.parseLong(args.get("end_id"));
+        return player.formPage(gachaType, typeId, Integer.parseInt(args.get("page")), size, endId);
+    }
+
+
+    private static GachaType toGachaType(int typeId) {
+        if (GachaType.STANDARD_IDS.contains(typeId)) {
+            return GachaType.STANDARD;
+        } else if (GachaType.CHARACTER_IDS.contains(typeId)) {
+            return GachaType.CHARACTER;
+        } else if (GachaType.WEAPON_IDS.contains(typeId)) {
+            return GachaType.WEAPON;
+        }
+        throw new IllegalArgumentException(String.format("Unknown gacha type id <%d>", typeId));
+    }
+
+
+    private static String formError(int retcode, String message) {
+        return String.format("{\"retcode\":%d,\"message\":\"%s\",\"data\":null}", retcode, message);
+    }
+
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] content = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, content.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(content);
+        }
+    }
+
+
+
+
+
+    /**
+     * Synthetic history of a player, the same on every banner apart from the
+     * IDs and times, which do not overlap between banners.
+     */
+    private static class Player {
+        private final long uid;
+        // IDs of the pulls of a banner from the oldest, before the banner offset
+        private final long[] ids;
+
+
+        private Player(long uid, int numPulls) {
+            this.uid = uid;
+            this.ids = new long[numPulls];
+            for (int i = 0; i < numPulls; i++) {
+                ids[i] = BASE_ID + (long) i * ID_STEP;
+            }
+        }
+
+
+        private String formPage(GachaType gachaType, int typeId, int page, int size, long endId) {
+            long offset = (long) gachaType.ordinal() * ids.length * ID_STEP;
+            // index of the newest pull older than the end ID
+            int newest = ids.length - 1;
+            if (endId > 0) {
+                int index = Arrays.binarySearch(ids, endId - offset);
+                newest = (index >= 0 ? index : -index - 1) - 1;
+            }
+
+            StringBuilder builder = new StringBuilder("{\"retcode\":0,\"message\":\"OK\",\"data\":{")
+                    .append("\"page\":\"").append(page)
+                    .append("\",\"size\":\"").append(size)
+                    .append("\",\"list\":[");
+            for (int i = newest; i >= 0 && i > newest - size; i--) {
+                if (i < newest) {
+                    builder.append(',');
+                }
+                int rank = (i % 90 == 89) ? 5 : (i % 10 == 9) ? 4 : 3;
+                LocalDateTime time = BASE_TIME.plusDays(gachaType.ordinal() * 365L).plusSeconds(i);
+                builder.append("{\"uid\":\"").append(uid)
+                        .append("\",\"gacha_id\":\"2003\",\"gacha_type\":\"").append(typeId)
+                        .append("\",\"item_id\":\"").append(20000 + rank)
+                        .append("\",\"count\":\"1\",\"time\":\"").append(time.format(TIME_FORMAT))
+                        .append("\",\"name\":\"Item ").append(rank)
+                        .append("\",\"lang\":\"en-us\",\"item_type\":\"").append(rank == 3 ? "Light Cone" : "Character")
+                        .append("\",\"rank_type\":\"").append(rank)
+                        .append("\",\"id\":\"").append(ids[i] + offset).append("\"}");
+            }
+            return builder.append("],\"region\":\"prod_official_asia\",\"region_time_zone\":8}}").toString();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.hanyans.gachacounter.mhy.transport;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import com.hanyans.gachacounter.mhy.exception.CircuitOpenException;
+
+
+public class CircuitBreakerTest {
+    private static final Duration OPEN_TIME = Duration.ofSeconds(30);
+
+    private final long[] now = {0L};
+    private final CircuitBreaker breaker = new CircuitBreaker("stub", 1, OPEN_TIME, () -> now[0]);
+
+
+    @Test
+    public void acquireTest() throws Exception {
+        breaker.acquire();
+        breaker.onFailure();
+        assertTrue(breaker.isOpen());
+        assertThrows(CircuitOpenException.class, breaker::acquire);
+
+        now[0] += OPEN_TIME.toMillis();
+        breaker.acquire();
+        assertFalse(breaker.isOpen());
+    }
+
+
+    @Test
+    public void acquireTest_trialSucceeded() throws Exception {
+        openAndStartTrial();
+        AtomicReference<Throwable> outcome = new AtomicReference<>();
+        Thread waiter = startWaiter(outcome);
+
+        breaker.onSuccess();
+        waiter.join(5000);
+        assertFalse(waiter.isAlive());
+        assertNull(outcome.get());
+    }
+
+
+    @Test
+    public void acquireTest_trialFailed() throws Exception {
+        openAndStartTrial();
+        AtomicReference<Throwable> outcome = new AtomicReference<>();
+        Thread waiter = startWaiter(outcome);
+
+        breaker.onFailure();
+        waiter.join(5000);
+        assertFalse(waiter.isAlive());
+        assertTrue(outcome.get() instanceof CircuitOpenException);
+    }
+
+
+    private void openAndStartTrial() throws Exception {
+        breaker.acquire();
+        breaker.onFailure();
+        now[0] += OPEN_TIME.toMillis();
+        breaker.acquire();
+    }
+
+
+    /**
+     * Starts a thread that acquires the breaker, recording what it throws,
+     * and returns once the thread is waiting for the trial request.
+     */
+    private Thread startWaiter(AtomicReference<Throwable> outcome) throws InterruptedException {
+        Thread waiter = new Thread(() -> {
+            try {
+                breaker.acquire();
+            } catch (Throwable ex) {
+                outcome.set(ex);
+            }
+        });
+        waiter.start();
+        while (waiter.getState() != Thread.State.WAITING) {
+            assertTrue(waiter.isAlive(), String.valueOf(outcome.get()));
+            Thread.sleep(1);
+        }
+        return waiter;
+    }
+}
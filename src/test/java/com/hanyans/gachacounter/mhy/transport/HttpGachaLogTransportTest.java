@@ -0,0 +1,52 @@
+package com.hanyans.gachacounter.mhy.transport;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+
+public class HttpGachaLogTransportTest {
+    @Test
+    public void openTest_stalledBody() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            // headers and the first bytes of the body, then nothing more
+            exchange.sendResponseHeaders(200, 100);
+            OutputStream output = exchange.getResponseBody();
+            output.write("{\"retcode\":0,".getBytes());
+            output.flush();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException interEx) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+        server.start();
+        try {
+            HttpGachaLogTransport transport = new HttpGachaLogTransport(
+                    Duration.ofSeconds(1), Duration.ofMillis(300));
+            String url = String.format("http://%s:%d/", server.getAddress().getHostString(),
+                    server.getAddress().getPort());
+
+            long startTime = System.nanoTime();
+            assertThrows(HttpTimeoutException.class, () -> transport.open(url));
+            assertTrue(System.nanoTime() - startTime < TimeUnit.SECONDS.toNanos(5));
+        } finally {
+            release.countDown();
+            server.stop(0);
+        }
+    }
+}
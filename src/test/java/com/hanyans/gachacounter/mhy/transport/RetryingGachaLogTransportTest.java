@@ -0,0 +1,159 @@
+package com.hanyans.gachacounter.mhy.transport;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.hanyans.gachacounter.mhy.exception.CircuitOpenException;
+import com.hanyans.gachacounter.mhy.exception.HttpStatusException;
+import com.hanyans.gachacounter.mhy.pacer.RequestPacer;
+import com.hanyans.gachacounter.mhy.response.GachaResponseResult;
+
+
+public class RetryingGachaLogTransportTest {
+    private static final String URL = "https://stub.invalid/getGachaLog?page=1";
+    private static final byte[] OK_BODY = body(GachaResponseResult.RETCODE_OK);
+    private static final RetryPolicy POLICY = new RetryPolicy(3, Duration.ofMillis(1), Duration.ofMillis(2));
+
+    private final AtomicInteger numRequests = new AtomicInteger();
+
+
+    @Test
+    public void openTest_transientIoError() throws Exception {
+        RetryingGachaLogTransport transport = formTransport(url -> {
+            if (numRequests.incrementAndGet() < 3) {
+                throw new IOException("connection reset");
+            }
+            return new ByteArrayInputStream(OK_BODY);
+        });
+
+        try (InputStream input = transport.open(URL)) {
+            assertArrayEquals(OK_BODY, input.readAllBytes());
+        }
+        assertEquals(3, numRequests.get());
+        assertEquals(2L, transport.getStats().getNumRetries());
+        assertEquals(1L, transport.getStats().getNumRecovered());
+    }
+
+
+    @Test
+    public void openTest_pacedRetries() throws Exception {
+        RetryingGachaLogTransport transport = formTransport(url -> {
+            if (numRequests.incrementAndGet() < 3) {
+                throw new IOException("connection reset");
+            }
+            return new ByteArrayInputStream(OK_BODY);
+        });
+        AtomicInteger numReserved = new AtomicInteger();
+        RequestPacer pacer = new RequestPacer() {
+            @Override
+            public long reserve() {
+                numReserved.incrementAndGet();
+                return System.currentTimeMillis();
+            }
+
+            @Override
+            public void onSuccess() {}
+
+            @Override
+            public void onThrottled() {}
+
+            @Override
+            public double getRate() {
+                return 1D;
+            }
+        };
+
+        try (InputStream input = transport.open(URL, pacer)) {
+            assertArrayEquals(OK_BODY, input.readAllBytes());
+        }
+        // the slot of the first attempt is reserved by the caller
+        assertEquals(2, numReserved.get());
+    }
+
+
+    @Test
+    public void openTest_clientError() {
+        RetryingGachaLogTransport transport = formTransport(url -> {
+            numRequests.incrementAndGet();
+            throw new HttpStatusException(404, "not found");
+        });
+
+        assertThrows(HttpStatusException.class, () -> transport.open(URL));
+        assertEquals(1, numRequests.get());
+    }
+
+
+    @Test
+    public void openTest_fatalRetcode() throws Exception {
+        byte[] expired = body(GachaResponseResult.RETCODE_AUTHKEY_TIMEOUT);
+        RetryingGachaLogTransport transport = formTransport(url -> {
+            numRequests.incrementAndGet();
+            return new ByteArrayInputStream(expired);
+        });
+
+        try (InputStream input = transport.open(URL)) {
+            assertArrayEquals(expired, input.readAllBytes());
+        }
+        assertEquals(1, numRequests.get());
+    }
+
+
+    @Test
+    public void openTest_retriesExhausted() throws Exception {
+        byte[] failed = body(-1);
+        RetryingGachaLogTransport transport = formTransport(url -> {
+            numRequests.incrementAndGet();
+            return new ByteArrayInputStream(failed);
+        });
+
+        try (InputStream input = transport.open(URL)) {
+            assertArrayEquals(failed, input.readAllBytes());
+        }
+        assertEquals(POLICY.getMaxAttempts(), numRequests.get());
+        assertEquals(1L, transport.getStats().getNumExhausted());
+    }
+
+
+    @Test
+    public void openTest_circuitOpened() {
+        long[] now = {0L};
+        RetryingGachaLogTransport transport = new RetryingGachaLogTransport(
+                url -> {
+                    numRequests.incrementAndGet();
+                    throw new IOException("connection refused");
+                },
+                POLICY,
+                host -> new CircuitBreaker(host, 3, Duration.ofSeconds(30), () -> now[0]));
+
+        assertThrows(IOException.class, () -> transport.open(URL));
+        assertThrows(CircuitOpenException.class, () -> transport.open(URL));
+        assertEquals(3, numRequests.get());
+
+        // a single trial once the open time has passed
+        now[0] += Duration.ofSeconds(30).toMillis();
+        assertThrows(IOException.class, () -> transport.open(URL));
+        assertEquals(4, numRequests.get());
+        assertEquals(2L, transport.getStats().getNumRejected());
+    }
+
+
+    private RetryingGachaLogTransport formTransport(GachaLogTransport delegate) {
+        return new RetryingGachaLogTransport(delegate, POLICY, CircuitBreaker::new);
+    }
+
+
+    private static byte[] body(int retcode) {
+        return String.format("{\"retcode\":%d,\"message\":\"stub\",\"data\":null}", retcode)
+                .getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,50 @@
+package com.hanyans.gachacounter.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import com.hanyans.gachacounter.mhy.GachaType;
+import com.hanyans.gachacounter.mhy.ItemType;
+
+
+public class ItemCatalogTest {
+    private static final LocalDateTime TIME = LocalDateTime.of(2023, 4, 26, 12, 0, 0);
+
+
+    @Test
+    public void getItemTest() {
+        GachaEntry first = formEntry(1L, new String("Catalog Test Sword"), 4);
+        GachaEntry second = formEntry(2L, new String("Catalog Test Sword"), 4);
+        ItemCatalog catalog = ItemCatalog.getInstance();
+
+        assertSame(first.name, second.name);
+        assertSame(GachaItem.fromGachaEntry(first), GachaItem.fromGachaEntry(second));
+        int ordinal = catalog.getOrdinal(first);
+        assertEquals(ordinal, catalog.getOrdinal(second));
+        assertSame(GachaItem.fromGachaEntry(first), catalog.getItem(ordinal));
+    }
+
+
+    @Test
+    public void getItemTest_differentRank() {
+        GachaEntry fourStar = formEntry(1L, "Catalog Test Bow", 4);
+        GachaEntry fiveStar = formEntry(2L, "Catalog Test Bow", 5);
+        ItemCatalog catalog = ItemCatalog.getInstance();
+
+        assertNotSame(GachaItem.fromGachaEntry(fourStar), GachaItem.fromGachaEntry(fiveStar));
+        assertNotEquals(catalog.getOrdinal(fourStar), catalog.getOrdinal(fiveStar));
+        assertEquals(5, GachaItem.fromGachaEntry(fiveStar).rank);
+    }
+
+
+    private static GachaEntry formEntry(long id, String name, int rank) {
+        return new GachaEntry(100000001L, 2003, GachaType.CHARACTER, 20000, 1, TIME, name,
+                ItemType.WEAPON, rank, id);
+    }
+}
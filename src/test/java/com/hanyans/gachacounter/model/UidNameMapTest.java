@@ -1,6 +1,8 @@
 package com.hanyans.gachacounter.model;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
 import java.nio.file.Path;
 import java.util.HashMap;
@@ -26,6 +28,30 @@ public class UidNameMapTest {
     }
 
 
+    @Test
+    public void versionTest() {
+        UidNameMap nameMap = new UidNameMap(getInitialMap());
+        long version = nameMap.getVersion();
+
+        nameMap.put(1L, "A");
+        nameMap.reset(new UidNameMap(getInitialMap()));
+        assertEquals(version, nameMap.getVersion());
+
+        nameMap.put(1L, "D");
+        assertNotEquals(version, nameMap.getVersion());
+        version = nameMap.getVersion();
+        nameMap.clearMap();
+        assertNotEquals(version, nameMap.getVersion());
+    }
+
+
+    @Test
+    public void versionTest_notSerialized() throws Exception {
+        UidNameMap nameMap = new UidNameMap(getInitialMap());
+        assertFalse(JsonUtil.serializeToString(nameMap).contains("version"));
+    }
+
+
     private HashMap<Long, String> getInitialMap() {
         HashMap<Long, String> initialMap = new HashMap<>();
         initialMap.put(1L, "A");
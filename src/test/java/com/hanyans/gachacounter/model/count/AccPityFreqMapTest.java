@@ -0,0 +1,28 @@
+package com.hanyans.gachacounter.model.count;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+
+public class AccPityFreqMapTest {
+    private static final long UID = 800000001L;
+
+
+    @Test
+    public void condenseTest() {
+        AccPityFreqMap freqMap = new AccPityFreqMap();
+        freqMap.add(UID, 3, 2);
+        freqMap.add(UID, 5);
+        freqMap.add(UID, 6, 4);
+
+        AccPityFreqMap condensed = freqMap.condense(5);
+        assertEquals(3, condensed.get(UID, 5));
+        assertEquals(4, condensed.get(UID, 10));
+        // the pity counts condensed are not kept alongside their multiples
+        assertEquals(0, condensed.get(UID, 3));
+        assertEquals(0, condensed.get(UID, 6));
+        assertEquals(freqMap.combineAll().totalFreq(), condensed.combineAll().totalFreq());
+        assertEquals(2, freqMap.get(UID, 3));
+    }
+}
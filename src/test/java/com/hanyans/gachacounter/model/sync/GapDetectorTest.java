@@ -0,0 +1,97 @@
+package com.hanyans.gachacounter.model.sync;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.hanyans.gachacounter.mhy.GachaType;
+import com.hanyans.gachacounter.mhy.ItemType;
+import com.hanyans.gachacounter.model.BannerHistory;
+import com.hanyans.gachacounter.model.GachaEntry;
+
+public class GapDetectorTest {
+    private static final long UID = 100L;
+    private static final LocalDateTime START = LocalDateTime.of(2023, 5, 1, 0, 0, 0);
+
+
+    @Test
+    public void detectTest_completeHistory() {
+        // 3 multi-pulls followed by 5 single pulls, 4 star every 8th pull
+        BannerHistory history = formHistory(UID, 35, 3, List.of());
+        assertTrue(GapDetector.detect(history, UID).isEmpty());
+    }
+
+
+    @Test
+    public void detectTest_partialMultiPull() {
+        // entries 12 to 15 of the second multi-pull are missing
+        BannerHistory history = formHistory(UID, 35, 3, List.of(12, 13, 14, 15));
+        List<HistoryGap> gaps = GapDetector.detect(history, UID);
+
+        assertEquals(1, gaps.size());
+        assertEquals(idOf(9), gaps.get(0).olderId);
+        assertEquals(idOf(20), gaps.get(0).newerId);
+    }
+
+
+    @Test
+    public void detectTest_pityOverrun() {
+        // single pulls only with the 4 star at index 16 missing
+        BannerHistory history = formHistory(UID, 30, 0, List.of(16));
+        List<HistoryGap> gaps = GapDetector.detect(history, UID);
+
+        assertEquals(1, gaps.size());
+        assertEquals(idOf(8), gaps.get(0).olderId);
+        assertEquals(idOf(24), gaps.get(0).newerId);
+    }
+
+
+    @Test
+    public void detectTest_overrunAtLatest() {
+        BannerHistory history = formHistory(UID, 30, 0, List.of(24));
+        List<HistoryGap> gaps = GapDetector.detect(history, UID);
+
+        assertEquals(1, gaps.size());
+        assertEquals(idOf(16), gaps.get(0).olderId);
+        assertEquals(HistoryGap.LATEST, gaps.get(0).newerId);
+    }
+
+
+    @Test
+    public void detectTest_otherPlayerIgnored() {
+        BannerHistory history = formHistory(UID + 1, 30, 0, List.of(16));
+        assertTrue(GapDetector.detect(history, UID).isEmpty());
+        assertEquals(1, GapDetector.detect(history, UID + 1).size());
+    }
+
+
+    /**
+     * Forms a history of the given number of entries where every 8th entry is
+     * a 4 star and the first entries are grouped into multi-pulls.
+     */
+    private static BannerHistory formHistory(long uid, int size, int numMultiPulls, List<Integer> missing) {
+        ArrayList<GachaEntry> entries = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (missing.contains(i)) {
+                continue;
+            }
+            int second = i < numMultiPulls * GapDetector.MULTI_PULL_SIZE
+                    ? i / GapDetector.MULTI_PULL_SIZE * 60
+                    : i * 60;
+            int rank = i % 8 == 0 ? 4 : 3;
+            entries.add(new GachaEntry(uid, 1, GachaType.CHARACTER, 1, 1, START.plusSeconds(second),
+                    "Item", ItemType.WEAPON, rank, idOf(i)));
+        }
+        return new BannerHistory(GachaType.CHARACTER, entries);
+    }
+
+
+    private static long idOf(int index) {
+        return 1_000_000L + index;
+    }
+}
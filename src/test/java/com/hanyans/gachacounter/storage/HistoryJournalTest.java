@@ -0,0 +1,130 @@
+package com.hanyans.gachacounter.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.hanyans.gachacounter.core.util.JsonUtil;
+import com.hanyans.gachacounter.mhy.GachaType;
+import com.hanyans.gachacounter.mhy.ItemType;
+import com.hanyans.gachacounter.model.BannerHistory;
+import com.hanyans.gachacounter.model.GachaEntry;
+
+
+public class HistoryJournalTest {
+    private static final LocalDateTime START = LocalDateTime.of(2023, 4, 26, 12, 0, 0);
+    private static final int THRESHOLD = 10;
+
+    @TempDir private Path tempDir;
+
+
+    @Test
+    public void saveTest() throws Throwable {
+        Path snapshotPath = tempDir.resolve("CharacterHistory.json");
+        HistoryJournal journal = new HistoryJournal(snapshotPath, THRESHOLD);
+        BannerHistory history = formHistory(0, 4);
+        assertEquals(4, journal.save(history));
+        assertFalse(Files.exists(journal.getJournalPath()));
+
+        addEntries(history, 4, 7);
+        int numWritten = journal.save(history);
+        assertEquals(3, numWritten);
+        numWritten = journal.save(history);
+        assertEquals(0, numWritten);
+        assertEquals(3, Files.readAllLines(journal.getJournalPath()).size());
+
+        BannerHistory loaded = load(snapshotPath);
+        assertEquals(history.getEntrySet(), loaded.getEntrySet());
+    }
+
+
+    @Test
+    public void saveTest_compaction() throws Throwable {
+        Path snapshotPath = tempDir.resolve("CharacterHistory.json");
+        HistoryJournal journal = new HistoryJournal(snapshotPath, THRESHOLD);
+        BannerHistory history = formHistory(0, 1);
+        journal.save(history);
+        for (int i = 1; i <= THRESHOLD; i++) {
+            addEntries(history, i, i + 1);
+            journal.save(history);
+        }
+        assertEquals(THRESHOLD, Files.readAllLines(journal.getJournalPath()).size());
+
+        addEntries(history, THRESHOLD + 1, THRESHOLD + 2);
+        journal.save(history);
+        assertFalse(Files.exists(journal.getJournalPath()));
+        BannerHistory snapshot = JsonUtil.deserialize(snapshotPath, BannerHistory.class);
+        assertEquals(history.getEntrySet(), snapshot.getEntrySet());
+    }
+
+
+    @Test
+    public void replayTest_truncatedLine() throws Throwable {
+        Path snapshotPath = tempDir.resolve("CharacterHistory.json");
+        HistoryJournal journal = new HistoryJournal(snapshotPath, THRESHOLD);
+        BannerHistory history = formHistory(0, 2);
+        journal.save(history);
+        addEntries(history, 2, 4);
+        journal.save(history);
+        Files.writeString(journal.getJournalPath(), "{\"uid\":1,\"gachaId\"", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        HistoryJournal reopened = new HistoryJournal(snapshotPath, THRESHOLD);
+        BannerHistory loaded = JsonUtil.deserialize(snapshotPath, BannerHistory.class);
+        int numReplayed = reopened.replay(loaded);
+        assertEquals(2, numReplayed);
+        assertEquals(history.getEntrySet(), loaded.getEntrySet());
+
+        reopened.save(loaded);
+        assertFalse(Files.exists(reopened.getJournalPath()));
+        assertEquals(history.getEntrySet(), load(snapshotPath).getEntrySet());
+    }
+
+
+    @Test
+    public void saveTest_untrackedHistory() throws Throwable {
+        Path snapshotPath = tempDir.resolve("CharacterHistory.json");
+        HistoryJournal journal = new HistoryJournal(snapshotPath, THRESHOLD);
+        BannerHistory history = formHistory(0, 2);
+        journal.save(history);
+        addEntries(history, 2, 3);
+        journal.save(history);
+
+        // a copy holds no pending entries, so only a new snapshot saves all of it
+        BannerHistory copy = new BannerHistory(GachaType.CHARACTER, history.getEntrySet());
+        addEntries(copy, 3, 4);
+        assertEquals(4, journal.save(copy));
+        assertFalse(Files.exists(journal.getJournalPath()));
+        assertEquals(copy.getEntrySet(), load(snapshotPath).getEntrySet());
+    }
+
+
+    private static BannerHistory load(Path snapshotPath) throws Exception {
+        BannerHistory history = JsonUtil.deserialize(snapshotPath, BannerHistory.class);
+        new HistoryJournal(snapshotPath, THRESHOLD).replay(history);
+        return history;
+    }
+
+
+    private static BannerHistory formHistory(int from, int to) {
+        BannerHistory history = new BannerHistory(GachaType.CHARACTER);
+        addEntries(history, from, to);
+        return history;
+    }
+
+
+    private static void addEntries(BannerHistory history, int from, int to) {
+        for (int i = from; i < to; i++) {
+            history.add(new GachaEntry(100000001L, 1, GachaType.CHARACTER, 1, 1, START.plusSeconds(i),
+                    "Item", ItemType.WEAPON, 3, 1683000000000000000L + i));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.hanyans.gachacounter.storage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.hanyans.gachacounter.mhy.GachaType;
+
+
+public class PageCacheTest {
+    private static final long UID = 100000001L;
+    private static final byte[] PAGE_1 = "{\"retcode\":0,\"data\":{\"list\":[1]}}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PAGE_2 = "{\"retcode\":0,\"data\":{\"list\":[2]}}".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir private Path tempDir;
+
+
+    @Test
+    public void getTest_reloaded() throws Throwable {
+        PageCache cache = new PageCache(tempDir);
+        cache.put(UID, GachaType.CHARACTER, 0, PAGE_1);
+        cache.put(UID, GachaType.CHARACTER, 10, PAGE_2);
+
+        PageCache reloaded = new PageCache(tempDir);
+        assertArrayEquals(PAGE_1, reloaded.get(UID, GachaType.CHARACTER, 0).get());
+        assertArrayEquals(PAGE_2, reloaded.get(UID, GachaType.CHARACTER, 10).get());
+        assertTrue(reloaded.get(UID, GachaType.WEAPON, 0).isEmpty());
+        assertEquals(List.of(UID), reloaded.getUids(GachaType.CHARACTER));
+        assertEquals(List.of(), reloaded.getUids(GachaType.WEAPON));
+    }
+
+
+    @Test
+    public void getTest_laterLineReplaces() throws Throwable {
+        PageCache cache = new PageCache(tempDir);
+        cache.put(UID, GachaType.CHARACTER, 0, PAGE_1);
+        cache.put(UID, GachaType.CHARACTER, 0, PAGE_2);
+        assertArrayEquals(PAGE_2, cache.get(UID, GachaType.CHARACTER, 0).get());
+        assertEquals(2, Files.readAllLines(getIndexPath(GachaType.CHARACTER)).size());
+
+        PageCache reloaded = new PageCache(tempDir);
+        assertArrayEquals(PAGE_2, reloaded.get(UID, GachaType.CHARACTER, 0).get());
+        List<byte[]> pages = reloaded.getPages(UID, GachaType.CHARACTER);
+        assertEquals(1, pages.size());
+        assertArrayEquals(PAGE_2, pages.get(0));
+    }
+
+
+    @Test
+    public void getTest_truncatedLine() throws Throwable {
+        PageCache cache = new PageCache(tempDir);
+        cache.put(UID, GachaType.CHARACTER, 0, PAGE_1);
+        // an append cut short by a crash, without its line separator
+        Files.writeString(getIndexPath(GachaType.CHARACTER), "10 3f2a", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        PageCache reloaded = new PageCache(tempDir);
+        assertArrayEquals(PAGE_1, reloaded.get(UID, GachaType.CHARACTER, 0).get());
+        assertTrue(reloaded.get(UID, GachaType.CHARACTER, 10).isEmpty());
+        assertEquals(1, reloaded.getPages(UID, GachaType.CHARACTER).size());
+    }
+
+
+    @Test
+    public void putTest_sameContent() throws Throwable {
+        PageCache cache = new PageCache(tempDir);
+        cache.put(UID, GachaType.CHARACTER, 0, PAGE_1);
+        Path indexPath = getIndexPath(GachaType.CHARACTER);
+        List<String> lines = Files.readAllLines(indexPath);
+
+        cache.put(UID, GachaType.CHARACTER, 0, PAGE_1.clone());
+        assertEquals(lines, Files.readAllLines(indexPath));
+        new PageCache(tempDir).put(UID, GachaType.CHARACTER, 0, PAGE_1);
+        assertEquals(lines, Files.readAllLines(indexPath));
+
+        // the same content under another end ID shares the stored object
+        cache.put(UID, GachaType.CHARACTER, 10, PAGE_1);
+        assertEquals(lines.size() + 1, Files.readAllLines(indexPath).size());
+        try (Stream<Path> objects = Files.walk(tempDir.resolve("objects"))) {
+            assertEquals(1, objects.filter(Files::isRegularFile).count());
+        }
+    }
+
+
+    private Path getIndexPath(GachaType gachaType) {
+        return tempDir.resolve("index").resolve(gachaType.name()).resolve(UID + ".idx");
+    }
+}
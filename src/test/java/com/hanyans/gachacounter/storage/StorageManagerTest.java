@@ -0,0 +1,47 @@
+package com.hanyans.gachacounter.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.hanyans.gachacounter.mhy.Game;
+import com.hanyans.gachacounter.model.GameGachaData;
+import com.hanyans.gachacounter.model.UidNameMap;
+
+
+public class StorageManagerTest {
+    @TempDir private Path tempDir;
+
+
+    @Test
+    public void loadGachaDataTest_corruptedFiles() throws Throwable {
+        Path gamePath = tempDir.resolve(StorageManager.USER_DATA_DIR_PATH).resolve(StorageManager.HSR_DIR_PATH);
+        Files.createDirectories(gamePath);
+        Files.writeString(gamePath.resolve(StorageManager.NAME_MAP_PATH), "{\"uidNameMap\":", StandardCharsets.UTF_8);
+        Files.writeString(gamePath.resolve(StorageManager.WEAP_HIST_PATH), "[not json", StandardCharsets.UTF_8);
+
+        LoadReport<GameGachaData> report = new StorageManager(tempDir).loadGachaData(Game.HSR);
+
+        // in the order of the files however the loads complete
+        ArrayList<Throwable> exList = new ArrayList<>(report.exList);
+        assertEquals(2, exList.size());
+        assertTrue(exList.get(0).getMessage().startsWith("[UID NAME MAP]"), exList.get(0).getMessage());
+        assertTrue(exList.get(1).getMessage().startsWith("[WEAPON HISTORY]"), exList.get(1).getMessage());
+        assertEquals(
+                List.of("UID NAME MAP", "STANDARD HISTORY", "CHARACTER HISTORY", "WEAPON HISTORY",
+                        "CHARACTER EVENT", "WEAPON EVENT", "SYNC CURSORS"),
+                List.copyOf(report.loadTimes.keySet()));
+
+        // what failed to load is replaced with empty data
+        assertEquals(new UidNameMap(), report.data.nameMap);
+        assertEquals(0, report.data.weapHist.size());
+    }
+}
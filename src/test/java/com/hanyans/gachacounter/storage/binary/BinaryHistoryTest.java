@@ -0,0 +1,125 @@
+package com.hanyans.gachacounter.storage.binary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.hanyans.gachacounter.core.util.JsonUtil;
+import com.hanyans.gachacounter.mhy.GachaType;
+import com.hanyans.gachacounter.mhy.ItemType;
+import com.hanyans.gachacounter.model.BannerHistory;
+import com.hanyans.gachacounter.model.GachaEntry;
+import com.hanyans.gachacounter.storage.HistoryJournal;
+
+
+public class BinaryHistoryTest {
+    private static final LocalDateTime START = LocalDateTime.of(2023, 4, 26, 12, 0, 0);
+
+    @TempDir private Path tempDir;
+
+
+    @Test
+    public void writeReadTest() throws Throwable {
+        BannerHistory history = formHistory(2 * BinaryHistoryFormat.BLOCK_SIZE + 17);
+        // out of the usual shape to exercise the nanosecond column and negative deltas
+        history.add(new GachaEntry(200000002L, -5, GachaType.CHARACTER, 1001, 2, START.withNano(123456789),
+                "\u00dcn\u00efc\u00f6d\u00e9", ItemType.CHARACTER, 5, 1L));
+        Path path = tempDir.resolve("CharacterHistory" + BinaryHistoryFormat.EXTENSION);
+        BinaryHistoryWriter.write(path, history);
+
+        BannerHistory read = BinaryHistoryReader.read(path);
+        assertEquals(GachaType.CHARACTER, read.getGachaType());
+        assertFields(sorted(history), sorted(read));
+    }
+
+
+    @Test
+    public void convertTest() throws Throwable {
+        BannerHistory history = formHistory(500);
+        Path jsonPath = tempDir.resolve("CharacterHistory.json");
+        Path binaryPath = tempDir.resolve("CharacterHistory" + BinaryHistoryFormat.EXTENSION);
+        Path backPath = tempDir.resolve("Back.json");
+        JsonUtil.serializeToFile(jsonPath, history);
+
+        int numConverted = HistoryFormatConverter.toBinary(jsonPath, binaryPath);
+        assertEquals(500, numConverted);
+        HistoryFormatConverter.toJson(binaryPath, backPath);
+        assertFields(sorted(history), sorted(JsonUtil.deserialize(backPath, BannerHistory.class)));
+    }
+
+
+    @Test
+    public void convertTest_journaledEntries() throws Throwable {
+        BannerHistory history = formHistory(500);
+        Path jsonPath = tempDir.resolve("CharacterHistory.json");
+        Path binaryPath = tempDir.resolve("CharacterHistory" + BinaryHistoryFormat.EXTENSION);
+        HistoryJournal journal = new HistoryJournal(jsonPath);
+        journal.save(history);
+        formHistory(520).getEntrySet().forEach(history::add);
+        journal.save(history);
+        assertTrue(Files.exists(journal.getJournalPath()));
+
+        int numConverted = HistoryFormatConverter.toBinary(jsonPath, binaryPath);
+        assertEquals(520, numConverted);
+        assertFields(sorted(history), sorted(BinaryHistoryReader.read(binaryPath)));
+    }
+
+
+    @Test
+    public void readTest_corrupted() throws Throwable {
+        Path path = tempDir.resolve("CharacterHistory" + BinaryHistoryFormat.EXTENSION);
+        BinaryHistoryWriter.write(path, formHistory(100));
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= 0x01;
+        Files.write(path, bytes);
+
+        assertThrows(IOException.class, () -> BinaryHistoryReader.read(path));
+    }
+
+
+    private static void assertFields(List<GachaEntry> expected, List<GachaEntry> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            GachaEntry exp = expected.get(i);
+            GachaEntry act = actual.get(i);
+            assertEquals(exp.uid, act.uid);
+            assertEquals(exp.gachaId, act.gachaId);
+            assertEquals(exp.gachaType, act.gachaType);
+            assertEquals(exp.itemId, act.itemId);
+            assertEquals(exp.count, act.count);
+            assertEquals(exp.time, act.time);
+            assertEquals(exp.name, act.name);
+            assertEquals(exp.itemType, act.itemType);
+            assertEquals(exp.rank, act.rank);
+            assertEquals(exp.id, act.id);
+        }
+    }
+
+
+    private static List<GachaEntry> sorted(BannerHistory history) {
+        return history.getEntrySet().stream().sorted().toList();
+    }
+
+
+    static BannerHistory formHistory(int size) {
+        ArrayList<GachaEntry> entries = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int rank = (i % 90 == 89) ? 5 : (i % 10 == 9) ? 4 : 3;
+            int item = i % 40;
+            entries.add(new GachaEntry(100000001L + i % 2, 2003 + i / 1000, GachaType.CHARACTER, 20000 + item, 1,
+                    START.plusSeconds(i * 13L), "Item " + item, item % 3 == 0 ? ItemType.CHARACTER : ItemType.WEAPON,
+                    rank, 1683000000000000000L + i * 7L));
+        }
+        return new BannerHistory(GachaType.CHARACTER, entries);
+    }
+}
@@ -0,0 +1,62 @@
+package com.hanyans.gachacounter.storage.binary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.hanyans.gachacounter.core.util.JsonUtil;
+import com.hanyans.gachacounter.model.BannerHistory;
+
+
+public class HistorySnapshotCacheTest {
+    @TempDir private Path tempDir;
+
+
+    @Test
+    public void loadTest() throws Throwable {
+        BannerHistory history = BinaryHistoryTest.formHistory(300);
+        Path jsonPath = tempDir.resolve("CharacterHistory.json");
+        JsonUtil.serializeToFile(jsonPath, history);
+        HistorySnapshotCache cache = new HistorySnapshotCache();
+
+        assertEquals(history.getEntrySet(), cache.load(jsonPath).getEntrySet());
+        Path snapshotPath = HistorySnapshotCache.getSnapshotPath(jsonPath);
+        assertTrue(Files.isRegularFile(snapshotPath));
+        assertEquals(history.getEntrySet(), cache.load(jsonPath).getEntrySet());
+    }
+
+
+    @Test
+    public void loadTest_changedJson() throws Throwable {
+        Path jsonPath = tempDir.resolve("CharacterHistory.json");
+        JsonUtil.serializeToFile(jsonPath, BinaryHistoryTest.formHistory(300));
+        HistorySnapshotCache cache = new HistorySnapshotCache();
+        cache.load(jsonPath);
+
+        BannerHistory changed = BinaryHistoryTest.formHistory(301);
+        JsonUtil.serializeToFile(jsonPath, changed);
+        assertEquals(changed.getEntrySet(), cache.load(jsonPath).getEntrySet());
+        assertEquals(changed.getEntrySet(), cache.load(jsonPath).getEntrySet());
+    }
+
+
+    @Test
+    public void loadTest_corruptedSnapshot() throws Throwable {
+        BannerHistory history = BinaryHistoryTest.formHistory(300);
+        Path jsonPath = tempDir.resolve("CharacterHistory.json");
+        JsonUtil.serializeToFile(jsonPath, history);
+        HistorySnapshotCache cache = new HistorySnapshotCache();
+        cache.load(jsonPath);
+
+        Path snapshotPath = HistorySnapshotCache.getSnapshotPath(jsonPath);
+        byte[] bytes = Files.readAllBytes(snapshotPath);
+        bytes[bytes.length - 10] ^= 0x01;
+        Files.write(snapshotPath, bytes);
+        assertEquals(history.getEntrySet(), cache.load(jsonPath).getEntrySet());
+    }
+}